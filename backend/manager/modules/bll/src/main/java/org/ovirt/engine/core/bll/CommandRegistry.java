@@ -0,0 +1,194 @@
+package org.ovirt.engine.core.bll;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.action.ActionParametersBase;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The registry of the commands and queries, keyed by their simple class names.
+ * <p>
+ * The registry is filled by the {@code GeneratedCommandRegistry} class, which is generated while compiling this
+ * module by the {@code ovirt-command-registry-processor} annotation processor. Each command and query is registered
+ * with a factory calling its constructor directly, so creating them requires neither searching for their classes nor
+ * reflection. The registry also collects the times of creating commands and queries and exports them to JMX.
+ */
+public final class CommandRegistry implements CommandRegistryMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandRegistry.class);
+
+    private static final String GENERATED_REGISTRY_CLASS = "org.ovirt.engine.core.bll.GeneratedCommandRegistry";
+
+    private final Map<String, Registration<ActionParametersBase, CommandContext, CommandBase<?>>> commands =
+            new HashMap<>();
+    private final Map<String, Registration<QueryParametersBase, EngineContext, QueriesCommandBase<?>>> queries =
+            new HashMap<>();
+
+    private final CreationTimes commandCreationTimes = new CreationTimes();
+    private final CreationTimes queryCreationTimes = new CreationTimes();
+
+    CommandRegistry() {
+    }
+
+    /**
+     * Creates the registry of the generated commands and queries and registers it in JMX
+     *
+     * @return the registry, empty if the generated registry is not available, e.g. when this module was compiled
+     *         without annotation processing
+     */
+    static CommandRegistry load() {
+        CommandRegistry registry = new CommandRegistry();
+        try {
+            // The generated class is loaded by name, so this module can be compiled without annotation processing
+            Class.forName(GENERATED_REGISTRY_CLASS)
+                    .getMethod("register", CommandRegistry.class)
+                    .invoke(null, registry);
+            log.info("Registered {} commands and {} queries", registry.commands.size(), registry.queries.size());
+        } catch (Exception e) {
+            log.warn("The generated registry of commands is not available, commands will be searched by name: {}",
+                    e.getMessage());
+            log.debug("Exception", e);
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(registry, new ObjectName("CommandRegistry:type=" + CommandRegistry.class.getName()));
+        } catch (Exception e) {
+            log.warn("Problem during registration of command registry into JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+        return registry;
+    }
+
+    /**
+     * Registers a command, the first registration of a name wins
+     */
+    public void addCommand(Class<?> type, BiFunction<ActionParametersBase, CommandContext, CommandBase<?>> factory) {
+        commands.putIfAbsent(type.getSimpleName(), new Registration<>(type, factory));
+    }
+
+    /**
+     * Registers a query, the first registration of a name wins
+     */
+    public void addQuery(Class<?> type,
+            BiFunction<QueryParametersBase, EngineContext, QueriesCommandBase<?>> factory) {
+        queries.putIfAbsent(type.getSimpleName(), new Registration<>(type, factory));
+    }
+
+    Class<?> getCommandClass(String name) {
+        Registration<?, ?, ?> registration = commands.get(name);
+        return registration == null ? null : registration.type;
+    }
+
+    Class<?> getQueryClass(String name) {
+        Registration<?, ?, ?> registration = queries.get(name);
+        return registration == null ? null : registration.type;
+    }
+
+    /**
+     * @return the factory of the given command, or {@code null} if it is not registered or has non public constructors
+     *         and is created by reflection. The factory returns {@code null} if the command has no constructor accepting
+     *         the given parameters.
+     */
+    BiFunction<ActionParametersBase, CommandContext, CommandBase<?>> getCommandFactory(String name) {
+        Registration<ActionParametersBase, CommandContext, CommandBase<?>> registration = commands.get(name);
+        return registration == null ? null : registration.factory;
+    }
+
+    /**
+     * @return the factory of the given query, or {@code null} if it is not registered or has non public constructors
+     *         and is created by reflection. The factory returns {@code null} if the query has no constructor accepting
+     *         the given parameters.
+     */
+    BiFunction<QueryParametersBase, EngineContext, QueriesCommandBase<?>> getQueryFactory(String name) {
+        Registration<QueryParametersBase, EngineContext, QueriesCommandBase<?>> registration = queries.get(name);
+        return registration == null ? null : registration.factory;
+    }
+
+    void recordCommandCreation(long nanos) {
+        commandCreationTimes.record(nanos);
+    }
+
+    void recordQueryCreation(long nanos) {
+        queryCreationTimes.record(nanos);
+    }
+
+    @Override
+    public int getCommandsCount() {
+        return commands.size();
+    }
+
+    @Override
+    public int getQueriesCount() {
+        return queries.size();
+    }
+
+    @Override
+    public long getCreatedCommandsCount() {
+        return commandCreationTimes.count.sum();
+    }
+
+    @Override
+    public long getAverageCommandCreationTimeMicros() {
+        return commandCreationTimes.getAverageMicros();
+    }
+
+    @Override
+    public long getMaxCommandCreationTimeMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(commandCreationTimes.maxNanos.get());
+    }
+
+    @Override
+    public long getCreatedQueriesCount() {
+        return queryCreationTimes.count.sum();
+    }
+
+    @Override
+    public long getAverageQueryCreationTimeMicros() {
+        return queryCreationTimes.getAverageMicros();
+    }
+
+    @Override
+    public long getMaxQueryCreationTimeMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(queryCreationTimes.maxNanos.get());
+    }
+
+    private static class Registration<P, C, T> {
+        private final Class<?> type;
+        private final BiFunction<P, C, T> factory;
+
+        Registration(Class<?> type, BiFunction<P, C, T> factory) {
+            this.type = type;
+            this.factory = factory;
+        }
+    }
+
+    private static class CreationTimes {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        long getAverageMicros() {
+            long sum = count.sum();
+            return sum == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / sum);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean of the registry of commands and queries
+ */
+public interface CommandRegistryMXBean {
+
+    /**
+     * The following method will return the number of registered commands
+     */
+    int getCommandsCount();
+
+    /**
+     * The following method will return the number of registered queries
+     */
+    int getQueriesCount();
+
+    /**
+     * The following method will return the number of commands created
+     */
+    long getCreatedCommandsCount();
+
+    /**
+     * The following method will return the average time in microseconds of creating a command
+     */
+    long getAverageCommandCreationTimeMicros();
+
+    /**
+     * The following method will return the longest time in microseconds of creating a command
+     */
+    long getMaxCommandCreationTimeMicros();
+
+    /**
+     * The following method will return the number of queries created
+     */
+    long getCreatedQueriesCount();
+
+    /**
+     * The following method will return the average time in microseconds of creating a query
+     */
+    long getAverageQueryCreationTimeMicros();
+
+    /**
+     * The following method will return the longest time in microseconds of creating a query
+     */
+    long getMaxQueryCreationTimeMicros();
+}
@@ -6,6 +6,7 @@ import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.ovirt.engine.core.bll.context.CommandContext;
@@ -79,6 +80,8 @@ public final class CommandsFactory {
         return COMMAND_PACKAGES;
     }
 
+    private static final CommandRegistry registry = CommandRegistry.load();
+
     private static ConcurrentMap<String, Class<?>> commandsCache = new ConcurrentHashMap<>();
     private static ConcurrentMap<Pair<Class<?>, Class<?>[]>, Constructor<?>> constructorCache =
             new ConcurrentHashMap<>();
@@ -90,9 +93,12 @@ public final class CommandsFactory {
     public static <P extends ActionParametersBase> CommandBase<P> createCommand(ActionType action,
             P parameters,
             CommandContext commandContext) {
+        long start = System.nanoTime();
         try {
-            Constructor<?> commandConstructor =
-                    getCommandConstructor(getCommandClass(action.name()), parameters.getClass(), CommandContext.class);
+            BiFunction<ActionParametersBase, CommandContext, CommandBase<?>> commandFactory =
+                    registry.getCommandFactory(action.name() + COMMAND_SUFFIX);
+            Constructor<?> commandConstructor = commandFactory != null ? null
+                    : getCommandConstructor(getCommandClass(action.name()), parameters.getClass(), CommandContext.class);
 
             if (commandContext == null) {
                 commandContext = CommandContext.createContext(parameters.getSessionId());
@@ -103,8 +109,15 @@ public final class CommandsFactory {
             }
 
             @SuppressWarnings("unchecked")
-            CommandBase<P> command = (CommandBase<P>) commandConstructor.newInstance(parameters, commandContext);
-            return Injector.injectMembers(command);
+            CommandBase<P> command = (CommandBase<P>) (commandFactory != null
+                    ? commandFactory.apply(parameters, commandContext)
+                    : commandConstructor.newInstance(parameters, commandContext));
+            if (command == null) {
+                throw new RuntimeException(MessageFormat.format(CTOR_MISMATCH, getCommandClass(action.name())));
+            }
+            command = Injector.injectMembers(command);
+            registry.recordCommandCreation(System.nanoTime() - start);
+            return command;
         } catch (InvocationTargetException ex) {
             logException(ex,
                     "Error in invocating CTOR of command '{}' with parameters '{}': {}",
@@ -149,13 +162,22 @@ public final class CommandsFactory {
     public static QueriesCommandBase<?> createQueryCommand(QueryType query,
             QueryParametersBase parameters,
             EngineContext engineContext) {
+        long start = System.nanoTime();
         Class<?> type = null;
         try {
             type = getQueryClass(query.name());
-            QueriesCommandBase<?> result =
-                    (QueriesCommandBase<?>) getCommandConstructor(type, parameters.getClass(), EngineContext.class)
+            BiFunction<QueryParametersBase, EngineContext, QueriesCommandBase<?>> queryFactory =
+                    registry.getQueryFactory(query.name() + QUERY_SUFFIX);
+            QueriesCommandBase<?> result = queryFactory != null
+                    ? queryFactory.apply(parameters, engineContext)
+                    : (QueriesCommandBase<?>) getCommandConstructor(type, parameters.getClass(), EngineContext.class)
                             .newInstance(parameters, engineContext);
-            return Injector.injectMembers(result);
+            if (result == null) {
+                throw new RuntimeException(MessageFormat.format(CTOR_MISMATCH, type));
+            }
+            result = Injector.injectMembers(result);
+            registry.recordQueryCreation(System.nanoTime() - start);
+            return result;
         } catch (Exception e) {
             logException(e,
                     "Command Factory: Failed to create command '{}' using reflection: {}",
@@ -175,7 +197,10 @@ public final class CommandsFactory {
 
     private static Class<?> getCommandClass(String name, String suffix) {
         String key = name + suffix;
-        return commandsCache.computeIfAbsent(key, CommandsFactory::findClass);
+        Class<?> type = COMMAND_SUFFIX.equals(suffix) ? registry.getCommandClass(key) : registry.getQueryClass(key);
+        // classes missing from the generated registry, e.g. compiled without annotation processing, are searched by
+        // name
+        return type != null ? type : commandsCache.computeIfAbsent(key, CommandsFactory::findClass);
     }
 
     private static Class<?> findClass(String simpleName) {
@@ -247,4 +272,8 @@ public final class CommandsFactory {
     static long getConstructorCacheSize() {
         return constructorCache.size();
     }
+
+    static CommandRegistry getRegistry() {
+        return registry;
+    }
 }
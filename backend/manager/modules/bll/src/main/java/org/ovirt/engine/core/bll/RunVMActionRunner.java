@@ -2,22 +2,35 @@ package org.ovirt.engine.core.bll;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.VmStaticDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class RunVMActionRunner extends SortedMultipleActionsRunnerBase {
 
+    private static final Logger log = LoggerFactory.getLogger(RunVMActionRunner.class);
+
     @Inject
     private VmStaticDao vmStaticDao;
 
+    @Inject
+    private SchedulingManager schedulingManager;
+
+    private boolean vmsScheduled;
+
     public RunVMActionRunner(ActionType actionType, List<ActionParametersBase> parameters, CommandContext commandContext, boolean isInternal) {
         super(actionType, parameters, commandContext, isInternal);
     }
@@ -44,4 +57,68 @@ public class RunVMActionRunner extends SortedMultipleActionsRunnerBase {
 
     }
 
+    @Override
+    protected void runCommands() {
+        try {
+            super.runCommands();
+        } finally {
+            getRunVmCommands().forEach(RunVmCommand::releaseBatchScheduledVds);
+        }
+    }
+
+    @Override
+    protected void executeValidatedCommand(CommandBase<?> command) {
+        // The VMs are scheduled in the order of the sorted commands, right before the first of them is executed
+        if (!vmsScheduled) {
+            vmsScheduled = true;
+            scheduleVms();
+        }
+        super.executeValidatedCommand(command);
+    }
+
+    /**
+     * Schedules the VMs of the validated commands of each cluster together, under a single lock of the cluster and
+     * a single fetch of its hosts. Each command then runs its VM on the host reserved for it, or falls back to the
+     * regular scheduling when no host was found for the VM.
+     */
+    private void scheduleVms() {
+        Map<Guid, List<RunVmCommand<?>>> commandsByCluster = getRunVmCommands().stream()
+                .filter(command -> command.getReturnValue().isValid())
+                .filter(RunVmCommand::isBatchSchedulingSupported)
+                .collect(Collectors.groupingBy(RunVmCommand::getClusterId, LinkedHashMap::new, Collectors.toList()));
+
+        commandsByCluster.values().stream()
+                .filter(commands -> commands.size() > 1)
+                .forEach(this::scheduleVms);
+    }
+
+    private void scheduleVms(List<RunVmCommand<?>> commands) {
+        RunVmCommand<?> firstCommand = commands.get(0);
+        long start = System.nanoTime();
+        try {
+            Map<Guid, Guid> vmToHostAssignment = schedulingManager.prepareCall(firstCommand.getCluster())
+                    .delay(true)
+                    .correlationId(firstCommand.getCorrelationId())
+                    .schedule(commands.stream().map(RunVmCommand::getVm).collect(Collectors.toList()));
+            commands.forEach(command -> command.setBatchScheduledVdsId(vmToHostAssignment.get(command.getVmId())));
+
+            log.info("Scheduled {} out of {} VMs in cluster '{}' together in {} ms",
+                    vmToHostAssignment.size(),
+                    commands.size(),
+                    firstCommand.getClusterName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("Failed to schedule VMs in cluster '{}' together, scheduling them one by one: {}",
+                    firstCommand.getClusterName(),
+                    e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    private List<RunVmCommand<?>> getRunVmCommands() {
+        return getCommands().stream()
+                .filter(RunVmCommand.class::isInstance)
+                .map(command -> (RunVmCommand<?>) command)
+                .collect(Collectors.toList());
+    }
 }
@@ -56,10 +56,13 @@ import org.ovirt.engine.core.common.businessentities.DisplayType;
 import org.ovirt.engine.core.common.businessentities.GraphicsInfo;
 import org.ovirt.engine.core.common.businessentities.GraphicsType;
 import org.ovirt.engine.core.common.businessentities.InitializationType;
+import org.ovirt.engine.core.common.businessentities.OriginType;
 import org.ovirt.engine.core.common.businessentities.Snapshot;
 import org.ovirt.engine.core.common.businessentities.Snapshot.SnapshotType;
 import org.ovirt.engine.core.common.businessentities.StorageDomain;
 import org.ovirt.engine.core.common.businessentities.UsbPolicy;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VMStatus;
 import org.ovirt.engine.core.common.businessentities.VdsNumaNode;
@@ -96,6 +99,7 @@ import org.ovirt.engine.core.dao.DiskDao;
 import org.ovirt.engine.core.dao.DiskImageDao;
 import org.ovirt.engine.core.dao.SnapshotDao;
 import org.ovirt.engine.core.dao.StorageDomainDao;
+import org.ovirt.engine.core.dao.VdsDao;
 import org.ovirt.engine.core.dao.VdsNumaNodeDao;
 import org.ovirt.engine.core.dao.VmDeviceDao;
 import org.ovirt.engine.core.dao.VmDynamicDao;
@@ -121,6 +125,8 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
     private boolean needsHostDevices = false;
     private InitializationType initializationType;
     protected VmPayload vmPayload;
+    /** The host reserved for the VM when it was scheduled together with other VMs by {@link RunVMActionRunner} */
+    private Guid batchScheduledVdsId;
 
     public static final String ISO_PREFIX = "iso://";
     public static final String STATELESS_SNAPSHOT_DESCRIPTION = "stateless snapshot";
@@ -152,6 +158,8 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
     @Inject
     private VmDynamicDao vmDynamicDao;
     @Inject
+    private VdsDao vdsDao;
+    @Inject
     @Typed(ConcurrentChildCommandsExecutionCallback.class)
     private Instance<ConcurrentChildCommandsExecutionCallback> callbackProvider;
     @Inject
@@ -917,13 +925,16 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
     }
 
     protected boolean getVdsToRunOn() {
-        Optional<Guid> vdsToRunOn = schedulingManager.prepareCall(getCluster())
-                .hostBlackList(getRunVdssList())
-                .hostWhiteList(getVdsWhiteList())
-                .destHostIdList(getPredefinedVdsIdListToRunOn())
-                .delay(true)
-                .correlationId(getCorrelationId())
-                .schedule(getVm());
+        Optional<Guid> vdsToRunOn = getBatchScheduledVds();
+        if (!vdsToRunOn.isPresent()) {
+            vdsToRunOn = schedulingManager.prepareCall(getCluster())
+                    .hostBlackList(getRunVdssList())
+                    .hostWhiteList(getVdsWhiteList())
+                    .destHostIdList(getPredefinedVdsIdListToRunOn())
+                    .delay(true)
+                    .correlationId(getCorrelationId())
+                    .schedule(getVm());
+        }
 
         setVdsId(vdsToRunOn.orElse(null));
         if (vdsToRunOn.isPresent()) {
@@ -955,6 +966,57 @@ public class RunVmCommand<T extends RunVmParams> extends RunVmCommandBase<T>
         return true;
     }
 
+    /**
+     * Returns the host reserved for the VM by a batch scheduling, if it is still up. The reservation is used only
+     * once, a rerun of the VM goes through the regular scheduling.
+     */
+    private Optional<Guid> getBatchScheduledVds() {
+        Guid vdsId = batchScheduledVdsId;
+        batchScheduledVdsId = null;
+        if (vdsId == null) {
+            return Optional.empty();
+        }
+
+        VDS vds = vdsDao.get(vdsId);
+        if (vds != null && vds.getStatus() == VDSStatus.Up) {
+            return Optional.of(vdsId);
+        }
+
+        log.info("Host '{}' reserved for VM '{}' is not up anymore, scheduling the VM again", vdsId, getVmId());
+        schedulingManager.clearPendingVm(getVm().getStaticData());
+        return Optional.empty();
+    }
+
+    /**
+     * @return whether the VM can be scheduled together with other VMs before this command is executed, that is the
+     *         VM is about to be run right away on any host of the cluster
+     */
+    boolean isBatchSchedulingSupported() {
+        return getVm().getOrigin() != OriginType.KUBEVIRT
+                && getRunVdssList().isEmpty()
+                && getVdsWhiteList().isEmpty()
+                && getPredefinedVdsIdListToRunOn().isEmpty()
+                && isInitVmRequired();
+    }
+
+    /**
+     * Sets the host reserved for the VM by a batch scheduling, the pending resources of the VM are already recorded
+     * on that host
+     */
+    void setBatchScheduledVdsId(Guid vdsId) {
+        batchScheduledVdsId = vdsId;
+    }
+
+    /**
+     * Releases the host reserved for the VM by a batch scheduling if it was not used to run the VM
+     */
+    void releaseBatchScheduledVds() {
+        if (batchScheduledVdsId != null) {
+            batchScheduledVdsId = null;
+            schedulingManager.clearPendingVm(getVm().getStaticData());
+        }
+    }
+
     private void warnIfVmNotFitInNumaNode() {
         if (!getVds().isNumaSupport()) {
             return;
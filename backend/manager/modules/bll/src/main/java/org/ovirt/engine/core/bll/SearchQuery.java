@@ -4,13 +4,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -40,6 +41,7 @@ import org.ovirt.engine.core.common.businessentities.StorageDomain;
 import org.ovirt.engine.core.common.businessentities.StoragePool;
 import org.ovirt.engine.core.common.businessentities.UserSession;
 import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VmPool;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
@@ -53,13 +55,12 @@ import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.errors.SearchEngineIllegalCharacterException;
 import org.ovirt.engine.core.common.errors.SqlInjectionException;
-import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.common.queries.SearchParameters;
+import org.ovirt.engine.core.common.queries.SearchResultPage;
 import org.ovirt.engine.core.compat.DateTime;
 import org.ovirt.engine.core.compat.Guid;
-import org.ovirt.engine.core.compat.TimeSpan;
 import org.ovirt.engine.core.compat.Version;
 import org.ovirt.engine.core.dao.AuditLogDao;
 import org.ovirt.engine.core.dao.ClusterDao;
@@ -70,6 +71,7 @@ import org.ovirt.engine.core.dao.EngineSessionDao;
 import org.ovirt.engine.core.dao.ImageTransferDao;
 import org.ovirt.engine.core.dao.JobDao;
 import org.ovirt.engine.core.dao.QuotaDao;
+import org.ovirt.engine.core.dao.SearchAfterDao;
 import org.ovirt.engine.core.dao.SearchDao;
 import org.ovirt.engine.core.dao.StorageDomainDao;
 import org.ovirt.engine.core.dao.StoragePoolDao;
@@ -83,6 +85,7 @@ import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
 import org.ovirt.engine.core.dao.provider.ProviderDao;
 import org.ovirt.engine.core.searchbackend.ISyntaxChecker;
 import org.ovirt.engine.core.searchbackend.SearchObjects;
+import org.ovirt.engine.core.searchbackend.SyntaxChecker;
 import org.ovirt.engine.core.searchbackend.SyntaxCheckerFactory;
 import org.ovirt.engine.core.searchbackend.SyntaxContainer;
 import org.ovirt.engine.core.searchbackend.SyntaxError;
@@ -90,12 +93,18 @@ import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 
 public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<P> {
-    private static final Map<String, QueryData> queriesCache = new HashMap<>();
     public static final String LDAP = "LDAP";
 
+    /** The parsed search of a keyset paged search, used to read the position of its next page **/
+    private SyntaxChecker keysetPagedSyntaxChecker;
+    private SyntaxContainer keysetPagedSyntax;
+
     @Inject
     private QuotaManager quotaManager;
 
+    @Inject
+    private SearchQueryPlanCache planCache;
+
     @Inject
     private SessionDataContainer sessionDataContainer;
 
@@ -159,6 +168,9 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
     @Inject
     private JobDao jobDao;
 
+    @Inject
+    private SearchAfterDao searchAfterDao;
+
     @Inject
     private DirectoryUtils directoryUtils;
 
@@ -250,7 +262,26 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
             log.error("Search object type not handled: {}", getParameters().getSearchTypeValue());
             break;
         }
-        getQueryReturnValue().setReturnValue(returnValue);
+        getQueryReturnValue().setReturnValue(toSearchResultPage(returnValue));
+    }
+
+    /**
+     * Returns a full page of a keyset paged search along with the position the next page starts after: the values of
+     * the sort keys of its last entity. They are read right away, so the next page does not depend on that entity
+     * still existing or being unchanged when it is requested.
+     */
+    private List<? extends Queryable> toSearchResultPage(List<? extends Queryable> results) {
+        if (keysetPagedSyntax == null || results.isEmpty() || results.size() < getParameters().getMaxCount()) {
+            return results;
+        }
+
+        Object lastId = results.get(results.size() - 1).getQueryableId();
+        if (lastId == null) {
+            return results;
+        }
+        List<String> nextSearchAfter = searchAfterDao.getSearchAfter(
+                keysetPagedSyntaxChecker.generateSearchAfterQuery(keysetPagedSyntax, lastId.toString()));
+        return nextSearchAfter != null ? new SearchResultPage<>(results, nextSearchAfter) : results;
     }
 
     private List<VM> searchVmsFromDb() {
@@ -260,17 +291,19 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
         }
 
         var javaZoneIdToOffset = vmHandler.getJavaZoneIdToOffsetFuncSupplier();
-        List<VM> vms = vmDao.getAllUsingQuery(data.getQuery());
+        List<VM> vms = new ArrayList<>();
         Map<Guid, VM> vmsById = new HashMap<>();
-        for (VM vm : vms) {
+        // the VMs are completed while they are read, so no intermediate list of raw rows is built
+        vmDao.processAllUsingQuery(data.getQuery(), vm -> {
             vmHandler.updateVmGuestAgentVersion(vm);
             vmHandler.updateVmLock(vm);
             vmHandler.updateOperationProgress(vm);
             vmHandler.updateVmStatistics(vm);
             vmHandler.updateConfiguredCpuVerb(vm);
             vmHandler.updateIsDifferentTimeZone(vm, javaZoneIdToOffset);
+            vms.add(vm);
             vmsById.put(vm.getId(), vm);
-        }
+        });
         var vmIdsWithVnicsOutOfSync = vmNetworkInterfaceDao.getAllWithVnicOutOfSync(vmsById.keySet());
         vmIdsWithVnicsOutOfSync.stream().map(vmsById::get).filter(Objects::nonNull).forEach(vm -> vm.setVnicsOutOfSync(true));
         return vms;
@@ -383,8 +416,39 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
         return dao.getAllWithQuery(data.getQuery());
     }
 
+    /**
+     * Runs a generic search and hands all the found entities at once to the given enricher, which is expected to fill
+     * their additional data using a fixed number of queries rather than a query per entity.
+     */
+    private <T extends Queryable> List<T> genericSearch(final SearchDao<T> dao,
+            final boolean useCache,
+            final Consumer<List<T>> bulkEnricher) {
+        List<T> result = genericSearch(dao, useCache);
+        if (!result.isEmpty()) {
+            bulkEnricher.accept(result);
+        }
+        return result;
+    }
+
+    /**
+     * Runs a generic search through a DAO method handing the found entities to a consumer while they are read, for
+     * the searches which may return large results.
+     */
+    private <T extends Queryable> List<T> streamedSearch(final BiConsumer<String, Consumer<T>> processor,
+            final boolean useCache) {
+        final QueryData data = initQueryData(useCache);
+        if (data == null) {
+            return new ArrayList<>();
+        }
+
+        log.debug("Executing streamed query: {}", data.getQuery());
+        List<T> result = new ArrayList<>();
+        processor.accept(data.getQuery(), result::add);
+        return result;
+    }
+
     private List<AuditLog> searchAuditLogEvents() {
-        return genericSearch(auditLogDao, false);
+        return streamedSearch(auditLogDao::processAllWithQuery, false);
     }
 
     private List<VmPool> searchVmPools() {
@@ -392,37 +456,58 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
     }
 
     private List<Cluster> searchClusters() {
+        return genericSearch(clusterDao, true, this::enrichClusters);
+    }
+
+    private void enrichClusters(List<Cluster> clusters) {
         Optional<Version> retVal = Config.<Set<Version>> getValue(ConfigValues.SupportedClusterLevels)
                 .stream()
                 .max(Comparator.naturalOrder());
-        List<Cluster> clusters = genericSearch(clusterDao, true);
         if (retVal.isPresent()) {
             clusters.forEach(cluster -> cluster.setClusterCompatibilityLevelUpgradeNeeded(
                             retVal.get().compareTo(cluster.getCompatibilityVersion()) > 0)
                     );
         }
+        setHasHostWithMissingCpuFlags(clusters);
         for(Cluster cluster: clusters) {
-            if (cluster.isManaged()) {
-                List<VDS> hostsWithMissingFlags = backend.runInternalQuery(QueryType.GetHostsWithMissingFlagsForCluster,
-                        new IdQueryParameters(cluster.getId())).getReturnValue();
-                cluster.setHasHostWithMissingCpuFlags(!hostsWithMissingFlags.isEmpty());
-            }
-
             String verb = cpuFlagsManagerHandler.getCpuId(cluster.getCpuName(), cluster.getCompatibilityVersion());
             cluster.setConfiguredCpuVerb(verb);
         }
-        return clusters;
+    }
+
+    private void setHasHostWithMissingCpuFlags(List<Cluster> clusters) {
+        List<Cluster> managedClusters = clusters.stream().filter(Cluster::isManaged).collect(Collectors.toList());
+        if (managedClusters.isEmpty()) {
+            return;
+        }
+
+        Set<Guid> clustersWithMissingFlags = vdsDao.getAllForClustersWithStatus(
+                managedClusters.stream().map(Cluster::getId).collect(Collectors.toList()),
+                VDSStatus.Up)
+                .stream()
+                .filter(vds -> cpuFlagsManagerHandler.missingServerCpuFlags(
+                        vds.getClusterCpuName(),
+                        vds.getCpuFlags(),
+                        vds.getClusterCompatibilityVersion()) != null)
+                .map(VDS::getClusterId)
+                .collect(Collectors.toSet());
+        managedClusters.forEach(
+                cluster -> cluster.setHasHostWithMissingCpuFlags(clustersWithMissingFlags.contains(cluster.getId())));
     }
 
     private List<StoragePool> searchStoragePool() {
-        List<StoragePool> dataCenters = genericSearch(storagePoolDao, true);
-        dataCenters.forEach(this::setDcSingleMacPoolId);
+        return genericSearch(storagePoolDao, true, this::enrichDataCenters);
+    }
+
+    private void enrichDataCenters(List<StoragePool> dataCenters) {
+        setDcSingleMacPoolId(dataCenters);
         setDcCompatibilityLevelUpgradeNeeded(dataCenters);
-        return dataCenters;
     }
 
-    private void setDcSingleMacPoolId(StoragePool dataCenter) {
-        dataCenter.setMacPoolId(dcSingleMacPoolFinder.find(dataCenter.getId()));
+    private void setDcSingleMacPoolId(List<StoragePool> dataCenters) {
+        Map<Guid, Guid> macPoolIds = dcSingleMacPoolFinder.findAll(
+                dataCenters.stream().map(StoragePool::getId).collect(Collectors.toList()));
+        dataCenters.forEach(dataCenter -> dataCenter.setMacPoolId(macPoolIds.get(dataCenter.getId())));
     }
 
     private void setDcCompatibilityLevelUpgradeNeeded(List<StoragePool> dataCenters) {
@@ -444,13 +529,11 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
     }
 
     private List<Quota> searchQuota() {
-        List<Quota> quotaList = genericSearch(quotaDao, true);
-        quotaManager.updateUsage(quotaList);
-        return quotaList;
+        return genericSearch(quotaDao, true, quotaManager::updateUsage);
     }
 
     private List<Disk> searchDisk() {
-        return genericSearch(diskDao, true);
+        return streamedSearch(diskDao::processAllWithQuery, true);
     }
 
     private List<GlusterVolumeEntity> searchGlusterVolumes() {
@@ -500,8 +583,6 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
     private QueryData initQueryData(boolean useCache) {
         final String ASTR = "*";
         QueryData data = null;
-        boolean isExistsValue = false;
-        boolean IsFromYesterday = false;
         boolean isSafe = false;
         String searchKey = "";
         try {
@@ -511,22 +592,17 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
             String searchText = getParameters().getSearchPattern();
             // do not cache expressions with '*' since it is translated to specific IDs that might be changed
             useCache = useCache && !searchText.contains(ASTR);
+            // do not cache keyset paged searches since each page has its own query, and the position of the next
+            // page is read using the parsed search
+            useCache = useCache && !getParameters().isKeysetPaging() && getParameters().getSearchAfter() == null;
+            searchKey = SearchQueryPlanCache.createKey(getParameters());
             if (useCache) {
                 // first lets check the cache of queries.
-                searchKey = String.format("%1$s,%2$s,%3$s", searchText, getParameters().getMaxCount(), getParameters().getCaseSensitive());
-                data = queriesCache.get(searchKey);
-                isExistsValue = data != null;
-
-                if (isExistsValue) {
-                    TimeSpan span = DateTime.getNow().subtract(new Date(data.getDate()));
-                    if (span.Days >= 1) {
-                        IsFromYesterday = true;
-                    }
-                }
+                data = planCache.get(searchKey);
             }
             // query not in cache or the cached entry is too old, process the
             // search text.
-            if (!isExistsValue || IsFromYesterday) {
+            if (data == null) {
                 log.debug("ResourceManager::searchBusinessObjects(''{}'') - entered", searchText);
                 final char AT='@';
                 String queryAuthz = null;
@@ -574,6 +650,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 } else {
                     curSyntaxChecker = SyntaxCheckerFactory.createBackendSyntaxChecker(LDAP);
                 }
+                long parseStart = System.nanoTime();
                 SyntaxContainer searchObj = curSyntaxChecker.analyzeSyntaxState(searchText, true);
                 // set the case-sensitive flag
                 searchObj.setCaseSensitive(getParameters().getCaseSensitive());
@@ -581,6 +658,11 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 searchObj.setMaxCount(Math.min(Integer.MAX_VALUE, getParameters().getMaxCount()));
                 // setting FromSearch value
                 searchObj.setSearchFrom(getParameters().getSearchFrom());
+                searchObj.setSearchAfter(getParameters().getSearchAfter());
+                if (getParameters().isKeysetPaging() && curSyntaxChecker instanceof SyntaxChecker) {
+                    keysetPagedSyntaxChecker = (SyntaxChecker) curSyntaxChecker;
+                    keysetPagedSyntax = searchObj;
+                }
                 if (searchObj.getError() != SyntaxError.NO_ERROR) {
                     int startPos = searchObj.getErrorStartPos();
                     int endPos = searchObj.getErrorEndPos();
@@ -597,7 +679,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                                     :
                                     searchObj.getError().toString();
                     getQueryReturnValue().setExceptionString(error);
-                    if (!queriesCache.containsKey(searchKey)) {
+                    if (!planCache.containsKey(searchKey)) {
                         // log error only once
                         log.info(
                                 "ResourceManager::searchBusinessObjects - erroneous search text - ''{}'' error - ''{}''",
@@ -605,14 +687,14 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                                 error);
                         // add search to the cache in order not process it again in case that
                         // this query is scheduled to be called repeatedly
-                        queriesCache.put(searchKey, null);
+                        planCache.put(searchKey, null);
                     }
                     return null;
                 }
                 if (!searchObj.getvalid()) {
-                    if (!queriesCache.containsKey(searchKey)) {
+                    if (!planCache.containsKey(searchKey)) {
                         log.warn("ResourceManager::searchBusinessObjects - Invalid search text - ''{}''", searchText);
-                        queriesCache.put(searchKey, null);
+                        planCache.put(searchKey, null);
                     }
                     return null;
                 }
@@ -623,38 +705,59 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                         new QueryData(curSyntaxChecker.generateQueryFromSyntaxContainer(searchObj, isSafe),
                                 DateTime.getNow().getTime(),
                                 queryAuthz, queryNamespace);
+                planCache.recordParseTime(System.nanoTime() - parseStart);
                 // when looking for tags , the query contains all parent children tag id's
                 // statically, therefore , in order to reflect changes in the parent tree
                 // we should not rely on the cached query in such case and have to build the
                 // query from scratch.
-                if (!containsStaticInValues(data.getQuery())) {
-                    queriesCache.put(searchKey, data);
+                if (useCache && !containsStaticInValues(data.getQuery())) {
+                    planCache.put(searchKey, data);
                 }
             }
         } catch (SearchEngineIllegalCharacterException e) {
-            if (!queriesCache.containsKey(searchKey)) {
+            if (!planCache.containsKey(searchKey)) {
                 log.error("Search expression can not end with ESCAPE character: {}",
                         getParameters().getSearchPattern());
-                queriesCache.put(searchKey, null);
+                planCache.put(searchKey, null);
             }
             data = null;
         } catch (SqlInjectionException e) {
-            if (!queriesCache.containsKey(searchKey)) {
+            if (getParameters().getSearchAfter() != null) {
+                throw failSearchAfter(e);
+            }
+            if (!planCache.containsKey(searchKey)) {
                 log.error("Sql Injection in search: {}", getParameters().getSearchPattern());
-                queriesCache.put(searchKey, null);
+                planCache.put(searchKey, null);
             }
             data = null;
         } catch (RuntimeException ex) {
-            if (!queriesCache.containsKey(searchKey)) {
+            if (getParameters().getSearchAfter() != null) {
+                throw failSearchAfter(ex);
+            }
+            if (!planCache.containsKey(searchKey)) {
                 log.warn("Illegal search: {}: {}", getParameters().getSearchPattern(), ex.getMessage());
                 log.debug("Exception", ex);
-                queriesCache.put(searchKey, null);
+                planCache.put(searchKey, null);
             }
             throw ex;
         }
         return data;
     }
 
+    /**
+     * The position to search after is given by the client, so the failure of a search after a position is not kept in
+     * the plan cache, as it may be caused by that position rather than by the search text, and the search fails
+     * instead of returning no result
+     */
+    private RuntimeException failSearchAfter(RuntimeException ex) {
+        log.warn("Illegal search after {}: {}: {}",
+                getParameters().getSearchAfter(),
+                getParameters().getSearchPattern(),
+                ex.getMessage());
+        log.debug("Exception", ex);
+        return ex;
+    }
+
     protected String getDefaultAuthz() {
         return AuthenticationProfileRepository.getInstance().getProfiles().get(0).getName();
     }
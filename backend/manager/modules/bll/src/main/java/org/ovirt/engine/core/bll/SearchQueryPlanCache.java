@@ -0,0 +1,209 @@
+package org.ovirt.engine.core.bll;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.aaa.QueryData;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.queries.SearchParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A size bounded, least recently used cache of the SQL queries generated from search texts, shared by all the
+ * {@link SearchQuery} instances.
+ * <p>
+ * Searches are keyed by everything that affects the generated SQL: the searched object type, the search text with
+ * redundant white spaces removed, the case sensitivity and the paging parameters. A search text which could not be
+ * parsed is kept with a {@code null} query, so the error is logged only once. Queries older than a day are parsed
+ * again. The maximal number of queries is set by {@link ConfigValues#SearchQueryPlanCacheSize}.
+ */
+@Singleton
+public class SearchQueryPlanCache implements SearchQueryPlanCacheMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchQueryPlanCache.class);
+
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final Map<String, QueryData> plans = new LinkedHashMap<String, QueryData>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, QueryData> eldest) {
+            boolean evict = size() > getMaxSize();
+            if (evict) {
+                evictions.increment();
+            }
+            return evict;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder parseTimeNanos = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void registerInJMX() {
+        try {
+            objectName = new ObjectName("SearchQueryPlanCache:type=" + this.getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Problem during registration of search query plan cache into JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    @PreDestroy
+    public void unregisterFromJMX() {
+        try {
+            if (platformMBeanServer != null) {
+                platformMBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of search query plan cache from JMX", e);
+        }
+    }
+
+    /**
+     * Creates the key of the given search
+     */
+    public static String createKey(SearchParameters parameters) {
+        return String.format("%1$s,%2$s,%3$s,%4$s,%5$s,%6$s",
+                parameters.getSearchTypeValue(),
+                normalize(parameters.getSearchPattern()),
+                parameters.getMaxCount(),
+                parameters.getCaseSensitive(),
+                parameters.getSearchFrom(),
+                parameters.getSearchAfter());
+    }
+
+    /**
+     * Trims the given search text and collapses white spaces which are not part of a quoted value
+     */
+    static String normalize(String searchText) {
+        StringBuilder builder = new StringBuilder(searchText.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (char c : searchText.trim().toCharArray()) {
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                builder.append(' ');
+                pendingSpace = false;
+            }
+            if (quote == 0 && (c == '"' || c == '\'')) {
+                quote = c;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the query of the given search key
+     *
+     * @return the query, or {@code null} if it is not cached, was too old or the search text could not be parsed
+     */
+    public QueryData get(String key) {
+        QueryData data;
+        synchronized (plans) {
+            data = plans.get(key);
+        }
+
+        if (data == null || System.currentTimeMillis() - data.getDate() >= MAX_AGE_MILLIS) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return data;
+    }
+
+    /**
+     * @return {@code true} if the given search key was already handled, even if the search text could not be parsed
+     */
+    public boolean containsKey(String key) {
+        synchronized (plans) {
+            return plans.containsKey(key);
+        }
+    }
+
+    /**
+     * Caches the query of the given search key, {@code null} marks a search text which could not be parsed
+     */
+    public void put(String key, QueryData data) {
+        synchronized (plans) {
+            plans.put(key, data);
+        }
+    }
+
+    /**
+     * Records the time it took to parse a search text into SQL query
+     */
+    public void recordParseTime(long nanos) {
+        parses.increment();
+        parseTimeNanos.add(nanos);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (plans) {
+            plans.clear();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return Config.<Integer> getValue(ConfigValues.SearchQueryPlanCacheSize);
+    }
+
+    @Override
+    public long getHitsCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissesCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictionsCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getParsesCount() {
+        return parses.sum();
+    }
+
+    @Override
+    public long getAverageParseTimeMicros() {
+        long count = parses.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(parseTimeNanos.sum() / count);
+    }
+}
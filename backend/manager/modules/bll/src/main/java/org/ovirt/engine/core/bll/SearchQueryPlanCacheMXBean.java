@@ -0,0 +1,47 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean of the search query plan cache
+ */
+public interface SearchQueryPlanCacheMXBean {
+
+    /**
+     * The following method will return the number of search queries currently kept in the cache
+     */
+    int getSize();
+
+    /**
+     * The following method will return the maximal number of search queries kept in the cache
+     */
+    int getMaxSize();
+
+    /**
+     * The following method will return the number of searches served from the cache
+     */
+    long getHitsCount();
+
+    /**
+     * The following method will return the number of searches which were not found in the cache
+     */
+    long getMissesCount();
+
+    /**
+     * The following method will return the number of search queries evicted because the cache was full
+     */
+    long getEvictionsCount();
+
+    /**
+     * The following method will return the number of search texts parsed into SQL queries
+     */
+    long getParsesCount();
+
+    /**
+     * The following method will return the average time in microseconds of parsing a search text into SQL query
+     */
+    long getAverageParseTimeMicros();
+
+    /**
+     * The following method will allow to clear the cache via JMX console
+     */
+    void clear();
+}
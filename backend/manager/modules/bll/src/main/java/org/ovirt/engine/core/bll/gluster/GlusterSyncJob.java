@@ -9,7 +9,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -63,6 +67,7 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dao.gluster.GlusterDBUtils;
 import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,6 +92,8 @@ public class GlusterSyncJob extends GlusterJob {
     @Inject
     private GlusterThinDeviceService thinDeviceService;
 
+    private final Map<Guid, GlusterVolumeFingerprints> volumeFingerprints = new ConcurrentHashMap<>();
+
     @Override
     public Collection<GlusterJobSchedulingDetails> getSchedulingDetails() {
         return Arrays.asList(
@@ -106,23 +113,46 @@ public class GlusterSyncJob extends GlusterJob {
      * Add / remove bricks to / from volumes</li><li>Set / Unset volume options</li><br>
      * These are all fetched using the 'volume info' command on gluster CLI, which is relatively lightweight, and hence
      * this method is scheduled more frequently as compared to the other method <code>refreshHeavyWeightData</code>,
-     * which uses 'volume status' to fetch and update status of volume bricks.
+     * which uses 'volume status' to fetch and update status of volume bricks.<br>
+     * Up to <code>GlusterRefreshMaxConcurrentClusters</code> clusters are refreshed at the same time.
      */
     @OnTimerMethodAnnotation("refreshLightWeightData")
     public void refreshLightWeightData() {
         log.debug("Refreshing Gluster Data [lightweight]");
-        List<Cluster> clusters = clusterDao.getAll();
-
-        for (Cluster cluster : clusters) {
+        Queue<Cluster> clusters = new ConcurrentLinkedQueue<>();
+        for (Cluster cluster : clusterDao.getAll()) {
             if (cluster.supportsGlusterService()) {
-                try {
-                    refreshClusterData(cluster);
-                } catch (Exception e) {
-                    log.error("Error while refreshing Gluster lightweight data of cluster '{}': {}",
-                            cluster.getName(),
-                            e.getMessage());
-                    log.debug("Exception", e);
-                }
+                clusters.add(cluster);
+            }
+        }
+
+        int concurrentClusters = Math.min(clusters.size(),
+                Config.<Integer> getValue(ConfigValues.GlusterRefreshMaxConcurrentClusters));
+        if (concurrentClusters <= 1) {
+            refreshClustersData(clusters);
+            return;
+        }
+
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrentClusters; i++) {
+            workers.add(() -> {
+                refreshClustersData(clusters);
+                return null;
+            });
+        }
+        ThreadPoolUtil.invokeAll(workers);
+    }
+
+    private void refreshClustersData(Queue<Cluster> clusters) {
+        Cluster cluster;
+        while ((cluster = clusters.poll()) != null) {
+            try {
+                refreshClusterData(cluster);
+            } catch (Exception e) {
+                log.error("Error while refreshing Gluster lightweight data of cluster '{}': {}",
+                        cluster.getName(),
+                        e.getMessage());
+                log.debug("Exception", e);
             }
         }
     }
@@ -457,11 +487,22 @@ public class GlusterSyncJob extends GlusterJob {
                 return;
             }
 
+            // skip the DB altogether if no volume changed since the last refresh
+            GlusterVolumeFingerprints fingerprints =
+                    volumeFingerprints.computeIfAbsent(cluster.getId(), id -> new GlusterVolumeFingerprints());
+            Map<Guid, List<Object>> fetchedFingerprints = GlusterVolumeFingerprints.of(volumesMap);
+            if (fingerprints.startRefresh(fetchedFingerprints,
+                    Config.<Integer> getValue(ConfigValues.GlusterRefreshFullSyncCycles))) {
+                log.debug("Volumes of cluster '{}' did not change since the last refresh", cluster.getName());
+                return;
+            }
+
             // remove deleted volumes must happen before adding new ones,
             // to handle cases where user deleted a volume and created a
             // new one with same name in a very short time
             removeDeletedVolumes(cluster.getId(), volumesMap);
-            updateExistingAndNewVolumes(cluster.getId(), volumesMap);
+            fingerprints.retainAll(volumesMap.keySet());
+            updateExistingAndNewVolumes(cluster.getId(), volumesMap, fingerprints, fetchedFingerprints);
         } finally {
             releaseLock(cluster.getId());
         }
@@ -523,11 +564,20 @@ public class GlusterSyncJob extends GlusterJob {
         }
     }
 
-    private void updateExistingAndNewVolumes(Guid clusterId, Map<Guid, GlusterVolumeEntity> volumesMap) {
+    private void updateExistingAndNewVolumes(Guid clusterId,
+            Map<Guid, GlusterVolumeEntity> volumesMap,
+            GlusterVolumeFingerprints fingerprints,
+            Map<Guid, List<Object>> fetchedFingerprints) {
         Cluster cluster = clusterDao.get(clusterId);
 
         for (Entry<Guid, GlusterVolumeEntity> entry : volumesMap.entrySet()) {
             GlusterVolumeEntity volume = entry.getValue();
+            List<Object> fingerprint = fetchedFingerprints.get(entry.getKey());
+            if (fingerprints.isUnchanged(entry.getKey(), fingerprint)) {
+                log.debug("Volume '{}' did not change since the last refresh", volume.getName());
+                continue;
+            }
+            fingerprints.invalidate(entry.getKey());
             log.debug("Analyzing volume '{}'", volume.getName());
 
             GlusterVolumeEntity existingVolume = volumeDao.getById(entry.getKey());
@@ -546,6 +596,7 @@ public class GlusterSyncJob extends GlusterJob {
                     log.debug("Volume '{}' exists in engine. Checking if it needs to be updated.",
                             existingVolume.getName());
                     updateVolume(existingVolume, volume);
+                    fingerprints.synced(entry.getKey(), fingerprint);
                 } catch (Exception e) {
                     log.error("Error while updating volume '{}': {}", volume.getName(), e.getMessage());
                     log.debug("Exception", e);
@@ -687,6 +738,8 @@ public class GlusterSyncJob extends GlusterJob {
 
     @SuppressWarnings("serial")
     private void updateExistingAndNewBricks(GlusterVolumeEntity existingVolume, List<GlusterBrickEntity> fetchedBricks) {
+        List<GlusterBrickEntity> bricksWithChangedOrder = new ArrayList<>();
+        List<GlusterBrickEntity> bricksWithChangedNetwork = new ArrayList<>();
         for (final GlusterBrickEntity fetchedBrick : fetchedBricks) {
             GlusterBrickEntity existingBrick = GlusterCoreUtil.findBrick(existingVolume.getBricks(), fetchedBrick);
             if (existingBrick == null) {
@@ -712,17 +765,33 @@ public class GlusterSyncJob extends GlusterJob {
                             existingBrick.getQualifiedName(),
                             existingBrick.getBrickOrder(),
                             fetchedBrick.getBrickOrder());
-                    brickDao.updateBrickOrder(existingBrick.getId(), fetchedBrick.getBrickOrder());
+                    existingBrick.setBrickOrder(fetchedBrick.getBrickOrder());
+                    bricksWithChangedOrder.add(existingBrick);
                 }
                 // update network id, if different
                 if (!Objects.equals(existingBrick.getNetworkId(), fetchedBrick.getNetworkId())) {
                     log.info("Network address for brick '{}' detected as  '{}'. Updating engine DB accordingly.",
                             existingBrick.getQualifiedName(),
                             fetchedBrick.getNetworkAddress());
-                    brickDao.updateBrickNetworkId(existingBrick.getId(), fetchedBrick.getNetworkId());
+                    existingBrick.setNetworkId(fetchedBrick.getNetworkId());
+                    bricksWithChangedNetwork.add(existingBrick);
                 }
             }
         }
+
+        // Update the changed bricks in a single transaction
+        if (!bricksWithChangedOrder.isEmpty() || !bricksWithChangedNetwork.isEmpty()) {
+            TransactionSupport.executeInScope(TransactionScopeOption.Required,
+                    () -> {
+                        if (!bricksWithChangedOrder.isEmpty()) {
+                            brickDao.updateBrickOrdersInBatch(bricksWithChangedOrder);
+                        }
+                        if (!bricksWithChangedNetwork.isEmpty()) {
+                            brickDao.updateBrickNetworkIdsInBatch(bricksWithChangedNetwork);
+                        }
+                        return null;
+                    });
+        }
     }
 
     private void updateOptions(GlusterVolumeEntity existingVolume, GlusterVolumeEntity fetchedVolume) {
@@ -0,0 +1,106 @@
+package org.ovirt.engine.core.bll.gluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.ovirt.engine.core.common.businessentities.gluster.GlusterBrickEntity;
+import org.ovirt.engine.core.common.businessentities.gluster.GlusterVolumeEntity;
+import org.ovirt.engine.core.common.businessentities.gluster.GlusterVolumeOptionEntity;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Remembers the fingerprints of the volumes of a cluster that were last found in sync with the engine DB, so that the
+ * lightweight refresh compares and writes only the volumes that changed in GlusterFS since.
+ * <p>
+ * A fingerprint holds the volume attributes that the refresh synchronizes: its type, replica and stripe counts,
+ * status, transport types, the identity, order and network of its bricks, and its options. As the DB may also be
+ * changed by other flows, all the volumes are compared with the DB once every given number of refreshes anyway.
+ */
+class GlusterVolumeFingerprints {
+
+    private final Map<Guid, List<Object>> volumes = new ConcurrentHashMap<>();
+    private volatile int refreshesBeforeFullSync;
+
+    /**
+     * Starts a refresh of the volumes of the cluster
+     *
+     * @param fetchedFingerprints
+     *            the fingerprints of all the volumes fetched from GlusterFS, by volume id
+     * @param fullSyncCycles
+     *            the number of refreshes between two refreshes that compare all the volumes with the DB
+     * @return true if none of the volumes changed since the last refresh, and so the refresh can be skipped
+     */
+    synchronized boolean startRefresh(Map<Guid, List<Object>> fetchedFingerprints, int fullSyncCycles) {
+        if (refreshesBeforeFullSync <= 0) {
+            volumes.clear();
+            refreshesBeforeFullSync = fullSyncCycles;
+            return false;
+        }
+        refreshesBeforeFullSync--;
+        return volumes.equals(fetchedFingerprints);
+    }
+
+    boolean isUnchanged(Guid volumeId, List<Object> fingerprint) {
+        return fingerprint.equals(volumes.get(volumeId));
+    }
+
+    /**
+     * Remembers the given volume fingerprint as in sync with the DB
+     */
+    void synced(Guid volumeId, List<Object> fingerprint) {
+        volumes.put(volumeId, fingerprint);
+    }
+
+    /**
+     * Forgets the given volume, to be called before its DB data is changed, as the change may fail half way
+     */
+    void invalidate(Guid volumeId) {
+        volumes.remove(volumeId);
+    }
+
+    /**
+     * Forgets the volumes that were not fetched from GlusterFS
+     */
+    void retainAll(Set<Guid> volumeIds) {
+        volumes.keySet().retainAll(volumeIds);
+    }
+
+    static Map<Guid, List<Object>> of(Map<Guid, GlusterVolumeEntity> volumes) {
+        Map<Guid, List<Object>> fingerprints = new HashMap<>();
+        volumes.forEach((id, volume) -> fingerprints.put(id, of(volume)));
+        return fingerprints;
+    }
+
+    static List<Object> of(GlusterVolumeEntity volume) {
+        List<Object> bricks = null;
+        if (volume.getBricks() != null) {
+            bricks = new ArrayList<>();
+            for (GlusterBrickEntity brick : volume.getBricks()) {
+                bricks.add(brick == null ? null
+                        : Arrays.asList(brick.getServerId(),
+                                brick.getBrickDirectory(),
+                                brick.getBrickOrder(),
+                                brick.getNetworkId()));
+            }
+        }
+
+        Map<String, String> options = new HashMap<>();
+        for (GlusterVolumeOptionEntity option : volume.getOptions()) {
+            options.put(option.getKey(), option.getValue());
+        }
+
+        return Arrays.asList(volume.getVolumeType(),
+                volume.getReplicaCount(),
+                volume.getStripeCount(),
+                volume.getStatus(),
+                volume.getTransportTypes() == null ? null : new HashSet<>(volume.getTransportTypes()),
+                bricks,
+                options);
+    }
+}
@@ -2,17 +2,20 @@ package org.ovirt.engine.core.bll.lock;
 
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -36,7 +39,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The following class an implementation of internal locking mechanism
+ * The following class an implementation of internal locking mechanism.
+ * <p>
+ * Lock keys are spread over a fixed number of stripes. An {@link EngineLock} locks the stripes of all its keys in
+ * ascending order, so the check-then-insert of a multi-key lock stays atomic while locks on unrelated keys proceed in
+ * parallel. Threads waiting in {@code acquireLockWait} park on the stripe of the key that blocked them and are woken
+ * only when a key of that stripe is released.
  */
 @Startup
 @Singleton(name = "LockManager")
@@ -45,17 +53,29 @@ import org.slf4j.LoggerFactory;
 @Local(LockManager.class)
 public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBean {
 
+    /** Number of stripes, must be a power of two **/
+    private static final int STRIPES_COUNT = 256;
+
     /** A map which is contains all internal representation of locks **/
-    private final Map<String, InternalLockView> locks = new HashMap<>();
-    /** A lock which is used to synchronized acquireLock(), acquireLockWait() and releaseLock() operations **/
-    private final Lock globalLock = new ReentrantLock();
-    /** A condition which is used in order to notify for waiting threads that some lock was released**/
-    private final Condition releasedLock = globalLock.newCondition();
+    private final Map<String, InternalLockView> locks = new ConcurrentHashMap<>();
+    /** Stripes which are used to synchronize acquireLock(), acquireLockWait() and releaseLock() per key **/
+    private final Stripe[] stripes = new Stripe[STRIPES_COUNT];
+
+    private final LongAdder acquiredLocks = new LongAdder();
+    private final LongAdder failedLocks = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder contendedStripes = new LongAdder();
 
     private MBeanServer platformMBeanServer;
     private ObjectName objectName = null;
     private static final Logger log = LoggerFactory.getLogger(InMemoryLockManager.class);
 
+    public InMemoryLockManager() {
+        for (int i = 0; i < STRIPES_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
     @PostConstruct
     public void registerInJMX() {
         try {
@@ -79,11 +99,12 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public LockingResult acquireLock(EngineLock lock) {
         log.debug("Before acquiring lock '{}'", lock);
-        globalLock.lock();
+        int[] stripeIndexes = getStripeIndexes(lock);
+        lockStripes(stripeIndexes);
         try {
             return acquireLockInternal(lock);
         } finally {
-            globalLock.unlock();
+            unlockStripes(stripeIndexes);
         }
     }
 
@@ -91,16 +112,25 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     public void acquireLockWait(EngineLock lock) {
         log.debug("Before acquiring and wait lock '{}'", lock);
         validateLockForAcquireAndWait(lock);
-        globalLock.lock();
+        int[] stripeIndexes = getStripeIndexes(lock);
         try {
-            while (!acquireLockInternal(lock).isAcquired()) {
+            while (true) {
+                WaitTicket ticket;
+                lockStripes(stripeIndexes);
+                try {
+                    if (acquireLockInternal(lock).isAcquired()) {
+                        return;
+                    }
+                    ticket = createWaitTicket(lock, stripeIndexes);
+                } finally {
+                    unlockStripes(stripeIndexes);
+                }
                 log.info("Failed to acquire lock and wait lock '{}'", lock);
-                releasedLock.await();
+                waits.increment();
+                ticket.await();
             }
         } catch (InterruptedException ignore) {
 
-        } finally {
-            globalLock.unlock();
         }
     }
 
@@ -112,24 +142,31 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             throw new IllegalArgumentException("timeout must be positive");
         }
         long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        int[] stripeIndexes = getStripeIndexes(lock);
         LockingResult lockAcquired = LockingResult.fail();
-        globalLock.lock();
         try {
-            do {
-                lockAcquired = acquireLockInternal(lock);
-                if (!lockAcquired.isAcquired()) {
-                    if (timeoutNanos <= 0L) {
-                        log.info("Failed to acquire lock because timeout was reached. lock {}", lock);
+            while (true) {
+                WaitTicket ticket;
+                lockStripes(stripeIndexes);
+                try {
+                    lockAcquired = acquireLockInternal(lock);
+                    if (lockAcquired.isAcquired()) {
                         break;
                     }
-                    log.info("Failed to acquire lock, will try again until timeout. lock '{}'", lock);
-                    timeoutNanos = releasedLock.awaitNanos(timeoutNanos);
+                    ticket = createWaitTicket(lock, stripeIndexes);
+                } finally {
+                    unlockStripes(stripeIndexes);
+                }
+                if (timeoutNanos <= 0L) {
+                    log.info("Failed to acquire lock because timeout was reached. lock {}", lock);
+                    break;
                 }
-            } while (!lockAcquired.isAcquired());
+                log.info("Failed to acquire lock, will try again until timeout. lock '{}'", lock);
+                waits.increment();
+                timeoutNanos = ticket.awaitNanos(timeoutNanos);
+            }
         } catch (InterruptedException ignore) {
             log.info("Acquire lock operation was interrupted. lock '{}'", lock);
-        } finally {
-            globalLock.unlock();
         }
         return lockAcquired;
     }
@@ -144,7 +181,8 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public void releaseLock(EngineLock lock) {
         log.debug("Before releasing a lock '{}'", lock);
-        globalLock.lock();
+        int[] stripeIndexes = getStripeIndexes(lock);
+        lockStripes(stripeIndexes);
         try {
             if (lock.getSharedLocks() != null) {
                 lock.getSharedLocks().entrySet().stream().forEach(entry ->
@@ -154,21 +192,29 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 lock.getExclusiveLocks().entrySet().stream().forEach(entry ->
                     releaseExclusiveLock(buildHashMapKey(entry)));
             }
-            releasedLock.signalAll();
+            for (int stripeIndex : stripeIndexes) {
+                stripes[stripeIndex].signalReleased();
+            }
         } finally {
-            globalLock.unlock();
+            unlockStripes(stripeIndexes);
         }
     }
 
     @Override
     public void clear() {
         log.warn("Cleaning all in memory locks");
-        globalLock.lock();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
         try {
             locks.clear();
-            releasedLock.signalAll();
+            for (Stripe stripe : stripes) {
+                stripe.signalReleased();
+            }
         } finally {
-            globalLock.unlock();
+            for (int i = STRIPES_COUNT - 1; i >= 0; i--) {
+                stripes[i].lock.unlock();
+            }
         }
     }
 
@@ -177,7 +223,8 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         log.warn("The following lock is going to be released via external call, lockId '{}', error message can be"
                 + " left for shared lock",
                 lockId);
-        globalLock.lock();
+        Stripe stripe = stripes[getStripeIndex(lockId)];
+        stripe.lock.lock();
         try {
             InternalLockView lock = locks.get(lockId);
             if (lock == null) {
@@ -189,26 +236,48 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             } else {
                 releaseSharedLock(lockId, null);
             }
-            releasedLock.signalAll();
+            stripe.signalReleased();
         } finally {
-            globalLock.unlock();
+            stripe.lock.unlock();
         }
         log.warn("Lock '{}' was released via external call", lockId);
         return true;
     }
 
+    /**
+     * The returned view is weakly consistent, locks which are acquired or released concurrently may or may not be
+     * shown
+     */
     @Override
     public List<String> showAllLocks() {
         log.debug("All in memory locks will be shown");
-        globalLock.lock();
         try {
             return locks.entrySet().stream().map(this::createLockDescription).collect(Collectors.toList());
         } finally {
-            globalLock.unlock();
             log.debug("All in memory locks were shown");
         }
     }
 
+    @Override
+    public long getAcquiredLocksCount() {
+        return acquiredLocks.sum();
+    }
+
+    @Override
+    public long getFailedLocksCount() {
+        return failedLocks.sum();
+    }
+
+    @Override
+    public long getWaitsCount() {
+        return waits.sum();
+    }
+
+    @Override
+    public long getContendedStripesCount() {
+        return contendedStripes.sum();
+    }
+
     private String createLockDescription(Entry<String, InternalLockView> e) {
         return "The object id is : " + e.getKey() + ' ' + e.getValue();
     }
@@ -220,6 +289,74 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         return entry.getKey() + entry.getValue().getFirst();
     }
 
+    /**
+     * Returns the sorted, distinct indexes of the stripes which are covering all keys of the given lock
+     */
+    private int[] getStripeIndexes(EngineLock lock) {
+        return Stream.of(lock.getSharedLocks(), lock.getExclusiveLocks())
+                .filter(Objects::nonNull)
+                .flatMap(lockMap -> lockMap.entrySet().stream())
+                .mapToInt(entry -> getStripeIndex(buildHashMapKey(entry)))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private int getStripeIndex(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES_COUNT - 1);
+    }
+
+    /**
+     * Stripes are always locked in ascending order, so two multi-key locks can not deadlock each other
+     */
+    private void lockStripes(int[] stripeIndexes) {
+        for (int stripeIndex : stripeIndexes) {
+            Lock stripeLock = stripes[stripeIndex].lock;
+            if (!stripeLock.tryLock()) {
+                contendedStripes.increment();
+                stripeLock.lock();
+            }
+        }
+    }
+
+    private void unlockStripes(int[] stripeIndexes) {
+        for (int i = stripeIndexes.length - 1; i >= 0; i--) {
+            stripes[stripeIndexes[i]].lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a ticket for waiting on the stripe of the key which is blocking the given lock. Must be called while the
+     * stripes of the lock are held, so a release that happens after the stripes are unlocked is not missed
+     */
+    private WaitTicket createWaitTicket(EngineLock lock, int[] stripeIndexes) {
+        String blockingKey = findBlockingKey(lock);
+        Stripe stripe = blockingKey != null ? stripes[getStripeIndex(blockingKey)] : stripes[stripeIndexes[0]];
+        return new WaitTicket(stripe, stripe.generation);
+    }
+
+    private String findBlockingKey(EngineLock lock) {
+        if (lock.getSharedLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
+                String key = buildHashMapKey(entry);
+                InternalLockView internalLock = locks.get(key);
+                if (internalLock != null && internalLock.getExclusive()) {
+                    return key;
+                }
+            }
+        }
+        if (lock.getExclusiveLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getExclusiveLocks().entrySet()) {
+                String key = buildHashMapKey(entry);
+                if (locks.containsKey(key)) {
+                    return key;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * The following method contains a logic for acquiring a lock. It is comprised of two steps:
      * 1. Check if the lock can be acquired
@@ -228,14 +365,17 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     private LockingResult acquireLockInternal(EngineLock lock) {
         var result = acquireLockInternalStep(lock, true);
         if (!result.isAcquired()) {
+            failedLocks.increment();
             return result;
         }
 
         result = acquireLockInternalStep(lock, false);
         if (!result.isAcquired()) {
+            failedLocks.increment();
             return result;
         }
 
+        acquiredLocks.increment();
         log.debug("Success acquiring lock '{}'", lock);
         return LockingResult.success();
     }
@@ -337,12 +477,20 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public LockInfo getLockInfo(String key) {
-        InternalLockView internalLockView = locks.get(key);
-        if (internalLockView == null) {
-            return null;
+        Stripe stripe = stripes[getStripeIndex(key)];
+        InternalLockView internalLockView;
+        Set<String> messages;
+        stripe.lock.lock();
+        try {
+            internalLockView = locks.get(key);
+            if (internalLockView == null) {
+                return null;
+            }
+            messages = internalLockView.getMessages();
+        } finally {
+            stripe.lock.unlock();
         }
 
-        Set<String> messages = internalLockView.getMessages();
         messages.remove(EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED.name());
         if (messages.isEmpty()) {
             // EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED should only be used for
@@ -361,6 +509,66 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 .anyMatch(entry -> getLockInfo(buildHashMapKey(entry)) != null);
     }
 
+    /**
+     * The following class represents a stripe of keys, the generation is increased on every release of a key of the
+     * stripe and waiting threads are woken up
+     */
+    private static class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition releasedLock = lock.newCondition();
+        /** Guarded by lock **/
+        private long generation;
+
+        /**
+         * Should be called while holding the stripe lock
+         */
+        public void signalReleased() {
+            generation++;
+            releasedLock.signalAll();
+        }
+    }
+
+    /**
+     * The following class represents a registration of a thread which waits for a release on a specific stripe
+     */
+    private static class WaitTicket {
+
+        private final Stripe stripe;
+        private final long generation;
+
+        public WaitTicket(Stripe stripe, long generation) {
+            this.stripe = stripe;
+            this.generation = generation;
+        }
+
+        public void await() throws InterruptedException {
+            stripe.lock.lock();
+            try {
+                while (stripe.generation == generation) {
+                    stripe.releasedLock.await();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        /**
+         * @return the remaining time in nanoseconds, a value less or equal to zero means that the timeout elapsed
+         */
+        public long awaitNanos(long timeoutNanos) throws InterruptedException {
+            stripe.lock.lock();
+            try {
+                while (stripe.generation == generation && timeoutNanos > 0L) {
+                    timeoutNanos = stripe.releasedLock.awaitNanos(timeoutNanos);
+                }
+                return timeoutNanos;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
     /**
      * The following class represents different locks which are kept inside InMemoryLockManager
      */
@@ -21,4 +21,24 @@ public interface LockManagerMonitorMXBean {
      * The following method will release a lock with provided lockId
      */
     boolean releaseLock(String lockId);
+
+    /**
+     * The following method will return the number of successfully acquired locks
+     */
+    long getAcquiredLocksCount();
+
+    /**
+     * The following method will return the number of lock attempts which failed because of a conflicting lock
+     */
+    long getFailedLocksCount();
+
+    /**
+     * The following method will return the number of times a thread had to wait for a lock to be released
+     */
+    long getWaitsCount();
+
+    /**
+     * The following method will return the number of times a thread found a lock stripe held by another thread
+     */
+    long getContendedStripesCount();
 }
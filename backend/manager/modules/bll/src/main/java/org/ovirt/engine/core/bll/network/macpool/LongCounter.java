@@ -0,0 +1,151 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+/**
+ * Associative array counting occurrences of long values, e.g. MAC addresses.
+ * <p>
+ * Keys and counts are kept in primitive arrays using open addressing with linear probing, so no object is created per
+ * counted value. A slot with count 0 is free.
+ */
+class LongCounter {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean allowDuplicate;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+    private int duplicatesCount;
+
+    LongCounter(boolean allowDuplicate) {
+        this.allowDuplicate = allowDuplicate;
+    }
+
+    /**
+     * add value if possible, incrementing number of its occurrences.
+     * @param key value to add.
+     * @return true if value was added  && count incremented.
+     */
+    public boolean increase(long key) {
+        return increase(key, allowDuplicate);
+    }
+
+    public boolean increase(long key, boolean allowDuplicate) {
+        int slot = findSlot(key);
+        if (counts[slot] == 0) {
+            keys[slot] = key;
+            counts[slot] = 1;
+            size++;
+            if (size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            return true;
+        } else if (allowDuplicate) {
+            if (++counts[slot] == 2) {
+                duplicatesCount++;
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * decrements number of its occurrences, removing value if possible(count reaches zero).
+     *
+     * @param key value to remove.
+     */
+    public void decrease(long key) {
+        int slot = findSlot(key);
+        int count = counts[slot];
+        if (count == 0) {
+            return;
+        }
+
+        if (count == 2) {
+            duplicatesCount--;
+        }
+        if (count == 1) {
+            removeSlot(slot);
+        } else {
+            counts[slot] = count - 1;
+        }
+    }
+
+    /**
+     * @param key value to look for
+     * @return true if there's at least one occurrence of given value.
+     */
+    public boolean contains(long key) {
+        return counts[findSlot(key)] != 0;
+    }
+
+    /**
+     * @param key value to look for
+     * @return number of occurrences of given value, 0 when value was not added.
+     */
+    public int count(long key) {
+        return counts[findSlot(key)];
+    }
+
+    public boolean containsDuplicates() {
+        return duplicatesCount > 0;
+    }
+
+    public boolean containsCounts() {
+        return size > 0;
+    }
+
+    /**
+     * @return the slot holding the given key, or the free slot where it should be added.
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Frees the given slot, shifting back the following keys of the same probe sequence so that no lookup stops at
+     * the freed slot before reaching them.
+     */
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (counts[next] != 0) {
+            int home = hash(keys[next]) & mask;
+            // move the key back unless its home slot lies cyclically within (free, next]
+            boolean homeBetween = free <= next ? free < home && home <= next : free < home || home <= next;
+            if (!homeBetween) {
+                keys[free] = keys[next];
+                counts[free] = counts[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        counts[free] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -134,26 +134,24 @@ public final class MacPoolUsingRanges implements MacPool {
 
     @Override
     public List<String> addMacs(List<String> macs) {
-        List<String> notAddedMacs = new ArrayList<>(macs.size());
+        log.debug("Allocating {} custom mac addresses from {}.", macs.size(), this);
+        List<String> notAddedMacs = new ArrayList<>();
         for (String mac : macs) {
-            if (!addMac(mac)) {
+            if (!macsStorage.useMac(MacAddressRangeUtils.macToLong(mac))) {
                 notAddedMacs.add(mac);
             }
         }
+        logWhenMacPoolIsEmpty();
 
         return notAddedMacs;
     }
 
-    private void forceAddMac(String mac) {
-        log.debug("Forcibly allocating custom mac address {} from {}", mac, this);
-        macsStorage.useMacNoDuplicityCheck(MacAddressRangeUtils.macToLong(mac));
-        logWhenMacPoolIsEmpty();
-    }
-
     private void forceAddMacs(List<String> macs) {
+        log.debug("Forcibly allocating custom mac addresses {} from {}", macs, this);
         for (String mac : macs) {
-            forceAddMac(mac);
+            macsStorage.useMacNoDuplicityCheck(MacAddressRangeUtils.macToLong(mac));
         }
+        logWhenMacPoolIsEmpty();
     }
 
     @Override
@@ -1,7 +1,8 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -14,10 +15,20 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
 import org.ovirt.engine.core.di.Injector;
 
+/**
+ * Keeps the MACs in use of a MAC pool: the ones within its ranges in the ranges, and the others as custom MACs.
+ * <p>
+ * The ranges are kept in the order they were added, which is the order in which MACs are allocated from them, and
+ * indexed by their first MAC, so the range including a MAC is found by a binary search. The ranges of a pool are
+ * disjoint, see {@link org.ovirt.engine.core.utils.MacAddressRangeUtils}.
+ */
 class MacsStorage {
     private final boolean allowDuplicates;
-    private List<Range> ranges = new LinkedList<>();
-    private ObjectCounter<Long> customMacs;
+    private List<Range> ranges = new ArrayList<>();
+    private long[] sortedRangesFirstMacs = new long[0];
+    private Range[] sortedRanges = new Range[0];
+    private LongCounter customMacs;
+    private int availableMacsCount;
     private int startIndexForEmptyRangeSearch = 0;
     private Predicate<String> skipAllocationPredicate;
 
@@ -27,7 +38,7 @@ class MacsStorage {
 
     MacsStorage(boolean allowDuplicates, Predicate<String> skipAllocationPredicate) {
         this.allowDuplicates = allowDuplicates;
-        customMacs = new ObjectCounter<>(this.allowDuplicates);
+        customMacs = new LongCounter(this.allowDuplicates);
         this.skipAllocationPredicate = skipAllocationPredicate;
     }
 
@@ -36,10 +47,39 @@ class MacsStorage {
     }
 
     Range addRange(Range range) {
+        long firstMac = range.getFirstMac();
+        int index = Arrays.binarySearch(sortedRangesFirstMacs, firstMac);
+        int insertionIndex = index < 0 ? -index - 1 : index;
+        Validate.isTrue(!overlapsSortedRange(insertionIndex - 1, range) && !overlapsSortedRange(insertionIndex, range),
+                "Ranges of a MAC pool must not overlap.");
+
+        sortedRangesFirstMacs = insert(sortedRangesFirstMacs, insertionIndex, firstMac);
+        sortedRanges = insert(sortedRanges, insertionIndex, range);
         ranges.add(range);
+        availableMacsCount += range.getAvailableCount();
         return range;
     }
 
+    private boolean overlapsSortedRange(int index, Range range) {
+        return index >= 0 && index < sortedRanges.length && sortedRanges[index].overlaps(range);
+    }
+
+    private static long[] insert(long[] array, int index, long value) {
+        long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static Range[] insert(Range[] array, int index, Range value) {
+        Range[] result = new Range[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
     public boolean useMac(long mac) {
         return useMac(mac, allowDuplicates);
     }
@@ -49,7 +89,10 @@ class MacsStorage {
         if (range == null) {
             return customMacs.increase(mac, allowDuplicates);
         } else {
-            return range.use(mac, allowDuplicates);
+            int rangeAvailableMacsCount = range.getAvailableCount();
+            boolean used = range.use(mac, allowDuplicates);
+            availableMacsCount += range.getAvailableCount() - rangeAvailableMacsCount;
+            return used;
         }
     }
 
@@ -67,12 +110,14 @@ class MacsStorage {
         if (range == null) {
             customMacs.decrease(mac);
         } else {
+            int rangeAvailableMacsCount = range.getAvailableCount();
             range.freeMac(mac);
+            availableMacsCount += range.getAvailableCount() - rangeAvailableMacsCount;
         }
     }
 
     public boolean availableMacExist() {
-        return getRangeWithAvailableMac() != null;
+        return availableMacsCount > 0;
     }
 
     public List<Long> allocateAvailableMacs(int numberOfMacs) {
@@ -80,7 +125,7 @@ class MacsStorage {
             throw new EngineException(EngineError.MAC_POOL_NO_MACS_LEFT);
         }
 
-        final List<Long> result = new LinkedList<>();
+        final List<Long> result = new ArrayList<>(numberOfMacs);
         int remainingMacs = allocateAvailableMacs(result, numberOfMacs, this.skipAllocationPredicate);
         if (remainingMacs > 0) {
             auditAllocatingMacsInUse(remainingMacs);
@@ -97,12 +142,17 @@ class MacsStorage {
             final Range rangeWithAvailableMac = getRangeWithAvailableMac();
             Validate.notNull(rangeWithAvailableMac);
 
-            final int availableMacsCount = rangeWithAvailableMac.getAvailableCount();
-            int allocatingMacsCount = Math.min(availableMacsCount, reminaingMacs);
+            final int rangeAvailableMacsCount = rangeWithAvailableMac.getAvailableCount();
+            int allocatingMacsCount = Math.min(rangeAvailableMacsCount, reminaingMacs);
 
-            final List<Long> allocatedMacsForRange = rangeWithAvailableMac.allocateMacs(
-                allocatingMacsCount, skipAllocationPredicate
-            );
+            final List<Long> allocatedMacsForRange;
+            try {
+                allocatedMacsForRange = rangeWithAvailableMac.allocateMacs(
+                    allocatingMacsCount, skipAllocationPredicate
+                );
+            } finally {
+                availableMacsCount += rangeWithAvailableMac.getAvailableCount() - rangeAvailableMacsCount;
+            }
 
             if (allocatedMacsForRange.size() > 0) {
                 reminaingMacs -= allocatedMacsForRange.size();
@@ -138,11 +188,7 @@ class MacsStorage {
     }
 
     public int getAvailableMacsCount() {
-        int count = 0;
-        for (Range range : ranges) {
-            count += range.getAvailableCount();
-        }
-        return count;
+        return availableMacsCount;
     }
 
     public int getTotalNumberOfMacs() {
@@ -154,12 +200,14 @@ class MacsStorage {
     }
 
     private Range findIncludingRange(long mac) {
-        for (Range range : ranges) {
-            if (range.contains(mac)) {
-                return range;
-            }
+        int index = Arrays.binarySearch(sortedRangesFirstMacs, mac);
+        // when not found, the range starting before the mac is the only one that may include it
+        int candidateIndex = index < 0 ? -index - 2 : index;
+        if (candidateIndex < 0) {
+            return null;
         }
-        return null;
+        Range range = sortedRanges[candidateIndex];
+        return range.contains(mac) ? range : null;
     }
 
     boolean isMacInRange(Long mac) {
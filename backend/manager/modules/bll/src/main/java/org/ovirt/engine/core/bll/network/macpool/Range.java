@@ -14,9 +14,9 @@ class Range {
     private final int numberOfMacsInRange;
 
     /**
-     * object counter, which holds number of MACs duplicates.
+     * counter, which holds number of MACs duplicates by their index in the range.
      */
-    private final ObjectCounter<Integer> macDuplicityCount = new ObjectCounter<>(true);
+    private final LongCounter macDuplicityCount = new LongCounter(true);
     private int availableMacsCount;
 
     private BitSet usedMacs;
@@ -39,6 +39,10 @@ class Range {
         return range.containsLong(mac);
     }
 
+    long getFirstMac() {
+        return range.getMinimumLong();
+    }
+
     public boolean containsDuplicates() {
         return macDuplicityCount.containsCounts();
     }
@@ -115,24 +119,29 @@ class Range {
 
         int remainingMacs = numberOfMacs;
         int remainingAttempts = availableMacsCount;
-        while (remainingMacs > 0 && remainingAttempts > 0) {
-            remainingAttempts -= 1;
-            final long mac = findUnusedMac();
-            String macAddress = MacAddressRangeUtils.macToString(mac);
-            if (skipAllocationPredicate.test(macAddress)) {
-                continue;
+        try {
+            while (remainingMacs > 0 && remainingAttempts > 0) {
+                remainingAttempts -= 1;
+                final int index = findUnusedMacIndex();
+                final long mac = range.getMinimumLong() + index;
+                String macAddress = MacAddressRangeUtils.macToString(mac);
+                if (skipAllocationPredicate.test(macAddress)) {
+                    continue;
+                }
+
+                // Well duplicates may be allowed, but we're using unallocated mac, so it's marked as used directly.
+                usedMacs.set(index);
+                result.add(mac);
+                remainingMacs -= 1;
             }
-
-            // Well duplicates may be allowed, but we're using unallocated mac.
-            use(mac, false);
-            result.add(mac);
-            remainingMacs -= 1;
+        } finally {
+            availableMacsCount -= result.size();
         }
 
         return result;
     }
 
-    private long findUnusedMac() {
+    private int findUnusedMacIndex() {
         int index = usedMacs.nextClearBit(startingLocationWhenSearchingForUnusedMac);
         // below predicate is never true bc largest index value is one less than the size.
         // see https://docs.oracle.com/javase/7/docs/api/java/util/BitSet.html#BitSet(int)
@@ -142,7 +151,7 @@ class Range {
         }
         startingLocationWhenSearchingForUnusedMac = (index + 1) % numberOfMacsInRange;
 
-        return range.getMinimumLong() + index;
+        return index;
     }
 
     boolean overlaps(Range other) {
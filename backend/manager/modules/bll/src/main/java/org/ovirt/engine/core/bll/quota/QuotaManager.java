@@ -1,22 +1,31 @@
 package org.ovirt.engine.core.bll.quota;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.ovirt.engine.core.bll.CommandBase;
 import org.ovirt.engine.core.bll.ValidationResult;
+import org.ovirt.engine.core.bll.quota.QuotaUsage.ClusterLimit;
+import org.ovirt.engine.core.bll.quota.QuotaUsage.ClusterUsage;
+import org.ovirt.engine.core.bll.quota.QuotaUsage.StorageLimit;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.BackendService;
 import org.ovirt.engine.core.common.businessentities.Quota;
@@ -39,12 +48,29 @@ import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Checks and accounts the consumption of quotas by the commands.
+ * <p>
+ * The quotas are cached by storage pool, and the usage of each of their limits is kept in its own atomic counter (see
+ * {@link QuotaUsage}), so commands consuming different quotas, clusters or storage domains of the same storage pool do
+ * not wait for each other. The usage of the cached quotas is periodically reconciled with the database, and the cache
+ * is replaced or reconciled only while no command is consuming quotas.
+ */
 @Singleton
-public class QuotaManager implements BackendService {
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+public class QuotaManager implements BackendService, QuotaManagerMXBean {
     private final Logger log = LoggerFactory.getLogger(QuotaManager.class);
-    private Map<Guid, Map<Guid, Quota>> storagePoolQuotaMap = new HashMap<>();
-    private Map<Guid, Guid> storagePoolDefaultQuotaIdMap = new HashMap<>();
+    private volatile Map<Guid, Map<Guid, QuotaUsage>> storagePoolQuotaMap = new ConcurrentHashMap<>();
+    private volatile Map<Guid, Guid> storagePoolDefaultQuotaIdMap = new ConcurrentHashMap<>();
+    /** Held for read while consuming quotas, for write while replacing or reconciling the cache **/
+    private final ReentrantReadWriteLock cacheLock = new ReentrantReadWriteLock();
+
+    private final LongAdder consumeCount = new LongAdder();
+    private final LongAdder rejectedConsumeCount = new LongAdder();
+    private final LongAdder reservationConflictCount = new LongAdder();
+    private final LongAdder reconciledQuotaCount = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
 
     private final List<Integer> nonCountableQutoaVmStatusesList = new ArrayList<>();
 
@@ -73,6 +99,29 @@ public class QuotaManager implements BackendService {
                 quotaCacheIntervalInMinutes,
                 TimeUnit.MINUTES
         );
+        registerInJMX();
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("QuotaManager:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Problem during registration of quota manager into JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    @PreDestroy
+    private void unregisterFromJMX() {
+        try {
+            if (platformMBeanServer != null) {
+                platformMBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of quota manager from JMX", e);
+        }
     }
 
     /**
@@ -83,19 +132,12 @@ public class QuotaManager implements BackendService {
     }
 
     public void removeQuotaFromCache(Guid storagePoolId, List<Guid> quotaList) {
-        lock.writeLock().lock();
-        try {
-            if (!storagePoolQuotaMap.containsKey(storagePoolId)) {
-                return;
-            }
-            synchronized (storagePoolQuotaMap.get(storagePoolId)) {
-                Map<Guid, Quota> map = storagePoolQuotaMap.get(storagePoolId);
-                for (Guid quotaId : quotaList) {
-                    map.remove(quotaId);
-                }
-            }
-        } finally {
-            lock.writeLock().unlock();
+        Map<Guid, QuotaUsage> map = storagePoolQuotaMap.get(storagePoolId);
+        if (map == null) {
+            return;
+        }
+        for (Guid quotaId : quotaList) {
+            map.remove(quotaId);
         }
     }
 
@@ -104,36 +146,23 @@ public class QuotaManager implements BackendService {
     }
 
     public void removeStoragePoolFromCache(Guid storagePoolId) {
-        lock.writeLock().lock();
-        try {
-            storagePoolQuotaMap.remove(storagePoolId);
-            storagePoolDefaultQuotaIdMap.remove(storagePoolId);
-        } finally {
-            lock.writeLock().unlock();
-        }
+        storagePoolQuotaMap.remove(storagePoolId);
+        storagePoolDefaultQuotaIdMap.remove(storagePoolId);
     }
 
-    private void addStoragePoolToCache(Guid storagePoolId) {
-        if (storagePoolQuotaMap.containsKey(storagePoolId)) {
-            return;
+    /**
+     * @return the cached quotas of the storage pool, adding the storage pool to the cache if needed
+     */
+    private Map<Guid, QuotaUsage> addStoragePoolToCache(Guid storagePoolId) {
+        Map<Guid, Map<Guid, QuotaUsage>> quotaMaps = storagePoolQuotaMap;
+        Map<Guid, QuotaUsage> quotaMap = quotaMaps.get(storagePoolId);
+        if (quotaMap != null && storagePoolDefaultQuotaIdMap.containsKey(storagePoolId)) {
+            return quotaMap;
         }
 
-        storagePoolQuotaMap.put(storagePoolId, new HashMap<>());
         Quota defaultQuota = getQuotaDao().getDefaultQuotaForStoragePool(storagePoolId);
-        storagePoolDefaultQuotaIdMap.put(storagePoolId, defaultQuota.getId());
-    }
-
-    private void addStoragePoolToCacheWithLock(Guid storagePoolId) {
-        if (storagePoolQuotaMap.containsKey(storagePoolId)) {
-            return;
-        }
-
-        lock.writeLock().lock();
-        try {
-            addStoragePoolToCache(storagePoolId);
-        } finally {
-            lock.writeLock().unlock();
-        }
+        storagePoolDefaultQuotaIdMap.putIfAbsent(storagePoolId, defaultQuota.getId());
+        return quotaMaps.computeIfAbsent(storagePoolId, id -> new ConcurrentHashMap<>());
     }
 
     /**
@@ -203,22 +232,24 @@ public class QuotaManager implements BackendService {
             throw new InvalidQuotaParametersException("Null storage pool passed to QuotaManager");
         }
 
-        addStoragePoolToCacheWithLock(storagePool.getId());
+        cacheLock.readLock().lock();
+        try {
+            Map<Guid, QuotaUsage> quotaMap = addStoragePoolToCache(storagePool.getId());
 
-        QuotaManagerAuditLogger auditLogger = new QuotaManagerAuditLogger(command, auditLogDirector);
+            if (command.getStoragePool().getQuotaEnforcementType() == QuotaEnforcementTypeEnum.DISABLED) {
+                return true;
+            }
 
-        lock.readLock().lock();
-        try {
-            if (command.getStoragePool().getQuotaEnforcementType() != QuotaEnforcementTypeEnum.DISABLED) {
-                synchronized (storagePoolQuotaMap.get(storagePool.getId())) {
-                    return consumeQuotaParameters(params, command, auditLogger);
-                }
+            QuotaManagerAuditLogger auditLogger = new QuotaManagerAuditLogger(command, auditLogDirector);
+            consumeCount.increment();
+            boolean consumed = consumeQuotaParameters(params, command, quotaMap, auditLogger);
+            if (!consumed) {
+                rejectedConsumeCount.increment();
             }
+            return consumed;
         } finally {
-            lock.readLock().unlock();
+            cacheLock.readLock().unlock();
         }
-
-        return true;
     }
 
     /**
@@ -226,19 +257,19 @@ public class QuotaManager implements BackendService {
      *
      * @param quotaId - quota id
      * @param storagePoolId - storage pool containing this quota
+     * @param quotaMap - cached quotas of the storage pool
      * @return - found quota. null if not found.
      */
-    private Quota fetchQuotaFromCache(Guid quotaId, Guid storagePoolId) throws InvalidQuotaParametersException {
-        Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(storagePoolId);
-
-        Quota quota = quotaMap.get(quotaId);
+    private QuotaUsage fetchQuotaFromCache(Guid quotaId, Guid storagePoolId, Map<Guid, QuotaUsage> quotaMap)
+            throws InvalidQuotaParametersException {
+        QuotaUsage quotaUsage = quotaMap.get(quotaId);
         // if quota was not found in cache - look for it in DB
-        if (quota == null) {
-            quota = getQuotaDao().getById(quotaId);
+        if (quotaUsage == null) {
+            Quota quota = getQuotaDao().getById(quotaId);
             if (quota != null) {
-                // cache in quota map
+                // cache in quota map, unless another command cached it meanwhile
                 if (storagePoolId.equals(quota.getStoragePoolId())) {
-                    quotaMap.put(quotaId, quota);
+                    quotaUsage = quotaMap.computeIfAbsent(quotaId, id -> new QuotaUsage(quota));
                 } else {
                     throw new InvalidQuotaParametersException(
                             String.format("Quota %s does not match storage pool %s", quotaId.toString()
@@ -246,7 +277,7 @@ public class QuotaManager implements BackendService {
                 }
             }
         }
-        return quota;
+        return quotaUsage;
     }
 
     public void updateUsage(List<Quota> quotaList) {
@@ -256,82 +287,34 @@ public class QuotaManager implements BackendService {
             return;
         }
 
-        lock.readLock().lock();
-        try {
-            for (Quota quotaExternal : quotaList) {
-                // look for the quota in the cache
-                Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(quotaExternal.getStoragePoolId());
-                Quota quota = null;
-                if (quotaMap != null) {
-                    quota = quotaMap.get(quotaExternal.getId());
-                }
-
-                // if quota not in cache look for it in DB and add it to cache
-                if (quota == null) {
-                    needToCache.add(quotaExternal);
-                } else {
-                    copyUsageData(quota, quotaExternal);
-                }
+        for (Quota quotaExternal : quotaList) {
+            // look for the quota in the cache
+            Map<Guid, QuotaUsage> quotaMap = storagePoolQuotaMap.get(quotaExternal.getStoragePoolId());
+            QuotaUsage quotaUsage = null;
+            if (quotaMap != null) {
+                quotaUsage = quotaMap.get(quotaExternal.getId());
             }
-        } finally {
-            lock.readLock().unlock();
-        }
 
-        // if some of the quota are not in cache and need to be cached
-        if (!needToCache.isEmpty()) {
-            lock.writeLock().lock();
-            try {
-                for (Quota quotaExternal : needToCache) {
-                    addStoragePoolToCache(quotaExternal.getStoragePoolId());
-
-                    Quota quota = fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId());
-                    if (quota != null) {
-                        copyUsageData(quota, quotaExternal);
-                    }
-                }
-            } finally {
-                lock.writeLock().unlock();
+            // if quota not in cache look for it in DB and add it to cache
+            if (quotaUsage == null) {
+                needToCache.add(quotaExternal);
+            } else {
+                quotaUsage.copyUsageTo(quotaExternal);
             }
         }
-    }
-
-    private void copyUsageData(Quota quota, Quota quotaExternal) {
-        if (quota.getGlobalQuotaStorage() != null) {
-            quotaExternal.setGlobalQuotaStorage(copyQuotaStorageUsage(quota.getGlobalQuotaStorage()));
-        }
-        if (quota.getGlobalQuotaCluster() != null) {
-            quotaExternal.setGlobalQuotaCluster(copyQuotaClusterUsage(quota.getGlobalQuotaCluster()));
-        }
 
-        if (quota.getQuotaStorages() != null) {
-            quotaExternal.setQuotaStorages(new ArrayList<>());
-            for (QuotaStorage quotaStorage : quota.getQuotaStorages()) {
-                quotaExternal.getQuotaStorages().add(copyQuotaStorageUsage(quotaStorage));
-            }
-        }
+        // if some of the quota are not in cache and need to be cached
+        for (Quota quotaExternal : needToCache) {
+            Map<Guid, QuotaUsage> quotaMap = addStoragePoolToCache(quotaExternal.getStoragePoolId());
 
-        if (quota.getQuotaClusters() != null) {
-            quotaExternal.setQuotaClusters(new ArrayList<>());
-            for (QuotaCluster quotaCluster : quota.getQuotaClusters()) {
-                quotaExternal.getQuotaClusters().add(copyQuotaClusterUsage(quotaCluster));
+            QuotaUsage quotaUsage =
+                    fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId(), quotaMap);
+            if (quotaUsage != null) {
+                quotaUsage.copyUsageTo(quotaExternal);
             }
         }
     }
 
-    private QuotaStorage copyQuotaStorageUsage(QuotaStorage quotaStorage) {
-        return new QuotaStorage(null, null, null,
-                quotaStorage.getStorageSizeGB(),
-                quotaStorage.getStorageSizeGBUsage());
-    }
-
-    private QuotaCluster copyQuotaClusterUsage(QuotaCluster quotaCluster) {
-        return new QuotaCluster(null, null, null,
-                quotaCluster.getVirtualCpu(),
-                quotaCluster.getVirtualCpuUsage(),
-                quotaCluster.getMemSizeMB(),
-                quotaCluster.getMemSizeMBUsage());
-    }
-
     /**
      * InitializeCache is called by SchedulerUtilQuartzImpl.
      */
@@ -346,6 +329,7 @@ public class QuotaManager implements BackendService {
 
     private synchronized void updateQuotaCacheImpl() {
         if (!isCacheUpdateNeeded()) {
+            reconcileQuotaCache();
             return;
         }
 
@@ -357,43 +341,63 @@ public class QuotaManager implements BackendService {
             return;
         }
 
-        Map<Guid, Map<Guid, Quota>> newStoragePoolQuotaMap = new HashMap<>();
-        Map<Guid, Guid> newDefaultQuotaIdMap = new HashMap<>();
+        Map<Guid, Map<Guid, QuotaUsage>> newStoragePoolQuotaMap = new ConcurrentHashMap<>();
+        Map<Guid, Guid> newDefaultQuotaIdMap = new ConcurrentHashMap<>();
 
         for (Quota quota : allQuotaIncludingConsumption) {
-            if (!newStoragePoolQuotaMap.containsKey(quota.getStoragePoolId())) {
-                newStoragePoolQuotaMap.put(quota.getStoragePoolId(), new HashMap<>());
-            }
-            newStoragePoolQuotaMap.get(quota.getStoragePoolId()).put(quota.getId(), quota);
+            newStoragePoolQuotaMap.computeIfAbsent(quota.getStoragePoolId(), id -> new ConcurrentHashMap<>())
+                    .put(quota.getId(), new QuotaUsage(quota));
 
             if (quota.isDefault()) {
                 newDefaultQuotaIdMap.put(quota.getStoragePoolId(), quota.getId());
             }
         }
 
-        lock.writeLock().lock();
+        cacheLock.writeLock().lock();
         try {
             storagePoolQuotaMap = newStoragePoolQuotaMap;
             storagePoolDefaultQuotaIdMap = newDefaultQuotaIdMap;
         } finally {
-            lock.writeLock().unlock();
+            cacheLock.writeLock().unlock();
         }
         long timeEnd = System.currentTimeMillis();
         log.info("Quota Cache updated. ({} msec)", timeEnd-timeStart);
     }
 
-    public boolean isCacheUpdateNeeded() {
-        int quotaCount = getQuotaDao().getQuotaCount();
-        int cacheCount = 0;
+    /**
+     * Sets the usage of the cached quotas to their usage in the database, read in a single query, so the usage
+     * accounted by the commands does not drift away from the actual one. The cached quotas are updated in place, and
+     * their limits reserved since the previous reconciliation are left out, see {@link QuotaUsage#reconcile(Quota)}.
+     * Quotas that are not cached are left out as well.
+     */
+    /* visible for testing only */
+    void reconcileQuotaCache() {
+        if (getCachedQuotaCount() == 0) {
+            return;
+        }
 
-        lock.readLock().lock();
+        long timeStart = System.currentTimeMillis();
+        List<Quota> allQuotaIncludingConsumption = getQuotaDao().getAllQuotaIncludingConsumption();
+        int reconciled = 0;
+        cacheLock.writeLock().lock();
         try {
-            for(Map<Guid, Quota> quotaMap : storagePoolQuotaMap.values()) {
-                cacheCount += quotaMap.size();
+            for (Quota quota : allQuotaIncludingConsumption) {
+                Map<Guid, QuotaUsage> quotaMap = storagePoolQuotaMap.get(quota.getStoragePoolId());
+                QuotaUsage quotaUsage = quotaMap == null ? null : quotaMap.get(quota.getId());
+                if (quotaUsage != null && quotaUsage.reconcile(quota)) {
+                    reconciled++;
+                }
             }
         } finally {
-            lock.readLock().unlock();
+            cacheLock.writeLock().unlock();
         }
+        reconciledQuotaCount.add(reconciled);
+        log.debug("Usage of {} cached quotas reconciled. ({} msec)", reconciled, System.currentTimeMillis() - timeStart);
+    }
+
+    public boolean isCacheUpdateNeeded() {
+        int quotaCount = getQuotaDao().getQuotaCount();
+        int cacheCount = getCachedQuotaCount();
 
         return cacheCount < quotaCount * Config.<Integer> getValue(ConfigValues.MinimumPercentageToUpdateQuotaCache)/100;
     }
@@ -412,7 +416,7 @@ public class QuotaManager implements BackendService {
 
     public Guid getDefaultQuotaId(Guid storagePoolId) {
         if (!storagePoolDefaultQuotaIdMap.containsKey(storagePoolId)) {
-            addStoragePoolToCacheWithLock(storagePoolId);
+            addStoragePoolToCache(storagePoolId);
         }
 
         return storagePoolDefaultQuotaIdMap.get(storagePoolId);
@@ -449,6 +453,7 @@ public class QuotaManager implements BackendService {
 
     private boolean consumeQuotaParameters(List<QuotaConsumptionParameter> parameters,
             CommandBase<?> command,
+            Map<Guid, QuotaUsage> quotaMap,
             QuotaManagerAuditLogger auditLogger) {
 
         boolean hardEnforcement =
@@ -456,23 +461,24 @@ public class QuotaManager implements BackendService {
 
         // Process the quota consumption parameters to a list of Requests
         // Each Request instance aggregates all requested consumptions against a single quota limit
-        Optional<List<Request>> requests = createRequests(parameters, command, hardEnforcement, auditLogger);
+        Optional<List<Request>> requests = createRequests(parameters, command, quotaMap, hardEnforcement, auditLogger);
         if (!requests.isPresent()) {
             return false;
         }
 
-        // Validate that all requests satisfy the quota limits
+        // Reserve each request on its limit, if it satisfies the limit.
+        // This changes only the cached quota usage in the QuotaManager, nothing is written to the DB.
+        List<Request> reserved = new ArrayList<>();
         for (Request request : requests.get()) {
-            ValidationResult validation = request.validate(hardEnforcement, auditLogger);
+            ValidationResult validation = request.reserve(hardEnforcement, auditLogger);
             if(!validation.isValid()) {
+                // the consumption is all or nothing, so the limits reserved so far are released
+                reserved.forEach(Request::cancel);
                 command.getReturnValue().getValidationMessages().addAll(validation.getMessagesAsStrings());
                 return false;
             }
+            reserved.add(request);
         }
-
-        // After successful validation, the requests are applied.
-        // This changes only the cached quota objects in the QuotaManager, nothing is written to the DB.
-        requests.get().forEach(Request::apply);
         return true;
     }
 
@@ -483,6 +489,7 @@ public class QuotaManager implements BackendService {
      */
     private Optional<List<Request>> createRequests(List<QuotaConsumptionParameter> parameters,
             CommandBase<?> command,
+            Map<Guid, QuotaUsage> quotaMap,
             boolean hardEnforcement,
             QuotaManagerAuditLogger auditLogger) {
 
@@ -498,7 +505,7 @@ public class QuotaManager implements BackendService {
                 param.setQuotaGuid(storagePoolDefaultQuotaIdMap.get(command.getStoragePoolId()));
             }
 
-            Quota quota = fetchQuotaFromCache(param.getQuotaGuid(), command.getStoragePoolId());
+            QuotaUsage quota = fetchQuotaFromCache(param.getQuotaGuid(), command.getStoragePoolId(), quotaMap);
             if (quota == null) {
                 log.error("The quota id '{}' is not found in backend and DB.", param.getQuotaGuid());
                 if (hardEnforcement) {
@@ -546,7 +553,7 @@ public class QuotaManager implements BackendService {
      * If the parameter is valid, it is added to the corresponding Request in the requestMap.
      */
     private ValidationResult validateAndAddToClusterRequests(QuotaClusterConsumptionParameter param,
-            Quota quota,
+            QuotaUsage quotaUsage,
             String commandClassName,
             Map<Pair<Guid, Guid>, ClusterRequest> requestMap) {
 
@@ -555,24 +562,21 @@ public class QuotaManager implements BackendService {
             return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
         }
 
+        Quota quota = quotaUsage.getQuota();
         Pair<Guid, Guid> key = quota.isGlobalClusterQuota()?
                 new Pair<>(quota.getId(), null) :
                 new Pair<>(quota.getId(), param.getClusterId());
 
         if (!requestMap.containsKey(key)) {
             // Quota must be a global cluster quota or be defined for the same cluster as is the consumption parameter.
-            QuotaCluster quotaCluster = quota.isGlobalClusterQuota() ?
-                    quota.getGlobalQuotaCluster() :
-                    quota.getQuotaClusters().stream()
-                            .filter(c -> c.getClusterId().equals(param.getClusterId()))
-                            .findAny().orElse(null);
+            ClusterLimit clusterLimit = quotaUsage.getClusterLimit(param.getClusterId());
 
-            if (quotaCluster == null) {
+            if (clusterLimit == null) {
                 log.error("Quota Vds parameters from command '{}'. Vds group does not match quota", commandClassName);
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
             }
 
-            requestMap.put(key, new ClusterRequest(quota, quotaCluster));
+            requestMap.put(key, new ClusterRequest(quota, clusterLimit));
         }
 
         // If the quota is released, the values in the request will be negative
@@ -596,7 +600,7 @@ public class QuotaManager implements BackendService {
      * If the parameter is valid, it is added to the corresponding Request in the requestMap.
      */
     private ValidationResult validateAndAddToStorageRequests(QuotaStorageConsumptionParameter param,
-            Quota quota,
+            QuotaUsage quotaUsage,
             String commandClassName,
             Map<Pair<Guid, Guid>, StorageRequest> requestMap) {
 
@@ -605,6 +609,7 @@ public class QuotaManager implements BackendService {
             return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
         }
 
+        Quota quota = quotaUsage.getQuota();
         Pair<Guid, Guid> key = quota.isGlobalStorageQuota() ?
                 new Pair<>(quota.getId(), null) :
                 new Pair<>(quota.getId(), param.getStorageDomainId());
@@ -612,18 +617,14 @@ public class QuotaManager implements BackendService {
         if (!requestMap.containsKey(key)) {
             // Quota must be a global storage quota or be defined for
             // the same storage domain as is the consumption parameter.
-            QuotaStorage quotaStorage = quota.isGlobalStorageQuota() ?
-                    quota.getGlobalQuotaStorage() :
-                    quota.getQuotaStorages().stream()
-                            .filter(s -> s.getStorageId().equals(param.getStorageDomainId()))
-                            .findAny().orElse(null);
+            StorageLimit storageLimit = quotaUsage.getStorageLimit(param.getStorageDomainId());
 
-            if (quotaStorage == null) {
+            if (storageLimit == null) {
                 log.error("Quota storage parameters from command '{}'. Storage domain does not match quota", commandClassName);
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_NO_QUOTA_SET_FOR_DOMAIN);
             }
 
-            requestMap.put(key, new StorageRequest(quota, quotaStorage));
+            requestMap.put(key, new StorageRequest(quota, storageLimit));
         }
 
         // If the quota is released, the values in the request will be negative
@@ -655,27 +656,29 @@ public class QuotaManager implements BackendService {
         }
 
         /**
-         * Validate that the request satisfies quota limits
+         * Validate that the request satisfies quota limits, and if so reserve it on the current quota in the
+         * QuotaManager cache. The usage is read and reserved optimistically, and read again if another command changed
+         * it in between.
          */
-        public abstract ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger);
+        public abstract ValidationResult reserve(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger);
 
         /**
-         * Apply the request on the current quota in the QuotaManager cache
+         * Release the reservation of the request, when another request of the same consumption failed
          */
-        public abstract void apply();
+        public abstract void cancel();
     }
 
     /**
      * Request for cluster quota
      */
     private class ClusterRequest extends Request{
-        private QuotaCluster quotaCluster;
+        private ClusterLimit clusterLimit;
         private int coresRequest = 0;
         private long memoryRequestMB = 0L;
 
-        public ClusterRequest(Quota quota, QuotaCluster quotaCluster) {
+        public ClusterRequest(Quota quota, ClusterLimit clusterLimit) {
             super(quota);
-            this.quotaCluster = quotaCluster;
+            this.clusterLimit = clusterLimit;
         }
 
         public void addCpu(int cpu) {
@@ -687,7 +690,9 @@ public class QuotaManager implements BackendService {
         }
 
         @Override
-        public ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
+        public ValidationResult reserve(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
+            QuotaCluster quotaCluster = clusterLimit.getQuotaCluster();
+
             // The ClusterQuota must allow cpu and memory
             if (quotaCluster.getVirtualCpu() == 0 || quotaCluster.getMemSizeMB() == 0) {
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
@@ -696,31 +701,49 @@ public class QuotaManager implements BackendService {
             int cpuLimit = quotaCluster.getVirtualCpu();
             long memLimit = quotaCluster.getMemSizeMB();
 
-            // Valid if both, CPU and memory, are unlimited
-            if (memLimit == QuotaCluster.UNLIMITED_MEM && cpuLimit == QuotaCluster.UNLIMITED_VCPU) {
+            // Valid if both, CPU and memory, are unlimited,
+            // or if the request releases quota, not consumes it.
+            if ((memLimit == QuotaCluster.UNLIMITED_MEM && cpuLimit == QuotaCluster.UNLIMITED_VCPU)
+                    || (coresRequest <= 0 && memoryRequestMB <= 0)) {
+                clusterLimit.add(coresRequest, memoryRequestMB);
                 return ValidationResult.VALID;
             }
 
-            // Valid if the request releases quota, not consumes it.
-            if (coresRequest <=0 && memoryRequestMB <= 0) {
-                return ValidationResult.VALID;
-            }
+            int threshold = getQuota().getThresholdClusterPercentage();
+            int grace = getQuota().getGraceClusterPercentage() + 100;
 
-            double requestedCoresPercent = 100 * ((double) coresRequest / (double) cpuLimit);
-            double currentCoresPercent = 100 * ((double) quotaCluster.getVirtualCpuUsage() / (double) cpuLimit);
-            double newCoresPercent = requestedCoresPercent + currentCoresPercent;
+            while (true) {
+                ClusterUsage usage = clusterLimit.getUsage();
 
-            double requestedMemoryPercent = 100 * ((double) memoryRequestMB / (double) memLimit);
-            double currentMemoryPercent = 100 * ((double) quotaCluster.getMemSizeMBUsage() / (double) memLimit);
-            double newMemoryPercent = requestedMemoryPercent + currentMemoryPercent;
+                double requestedCoresPercent = 100 * ((double) coresRequest / (double) cpuLimit);
+                double currentCoresPercent = 100 * ((double) usage.getVirtualCpu() / (double) cpuLimit);
+                double newCoresPercent = requestedCoresPercent + currentCoresPercent;
 
-            int threshold = getQuota().getThresholdClusterPercentage();
-            int grace = getQuota().getGraceClusterPercentage() + 100;
+                double requestedMemoryPercent = 100 * ((double) memoryRequestMB / (double) memLimit);
+                double currentMemoryPercent = 100 * ((double) usage.getMemSizeMB() / (double) memLimit);
+                double newMemoryPercent = requestedMemoryPercent + currentMemoryPercent;
+
+                boolean belowGrace = newCoresPercent <= grace && newMemoryPercent <= grace;
+
+                // CPU or memory is above the grace - fail if enforcement is hard, without reserving
+                if (!belowGrace && hardEnforcement) {
+                    logGraceExceeded(currentCoresPercent, requestedCoresPercent, newCoresPercent,
+                            currentMemoryPercent, requestedMemoryPercent, newMemoryPercent,
+                            grace, true, auditLogger);
+                    return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_CLUSTER_LIMIT_EXCEEDED);
+                }
 
-            // Valid if CPU and memory usages are below grace
-            if (newCoresPercent <= grace && newMemoryPercent <= grace) {
-                // Warn if the cluster limit or threshold is exceeded
-                if (newCoresPercent > 100 || newMemoryPercent > 100) {
+                if (!clusterLimit.reserve(usage, coresRequest, memoryRequestMB)) {
+                    reservationConflictCount.increment();
+                    continue;
+                }
+
+                if (!belowGrace) {
+                    logGraceExceeded(currentCoresPercent, requestedCoresPercent, newCoresPercent,
+                            currentMemoryPercent, requestedMemoryPercent, newMemoryPercent,
+                            grace, false, auditLogger);
+                } else if (newCoresPercent > 100 || newMemoryPercent > 100) {
+                    // Warn if the cluster limit or threshold is exceeded
                     auditLogger.logClusterLimitExceeded(
                             getQuota().getQuotaName(),
                             getQuota().getId(),
@@ -736,8 +759,17 @@ public class QuotaManager implements BackendService {
 
                 return ValidationResult.VALID;
             }
+        }
 
-            // CPU or memory is above the grace - fail if enforcement is hard
+        private void logGraceExceeded(double currentCoresPercent,
+                double requestedCoresPercent,
+                double newCoresPercent,
+                double currentMemoryPercent,
+                double requestedMemoryPercent,
+                double newMemoryPercent,
+                int grace,
+                boolean hardEnforcement,
+                QuotaManagerAuditLogger auditLogger) {
             auditLogger.logClusterGraceExceeded(
                     getQuota().getQuotaName(),
                     getQuota().getId(),
@@ -746,17 +778,11 @@ public class QuotaManager implements BackendService {
                     (newMemoryPercent > grace) ? currentMemoryPercent : null,
                     (newMemoryPercent > grace) ? requestedMemoryPercent : null,
                     hardEnforcement);
-
-            if (!hardEnforcement) {
-                return ValidationResult.VALID;
-            }
-            return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_CLUSTER_LIMIT_EXCEEDED);
         }
 
         @Override
-        public void apply() {
-            quotaCluster.setVirtualCpuUsage(coresRequest);
-            quotaCluster.setMemSizeMBUsage(memoryRequestMB);
+        public void cancel() {
+            clusterLimit.add(-coresRequest, -memoryRequestMB);
         }
     }
 
@@ -764,12 +790,12 @@ public class QuotaManager implements BackendService {
      * Request for storage quota
      */
     private class StorageRequest extends Request {
-        private QuotaStorage quotaStorage;
+        private StorageLimit storageLimit;
         private double storageRequestGB = 0.0;
 
-        public StorageRequest(Quota quota, QuotaStorage quotaStorage) {
+        public StorageRequest(Quota quota, StorageLimit storageLimit) {
             super(quota);
-            this.quotaStorage = quotaStorage;
+            this.storageLimit = storageLimit;
         }
 
         public void addStorage(double storageGB) {
@@ -777,30 +803,53 @@ public class QuotaManager implements BackendService {
         }
 
         @Override
-        public ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
-            long storageLimit = quotaStorage.getStorageSizeGB();
+        public ValidationResult reserve(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
+            long storageLimitGB = storageLimit.getQuotaStorage().getStorageSizeGB();
 
-            // Valid if quota is unlimited
-            if (storageLimit == QuotaStorage.UNLIMITED) {
+            // Valid if quota is unlimited,
+            // or if the request releases quota, not consumes it.
+            if (storageLimitGB == QuotaStorage.UNLIMITED || storageRequestGB <= 0) {
+                storageLimit.add(storageRequestGB);
                 return ValidationResult.VALID;
             }
 
-            // Valid if the request releases quota, not consumes it.
-            if (storageRequestGB <= 0) {
-                return ValidationResult.VALID;
-            }
-
-            double requestStoragePercent = 100 * (storageRequestGB / (double) storageLimit);
-            double currentStoragePercent = 100 * (quotaStorage.getStorageSizeGBUsage() / (double) storageLimit);
-            double newStoragePercent = currentStoragePercent + requestStoragePercent;
-
             int threshold = getQuota().getThresholdStoragePercentage();
             int grace = getQuota().getGraceStoragePercentage() + 100;
 
-            // Valid if below grace
-            if (newStoragePercent <= grace) {
-                // Warn if storage limit or threshold is exceeded
-                if (newStoragePercent > 100) {
+            while (true) {
+                double usage = storageLimit.getUsage();
+
+                double requestStoragePercent = 100 * (storageRequestGB / (double) storageLimitGB);
+                double currentStoragePercent = 100 * (usage / (double) storageLimitGB);
+                double newStoragePercent = currentStoragePercent + requestStoragePercent;
+
+                boolean belowGrace = newStoragePercent <= grace;
+
+                // Storage is above the grace - fail if hard enforcement, without reserving
+                if (!belowGrace && hardEnforcement) {
+                    auditLogger.logStorageGraceExceeded(
+                            getQuota().getQuotaName(),
+                            getQuota().getId(),
+                            currentStoragePercent,
+                            requestStoragePercent,
+                            true);
+                    return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_STORAGE_LIMIT_EXCEEDED);
+                }
+
+                if (!storageLimit.reserve(usage, storageRequestGB)) {
+                    reservationConflictCount.increment();
+                    continue;
+                }
+
+                if (!belowGrace) {
+                    auditLogger.logStorageGraceExceeded(
+                            getQuota().getQuotaName(),
+                            getQuota().getId(),
+                            currentStoragePercent,
+                            requestStoragePercent,
+                            false);
+                } else if (newStoragePercent > 100) {
+                    // Warn if storage limit or threshold is exceeded
                     auditLogger.logStorageLimitExceeded(
                             getQuota().getQuotaName(),
                             getQuota().getId(),
@@ -814,24 +863,40 @@ public class QuotaManager implements BackendService {
 
                 return ValidationResult.VALID;
             }
-
-            // Storage is above the grace - fail if hard enforcement
-            auditLogger.logStorageGraceExceeded(
-                    getQuota().getQuotaName(),
-                    getQuota().getId(),
-                    currentStoragePercent,
-                    requestStoragePercent,
-                    hardEnforcement);
-
-            if (!hardEnforcement) {
-                return ValidationResult.VALID;
-            }
-            return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_STORAGE_LIMIT_EXCEEDED);
         }
 
         @Override
-        public void apply() {
-            quotaStorage.setStorageSizeGBUsage(quotaStorage.getStorageSizeGBUsage() + storageRequestGB);
+        public void cancel() {
+            storageLimit.add(-storageRequestGB);
+        }
+    }
+
+    @Override
+    public int getCachedQuotaCount() {
+        int cacheCount = 0;
+        for (Map<Guid, QuotaUsage> quotaMap : storagePoolQuotaMap.values()) {
+            cacheCount += quotaMap.size();
         }
+        return cacheCount;
+    }
+
+    @Override
+    public long getConsumeCount() {
+        return consumeCount.sum();
+    }
+
+    @Override
+    public long getRejectedConsumeCount() {
+        return rejectedConsumeCount.sum();
+    }
+
+    @Override
+    public long getReservationConflictCount() {
+        return reservationConflictCount.sum();
+    }
+
+    @Override
+    public long getReconciledQuotaCount() {
+        return reconciledQuotaCount.sum();
     }
 }
@@ -0,0 +1,33 @@
+package org.ovirt.engine.core.bll.quota;
+
+/**
+ * The following interface is used as interface for JMX bean of the quota manager
+ */
+public interface QuotaManagerMXBean {
+
+    /**
+     * The following method will return the number of quotas currently kept in the cache
+     */
+    int getCachedQuotaCount();
+
+    /**
+     * The following method will return the number of quota consumptions checked against enforced quotas
+     */
+    long getConsumeCount();
+
+    /**
+     * The following method will return the number of quota consumptions rejected because a limit was exceeded
+     */
+    long getRejectedConsumeCount();
+
+    /**
+     * The following method will return the number of limit reservations retried because another command changed the
+     * usage of the same limit at the same time
+     */
+    long getReservationConflictCount();
+
+    /**
+     * The following method will return the number of cached quotas whose usage was reconciled with the database
+     */
+    long getReconciledQuotaCount();
+}
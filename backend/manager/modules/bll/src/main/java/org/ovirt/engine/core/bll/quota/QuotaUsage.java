@@ -0,0 +1,287 @@
+package org.ovirt.engine.core.bll.quota;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.ovirt.engine.core.common.businessentities.Quota;
+import org.ovirt.engine.core.common.businessentities.QuotaCluster;
+import org.ovirt.engine.core.common.businessentities.QuotaStorage;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * The usage of a quota cached by the {@link QuotaManager}.
+ * <p>
+ * The usage of each limit of the quota (the global cluster and storage limits, or the limit of each cluster and
+ * storage domain) is kept in its own atomic counter, so commands consuming different limits never wait for each other.
+ * Commands consuming the same limit reserve it optimistically: they check the limit against the usage they read, and
+ * retry when another command changed the usage in the meantime.
+ */
+class QuotaUsage {
+
+    private final Quota quota;
+    private final ClusterLimit globalClusterLimit;
+    private final StorageLimit globalStorageLimit;
+    private final List<ClusterLimit> clusterLimits;
+    private final List<StorageLimit> storageLimits;
+
+    QuotaUsage(Quota quota) {
+        this.quota = quota;
+        globalClusterLimit = quota.isGlobalClusterQuota() ? new ClusterLimit(quota.getGlobalQuotaCluster()) : null;
+        globalStorageLimit = quota.isGlobalStorageQuota() ? new StorageLimit(quota.getGlobalQuotaStorage()) : null;
+
+        clusterLimits = new ArrayList<>();
+        if (quota.getQuotaClusters() != null) {
+            quota.getQuotaClusters().forEach(quotaCluster -> clusterLimits.add(new ClusterLimit(quotaCluster)));
+        }
+
+        storageLimits = new ArrayList<>();
+        if (quota.getQuotaStorages() != null) {
+            quota.getQuotaStorages().forEach(quotaStorage -> storageLimits.add(new StorageLimit(quotaStorage)));
+        }
+    }
+
+    public Quota getQuota() {
+        return quota;
+    }
+
+    /**
+     * @return the limit consumed by the given cluster: the global cluster limit if defined, otherwise the limit of the
+     *         cluster, or null if the quota does not allow to consume the cluster
+     */
+    public ClusterLimit getClusterLimit(Guid clusterId) {
+        if (globalClusterLimit != null) {
+            return globalClusterLimit;
+        }
+        return clusterLimits.stream()
+                .filter(limit -> clusterId.equals(limit.getQuotaCluster().getClusterId()))
+                .findAny().orElse(null);
+    }
+
+    /**
+     * @return the limit consumed by the given storage domain: the global storage limit if defined, otherwise the
+     *         limit of the storage domain, or null if the quota does not allow to consume the storage domain
+     */
+    public StorageLimit getStorageLimit(Guid storageDomainId) {
+        if (globalStorageLimit != null) {
+            return globalStorageLimit;
+        }
+        return storageLimits.stream()
+                .filter(limit -> storageDomainId.equals(limit.getQuotaStorage().getStorageId()))
+                .findAny().orElse(null);
+    }
+
+    /**
+     * Sets the limits and the current usage of this quota to the given quota
+     */
+    public void copyUsageTo(Quota quotaExternal) {
+        if (globalStorageLimit != null) {
+            quotaExternal.setGlobalQuotaStorage(globalStorageLimit.copyUsage());
+        }
+        if (globalClusterLimit != null) {
+            quotaExternal.setGlobalQuotaCluster(globalClusterLimit.copyUsage());
+        }
+
+        if (quota.getQuotaStorages() != null) {
+            quotaExternal.setQuotaStorages(new ArrayList<>());
+            storageLimits.forEach(limit -> quotaExternal.getQuotaStorages().add(limit.copyUsage()));
+        }
+
+        if (quota.getQuotaClusters() != null) {
+            quotaExternal.setQuotaClusters(new ArrayList<>());
+            clusterLimits.forEach(limit -> quotaExternal.getQuotaClusters().add(limit.copyUsage()));
+        }
+    }
+
+    /**
+     * Sets the usage of the limits of this quota to their usage in the given quota, read from the database, except
+     * for the limits reserved since the previous reconciliation: their usage may include reservations of commands
+     * that are not written to the database yet, so they are reconciled next time. Must not be called while the quota
+     * is consumed.
+     *
+     * @return true if the usage of any limit was reconciled
+     */
+    public boolean reconcile(Quota dbQuota) {
+        boolean reconciled = false;
+        if (globalClusterLimit != null && dbQuota.getGlobalQuotaCluster() != null) {
+            reconciled |= globalClusterLimit.reconcile(dbQuota.getGlobalQuotaCluster());
+        }
+        if (globalStorageLimit != null && dbQuota.getGlobalQuotaStorage() != null) {
+            reconciled |= globalStorageLimit.reconcile(dbQuota.getGlobalQuotaStorage());
+        }
+
+        if (dbQuota.getQuotaClusters() != null) {
+            for (QuotaCluster dbQuotaCluster : dbQuota.getQuotaClusters()) {
+                ClusterLimit limit = clusterLimits.stream()
+                        .filter(l -> Objects.equals(l.getQuotaCluster().getClusterId(), dbQuotaCluster.getClusterId()))
+                        .findAny().orElse(null);
+                if (limit != null) {
+                    reconciled |= limit.reconcile(dbQuotaCluster);
+                }
+            }
+        }
+
+        if (dbQuota.getQuotaStorages() != null) {
+            for (QuotaStorage dbQuotaStorage : dbQuota.getQuotaStorages()) {
+                StorageLimit limit = storageLimits.stream()
+                        .filter(l -> Objects.equals(l.getQuotaStorage().getStorageId(), dbQuotaStorage.getStorageId()))
+                        .findAny().orElse(null);
+                if (limit != null) {
+                    reconciled |= limit.reconcile(dbQuotaStorage);
+                }
+            }
+        }
+        return reconciled;
+    }
+
+    /**
+     * The usage of a cluster limit, replaced as a whole so that the virtual CPUs and the memory are reserved together
+     */
+    static final class ClusterUsage {
+        private final int virtualCpu;
+        private final long memSizeMB;
+
+        ClusterUsage(int virtualCpu, long memSizeMB) {
+            this.virtualCpu = virtualCpu;
+            this.memSizeMB = memSizeMB;
+        }
+
+        public int getVirtualCpu() {
+            return virtualCpu;
+        }
+
+        public long getMemSizeMB() {
+            return memSizeMB;
+        }
+
+        ClusterUsage add(int virtualCpuRequest, long memSizeMBRequest) {
+            return new ClusterUsage(virtualCpu + virtualCpuRequest, memSizeMB + memSizeMBRequest);
+        }
+    }
+
+    static final class ClusterLimit {
+        private final QuotaCluster quotaCluster;
+        private final AtomicReference<ClusterUsage> usage;
+        private volatile boolean reserved;
+
+        ClusterLimit(QuotaCluster quotaCluster) {
+            this.quotaCluster = quotaCluster;
+            usage = new AtomicReference<>(toUsage(quotaCluster));
+        }
+
+        private static ClusterUsage toUsage(QuotaCluster quotaCluster) {
+            return new ClusterUsage(
+                    quotaCluster.getVirtualCpuUsage() == null ? 0 : quotaCluster.getVirtualCpuUsage(),
+                    quotaCluster.getMemSizeMBUsage() == null ? 0L : quotaCluster.getMemSizeMBUsage());
+        }
+
+        /**
+         * @return the limits of the cluster, its usage fields are not updated by the reservations
+         */
+        public QuotaCluster getQuotaCluster() {
+            return quotaCluster;
+        }
+
+        public ClusterUsage getUsage() {
+            return usage.get();
+        }
+
+        /**
+         * Adds the given request to the usage if it is still the expected one
+         *
+         * @return true if the usage was updated, false if another reservation changed it since it was read
+         */
+        public boolean reserve(ClusterUsage expectedUsage, int virtualCpuRequest, long memSizeMBRequest) {
+            if (!usage.compareAndSet(expectedUsage, expectedUsage.add(virtualCpuRequest, memSizeMBRequest))) {
+                return false;
+            }
+            reserved = true;
+            return true;
+        }
+
+        public void add(int virtualCpuRequest, long memSizeMBRequest) {
+            usage.updateAndGet(current -> current.add(virtualCpuRequest, memSizeMBRequest));
+            reserved = true;
+        }
+
+        boolean reconcile(QuotaCluster dbQuotaCluster) {
+            if (reserved) {
+                reserved = false;
+                return false;
+            }
+            usage.set(toUsage(dbQuotaCluster));
+            return true;
+        }
+
+        QuotaCluster copyUsage() {
+            ClusterUsage current = usage.get();
+            return new QuotaCluster(null, null, null,
+                    quotaCluster.getVirtualCpu(),
+                    current.getVirtualCpu(),
+                    quotaCluster.getMemSizeMB(),
+                    current.getMemSizeMB());
+        }
+    }
+
+    static final class StorageLimit {
+        private final QuotaStorage quotaStorage;
+        private final AtomicLong usageBits;
+        private volatile boolean reserved;
+
+        StorageLimit(QuotaStorage quotaStorage) {
+            this.quotaStorage = quotaStorage;
+            usageBits = new AtomicLong(toUsageBits(quotaStorage));
+        }
+
+        private static long toUsageBits(QuotaStorage quotaStorage) {
+            double usage = quotaStorage.getStorageSizeGBUsage() == null ? 0.0 : quotaStorage.getStorageSizeGBUsage();
+            return Double.doubleToLongBits(usage);
+        }
+
+        /**
+         * @return the limit of the storage, its usage field is not updated by the reservations
+         */
+        public QuotaStorage getQuotaStorage() {
+            return quotaStorage;
+        }
+
+        public double getUsage() {
+            return Double.longBitsToDouble(usageBits.get());
+        }
+
+        /**
+         * Adds the given request to the usage if it is still the expected one
+         *
+         * @return true if the usage was updated, false if another reservation changed it since it was read
+         */
+        public boolean reserve(double expectedUsage, double storageGBRequest) {
+            if (!usageBits.compareAndSet(Double.doubleToLongBits(expectedUsage),
+                    Double.doubleToLongBits(expectedUsage + storageGBRequest))) {
+                return false;
+            }
+            reserved = true;
+            return true;
+        }
+
+        public void add(double storageGBRequest) {
+            usageBits.updateAndGet(
+                    bits -> Double.doubleToLongBits(Double.longBitsToDouble(bits) + storageGBRequest));
+            reserved = true;
+        }
+
+        boolean reconcile(QuotaStorage dbQuotaStorage) {
+            if (reserved) {
+                reserved = false;
+                return false;
+            }
+            usageBits.set(toUsageBits(dbQuotaStorage));
+            return true;
+        }
+
+        QuotaStorage copyUsage() {
+            return new QuotaStorage(null, null, null, quotaStorage.getStorageSizeGB(), getUsage());
+        }
+    }
+}
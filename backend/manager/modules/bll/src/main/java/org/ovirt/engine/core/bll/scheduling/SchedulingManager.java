@@ -15,13 +15,17 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -141,6 +145,9 @@ public class SchedulingManager implements BackendService {
     @Inject
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.SchedulingUnits)
+    private ManagedExecutorService policyUnitsExecutor;
 
     private PendingResourceManager pendingResourceManager;
 
@@ -951,12 +958,19 @@ public class SchedulingManager implements BackendService {
             SchedulingContext context,
             String correlationId,
             SchedulingResult result) {
+        // The filters are always chained, each of them gets the hosts that passed the previous ones and may update
+        // the scheduling context for the next ones, so they can not be evaluated concurrently
+        List<String> filterNames = new ArrayList<>();
+        List<Long> filterTimes = new ArrayList<>();
         for (PolicyUnitImpl filterPolicyUnit : context.getInternalFilters()) {
             if (hostList.isEmpty()) {
                 break;
             }
             List<VDS> currentHostList = new ArrayList<>(hostList);
+            long start = System.nanoTime();
             hostList = filterPolicyUnit.filter(context, hostList, vmGroup, result.getDetails());
+            filterNames.add(filterPolicyUnit.getPolicyUnit().getName());
+            filterTimes.add(System.nanoTime() - start);
             logFilterActions(currentHostList,
                     toIdSet(hostList),
                     EngineMessage.VAR__FILTERTYPE__INTERNAL,
@@ -964,9 +978,81 @@ public class SchedulingManager implements BackendService {
                     result,
                     correlationId);
         }
+        logPolicyUnitTimes("filter", filterNames, filterTimes, correlationId);
         return hostList;
     }
 
+    private boolean isParallelEvaluationEnabled(int policyUnitsCount) {
+        return policyUnitsCount > 1
+                && policyUnitsExecutor != null
+                && Config.<Boolean>getValue(ConfigValues.SchedulingParallelEvaluation);
+    }
+
+    /**
+     * Runs the given evaluations of policy units on the policy units executor and waits for all of them to finish
+     *
+     * @return the results of the evaluations, in the order of the given policy units
+     */
+    private <T> List<T> evaluateInParallel(String unitType,
+            List<PolicyUnitImpl> policyUnits,
+            List<Callable<T>> evaluations,
+            String correlationId) {
+        long[] times = new long[evaluations.size()];
+        List<Callable<T>> timedEvaluations = new ArrayList<>(evaluations.size());
+        for (int i = 0; i < evaluations.size(); i++) {
+            int index = i;
+            Callable<T> evaluation = evaluations.get(i);
+            timedEvaluations.add(() -> {
+                long start = System.nanoTime();
+                try {
+                    return evaluation.call();
+                } finally {
+                    times[index] = System.nanoTime() - start;
+                }
+            });
+        }
+
+        List<T> results = new ArrayList<>(evaluations.size());
+        try {
+            for (Future<T> future : policyUnitsExecutor.invokeAll(timedEvaluations)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause()
+                    : new RuntimeException(e.getCause());
+        }
+
+        logPolicyUnitTimes(unitType,
+                policyUnits.stream().map(unit -> unit.getPolicyUnit().getName()).collect(Collectors.toList()),
+                Arrays.stream(times).boxed().collect(Collectors.toList()),
+                correlationId);
+        return results;
+    }
+
+    private void logPolicyUnitTimes(String unitType,
+            List<String> unitNames,
+            List<Long> unitTimes,
+            String correlationId) {
+        if (!log.isDebugEnabled() || unitNames.isEmpty()) {
+            return;
+        }
+        StringBuilder times = new StringBuilder();
+        for (int i = 0; i < unitNames.size(); i++) {
+            if (i > 0) {
+                times.append(", ");
+            }
+            times.append(String.format("%s: %.3f ms", unitNames.get(i), unitTimes.get(i) / 1_000_000.0));
+        }
+        log.debug("Evaluation times of scheduling {} policy units (correlation id: {}): {}",
+                unitType,
+                correlationId,
+                times);
+    }
+
     private Set<Guid> toIdSet(List<VDS> hostList) {
         return hostList.stream().map(VDS::getId).collect(Collectors.toSet());
     }
@@ -1041,15 +1127,38 @@ public class SchedulingManager implements BackendService {
         return selector.best();
     }
 
-    private void runInternalFunctions(SelectorInstance selector,
+    void runInternalFunctions(SelectorInstance selector,
             List<VDS> hostList,
             List<VM> vmGroup,
             SchedulingContext context) {
+        List<PolicyUnitImpl> functions = context.getInternalScoreFunctions().stream()
+                .map(Pair::getFirst)
+                .collect(Collectors.toList());
+
+        List<List<Pair<Guid, Integer>>> scoreResults;
+        if (isParallelEvaluationEnabled(functions.size())) {
+            // The score functions don't depend on each other, so only the order of recording their results matters
+            List<Callable<List<Pair<Guid, Integer>>>> evaluations = functions.stream()
+                    .map(function -> (Callable<List<Pair<Guid, Integer>>>) () ->
+                            function.score(context, hostList, vmGroup))
+                    .collect(Collectors.toList());
+            scoreResults = evaluateInParallel("weight", functions, evaluations, null);
+        } else {
+            List<String> functionNames = new ArrayList<>();
+            List<Long> functionTimes = new ArrayList<>();
+            scoreResults = new ArrayList<>(functions.size());
+            for (PolicyUnitImpl function : functions) {
+                long start = System.nanoTime();
+                scoreResults.add(function.score(context, hostList, vmGroup));
+                functionNames.add(function.getPolicyUnit().getName());
+                functionTimes.add(System.nanoTime() - start);
+            }
+            logPolicyUnitTimes("weight", functionNames, functionTimes, null);
+        }
 
-        for (Pair<PolicyUnitImpl, Integer> pair : context.getInternalScoreFunctions()) {
-            List<Pair<Guid, Integer>> scoreResult = pair.getFirst().score(context, hostList, vmGroup);
-            for (Pair<Guid, Integer> result : scoreResult) {
-                selector.record(pair.getFirst().getGuid(), result.getFirst(), result.getSecond());
+        for (int i = 0; i < functions.size(); i++) {
+            for (Pair<Guid, Integer> result : scoreResults.get(i)) {
+                selector.record(functions.get(i).getGuid(), result.getFirst(), result.getSecond());
             }
         }
     }
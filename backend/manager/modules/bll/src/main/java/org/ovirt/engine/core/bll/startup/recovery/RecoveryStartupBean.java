@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.PostConstruct;
 import javax.ejb.DependsOn;
@@ -99,22 +100,24 @@ final class RecoveryStartupBean {
      */
     private boolean setVmsInTransitionAsUnknown(Set<Guid> hostIds) {
         // Is there any VM that is not fully Up or fully Down?
-        boolean runningVmsInTransition = false;
+        final AtomicBoolean runningVmsInTransition = new AtomicBoolean();
 
-        final List<VM> vms = vmDao.getAll();
-        for (VM vm : vms) {
+        // the VMs are streamed from the database, only the few ones to update are kept until they are all read
+        final List<VM> vmsToSetUnknown = new ArrayList<>();
+        vmDao.processAll(vm -> {
             if (!vm.isNotRunning()) {
                 if (vm.getRunOnVds() != null && hostIds.contains(vm.getRunOnVds())) {
-                    resourceManager.setVmUnknown(vm);
+                    vmsToSetUnknown.add(vm);
                 }
             }
 
             if (isVmInTransition(vm)) {
-                runningVmsInTransition = true;
+                runningVmsInTransition.set(true);
             }
-        }
+        });
+        vmsToSetUnknown.forEach(resourceManager::setVmUnknown);
 
-        return runningVmsInTransition;
+        return runningVmsInTransition.get();
     }
 
     private boolean isVmInTransition(VM vm) {
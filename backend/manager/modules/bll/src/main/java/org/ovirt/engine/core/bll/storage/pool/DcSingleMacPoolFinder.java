@@ -1,6 +1,9 @@
 package org.ovirt.engine.core.bll.storage.pool;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -27,7 +30,30 @@ public class DcSingleMacPoolFinder {
      * @return The mac-pool ID if a single one is present in the given DC, otherwise <code>null</code>.
      */
     public Guid find(Guid dcId) {
-        final List<Cluster> clusters = clusterDao.getAllForStoragePool(dcId);
+        return findSingleMacPool(clusterDao.getAllForStoragePool(dcId));
+    }
+
+    /**
+     * Same as {@link #find(Guid)} for many DCs at once, reading the clusters of all of them by a single query.
+     *
+     * @param dcIds
+     *            the DC IDs to be scanned.
+     * @return The mac-pool ID of each given DC, <code>null</code> for DCs which do not have a single mac-pool.
+     */
+    public Map<Guid, Guid> findAll(Collection<Guid> dcIds) {
+        final Map<Guid, List<Cluster>> clustersByDc = clusterDao.getAllForStoragePools(dcIds)
+                .stream()
+                .collect(Collectors.groupingBy(Cluster::getStoragePoolId));
+
+        final Map<Guid, Guid> macPoolIdByDc = new HashMap<>();
+        for (Guid dcId : dcIds) {
+            final List<Cluster> clusters = clustersByDc.get(dcId);
+            macPoolIdByDc.put(dcId, clusters == null ? null : findSingleMacPool(clusters));
+        }
+        return macPoolIdByDc;
+    }
+
+    private Guid findSingleMacPool(List<Cluster> clusters) {
         final Set<Guid> macPoolIds = clusters.stream().map(Cluster::getMacPoolId).collect(Collectors.toSet());
 
         // each cluster, due to db constraint, must have not null reference to pool, thus collection cannot be empty.
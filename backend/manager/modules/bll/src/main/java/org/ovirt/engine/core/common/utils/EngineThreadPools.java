@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.common.utils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -10,6 +11,7 @@ import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.BackendService;
 import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.ovirt.engine.core.utils.threadpool.MonitoringScheduler;
 import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.slf4j.Logger;
@@ -22,11 +24,14 @@ public class EngineThreadPools implements BackendService {
 
     public static final String COMMAND_COORDINATOR_POOL_NAME = "java:jboss/ee/concurrency/executor/commandCoordinator";
     public static final String HOST_UPDATES_CHECKER_POOL_NAME = "java:jboss/ee/concurrency/executor/hostUpdatesChecker";
+    public static final String SCHEDULING_UNITS_POOL_NAME = "java:jboss/ee/concurrency/executor/schedulingUnits";
     public static final String ENGINE_SCHEDULED_POOL_NAME =
             "java:jboss/ee/concurrency/scheduler/engineScheduledThreadPool";
     public static final String ENGINE_THREAD_MONITORING_POOL_NAME =
             "java:jboss/ee/concurrency/scheduler/engineThreadMonitoringThreadPool";
     public static final String ENGINE_THREAD_FACTORY_NAME = "java:jboss/ee/concurrency/factory/engine";
+    public static final String HOST_MONITORING_THREAD_FACTORY_NAME =
+            "java:jboss/ee/concurrency/factory/hostMonitoring";
 
     @Resource(lookup = EngineThreadPools.COMMAND_COORDINATOR_POOL_NAME)
     private ManagedExecutorService cocoPool;
@@ -34,6 +39,9 @@ public class EngineThreadPools implements BackendService {
     @Resource(lookup = EngineThreadPools.HOST_UPDATES_CHECKER_POOL_NAME)
     private ManagedExecutorService hostUpdatesCheckerPool;
 
+    @Resource(lookup = EngineThreadPools.SCHEDULING_UNITS_POOL_NAME)
+    private ManagedExecutorService schedulingUnitsPool;
+
     @Resource(lookup = EngineThreadPools.ENGINE_SCHEDULED_POOL_NAME)
     private ManagedScheduledExecutorService engineScheduledThreadPool;
 
@@ -43,6 +51,11 @@ public class EngineThreadPools implements BackendService {
     @Resource(lookup = ENGINE_THREAD_FACTORY_NAME)
     private static ManagedThreadFactory threadFactory;
 
+    @Resource(lookup = HOST_MONITORING_THREAD_FACTORY_NAME)
+    private ManagedThreadFactory hostMonitoringThreadFactory;
+
+    private MonitoringScheduler hostMonitoringScheduler;
+
     @PostConstruct
     private void init() {
         // initialize ThreadPoolUtil
@@ -53,6 +66,16 @@ public class EngineThreadPools implements BackendService {
                         EngineLocalConfig.getInstance().getInteger("ENGINE_THREAD_POOL_MIN_SIZE"),
                         EngineLocalConfig.getInstance().getInteger("ENGINE_THREAD_POOL_MAX_SIZE"),
                         EngineLocalConfig.getInstance().getInteger("ENGINE_THREAD_POOL_QUEUE_SIZE")));
+        hostMonitoringScheduler = new MonitoringScheduler(
+                "HostMonitoring",
+                hostMonitoringThreadFactory,
+                EngineLocalConfig.getInstance().getInteger("HOST_MONITORING_THREAD_POOL_SIZE"),
+                EngineLocalConfig.getInstance().getInteger("HOST_MONITORING_MAX_CONCURRENT_DB_FLUSHES"));
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        hostMonitoringScheduler.shutdown();
     }
 
     @Produces
@@ -67,6 +90,12 @@ public class EngineThreadPools implements BackendService {
         return hostUpdatesCheckerPool;
     }
 
+    @Produces
+    @ThreadPools(ThreadPools.ThreadPoolType.SchedulingUnits)
+    public ManagedExecutorService schedulingUnitsPoolProducer() {
+        return schedulingUnitsPool;
+    }
+
     @Produces
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     public ManagedScheduledExecutorService engineScheduledThreadPoolProducer() {
@@ -78,4 +107,10 @@ public class EngineThreadPools implements BackendService {
     public ManagedScheduledExecutorService engineThreadMonitoringThreadPoolProducer() {
         return engineThreadMonitoringThreadPool;
     }
+
+    @Produces
+    @ThreadPools(ThreadPools.ThreadPoolType.HostMonitoring)
+    public MonitoringScheduler hostMonitoringSchedulerProducer() {
+        return hostMonitoringScheduler;
+    }
 }
@@ -2,6 +2,8 @@ package org.ovirt.engine.core.bll;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.util.Arrays;
 
@@ -34,4 +36,19 @@ public class CommandsFactoryTest {
 
         assertEquals(1, CommandsFactory.getConstructorCacheSize());
     }
+
+    @Test
+    public void testCommandsAreRegistered() {
+        CommandRegistry registry = CommandsFactory.getRegistry();
+        String name = CreateUserSessionCommand.class.getSimpleName();
+
+        assertEquals(CreateUserSessionCommand.class, registry.getCommandClass(name));
+        assertNotNull(registry.getCommandFactory(name));
+    }
+
+    @Test
+    public void testCommandsMissingFromRegistryAreSearchedByName() {
+        assertNull(CommandsFactory.getRegistry().getCommandClass(UnregisteredTestCommand.class.getSimpleName()));
+        assertEquals(UnregisteredTestCommand.class, CommandsFactory.getCommandClass("UnregisteredTest"));
+    }
 }
@@ -13,6 +13,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.ovirt.engine.core.common.vdscommands.VDSCommandType.ConnectStorageServer;
@@ -38,6 +39,7 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.bll.storage.domain.IsoDomainListSynchronizer;
 import org.ovirt.engine.core.bll.validator.RunVmValidator;
 import org.ovirt.engine.core.common.AuditLogType;
@@ -114,6 +116,9 @@ public class RunVmCommandTest extends BaseCommandTest {
     @Mock
     private StorageServerConnectionDao storageServerConnectionDao;
 
+    @Mock
+    private SchedulingManager schedulingManager;
+
     @Spy
     @InjectMocks
     VmHandler vmHandler;
@@ -414,6 +419,35 @@ public class RunVmCommandTest extends BaseCommandTest {
         assertEquals(RunVmFlow.RESUME_HIBERNATE, command.getFlow());
     }
 
+    @Test
+    public void testBatchSchedulingOnDehibernate() {
+        final VM vm = new VM();
+        vm.setStatus(VMStatus.Suspended);
+        command.setVm(vm);
+        assertTrue(command.isBatchSchedulingSupported());
+    }
+
+    @Test
+    public void testNoBatchSchedulingOnResume() {
+        final VM vm = new VM();
+        vm.setStatus(VMStatus.Paused);
+        command.setVm(vm);
+        assertFalse(command.isBatchSchedulingSupported());
+    }
+
+    @Test
+    public void testUnusedBatchScheduledVdsReleased() {
+        final VM vm = new VM();
+        command.setVm(vm);
+
+        command.releaseBatchScheduledVds();
+        verify(schedulingManager, never()).clearPendingVm(any());
+
+        command.setBatchScheduledVdsId(Guid.newGuid());
+        command.releaseBatchScheduledVds();
+        verify(schedulingManager).clearPendingVm(vm.getStaticData());
+    }
+
     @Test
     public void testFlowOnStatelessNoDisks() {
         final VM vm = new VM();
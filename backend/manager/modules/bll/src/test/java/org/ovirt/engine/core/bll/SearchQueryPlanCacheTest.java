@@ -0,0 +1,111 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ovirt.engine.core.aaa.QueryData;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.interfaces.SearchType;
+import org.ovirt.engine.core.common.queries.SearchParameters;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith(MockConfigExtension.class)
+public class SearchQueryPlanCacheTest {
+
+    private static final int MAX_SIZE = 2;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.SearchQueryPlanCacheSize, MAX_SIZE));
+    }
+
+    private SearchQueryPlanCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new SearchQueryPlanCache();
+    }
+
+    private static QueryData createQueryData() {
+        return new QueryData("SELECT 1", System.currentTimeMillis(), null, null);
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("Vms: name = vm1 and status = up",
+                SearchQueryPlanCache.normalize("  Vms:  name =  vm1\tand status = up "));
+        assertEquals("Vms: name = \"my  vm\" and description = 'a  b'",
+                SearchQueryPlanCache.normalize("Vms:  name = \"my  vm\"   and description = 'a  b'"));
+    }
+
+    @Test
+    public void testKey() {
+        SearchParameters parameters = new SearchParameters("Vms:  name = vm1", SearchType.VM);
+        SearchParameters sameParameters = new SearchParameters("Vms: name = vm1 ", SearchType.VM);
+        SearchParameters otherPage = new SearchParameters("Vms: name = vm1", SearchType.VM);
+        otherPage.setSearchFrom(100);
+
+        assertEquals(SearchQueryPlanCache.createKey(parameters), SearchQueryPlanCache.createKey(sameParameters));
+        assertNotEquals(SearchQueryPlanCache.createKey(parameters), SearchQueryPlanCache.createKey(otherPage));
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        QueryData data = createQueryData();
+
+        assertNull(cache.get("key"));
+        cache.put("key", data);
+        assertSame(data, cache.get("key"));
+
+        assertEquals(1, cache.getHitsCount());
+        assertEquals(1, cache.getMissesCount());
+    }
+
+    @Test
+    public void testExpired() {
+        cache.put("key",
+                new QueryData("SELECT 1", System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1), null, null));
+
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testUnparsableSearchKept() {
+        cache.put("key", null);
+
+        assertTrue(cache.containsKey("key"));
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        cache.put("key1", createQueryData());
+        cache.put("key2", createQueryData());
+        cache.get("key1");
+        cache.put("key3", createQueryData());
+
+        assertEquals(MAX_SIZE, cache.getSize());
+        assertTrue(cache.containsKey("key1"));
+        assertFalse(cache.containsKey("key2"));
+        assertEquals(1, cache.getEvictionsCount());
+    }
+
+    @Test
+    public void testParseTime() {
+        cache.recordParseTime(TimeUnit.MICROSECONDS.toNanos(10));
+        cache.recordParseTime(TimeUnit.MICROSECONDS.toNanos(30));
+
+        assertEquals(2, cache.getParsesCount());
+        assertEquals(20, cache.getAverageParseTimeMicros());
+    }
+}
@@ -1,20 +1,28 @@
 package org.ovirt.engine.core.bll;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.matches;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.ovirt.engine.core.bll.quota.QuotaManager;
@@ -23,6 +31,7 @@ import org.ovirt.engine.core.common.businessentities.Quota;
 import org.ovirt.engine.core.common.businessentities.ServerCpu;
 import org.ovirt.engine.core.common.businessentities.StoragePool;
 import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VmEntityType;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
@@ -56,6 +65,7 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
         return Stream.concat(AbstractQueryTest.mockConfiguration(),
                 Stream.of(
                         MockConfigDescriptor.of(ConfigValues.UserSessionTimeOutInterval, 30),
+                        MockConfigDescriptor.of(ConfigValues.SearchQueryPlanCacheSize, 100),
                         MockConfigDescriptor.of(ConfigValues.SupportedClusterLevels,
                                 new HashSet<>(Collections.singletonList(new Version(3, 0)))),
                         MockConfigDescriptor.of(ConfigValues.DBEngine, null),
@@ -96,6 +106,8 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
     private VmHandler vmHandler;
     @Mock
     private VmNetworkInterfaceDao vmNetworkInterfaceDao;
+    @Spy
+    private SearchQueryPlanCache planCache = new SearchQueryPlanCache();
 
     List<Disk> diskImageResultList = new ArrayList<>();
     List<Quota> quotaResultList = new ArrayList<>();
@@ -108,8 +120,14 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
     List<GlusterVolumeEntity> glusterVolumeList = new ArrayList<>();
     List<NetworkView> networkResultList = new ArrayList<>();
 
+    @BeforeEach
+    public void mockSearchFromFirstPage() {
+        // a mocked list getter returns an empty list, which is a position to search after
+        when(getQueryParameters().getSearchAfter()).thenReturn(null);
+    }
+
     /**
-     * Mock disk Dao so that when getAllWithQuery will be called with the appropriate query string, a unique list will
+     * Mock disk Dao so that when processAllWithQuery will be called with the appropriate query string, a unique list will
      * be returned. <BR/>
      * This returned list will indicate, if the correct string has been passed as an argument to the getAllWithQuery
      * API.
@@ -119,8 +137,10 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
     @BeforeEach
     public void mockDiskDao() {
         SearchObjectAutoCompleter search = new SearchObjectAutoCompleter();
-        when(diskDao.getAllWithQuery(matches(getDiskImageRegexString(search))))
-                .thenReturn(diskImageResultList);
+        doAnswer(invocation -> {
+            diskImageResultList.forEach(invocation.<Consumer<Disk>> getArgument(1));
+            return null;
+        }).when(diskDao).processAllWithQuery(matches(getDiskImageRegexString(search)), any());
     }
 
     @BeforeEach
@@ -235,7 +255,7 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
     }
 
     /**
-     * Mock VM Dao so that when getAllWithQuery will be called with the appropriate query string, a unique list will be
+     * Mock VM Dao so that when processAllUsingQuery will be called with the appropriate query string, a unique list will be
      * returned. <BR/>
      * This returned list will indicate, if the correct string has been passed as an argument to the getAllWithQuery
      * API.
@@ -244,8 +264,10 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
      */
     public void mockVMDao() {
         SearchObjectAutoCompleter search = new SearchObjectAutoCompleter();
-        when(vmDao.getAllUsingQuery(matches(getVMRegexString(search))))
-                .thenReturn(vmResultList);
+        doAnswer(invocation -> {
+            vmResultList.forEach(invocation.<Consumer<VM>> getArgument(1));
+            return null;
+        }).when(vmDao).processAllUsingQuery(matches(getVMRegexString(search)), any());
     }
 
     /**
@@ -472,6 +494,64 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
         assertEquals(clusterResultList, getQuery().getQueryReturnValue().getReturnValue());
     }
 
+    @Test
+    public void testClusterSearchHostsWithMissingCpuFlags() {
+        Cluster clusterWithMissingFlags = createCluster();
+        Cluster clusterWithoutMissingFlags = createCluster();
+        clusterResultList.add(clusterWithMissingFlags);
+        clusterResultList.add(clusterWithoutMissingFlags);
+
+        VDS hostWithMissingFlags = new VDS();
+        hostWithMissingFlags.setClusterId(clusterWithMissingFlags.getId());
+        hostWithMissingFlags.setCpuFlags("missing");
+        VDS hostWithoutMissingFlags = new VDS();
+        hostWithoutMissingFlags.setClusterId(clusterWithoutMissingFlags.getId());
+        hostWithoutMissingFlags.setCpuFlags("flag");
+        when(vdsDao.getAllForClustersWithStatus(
+                Arrays.asList(clusterWithMissingFlags.getId(), clusterWithoutMissingFlags.getId()),
+                VDSStatus.Up))
+                .thenReturn(Arrays.asList(hostWithMissingFlags, hostWithoutMissingFlags));
+        when(cpuFlagsManagerHandler.missingServerCpuFlags(any(), eq("missing"), any()))
+                .thenReturn(Collections.singletonList("flag"));
+
+        when(getQueryParameters().getSearchPattern()).thenReturn("Cluster" + CommonConstants.QUERY_RETURN_TYPE_SEPARATOR);
+        when(getQueryParameters().getSearchTypeValue()).thenReturn(SearchType.Cluster);
+        getQuery().executeQueryCommand();
+
+        assertEquals(clusterResultList, getQuery().getQueryReturnValue().getReturnValue());
+        assertTrue(clusterWithMissingFlags.hasHostWithMissingCpuFlags());
+        assertFalse(clusterWithoutMissingFlags.hasHostWithMissingCpuFlags());
+    }
+
+    private static Cluster createCluster() {
+        Cluster cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setCompatibilityVersion(Version.getLast());
+        return cluster;
+    }
+
+    @Test
+    public void testSearchQueryCached() {
+        when(getQueryParameters().getSearchPattern()).thenReturn("Cluster" + CommonConstants.QUERY_RETURN_TYPE_SEPARATOR);
+        when(getQueryParameters().getSearchTypeValue()).thenReturn(SearchType.Cluster);
+        getQuery().executeQueryCommand();
+        getQuery().executeQueryCommand();
+
+        assertEquals(1, planCache.getParsesCount());
+        assertEquals(1, planCache.getHitsCount());
+        assertEquals(clusterResultList, getQuery().getQueryReturnValue().getReturnValue());
+    }
+
+    @Test
+    public void testSearchAfterPositionNotMatchingSortKeysIsNotCached() {
+        when(getQueryParameters().getSearchPattern()).thenReturn("Cluster" + CommonConstants.QUERY_RETURN_TYPE_SEPARATOR);
+        when(getQueryParameters().getSearchTypeValue()).thenReturn(SearchType.Cluster);
+        when(getQueryParameters().getSearchAfter()).thenReturn(Arrays.asList("first", "second", "third"));
+
+        assertThrows(IllegalArgumentException.class, () -> getQuery().executeQueryCommand());
+        assertEquals(0, planCache.getSize());
+    }
+
     @Test
     public void testGetAllStoragePoolSearch() {
         when(getQueryParameters().getSearchPattern()).thenReturn("Datacenter" + CommonConstants.QUERY_RETURN_TYPE_SEPARATOR);
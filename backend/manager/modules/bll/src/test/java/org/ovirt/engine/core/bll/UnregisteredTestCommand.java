@@ -0,0 +1,7 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * A command class compiled without annotation processing, so it is not part of the generated registry
+ */
+public class UnregisteredTestCommand {
+}
@@ -1,12 +1,15 @@
 package org.ovirt.engine.core.bll.gluster;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -82,7 +85,9 @@ public class GlusterSyncJobTest {
     private GlusterUtil glusterUtil;
 
     public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
-        return Stream.of(MockConfigDescriptor.of(ConfigValues.GlusterMetaVolumeName, "gluster_shared_storage"));
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.GlusterMetaVolumeName, "gluster_shared_storage"),
+                MockConfigDescriptor.of(ConfigValues.GlusterRefreshFullSyncCycles, 20),
+                MockConfigDescriptor.of(ConfigValues.GlusterRefreshMaxConcurrentClusters, 4));
     }
 
     @Spy
@@ -468,6 +473,41 @@ public class GlusterSyncJobTest {
         verifyMocksForLightWeight();
     }
 
+    @Test
+    public void testRefreshLightWeightSkipsUnchangedVolumes() {
+        createCluster();
+        setupMocks();
+        doReturn(getGlusterServer()).when(glusterServerDao).getByServerId(any());
+        GlusterVolumeEntity fetchedReplVol = createReplVol();
+        doReturn(Collections.singletonMap(fetchedReplVol.getId(), fetchedReplVol)).when(glusterManager)
+                .fetchVolumes(any());
+
+        glusterManager.refreshLightWeightData();
+        glusterManager.refreshLightWeightData();
+
+        verify(glusterManager, times(2)).fetchVolumes(any());
+        verify(volumeDao, times(1)).getByClusterId(CLUSTER_ID);
+        verify(volumeDao, times(1)).getById(EXISTING_VOL_REPL_ID);
+    }
+
+    @Test
+    public void testRefreshLightWeightUpdatesBrickOrdersInBatch() {
+        createCluster();
+        setupMocks();
+        doReturn(getGlusterServer()).when(glusterServerDao).getByServerId(any());
+        GlusterVolumeEntity fetchedReplVol = createReplVol();
+        for (int i = 0; i < fetchedReplVol.getBricks().size(); i++) {
+            fetchedReplVol.getBricks().get(i).setBrickOrder(i);
+        }
+        doReturn(Collections.singletonMap(fetchedReplVol.getId(), fetchedReplVol)).when(glusterManager)
+                .fetchVolumes(any());
+
+        glusterManager.refreshLightWeightData();
+
+        verify(brickDao, times(1)).updateBrickOrdersInBatch(argThat(bricks -> bricks.size() == 4));
+        verify(brickDao, never()).updateBrickOrder(any(), anyInt());
+    }
+
     @Test
     public void testRefreshHeavyWeight() {
         createCluster();
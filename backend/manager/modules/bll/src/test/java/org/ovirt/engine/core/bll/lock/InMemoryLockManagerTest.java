@@ -180,6 +180,34 @@ public class InMemoryLockManagerTest {
         assertThrows(IllegalArgumentException.class, () -> lockManager.acquireLockWait(lockLock1, -1000L));
     }
 
+    @Test
+    public void testAcquireLockWaitWokenByRelease() throws InterruptedException {
+        assertTrue(lockManager.acquireLock(lockLock1).isAcquired());
+        Thread waiter = new Thread(() -> lockManager.acquireLockWait(failLockLock));
+        waiter.start();
+        Thread.sleep(100L);
+        assertTrue(lockManager.acquireLock(lockLock2).isAcquired());
+        lockManager.releaseLock(lockLock2);
+        assertTrue(waiter.isAlive());
+        lockManager.releaseLock(lockLock1);
+        waiter.join(5000L);
+        assertFalse(waiter.isAlive());
+        assertEquals(1, lockManager.showAllLocks().size());
+        lockManager.releaseLock(failLockLock);
+        assertEquals(0, lockManager.showAllLocks().size());
+    }
+
+    @Test
+    public void testContentionCounters() {
+        assertTrue(lockManager.acquireLock(updateAndLockLock).isAcquired());
+        assertFalse(lockManager.acquireLock(lockLock1).isAcquired());
+        assertFalse(lockManager.acquireLockWait(lockLock2, 100L).isAcquired());
+        assertEquals(1, lockManager.getAcquiredLocksCount());
+        assertEquals(3, lockManager.getFailedLocksCount());
+        assertEquals(1, lockManager.getWaitsCount());
+        lockManager.releaseLock(updateAndLockLock);
+    }
+
     @Test
     public void testLockHijack() {
         new Thread(() -> {
@@ -0,0 +1,139 @@
+package org.ovirt.engine.core.bll.network.macpool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class LongCounterTest {
+
+    @Test
+    public void testIncreaseNoDuplicates() {
+        final LongCounter counter = new LongCounter(false);
+
+
+        assertThat(counter.increase(1), is(true));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+        assertThat(counter.increase(1), is(false));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+        assertThat(counter.increase(2), is(true));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+        assertThat(counter.increase(-3), is(true));
+
+        assertThat(counter.contains(0), is(false));
+        assertThat(counter.contains(1), is(true));
+        assertThat(counter.contains(2), is(true));
+        assertThat(counter.contains(-3), is(true));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+    }
+
+    @Test
+    public void testIncreaseWithDuplicates() {
+        final LongCounter counter = new LongCounter(true);
+
+
+        assertThat(counter.increase(1), is(true));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+        assertThat(counter.increase(1), is(true));
+        assertThat(counter.containsDuplicates(), is(true));
+        assertThat(counter.containsCounts(), is(true));
+        assertThat(counter.increase(2), is(true));
+        assertThat(counter.containsDuplicates(), is(true));
+        assertThat(counter.containsCounts(), is(true));
+        assertThat(counter.increase(-3), is(true));
+
+        assertThat(counter.contains(0), is(false));
+        assertThat(counter.contains(1), is(true));
+        assertThat(counter.contains(2), is(true));
+        assertThat(counter.contains(-3), is(true));
+        assertThat(counter.containsDuplicates(), is(true));
+        assertThat(counter.containsCounts(), is(true));
+    }
+
+    @Test
+    public void testDecreaseNoDuplicates() {
+        final LongCounter counter = new LongCounter(false);
+
+        counter.increase(1);
+        counter.increase(2);
+        assertThat(counter.contains(0), is(false));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+
+        counter.decrease(0);
+        assertThat(counter.contains(0), is(false));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+        assertThat(counter.contains(1), is(true));
+
+        counter.decrease(1);
+        assertThat(counter.contains(1), is(false));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+    }
+
+    @Test
+    public void testDecreaseWithDuplicates() {
+        final LongCounter counter = new LongCounter(true);
+
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(false));
+        counter.increase(1);
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+        counter.increase(1);
+        assertThat(counter.containsDuplicates(), is(true));
+        assertThat(counter.containsCounts(), is(true));
+        counter.increase(2);
+        assertThat(counter.containsDuplicates(), is(true));
+        assertThat(counter.containsCounts(), is(true));
+
+        assertThat(counter.contains(0), is(false));
+        counter.decrease(0);
+        assertThat(counter.contains(0), is(false));
+        assertThat(counter.containsDuplicates(), is(true));
+        assertThat(counter.containsCounts(), is(true));
+
+        assertThat(counter.contains(1), is(true));
+        counter.decrease(1);
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+        assertThat(counter.contains(1), is(true));
+        counter.decrease(1);
+        assertThat(counter.contains(1), is(false));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+
+        assertThat(counter.contains(2), is(true));
+        counter.decrease(2);
+        assertThat(counter.contains(2), is(false));
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(false));
+
+    }
+
+    @Test
+    public void testManyValuesSurviveGrowingAndRemoval() {
+        final LongCounter counter = new LongCounter(true);
+        final long base = 0x566f00000000L;
+        final int numberOfValues = 10_000;
+
+        for (int i = 0; i < numberOfValues; i++) {
+            counter.increase(base + i);
+        }
+        for (int i = 0; i < numberOfValues; i += 2) {
+            counter.decrease(base + i);
+        }
+
+        for (int i = 0; i < numberOfValues; i++) {
+            assertThat(counter.contains(base + i), is(i % 2 == 1));
+        }
+        assertThat(counter.containsDuplicates(), is(false));
+        assertThat(counter.containsCounts(), is(true));
+    }
+}
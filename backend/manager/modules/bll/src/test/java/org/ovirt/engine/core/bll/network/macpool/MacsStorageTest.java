@@ -84,6 +84,36 @@ public class MacsStorageTest {
         assertThat(macsStorage.containsDuplicates(), is(false));
     }
 
+    @Test
+    public void testMacsAreFoundInRangesAddedInAnyOrder() {
+        MacsStorage macsStorage = new MacsStorage(false, skip -> false);
+        List<Range> ranges = createRanges();
+        for (int i = ranges.size() - 1; i >= 0; i--) {
+            macsStorage.addRange(ranges.get(i));
+        }
+
+        for (long mac = RANGE_FROM; mac < RANGE_FROM + NUMBER_OF_MACS; mac++) {
+            assertTrue(macsStorage.isMacInRange(mac));
+            assertThat(macsStorage.useMac(mac), is(true));
+            assertTrue(macsStorage.isMacInUse(mac));
+        }
+        assertThat(macsStorage.isMacInRange(RANGE_FROM - 1L), is(false));
+        assertThat(macsStorage.isMacInRange((long) RANGE_FROM + NUMBER_OF_MACS), is(false));
+        assertEquals(0, macsStorage.getAvailableMacsCount());
+
+        macsStorage.freeMac(RANGE_FROM);
+        assertEquals(1, macsStorage.getAvailableMacsCount());
+        assertEquals(Arrays.asList((long) RANGE_FROM), macsStorage.allocateAvailableMacs(1));
+    }
+
+    @Test
+    public void testOverlappingRangesAreRejected() {
+        MacsStorage macsStorage = new MacsStorage(false, skip -> false);
+        macsStorage.addRange(new Range(new LongRange(RANGE_FROM, RANGE_TO)));
+        assertThrows(IllegalArgumentException.class,
+                () -> macsStorage.addRange(new Range(new LongRange(RANGE_TO, RANGE_TO + 1))));
+    }
+
     private void assertReturnedRange(List<Range> ranges, MacsStorage macsStorage, List<Integer> expectedRangeIndices) {
 
         for (int expectedRangeIndex : expectedRangeIndices) {
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.quota;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -13,6 +14,11 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -80,8 +86,15 @@ public class QuotaManagerTest {
 
         doReturn(quotaDao).when(quotaManager).getQuotaDao();
 
+        command = createCommand(validationMessages);
+
+        quota = mockBasicQuota();
+        when(quotaDao.getById(quota.getId())).thenReturn(quota);
+    }
+
+    private CommandBase<?> createCommand(ArrayList<String> validationMessages) {
         ActionParametersBase param = new ActionParametersBase();
-        command = new CommandBase<ActionParametersBase>(
+        CommandBase<?> command = new CommandBase<ActionParametersBase>(
                 param, CommandContext.createContext(param.getSessionId())) {
             @Override
             protected void executeCommand() {}
@@ -94,9 +107,7 @@ public class QuotaManagerTest {
 
         command.setStoragePool(storage_pool);
         command.getReturnValue().setValidationMessages(validationMessages);
-
-        quota = mockBasicQuota();
-        when(quotaDao.getById(quota.getId())).thenReturn(quota);
+        return command;
     }
 
     private void assertNotEmptyValidateMessage() {
@@ -219,6 +230,90 @@ public class QuotaManagerTest {
         validationMessages.clear();
     }
 
+    @Test
+    public void testRejectedConsumptionReleasesReservedLimits() {
+        quota.setGlobalQuotaCluster(getQuotaCluster(100, 50, UNLIMITED_MEM, 0));
+        quota.setGlobalQuotaStorage(getQuotaStorage(100, 140));
+
+        List<QuotaConsumptionParameter> parameters = new ArrayList<>();
+        parameters.add(createClusterConsumption(quota.getId(), 10, 1));
+        parameters.add(createStorageConsumption(quota.getId(), 1d));
+
+        assertFalse(quotaManager.consume(command, parameters));
+        assertNotEmptyValidateMessage();
+
+        Quota usage = mockBasicQuota();
+        usage.setId(quota.getId());
+        quotaManager.updateUsage(Collections.singletonList(usage));
+        assertEquals(50, (int) usage.getGlobalQuotaCluster().getVirtualCpuUsage());
+        assertEquals(140d, usage.getGlobalQuotaStorage().getStorageSizeGBUsage(), 0d);
+        assertEquals(1, quotaManager.getRejectedConsumeCount());
+    }
+
+    @Test
+    public void testConcurrentConsumptionsDoNotExceedGrace() throws Exception {
+        quota.setGlobalQuotaStorage(getQuotaStorage(100, 0));
+
+        int threads = 8;
+        int consumptionsPerThread = 30;
+        AtomicInteger consumed = new AtomicInteger();
+        Callable<Void> consumer = () -> {
+            CommandBase<?> threadCommand = createCommand(new ArrayList<>());
+            for (int i = 0; i < consumptionsPerThread; i++) {
+                if (quotaManager.consume(threadCommand,
+                        Collections.singletonList(createStorageConsumption(quota.getId(), 1d)))) {
+                    consumed.incrementAndGet();
+                }
+            }
+            return null;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> future : executor.invokeAll(Collections.nCopies(threads, consumer))) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 100 GB limit with 20% grace
+        assertEquals(120, consumed.get());
+        Quota usage = mockBasicQuota();
+        usage.setId(quota.getId());
+        quotaManager.updateUsage(Collections.singletonList(usage));
+        assertEquals(120d, usage.getGlobalQuotaStorage().getStorageSizeGBUsage(), 0d);
+        assertEquals(threads * consumptionsPerThread, quotaManager.getConsumeCount());
+    }
+
+    @Test
+    public void testReconciliationSkipsLimitsReservedSincePreviousOne() {
+        quota.setGlobalQuotaStorage(getQuotaStorage(100, 9));
+        assertTrue(consumeForStorageQuota(1d));
+
+        // the consumption is not written to the database yet
+        Quota dbQuota = mockBasicQuota();
+        dbQuota.setId(quota.getId());
+        dbQuota.setGlobalQuotaStorage(getQuotaStorage(100, 9));
+        when(quotaDao.getAllQuotaIncludingConsumption()).thenReturn(Collections.singletonList(dbQuota));
+        quotaManager.reconcileQuotaCache();
+        assertEquals(10d, getGlobalStorageUsage(), 0d);
+        assertEquals(0, quotaManager.getReconciledQuotaCount());
+
+        // nothing was reserved since the previous reconciliation
+        dbQuota.setGlobalQuotaStorage(getQuotaStorage(100, 12));
+        quotaManager.reconcileQuotaCache();
+        assertEquals(12d, getGlobalStorageUsage(), 0d);
+        assertEquals(1, quotaManager.getReconciledQuotaCount());
+    }
+
+    private double getGlobalStorageUsage() {
+        Quota usage = mockBasicQuota();
+        usage.setId(quota.getId());
+        quotaManager.updateUsage(Collections.singletonList(usage));
+        return usage.getGlobalQuotaStorage().getStorageSizeGBUsage();
+    }
+
     @Test
     public void testConsumeClusterQuotaForVCPUGlobalNotExceeded() {
         quota.setGlobalQuotaCluster(getQuotaCluster(100, 18, UNLIMITED_MEM, 0));
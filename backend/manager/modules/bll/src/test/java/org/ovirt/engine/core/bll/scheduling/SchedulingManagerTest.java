@@ -0,0 +1,187 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.scheduling.selector.SelectorInstance;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigCommon;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.scheduling.PolicyUnit;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+// The configuration is mocked first, as the scheduling manager reads it when it is created
+@ExtendWith({ MockConfigExtension.class, MockitoExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SchedulingManagerTest {
+
+    private static final int WEIGHT_UNITS_COUNT = 4;
+    private static final int HOSTS_COUNT = 5;
+
+    @Mock
+    private ManagedExecutorService policyUnitsExecutor;
+
+    @InjectMocks
+    private SchedulingManager schedulingManager;
+
+    private ExecutorService executorService;
+    private SchedulingContext context;
+    private List<VDS> hosts;
+    private List<VM> vmGroup;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VcpuConsumptionPercentage, 10),
+                MockConfigDescriptor.of(ConfigValues.SchedulingParallelEvaluation, true)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        executorService = Executors.newFixedThreadPool(WEIGHT_UNITS_COUNT);
+        doAnswer(invocation -> executorService.invokeAll(invocation.<Collection<Callable<Object>>> getArgument(0)))
+                .when(policyUnitsExecutor).invokeAll(any());
+
+        hosts = IntStream.range(0, HOSTS_COUNT).mapToObj(i -> {
+            VDS host = new VDS();
+            host.setId(Guid.newGuid());
+            return host;
+        }).collect(Collectors.toList());
+        vmGroup = Collections.singletonList(new VM());
+        context = new SchedulingContext(new Cluster(), Collections.emptyMap());
+        for (int i = 0; i < WEIGHT_UNITS_COUNT; i++) {
+            context.getInternalScoreFunctions().add(new Pair<>(new SlowWeightPolicyUnit(i), 1));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void parallelWeightingRecordsTheSameScoresAsSequentialWeighting() throws Exception {
+        RecordingSelector parallelSelector = new RecordingSelector();
+        schedulingManager.runInternalFunctions(parallelSelector, hosts, vmGroup, context);
+        verify(policyUnitsExecutor).invokeAll(any());
+
+        doReturn(false).when(Config.getConfigUtils())
+                .getValue(ConfigValues.SchedulingParallelEvaluation, ConfigCommon.defaultConfigurationVersion);
+        RecordingSelector sequentialSelector = new RecordingSelector();
+        schedulingManager.runInternalFunctions(sequentialSelector, hosts, vmGroup, context);
+        verify(policyUnitsExecutor).invokeAll(any());
+
+        assertEquals(WEIGHT_UNITS_COUNT * HOSTS_COUNT, sequentialSelector.getRecords().size());
+        assertEquals(sequentialSelector.getRecords(), parallelSelector.getRecords());
+    }
+
+    @Test
+    public void singleWeightUnitIsNotEvaluatedInParallel() throws Exception {
+        context.getInternalScoreFunctions().subList(1, WEIGHT_UNITS_COUNT).clear();
+        RecordingSelector selector = new RecordingSelector();
+        schedulingManager.runInternalFunctions(selector, hosts, vmGroup, context);
+
+        verify(policyUnitsExecutor, never()).invokeAll(any());
+        assertEquals(HOSTS_COUNT, selector.getRecords().size());
+    }
+
+    /**
+     * A weight policy unit scoring each host by its position, the earlier units of the policy being the slower ones,
+     * so they finish last when evaluated in parallel
+     */
+    private static class SlowWeightPolicyUnit extends PolicyUnitImpl {
+
+        private final int index;
+
+        SlowWeightPolicyUnit(int index) {
+            super(createPolicyUnit(index), null);
+            this.index = index;
+        }
+
+        private static PolicyUnit createPolicyUnit(int index) {
+            PolicyUnit policyUnit = new PolicyUnit();
+            policyUnit.setId(Guid.newGuid());
+            policyUnit.setName("weight" + index);
+            policyUnit.setInternal(true);
+            return policyUnit;
+        }
+
+        @Override
+        protected Guid getGuid() {
+            return getPolicyUnit().getId();
+        }
+
+        @Override
+        public List<Pair<Guid, Integer>> score(SchedulingContext context, List<VDS> hosts, List<VM> vmGroup) {
+            try {
+                Thread.sleep((WEIGHT_UNITS_COUNT - index) * 20L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<Pair<Guid, Integer>> scores = new ArrayList<>();
+            for (int i = 0; i < hosts.size(); i++) {
+                scores.add(new Pair<>(hosts.get(i).getId(), index * HOSTS_COUNT + i));
+            }
+            return scores;
+        }
+    }
+
+    /**
+     * Records the scores in the order they are given
+     */
+    private static class RecordingSelector implements SelectorInstance {
+
+        private final List<String> records = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void init(List<Pair<Guid, Integer>> policyUnits, List<Guid> hosts) {
+        }
+
+        @Override
+        public void record(Guid policyUnit, Guid host, Integer weight) {
+            records.add(policyUnit + ":" + host + ":" + weight);
+        }
+
+        @Override
+        public Optional<Guid> best() {
+            return Optional.empty();
+        }
+
+        public List<String> getRecords() {
+            return records;
+        }
+    }
+}
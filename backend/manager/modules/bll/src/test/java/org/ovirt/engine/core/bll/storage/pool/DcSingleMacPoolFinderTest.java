@@ -8,7 +8,10 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +26,8 @@ import org.ovirt.engine.core.dao.ClusterDao;
 public class DcSingleMacPoolFinderTest {
 
     private static final Guid DC_ID = Guid.newGuid();
+    private static final Guid DC_ID2 = Guid.newGuid();
+    private static final Guid DC_ID3 = Guid.newGuid();
     private static final Guid MAC_POOL_ID1 = Guid.newGuid();
     private static final Guid MAC_POOL_ID2 = Guid.newGuid();
 
@@ -60,9 +65,30 @@ public class DcSingleMacPoolFinderTest {
         assertThat(actual, nullValue());
     }
 
+    @Test
+    public void testFindAll() {
+        final List<Cluster> clusters = new ArrayList<>();
+        clusters.addAll(createDcClustersWithMacPoolIds(DC_ID, MAC_POOL_ID1));
+        clusters.addAll(createDcClustersWithMacPoolIds(DC_ID2, MAC_POOL_ID1, MAC_POOL_ID2));
+        final List<Guid> dcIds = Arrays.asList(DC_ID, DC_ID2, DC_ID3);
+        when(mockClusterDao.getAllForStoragePools(dcIds)).thenReturn(clusters);
+
+        final Map<Guid, Guid> actual = underTest.findAll(dcIds);
+
+        assertThat(actual.size(), is(3));
+        assertThat(actual.get(DC_ID), is(MAC_POOL_ID1));
+        assertThat(actual.get(DC_ID2), nullValue());
+        assertThat(actual.get(DC_ID3), nullValue());
+    }
+
     private List<Cluster> createClustersWithMacPoolIds(Guid... macPoolIds) {
+        return createDcClustersWithMacPoolIds(DC_ID, macPoolIds);
+    }
+
+    private List<Cluster> createDcClustersWithMacPoolIds(Guid dcId, Guid... macPoolIds) {
         return stream(macPoolIds).map(macPoolId -> {
             final Cluster cluster = new Cluster();
+            cluster.setStoragePoolId(dcId);
             cluster.setMacPoolId(macPoolId);
             return cluster;
         }).collect(toList());
@@ -64,6 +64,36 @@ public class VdsStatistics implements BusinessEntity<Guid> {
         hugePages = new ArrayList<>();
     }
 
+    public VdsStatistics(VdsStatistics statistics) {
+        id = statistics.id;
+        cpuIdle = statistics.cpuIdle;
+        cpuLoad = statistics.cpuLoad;
+        cpuSys = statistics.cpuSys;
+        cpuUser = statistics.cpuUser;
+        usageMemPercent = statistics.usageMemPercent;
+        usageCpuPercent = statistics.usageCpuPercent;
+        usageNetworkPercent = statistics.usageNetworkPercent;
+        memFree = statistics.memFree;
+        memShared = statistics.memShared;
+        swapFree = statistics.swapFree;
+        swapTotal = statistics.swapTotal;
+        ksmCpuPercent = statistics.ksmCpuPercent;
+        ksmPages = statistics.ksmPages;
+        ksmState = statistics.ksmState;
+        anonymousHugePages = statistics.anonymousHugePages;
+        hugePages = statistics.hugePages != null ? new ArrayList<>(statistics.hugePages) : null;
+        bootTime = statistics.bootTime;
+        highlyAvailableScore = statistics.highlyAvailableScore;
+        highlyAvailableIsConfigured = statistics.highlyAvailableIsConfigured;
+        highlyAvailableIsActive = statistics.highlyAvailableIsActive;
+        highlyAvailableGlobalMaintenance = statistics.highlyAvailableGlobalMaintenance;
+        highlyAvailableLocalMaintenance = statistics.highlyAvailableLocalMaintenance;
+        cpuOverCommitTimeStamp = statistics.cpuOverCommitTimeStamp;
+        cpuCoreStatistics = statistics.cpuCoreStatistics != null
+                ? new ArrayList<>(statistics.cpuCoreStatistics) : null;
+        v2vJobs = statistics.v2vJobs;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(
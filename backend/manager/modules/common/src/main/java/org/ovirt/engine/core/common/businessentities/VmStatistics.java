@@ -44,6 +44,29 @@ public class VmStatistics implements BusinessEntity<Guid>, Comparable<VmStatisti
         this.vmId = vmId;
     }
 
+    public VmStatistics(VmStatistics statistics) {
+        setId(statistics.getId());
+        setCpuSys(statistics.getCpuSys());
+        setCpuUser(statistics.getCpuUser());
+        setElapsedTime(statistics.getElapsedTime());
+        setUsageCpuPercent(statistics.getUsageCpuPercent());
+        setUsageMemPercent(statistics.getUsageMemPercent());
+        setUsageNetworkPercent(statistics.getUsageNetworkPercent());
+        setMigrationProgressPercent(statistics.getMigrationProgressPercent());
+        setDisksUsage(statistics.getDisksUsage());
+        setCpuUsageHistory(copyHistory(statistics.getCpuUsageHistory()));
+        setMemoryUsageHistory(copyHistory(statistics.getMemoryUsageHistory()));
+        setNetworkUsageHistory(copyHistory(statistics.getNetworkUsageHistory()));
+        setGuestMemoryCached(statistics.getGuestMemoryCached());
+        setGuestMemoryBuffered(statistics.getGuestMemoryBuffered());
+        setGuestMemoryFree(statistics.getGuestMemoryFree());
+        setGuestMemoryUnused(statistics.getGuestMemoryUnused());
+    }
+
+    private static List<Integer> copyHistory(List<Integer> history) {
+        return history != null ? new ArrayList<>(history) : null;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(
@@ -1587,6 +1587,52 @@ public enum ConfigValues {
     @TypeConverterAttribute(Boolean.class)
     EnableBochsDisplay,
 
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsFlushIntervalInMillis,
+
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsFlushBatchSize,
+
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsMaxPendingVms,
+
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsMaxSkippedSaves,
+
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    SearchQueryPlanCacheSize,
+
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    SchedulingParallelEvaluation,
+
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmStatsMaxSkippedAnalyses,
+
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    HostStatisticsMaxBackoffFactor,
+
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    HostStatisticsBackoffMaxCpuUsage,
+
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    GlusterRefreshFullSyncCycles,
+
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    GlusterRefreshMaxConcurrentClusters,
+
+    @TypeConverterAttribute(Integer.class)
+    AuditLogWriteQueueCapacity,
+
+    @TypeConverterAttribute(Integer.class)
+    AuditLogWriteBatchSize,
+
     Invalid;
 
     private ClientAccessLevel accessLevel;
@@ -113,6 +113,7 @@ public enum QueryType implements Serializable {
 
     // Vm Network
     GetVmInterfacesByVmId(QueryAuthType.User),
+    GetVmInterfacesByVmIds(QueryAuthType.User),
     GetVmGuestAgentInterfacesByVmId(QueryAuthType.User),
     GetVmInterfaceFilterParametersByVmInterfaceId(QueryAuthType.User),
     GetVmInterfaceFilterParameterById(QueryAuthType.User),
@@ -231,6 +232,7 @@ public enum QueryType implements Serializable {
 
     GetDiskVmElementById(QueryAuthType.User),
     GetDiskVmElementsByVmId(QueryAuthType.User),
+    GetDiskVmElementsByVmIds(QueryAuthType.User),
 
     // Users queries
     GetUserVmsByUserIdAndGroups(QueryAuthType.User),
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.common.queries;
 
 import java.io.Serializable;
+import java.util.List;
 
 import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.utils.ToStringBuilder;
@@ -12,6 +13,8 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
     private SearchType _searchType;
     private int _maxCount;
     private long searchFrom;
+    private List<String> searchAfter;
+    private boolean keysetPaging;
     private boolean caseSensitive;
 
     public SearchParameters() {
@@ -53,6 +56,34 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
         return searchFrom;
     }
 
+    /**
+     * Sets the position of the last entity of the previous page, as returned along with that page, the search then
+     * returns the entities following it in the sort order of the search. Unlike the 'page' clause of the search
+     * pattern, which is then ignored, this keyset paging does not get slower as the number of entities preceding the
+     * page grows.
+     *
+     * @see SearchResultPage#getNextSearchAfter()
+     */
+    public void setSearchAfter(List<String> value) {
+        searchAfter = value;
+    }
+
+    public List<String> getSearchAfter() {
+        return searchAfter;
+    }
+
+    /**
+     * Sets whether a search returning a full page returns it as a {@link SearchResultPage}, along with the position
+     * the next page starts after.
+     */
+    public void setKeysetPaging(boolean value) {
+        keysetPaging = value;
+    }
+
+    public boolean isKeysetPaging() {
+        return keysetPaging;
+    }
+
     public boolean getCaseSensitive() {
         return caseSensitive;
     }
@@ -68,6 +99,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
                 .append("searchPattern", getSearchPattern())
                 .append("caseSensitive", getCaseSensitive())
                 .append("from", getSearchFrom())
+                .append("after", getSearchAfter())
                 .append("max", getMaxCount());
     }
 }
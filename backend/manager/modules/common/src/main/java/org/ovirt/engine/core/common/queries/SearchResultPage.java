@@ -0,0 +1,34 @@
+package org.ovirt.engine.core.common.queries;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A full page of search results, returned when {@link SearchParameters#setKeysetPaging(boolean)} is set, along with
+ * the position the next page starts after.
+ */
+public class SearchResultPage<T> extends ArrayList<T> {
+    private static final long serialVersionUID = -4011356370839170455L;
+
+    private ArrayList<String> nextSearchAfter;
+
+    /**
+     * For GWT serialization;
+     */
+    private SearchResultPage() {
+    }
+
+    public SearchResultPage(Collection<? extends T> results, List<String> nextSearchAfter) {
+        super(results);
+        this.nextSearchAfter = new ArrayList<>(nextSearchAfter);
+    }
+
+    /**
+     * The values of the sort keys of the last result of the page, the last one being its primary key, to be given to
+     * {@link SearchParameters#setSearchAfter(List)} in order to get the next page
+     */
+    public List<String> getNextSearchAfter() {
+        return nextSearchAfter;
+    }
+}
@@ -7,10 +7,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlParameter;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
@@ -80,7 +82,7 @@ public class PostgresDbEngineDialect implements DbEngineDialect {
      * <br>
      * The {@link SimpleJdbcCall} can't handle this, so we need a few hacks to make it work.
      */
-    private static class PostgresSimpleJdbcCall extends SimpleJdbcCall {
+    private static class PostgresSimpleJdbcCall extends SimpleJdbcCall implements StreamingJdbcCall {
 
         /**
          * This is the key to put in the returned map, emulating the way the {@link SimpleJdbcCallOperations} works.
@@ -129,6 +131,19 @@ public class PostgresDbEngineDialect implements DbEngineDialect {
             return executeCallInternal(params);
         }
 
+        @Override
+        public <T> void executeAndProcess(SqlParameterSource parameterSource,
+                RowMapper<T> mapper,
+                int fetchSize,
+                Consumer<? super T> consumer) {
+            getInParameterNames().addAll(
+                    SqlParameterSourceUtils.extractCaseInsensitiveParameterNames(parameterSource).keySet());
+            checkCompiled();
+            Map<String, Object> params = matchInParameterValuesWithCallParameters(parameterSource);
+            getJdbcTemplate().execute(new StreamingQueryConnectionCallback<>(
+                    generateSql(), createParametersSetter(params), mapper, fetchSize, consumer));
+        }
+
         /**
          * Save the row mapper and parameter name locally to use later in the execution.
          */
@@ -149,18 +164,21 @@ public class PostgresDbEngineDialect implements DbEngineDialect {
          */
         private Map<String, Object> executeCallInternal(final Map<String, Object> params) {
             Map<String, Object> result = new HashMap<>(1);
-            result.put(returnedMapKey, getJdbcTemplate().query(
-                    generateSql(),
-                    ps -> {
-                        List<SqlParameter> callParameters = getCallParameters();
-                        for (int i = 0; i < callParameters.size(); i++) {
-                            SqlParameter parameter = callParameters.get(i);
-                            ps.setObject(i + 1, params.get(parameter.getName()), parameter.getSqlType());
-                        }
-                    }, rowMapper));
+            result.put(returnedMapKey,
+                    getJdbcTemplate().query(generateSql(), createParametersSetter(params), rowMapper));
             return result;
         }
 
+        private PreparedStatementSetter createParametersSetter(final Map<String, Object> params) {
+            return ps -> {
+                List<SqlParameter> callParameters = getCallParameters();
+                for (int i = 0; i < callParameters.size(); i++) {
+                    SqlParameter parameter = callParameters.get(i);
+                    ps.setObject(i + 1, params.get(parameter.getName()), parameter.getSqlType());
+                }
+            };
+        }
+
         /**
          * @return The query used for calling the function.
          */
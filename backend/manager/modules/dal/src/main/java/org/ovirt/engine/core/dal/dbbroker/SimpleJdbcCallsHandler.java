@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -23,6 +24,11 @@ public class SimpleJdbcCallsHandler {
 
     private static final String RETURN_VALUE_PARAMETER = "RETURN_VALUE";
 
+    /**
+     * The number of rows fetched from the database at once by the streaming reads
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
     private final ConcurrentMap<String, SimpleJdbcCall> callsMap = new ConcurrentHashMap<>();
 
     private final DbEngineDialect dialect;
@@ -106,6 +112,62 @@ public class SimpleJdbcCallsHandler {
         return (List<T>) resultsMap.get(RETURN_VALUE_PARAMETER);
     }
 
+    /**
+     * Runs a read procedure and passes the mapped rows to the given consumer as they are read from the database,
+     * instead of collecting the whole result in a list first. Useful for procedures returning a large number of rows.
+     *
+     * @see #executeReadAndProcess(String, RowMapper, MapSqlParameterSource, int, Consumer)
+     */
+    public <T> void executeReadAndProcess(final String procedureName,
+            final RowMapper<T> mapper,
+            final MapSqlParameterSource parameterSource,
+            final Consumer<? super T> consumer) {
+        executeReadAndProcess(procedureName, mapper, parameterSource, DEFAULT_FETCH_SIZE, consumer);
+    }
+
+    /**
+     * Runs a read procedure and passes the mapped rows to the given consumer as they are read from the database. The
+     * rows are read through a server side cursor, {@code fetchSize} rows at a time, so only a single chunk of the
+     * result is held in memory. The connection is kept until all the rows are consumed, so the consumer should not
+     * block for long.
+     *
+     * @param procedureName
+     *            the procedure name
+     * @param mapper
+     *            the mapper used to convert the rows
+     * @param parameterSource
+     *            the parameters of the procedure
+     * @param fetchSize
+     *            the number of rows to fetch from the database at once
+     * @param consumer
+     *            the consumer of the mapped rows
+     */
+    public <T> void executeReadAndProcess(final String procedureName,
+            final RowMapper<T> mapper,
+            final MapSqlParameterSource parameterSource,
+            final int fetchSize,
+            final Consumer<? super T> consumer) {
+        SimpleJdbcCall call = getCall(procedureName, createCallForRead(procedureName, mapper, parameterSource));
+        if (call instanceof StreamingJdbcCall) {
+            ((StreamingJdbcCall) call).executeAndProcess(parameterSource, mapper, fetchSize, consumer);
+        } else {
+            executeReadList(procedureName, mapper, parameterSource).forEach(consumer);
+        }
+    }
+
+    /**
+     * Runs the given query and passes the mapped rows to the given consumer as they are read from the database,
+     * {@code fetchSize} rows at a time.
+     *
+     * @see #executeReadAndProcess(String, RowMapper, MapSqlParameterSource, int, Consumer)
+     */
+    public <T> void executeQueryAndProcess(final String query,
+            final RowMapper<T> mapper,
+            final int fetchSize,
+            final Consumer<? super T> consumer) {
+        jdbcTemplate.execute(new StreamingQueryConnectionCallback<>(query, null, mapper, fetchSize, consumer));
+    }
+
     private CallCreator createCallForRead(final String procedureName,
             final RowMapper<?> mapper,
             final MapSqlParameterSource parameterSource) {
@@ -0,0 +1,30 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * A call to a query function which is able to hand the returned rows to a consumer while they are read from the
+ * database.
+ */
+public interface StreamingJdbcCall {
+
+    /**
+     * Executes the call and passes each mapped row to the given consumer.
+     *
+     * @param parameterSource
+     *            the parameters of the call
+     * @param mapper
+     *            the mapper used to convert the rows
+     * @param fetchSize
+     *            the number of rows to fetch from the database at once
+     * @param consumer
+     *            the consumer of the mapped rows
+     */
+    <T> void executeAndProcess(SqlParameterSource parameterSource,
+            RowMapper<T> mapper,
+            int fetchSize,
+            Consumer<? super T> consumer);
+}
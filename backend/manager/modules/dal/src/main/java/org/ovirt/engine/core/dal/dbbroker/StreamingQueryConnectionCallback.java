@@ -0,0 +1,71 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Runs a query and hands the mapped rows one by one to a consumer, instead of collecting the whole result in memory.
+ * <p>
+ * PostgreSQL reads the result through a server side cursor only when a fetch size is set and the connection is not
+ * in auto-commit mode, otherwise the driver buffers all the rows before the first one is returned. A connection in
+ * auto-commit mode, i.e. one used outside of an active transaction, is switched to manual commit for the duration of
+ * the query and switched back afterwards, which ends the transaction that was opened for the cursor.
+ */
+public final class StreamingQueryConnectionCallback<T> implements ConnectionCallback<Object> {
+
+    private final String sql;
+    private final PreparedStatementSetter parametersSetter;
+    private final RowMapper<T> mapper;
+    private final int fetchSize;
+    private final Consumer<? super T> consumer;
+
+    public StreamingQueryConnectionCallback(String sql,
+            PreparedStatementSetter parametersSetter,
+            RowMapper<T> mapper,
+            int fetchSize,
+            Consumer<? super T> consumer) {
+        this.sql = sql;
+        this.parametersSetter = parametersSetter;
+        this.mapper = mapper;
+        this.fetchSize = fetchSize;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public Object doInConnection(Connection con) throws SQLException, DataAccessException {
+        boolean autoCommit = con.getAutoCommit();
+        if (autoCommit) {
+            con.setAutoCommit(false);
+        }
+
+        try (PreparedStatement ps =
+                con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(fetchSize);
+            if (parametersSetter != null) {
+                parametersSetter.setValues(ps);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                int rowNum = 0;
+                while (rs.next()) {
+                    consumer.accept(mapper.mapRow(rs, rowNum++));
+                }
+            }
+        } finally {
+            if (autoCommit) {
+                // Switching back to auto-commit commits the transaction which was opened for the cursor
+                con.setAutoCommit(true);
+            }
+        }
+
+        return null;
+    }
+}
@@ -1,25 +1,36 @@
 package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
 
 import java.text.MessageFormat;
+import java.util.EnumSet;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.core.common.AuditLogSeverity;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.businessentities.AuditLog;
-import org.ovirt.engine.core.dao.AuditLogDao;
-import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Logs the audit log events to the engine log and writes them to the database through the {@link AuditLogWriter},
+ * which writes most of them behind the logging thread.
+ */
 @Singleton
 public class AuditLogDirector {
     private static final Logger log = LoggerFactory.getLogger(AuditLogDirector.class);
     private static final int USERNAME_LENGTH = 255;
+    /**
+     * The power management events read back by the quiet time check between power management operations of a host,
+     * see {@code AuditLogDao#getTimeToWaitForNextPmOp}
+     */
+    private static final Set<AuditLogType> POWER_MANAGEMENT_EVENTS =
+            EnumSet.of(AuditLogType.USER_VDS_START, AuditLogType.USER_VDS_STOP, AuditLogType.USER_VDS_RESTART);
 
     @Inject
-    private AuditLogDao auditLogDao;
+    private AuditLogWriter auditLogWriter;
 
     public void log(AuditLogable auditLogable, AuditLogType logType) {
         log(auditLogable, logType, "", false);
@@ -60,6 +71,13 @@ public class AuditLogDirector {
         }
     }
 
+    /**
+     * Writes the event of the given auditLogable to the database
+     *
+     * @return the event, which has an id only when written synchronously, as the events written behind the logging
+     *         thread get one when flushed; it is only used to log its message, or null if there is no message for the
+     *         given type
+     */
     private AuditLog saveToDb(AuditLogable auditLogable, AuditLogType logType, String loggerString) {
         AuditLog auditLog = create(auditLogable, logType, loggerString);
 
@@ -71,10 +89,13 @@ public class AuditLogDirector {
         // truncate user name
         auditLog.setUserName(StringUtils.abbreviate(auditLog.getUserName(), USERNAME_LENGTH));
 
-        TransactionSupport.executeInNewTransaction(() -> {
-            auditLogDao.save(auditLog);
-            return null;
-        });
+        // external events are read back by their origin right after being logged, alerts may be removed right after
+        // being raised, and power management events must be seen by the next power management operation of the host,
+        // so all of them are written before returning
+        boolean synchronous = auditLogable.isExternal()
+                || auditLog.getSeverity() == AuditLogSeverity.ALERT
+                || POWER_MANAGEMENT_EVENTS.contains(logType);
+        auditLogWriter.write(auditLog, EventKeyComposer.composeEntityId(auditLogable), synchronous);
         return auditLog;
     }
 
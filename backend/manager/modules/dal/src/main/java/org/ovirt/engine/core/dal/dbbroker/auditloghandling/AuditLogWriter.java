@@ -0,0 +1,389 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.exception.ExceptionUtils;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the audit log events to the database behind the threads logging them, in batches.
+ * <p>
+ * Events are queued in the order they are logged and written by one flush at a time, so the events of an entity are
+ * written in the order they were logged. A flush is started on the engine thread pool as soon as an event is queued
+ * and writes up to {@link ConfigValues#AuditLogWriteBatchSize} events per transaction, so the events logged while a
+ * flush is running are written together by the next one.
+ * <p>
+ * When {@link ConfigValues#AuditLogWriteQueueCapacity} events are queued, further events are kept aside in order
+ * until the queue is written, and an event identical to the previous one of its entity is coalesced with it: it is
+ * written once after the queued events, noting how many times it repeated. Events of the same entity separated by a
+ * different one, e.g. a host going down, up and down again, are all kept. When as many events are kept aside, the
+ * logging thread writes the pending events itself, which slows down the producers until the database catches up.
+ * Events which must be visible as soon as they are logged are written synchronously as well, after the events logged
+ * before them.
+ */
+@Singleton
+public class AuditLogWriter implements AuditLogWriterMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    @Inject
+    private AuditLogDao auditLogDao;
+
+    private BlockingQueue<AuditLog> queue;
+    /** Guarded by itself, events are kept in the order they were logged **/
+    private final List<CoalescedAuditLog> coalescedEvents = new ArrayList<>();
+    /** Guarded by coalescedEvents, the last of the coalesced events of each entity **/
+    private final Map<String, CoalescedAuditLog> lastCoalescedEvents = new HashMap<>();
+    private volatile boolean coalescing;
+    /** Flushes are serialized so an event can never be written before an event logged before it **/
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writtenBatches = new LongAdder();
+    private final LongAdder synchronousWrites = new LongAdder();
+    private final LongAdder backPressure = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile long lastFlushDurationMillis;
+
+    private int queueCapacity;
+    private int batchSize;
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void init() {
+        queueCapacity = Config.<Integer> getValue(ConfigValues.AuditLogWriteQueueCapacity);
+        batchSize = Math.max(1, Config.<Integer> getValue(ConfigValues.AuditLogWriteBatchSize));
+        if (!isEnabled()) {
+            log.info("Audit log write-behind is disabled, events are written on the logging threads");
+            return;
+        }
+
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        registerInJMX();
+        log.info("Audit log write-behind initialized, queue capacity {}, batch size {}", queueCapacity, batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        flushQuietly();
+        unregisterFromJMX();
+    }
+
+    public boolean isEnabled() {
+        return queueCapacity > 0;
+    }
+
+    /**
+     * Writes the given event to the database
+     *
+     * @param auditLog
+     *            the event to write
+     * @param entityKey
+     *            identifies the entity of the event, the event is coalesced with the previous one of this entity when
+     *            the queue is full and they are identical
+     * @param synchronous
+     *            whether the event is written before returning, e.g. because it is read right after being logged
+     */
+    public void write(AuditLog auditLog, String entityKey, boolean synchronous) {
+        if (!isEnabled()) {
+            save(auditLog);
+            return;
+        }
+
+        if (synchronous) {
+            synchronousWrites.increment();
+            writeAfterPending(auditLog);
+            return;
+        }
+
+        submitted.increment();
+        if ((!coalescing && queue.offer(auditLog)) || coalesce(auditLog, entityKey)) {
+            scheduleFlush();
+            return;
+        }
+
+        backPressure.increment();
+        log.debug("Audit log queue is full ({} events), writing the pending events on the logging thread",
+                queueCapacity);
+        writeAfterPending(auditLog);
+    }
+
+    private void writeAfterPending(AuditLog auditLog) {
+        flushLock.lock();
+        try {
+            flushQuietly();
+            save(auditLog);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Coalesces the given event with the previous pending event of its entity if they are identical, or keeps it after
+     * the pending events otherwise
+     *
+     * @return false if the event could not be kept, as too many events are pending already
+     */
+    private boolean coalesce(AuditLog auditLog, String entityKey) {
+        synchronized (coalescedEvents) {
+            CoalescedAuditLog previous = lastCoalescedEvents.get(entityKey);
+            if (previous != null && previous.isRepeatedBy(auditLog)) {
+                previous.occurrences++;
+                coalesced.increment();
+                return true;
+            }
+            if (coalescedEvents.size() >= queueCapacity) {
+                return false;
+            }
+            if (coalescedEvents.isEmpty()) {
+                log.warn("Audit log queue is full ({} events), repeated events are coalesced until it is written",
+                        queueCapacity);
+            }
+            CoalescedAuditLog pending = new CoalescedAuditLog(auditLog);
+            coalescedEvents.add(pending);
+            lastCoalescedEvents.put(entityKey, pending);
+            coalescing = true;
+            return true;
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            ThreadPoolUtil.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        } catch (RuntimeException e) {
+            flushScheduled.set(false);
+            log.debug("Failed to schedule audit log flush, flushing on the logging thread: {}", e.getMessage());
+            flushQuietly();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            log.error("Failed to flush audit log: {}", ExceptionUtils.getRootCauseMessage(t));
+            log.debug("Exception:", t);
+        }
+    }
+
+    private void flush() {
+        flushLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            // events queued while flushing are left for the next flush so a busy queue can not starve the caller
+            int eventsToFlush = queue.size();
+            while (eventsToFlush > 0) {
+                List<AuditLog> batch = new ArrayList<>(Math.min(batchSize, eventsToFlush));
+                queue.drainTo(batch, Math.min(batchSize, eventsToFlush));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                writeBatch(batch);
+                eventsToFlush -= batch.size();
+            }
+
+            List<AuditLog> coalescedBatch = takeCoalescedEvents();
+            for (int i = 0; i < coalescedBatch.size(); i += batchSize) {
+                writeBatch(coalescedBatch.subList(i, Math.min(i + batchSize, coalescedBatch.size())));
+            }
+            lastFlushDurationMillis = System.currentTimeMillis() - start;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the coalesced events once all the events queued before them were written, and queues the next events
+     * again
+     */
+    private List<AuditLog> takeCoalescedEvents() {
+        synchronized (coalescedEvents) {
+            if (coalescedEvents.isEmpty() || !queue.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<AuditLog> events = coalescedEvents.stream()
+                    .map(CoalescedAuditLog::toAuditLog)
+                    .collect(Collectors.toList());
+            coalescedEvents.clear();
+            lastCoalescedEvents.clear();
+            coalescing = false;
+            return events;
+        }
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        try {
+            TransactionSupport.executeInNewTransaction(() -> {
+                auditLogDao.saveAll(batch);
+                return null;
+            });
+            written.add(batch.size());
+            writtenBatches.increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to write a batch of {} audit log events, writing them one by one: {}",
+                    batch.size(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            log.debug("Exception:", e);
+            batch.forEach(this::saveQuietly);
+        }
+    }
+
+    private void saveQuietly(AuditLog auditLog) {
+        try {
+            save(auditLog);
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Failed to write audit log event '{}': {}",
+                    auditLog.getMessage(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            log.debug("Exception:", e);
+        }
+    }
+
+    private void save(AuditLog auditLog) {
+        TransactionSupport.executeInNewTransaction(() -> {
+            auditLogDao.save(auditLog);
+            return null;
+        });
+        written.increment();
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("AuditLogWriter:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Problem during registration of audit log writer into JMX: {}", e.getMessage());
+            log.debug("Exception:", e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            if (platformMBeanServer != null) {
+                platformMBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of audit log writer from JMX", e);
+        }
+    }
+
+    @Override
+    public int getPendingEventsCount() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        synchronized (coalescedEvents) {
+            return queue.size() + coalescedEvents.size();
+        }
+    }
+
+    @Override
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    @Override
+    public long getWrittenBatchesCount() {
+        return writtenBatches.sum();
+    }
+
+    @Override
+    public long getSynchronousWritesCount() {
+        return synchronousWrites.sum();
+    }
+
+    @Override
+    public long getBackPressureCount() {
+        return backPressure.sum();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getLastFlushDurationMillis() {
+        return lastFlushDurationMillis;
+    }
+
+    /**
+     * The first occurrence of an event kept aside while the queue was full, and the number of its consecutive
+     * occurrences
+     */
+    private static class CoalescedAuditLog {
+
+        private final AuditLog auditLog;
+        private int occurrences = 1;
+
+        public CoalescedAuditLog(AuditLog auditLog) {
+            this.auditLog = auditLog;
+        }
+
+        public boolean isRepeatedBy(AuditLog next) {
+            return auditLog.getLogType() == next.getLogType()
+                    && Objects.equals(auditLog.getMessage(), next.getMessage());
+        }
+
+        public AuditLog toAuditLog() {
+            if (occurrences > 1) {
+                auditLog.setMessage(String.format("%s (repeated %d times)", auditLog.getMessage(), occurrences));
+            }
+            return auditLog;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+/**
+ * The following interface is used as interface for JMX bean of the audit log writer
+ */
+public interface AuditLogWriterMXBean {
+
+    /**
+     * The following method will return the number of events waiting to be written, either queued or coalesced
+     */
+    int getPendingEventsCount();
+
+    /**
+     * The following method will return the number of events submitted to be written behind the logging thread
+     */
+    long getSubmittedCount();
+
+    /**
+     * The following method will return the number of events coalesced with the identical previous pending event of
+     * the same entity because the queue was full
+     */
+    long getCoalescedCount();
+
+    /**
+     * The following method will return the number of events written to the database
+     */
+    long getWrittenCount();
+
+    /**
+     * The following method will return the number of batches written to the database
+     */
+    long getWrittenBatchesCount();
+
+    /**
+     * The following method will return the number of events written synchronously on the logging thread
+     */
+    long getSynchronousWritesCount();
+
+    /**
+     * The following method will return the number of times a logging thread had to flush the queue itself because
+     * no more events could be coalesced
+     */
+    long getBackPressureCount();
+
+    /**
+     * The following method will return the number of events that failed to be written
+     */
+    long getFailedCount();
+
+    /**
+     * The following method will return the duration in milliseconds of the last flush
+     */
+    long getLastFlushDurationMillis();
+}
@@ -25,6 +25,26 @@ public class EventKeyComposer {
         final StringBuilder builder = new StringBuilder();
 
         compose(builder, "type", logType.toString());
+        composeEntity(builder, event);
+
+        return builder.toString();
+    }
+
+    /**
+     * Composes an entity id from all the entity id's of the event, to identify the events of the same entities.
+     *
+     * @param event
+     *            the event entity that its attributes will be used to created the key
+     * @return the entity id
+     */
+    public static String composeEntityId(AuditLogable event) {
+        final StringBuilder builder = new StringBuilder();
+        composeEntity(builder, event);
+
+        return builder.toString();
+    }
+
+    private static void composeEntity(StringBuilder builder, AuditLogable event) {
         compose(builder, "sd", emptyGuidToEmptyString(event.getStorageDomainId()));
         compose(builder, "dc", emptyGuidToEmptyString(event.getStoragePoolId()));
         compose(builder, "user", emptyGuidToEmptyString(event.getUserId()));
@@ -33,8 +53,6 @@ public class EventKeyComposer {
         compose(builder, "vm", emptyGuidToEmptyString(event.getVmId()));
         compose(builder, "template", emptyGuidToEmptyString(event.getVmTemplateId()));
         compose(builder, "customId", StringUtils.defaultString(event.getCustomId()));
-
-        return builder.toString();
     }
 
     private static void compose(StringBuilder builder, String key, String value) {
@@ -2,6 +2,7 @@ package org.ovirt.engine.core.dao;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.ovirt.engine.core.common.businessentities.AuditLog;
 import org.ovirt.engine.core.compat.Guid;
@@ -53,6 +54,17 @@ public interface AuditLogDao extends Dao, SearchDao<AuditLog> {
      */
     List<AuditLog> getAll(Guid userID, boolean isFiltered);
 
+    /**
+     * Finds all entries using the supplied query and passes them to the consumer while they are read from the
+     * database, without holding the whole result in memory.
+     *
+     * @param query
+     *            the query
+     * @param consumer
+     *            the consumer of the entries
+     */
+    void processAllWithQuery(String query, Consumer<? super AuditLog> consumer);
+
     /**
      * Retrieves all audit log entries for the given VM ID.
      *
@@ -114,6 +126,14 @@ public interface AuditLogDao extends Dao, SearchDao<AuditLog> {
      */
     void save(AuditLog entry);
 
+    /**
+     * Saves the provided audit logs in a single batch, the ids of the saved entries are not set
+     *
+     * @param entries
+     *            the entries
+     */
+    void saveAll(List<AuditLog> entries);
+
     /**
      * Updates the provided audit log entry.
      *
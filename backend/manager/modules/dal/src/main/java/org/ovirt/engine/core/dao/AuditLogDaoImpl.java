@@ -4,6 +4,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -103,14 +104,19 @@ public class AuditLogDaoImpl extends BaseDao implements AuditLogDao {
 
     @Override
     public List<AuditLog> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, auditLogRowMapper);
+        return getAllWithQueryStreamed(query, auditLogRowMapper);
+    }
+
+    @Override
+    public void processAllWithQuery(String query, Consumer<? super AuditLog> consumer) {
+        processWithQuery(query, auditLogRowMapper, consumer);
     }
 
     @Override
     public List<AuditLog> getAll(Guid userID, boolean isFiltered) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
                 .addValue("user_id", userID).addValue("is_filtered", isFiltered);
-        return getCallsHandler().executeReadList("GetAllFromAuditLog", auditLogRowMapper, parameterSource);
+        return executeReadListStreamed("GetAllFromAuditLog", auditLogRowMapper, parameterSource);
     }
 
     @Override
@@ -168,6 +174,11 @@ public class AuditLogDaoImpl extends BaseDao implements AuditLogDao {
         event.setAuditLogId((Long) outParameters.get("audit_log_id"));
     }
 
+    @Override
+    public void saveAll(List<AuditLog> entries) {
+        getCallsHandler().executeStoredProcAsBatch("InsertAuditLogEntry", entries, this::getSqlMapper);
+    }
+
     @Override
     public void update(AuditLog event) {
         throw new UnsupportedOperationException();
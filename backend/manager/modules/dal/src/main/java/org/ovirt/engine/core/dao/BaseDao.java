@@ -7,7 +7,9 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 
@@ -18,6 +20,7 @@ import org.ovirt.engine.core.dal.dbbroker.DbEngineDialect;
 import org.ovirt.engine.core.dal.dbbroker.SimpleJdbcCallsHandler;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
 public abstract class BaseDao {
     protected static final String SEPARATOR = ",";
@@ -71,6 +74,36 @@ public abstract class BaseDao {
         return callsHandler;
     }
 
+    /**
+     * Runs the given query and passes the mapped rows to the consumer while they are read from the database, so the
+     * whole result is never held in memory at once.
+     */
+    protected <T> void processWithQuery(String query, RowMapper<T> mapper, Consumer<? super T> consumer) {
+        getCallsHandler().executeQueryAndProcess(query, mapper, SimpleJdbcCallsHandler.DEFAULT_FETCH_SIZE, consumer);
+    }
+
+    /**
+     * Runs the given query and returns the mapped rows. The rows are read through a cursor, so the JDBC driver does
+     * not buffer the raw result in addition to the returned list.
+     */
+    protected <T> List<T> getAllWithQueryStreamed(String query, RowMapper<T> mapper) {
+        List<T> result = new ArrayList<>();
+        processWithQuery(query, mapper, result::add);
+        return result;
+    }
+
+    /**
+     * Runs the given read procedure and returns the mapped rows. The rows are read through a cursor, so the JDBC
+     * driver does not buffer the raw result in addition to the returned list.
+     */
+    protected <T> List<T> executeReadListStreamed(String procedureName,
+            RowMapper<T> mapper,
+            MapSqlParameterSource parameterSource) {
+        List<T> result = new ArrayList<>();
+        getCallsHandler().executeReadAndProcess(procedureName, mapper, parameterSource, result::add);
+        return result;
+    }
+
     /**
      * Returns a Double or a null if the column was NULL.
      * @param resultSet the ResultSet to extract the result from
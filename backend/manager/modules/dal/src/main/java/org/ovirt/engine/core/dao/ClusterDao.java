@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.ovirt.engine.core.common.businessentities.ActionGroup;
@@ -104,6 +105,15 @@ public interface ClusterDao extends GenericDao<Cluster, Guid>, SearchDao<Cluster
      */
     List<Cluster> getAllForStoragePool(Guid id, Guid userID, boolean isFiltered);
 
+    /**
+     * Retrieves the list of groups associated with any of the given storage pools.
+     *
+     * @param ids
+     *            the storage pools
+     * @return the list of groups
+     */
+    List<Cluster> getAllForStoragePools(Collection<Guid> ids);
+
     /**
      * Retrieves all VDS groups.
      *
@@ -1,10 +1,12 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -24,6 +26,8 @@ import org.ovirt.engine.core.common.network.SwitchType;
 import org.ovirt.engine.core.common.scheduling.OptimizationType;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.DbFacadeUtils;
+import org.ovirt.engine.core.dao.cache.DaoCache;
+import org.ovirt.engine.core.dao.cache.DaoCacheManager;
 import org.ovirt.engine.core.utils.SerializationFactory;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
@@ -37,9 +41,16 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class ClusterDaoImpl extends BaseDao implements ClusterDao {
 
+    @Inject
+    private DaoCacheManager daoCacheManager;
+
+    private DaoCache<Guid, Cluster> getCache() {
+        return daoCacheManager.getCache(DaoCacheManager.CLUSTER_CACHE);
+    }
+
     @Override
     public Cluster get(Guid id) {
-        return get(id, null, false);
+        return getCache().get(id, clusterId -> get(clusterId, null, false));
     }
 
     @Override
@@ -107,6 +118,13 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
                 parameterSource);
     }
 
+    @Override
+    public List<Cluster> getAllForStoragePools(Collection<Guid> ids) {
+        return getCallsHandler().executeReadList("GetClustersByStoragePoolIds",
+                clusterRowMapper,
+                getCustomMapSqlParameterSource().addValue("storage_pool_ids", createArrayOfUUIDs(ids)));
+    }
+
     @Override
     public List<Cluster> getAllWithQuery(String query) {
         List<Cluster> clusters = getJdbcTemplate().query(query, clusterRowMapper);
@@ -133,11 +151,13 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
             cluster.setId(id);
         }
         getCallsHandler().executeModification("InsertCluster", getClusterParamSource(cluster));
+        getCache().invalidate(id);
     }
 
     @Override
     public void update(Cluster cluster) {
         getCallsHandler().executeModification("UpdateCluster", getClusterParamSource(cluster));
+        getCache().invalidate(cluster.getId());
     }
 
     @Override
@@ -146,6 +166,9 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
                 .addValue("cluster_id", id);
 
         getCallsHandler().executeModification("DeleteCluster", parameterSource);
+        getCache().invalidate(id);
+        // The networks attached to the cluster are detached by the database
+        daoCacheManager.getCache(DaoCacheManager.NETWORKS_BY_CLUSTER_CACHE).invalidate(id);
     }
 
     @Override
@@ -184,6 +207,7 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
                 .addValue("detect_emulated_machine", detectEmulatedMachine);
 
         getCallsHandler().executeModification("UpdateClusterEmulatedMachine", parameterSource);
+        getCache().invalidate(clusterId);
     }
 
     @Override
@@ -193,6 +217,7 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
 
         Map<String, Object> results =
                 getCallsHandler().executeModification("SetClusterUpgradeRunning", parameterSource);
+        getCache().invalidate(clusterId);
 
         return (Boolean) results.get("updated");
     }
@@ -204,12 +229,14 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
 
         Map<String, Object> results =
                 getCallsHandler().executeModification("ClearClusterUpgradeRunning", parameterSource);
+        getCache().invalidate(clusterId);
         return (Boolean) results.get("updated");
     }
 
     @Override
     public void clearAllUpgradeRunning() {
         getCallsHandler().executeModification("ClearAllClusterUpgradeRunning", getCustomMapSqlParameterSource());
+        getCache().invalidateAll();
     }
 
     @Override
@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.ovirt.engine.core.common.businessentities.storage.Disk;
 import org.ovirt.engine.core.common.businessentities.storage.DiskStorageType;
@@ -108,6 +109,17 @@ public interface DiskDao extends ReadDao<Disk, Guid>, SearchDao<Disk> {
      */
     public List<Disk> getAll(Guid userID, boolean isFiltered);
 
+    /**
+     * Finds all disks using the supplied query and passes them to the consumer while they are read from the
+     * database, without holding the whole result in memory.
+     *
+     * @param query
+     *            the SQL query
+     * @param consumer
+     *            the consumer of the disks
+     */
+    void processAllWithQuery(String query, Consumer<? super Disk> consumer);
+
     /**
      * Retrieves all shared disks for the specified storage pool/virtual machine id,
      * @param vmId if vmId=null retrieve all shared disks in SP
@@ -7,6 +7,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -120,7 +121,7 @@ public class DiskDaoImpl extends BaseDao implements DiskDao {
     public List<Disk> getAll(Guid userID, boolean isFiltered) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
                 .addValue("user_id", userID).addValue("is_filtered", isFiltered);
-        return getCallsHandler().executeReadList("GetAllFromDisks", diskRowMapper, parameterSource);
+        return executeReadListStreamed("GetAllFromDisks", diskRowMapper, parameterSource);
     }
 
     @Override
@@ -171,7 +172,12 @@ public class DiskDaoImpl extends BaseDao implements DiskDao {
 
     @Override
     public List<Disk> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, diskRowMapper);
+        return getAllWithQueryStreamed(query, diskRowMapper);
+    }
+
+    @Override
+    public void processAllWithQuery(String query, Consumer<? super Disk> consumer) {
+        processWithQuery(query, diskRowMapper, consumer);
     }
 
     private static final RowMapper<Disk> diskRowMapper = (rs, rowNum) -> {
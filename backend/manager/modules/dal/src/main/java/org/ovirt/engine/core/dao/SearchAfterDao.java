@@ -0,0 +1,18 @@
+package org.ovirt.engine.core.dao;
+
+import java.util.List;
+
+/**
+ * Reads the position a keyset paged search continues after.
+ */
+public interface SearchAfterDao extends Dao {
+    /**
+     * Runs the supplied SQL query, which reads the values of the sort keys of a single entity as text.
+     *
+     * @param query
+     *            the query
+     * @return the values of the sort keys, in the order of the query columns, or {@code null} if the entity no
+     *         longer exists
+     */
+    List<String> getSearchAfter(String query);
+}
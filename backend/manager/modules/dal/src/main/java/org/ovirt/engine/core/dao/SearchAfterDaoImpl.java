@@ -0,0 +1,29 @@
+package org.ovirt.engine.core.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.springframework.jdbc.core.RowMapper;
+
+@Named
+@Singleton
+public class SearchAfterDaoImpl extends BaseDao implements SearchAfterDao {
+
+    private static final RowMapper<List<String>> searchAfterRowMapper = (rs, rowNum) -> {
+        int columnCount = rs.getMetaData().getColumnCount();
+        List<String> values = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            values.add(rs.getString(i));
+        }
+        return values;
+    };
+
+    @Override
+    public List<String> getSearchAfter(String query) {
+        List<List<String>> results = getJdbcTemplate().query(query, searchAfterRowMapper);
+        return results.isEmpty() ? null : results.get(0);
+    }
+}
@@ -2,6 +2,7 @@ package org.ovirt.engine.core.dao;
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -11,6 +12,8 @@ import org.ovirt.engine.core.common.businessentities.StorageFormatType;
 import org.ovirt.engine.core.common.businessentities.StoragePool;
 import org.ovirt.engine.core.common.businessentities.StoragePoolStatus;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.cache.DaoCache;
+import org.ovirt.engine.core.dao.cache.DaoCacheManager;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -38,9 +41,24 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
         return entity;
     };
 
+    @Inject
+    private DaoCacheManager daoCacheManager;
+
+    private DaoCache<Guid, StoragePool> getCache() {
+        return daoCacheManager.getCache(DaoCacheManager.STORAGE_POOL_CACHE);
+    }
+
+    /**
+     * Clusters carry the name of their data center, so they are invalidated whenever the data center changes
+     */
+    private void invalidate(Guid id) {
+        getCache().invalidate(id);
+        daoCacheManager.getCache(DaoCacheManager.CLUSTER_CACHE).invalidateAll();
+    }
+
     @Override
     public StoragePool get(Guid id) {
-        return get(id, null, false);
+        return getCache().get(id, poolId -> get(poolId, null, false));
     }
 
     @Override
@@ -133,6 +151,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
 
         getCallsHandler().executeModification("Insertstorage_pool",
                 parameterSource);
+        getCache().invalidate(pool.getId());
     }
 
     @Override
@@ -155,6 +174,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
                 .addValue("managed", pool.isManaged());
 
         getCallsHandler().executeModification("Updatestorage_pool", parameterSource);
+        invalidate(pool.getId());
     }
 
     @Override
@@ -172,6 +192,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
                         pool.getQuotaEnforcementType().getValue());
 
         getCallsHandler().executeModification("Updatestorage_pool_partial", parameterSource);
+        invalidate(pool.getId());
     }
 
     @Override
@@ -180,7 +201,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
                 .addValue("id", id)
                 .addValue("status", status);
         getCallsHandler().executeModification("Updatestorage_pool_status", parameterSource);
-
+        getCache().invalidate(id);
     }
 
     @Override
@@ -189,6 +210,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
                 .addValue("id", id);
 
         getCallsHandler().executeModification("Deletestorage_pool", parameterSource);
+        invalidate(id);
     }
 
     @Override
@@ -209,7 +231,10 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
     public int increaseStoragePoolMasterVersion(Guid id) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
                 .addValue("id", id);
-        return getCallsHandler().executeModificationReturnResult("IncreaseStoragePoolMasterVersion", parameterSource);
+        int masterVersion =
+                getCallsHandler().executeModificationReturnResult("IncreaseStoragePoolMasterVersion", parameterSource);
+        getCache().invalidate(id);
+        return masterVersion;
     }
 
     @Override
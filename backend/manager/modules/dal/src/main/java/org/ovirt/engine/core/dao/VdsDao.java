@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -208,6 +209,12 @@ public interface VdsDao extends Dao, SearchDao<VDS>, AutoRecoverDao<VDS> {
      */
     List<VDS> getAllForClusterWithStatus(Guid clusterId, VDSStatus status);
 
+    /**
+     * Retrieves all VDS instances in any of the given Vds groups, that are in given status
+     * @return list of VDS instances
+     */
+    List<VDS> getAllForClustersWithStatus(Collection<Guid> clusterIds, VDSStatus status);
+
     /**
      * Retrieves all gluster VDS instances in the given cluster, that are in given status
      * @return list of VDS instances
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.dao;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
@@ -219,6 +220,15 @@ public class VdsDaoImpl extends BaseDao implements VdsDao {
                         .addValue("status", status.getValue()));
     }
 
+    @Override
+    public List<VDS> getAllForClustersWithStatus(Collection<Guid> clusterIds, VDSStatus status) {
+        return getCallsHandler().executeReadList("GetVdsByClusterIdsAndStatus",
+                vdsRowMapper,
+                getCustomMapSqlParameterSource()
+                        .addValue("cluster_ids", createArrayOfUUIDs(clusterIds))
+                        .addValue("status", status.getValue()));
+    }
+
     @Override
     public List<VDS> getAllForClusterWithStatusAndPeerStatus(Guid clusterId, VDSStatus status, PeerStatus peerStatus) {
         return getCallsHandler().executeReadList("getVdsForClusterWithPeerStatus",
@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.io.Serializable;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -13,6 +14,8 @@ import org.ovirt.engine.core.common.businessentities.VDSType;
 import org.ovirt.engine.core.common.businessentities.VdsStatic;
 import org.ovirt.engine.core.common.utils.pm.FenceProxySourceTypeHelper;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.cache.DaoCache;
+import org.ovirt.engine.core.dao.cache.DaoCacheManager;
 import org.ovirt.engine.core.utils.SerializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,12 +39,19 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
 
     private static final Logger log = LoggerFactory.getLogger(VdsStaticDaoImpl.class);
 
+    @Inject
+    private DaoCacheManager daoCacheManager;
+
+    private DaoCache<Guid, VdsStatic> getCache() {
+        return daoCacheManager.getCache(DaoCacheManager.VDS_STATIC_CACHE);
+    }
+
     @Override
     public VdsStatic get(Guid id) {
-        return getCallsHandler().executeRead("GetVdsStaticByVdsId",
+        return getCache().get(id, vdsId -> getCallsHandler().executeRead("GetVdsStaticByVdsId",
                 vdsStaticRowMapper,
                 getCustomMapSqlParameterSource()
-                        .addValue("vds_id", id));
+                        .addValue("vds_id", vdsId)));
     }
 
     @Override
@@ -77,6 +87,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
         }
         new SimpleJdbcCall(getJdbcTemplate()).withProcedureName("InsertVdsStatic")
                 .execute(getInsertOrUpdateParams(vds));
+        getCache().invalidate(id);
     }
 
     /**
@@ -86,6 +97,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
     @Override
     public void update(VdsStatic vds) {
         getCallsHandler().executeModification("UpdateVdsStatic", getInsertOrUpdateParams(vds));
+        getCache().invalidate(vds.getId());
     }
 
     private MapSqlParameterSource getInsertOrUpdateParams(final VdsStatic vds) {
@@ -123,6 +135,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 .addValue("vds_id", id);
 
         getCallsHandler().executeModification("DeleteVdsStatic", parameterSource);
+        getCache().invalidate(id);
     }
 
     @Override
@@ -183,6 +196,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", vdsStaticId)
                         .addValue("last_stored_kernel_cmdline", lastStoredKernelCmdline));
+        getCache().invalidate(vdsStaticId);
     }
 
     @Override
@@ -193,6 +207,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", vdsStaticId)
                         .addValue("kernel_cmdline", kernelCmdline));
+        getCache().invalidate(vdsStaticId);
     }
 
     @Override
@@ -202,6 +217,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 getCustomMapSqlParameterSource()
                         .addValue("vds_id", vdsStaticId)
                         .addValue("reinstall_required", reinstallRequired));
+        getCache().invalidate(vdsStaticId);
     }
 
     @Override
@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.ovirt.engine.core.common.businessentities.OriginType;
 import org.ovirt.engine.core.common.businessentities.VM;
@@ -182,6 +183,17 @@ public interface VmDao extends Dao {
      */
     List<VM> getAllUsingQuery(String query);
 
+    /**
+     * Finds the VMs using the supplied query and passes them to the consumer while they are read from the database,
+     * without holding the whole result in memory.
+     *
+     * @param query
+     *            the SQL query
+     * @param consumer
+     *            the consumer of the VMs
+     */
+    void processAllUsingQuery(String query, Consumer<? super VM> consumer);
+
     /**
      * Retrieves the list of VMs for the given storage domain.
      *
@@ -232,6 +244,15 @@ public interface VmDao extends Dao {
      */
     List<VM> getAll();
 
+    /**
+     * Passes all the VMs to the consumer while they are read from the database, without holding the whole result in
+     * memory.
+     *
+     * @param consumer
+     *            the consumer of the VMs
+     */
+    void processAll(Consumer<? super VM> consumer);
+
     /**
      * Specific use-case for ovirt-web-ui - Get vms:
      *
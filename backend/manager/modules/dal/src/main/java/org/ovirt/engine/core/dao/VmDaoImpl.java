@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.inject.Named;
@@ -185,7 +186,12 @@ public class VmDaoImpl extends BaseDao implements VmDao {
 
     @Override
     public List<VM> getAllUsingQuery(String query) {
-        return getJdbcTemplate().query(query, vmRowMapper);
+        return getAllWithQueryStreamed(query, vmRowMapper);
+    }
+
+    @Override
+    public void processAllUsingQuery(String query, Consumer<? super VM> consumer) {
+        processWithQuery(query, vmRowMapper, consumer);
     }
 
     @Override
@@ -226,11 +232,19 @@ public class VmDaoImpl extends BaseDao implements VmDao {
 
     @Override
     public List<VM> getAll(Guid userID, boolean isFiltered) {
-        return getCallsHandler().executeReadList("GetAllFromVms",
+        return executeReadListStreamed("GetAllFromVms",
                 vmRowMapper,
                 getCustomMapSqlParameterSource().addValue("user_id", userID).addValue("is_filtered", isFiltered));
     }
 
+    @Override
+    public void processAll(Consumer<? super VM> consumer) {
+        getCallsHandler().executeReadAndProcess("GetAllFromVms",
+                vmRowMapper,
+                getCustomMapSqlParameterSource().addValue("user_id", null).addValue("is_filtered", false),
+                consumer);
+    }
+
     @Override
     public void saveIsInitialized(Guid vmid, boolean isInitialized) {
         getCallsHandler().executeModification("UpdateIsInitialized",
@@ -0,0 +1,227 @@
+package org.ovirt.engine.core.dao.cache;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.apache.commons.lang.SerializationException;
+import org.apache.commons.lang.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A size bounded, least recently used, read-through cache of entities read by a DAO.
+ * <p>
+ * Entries are kept in their serialized form and every read returns a new copy, so callers are free to modify the
+ * returned entities, as they do with entities read from the database. Values which can not be serialized are simply
+ * not cached.
+ * <p>
+ * The DAO must call {@link #invalidate(Object)} or {@link #invalidateAll()} whenever it writes or removes an entity.
+ * The cache only ever holds committed data:
+ * <ul>
+ * <li>A write made inside a transaction removes the entry immediately and once more when the transaction completes.
+ * Until then the entry is not cached again, so the writing transaction reads its own changes from the database and
+ * other transactions do not cache the data that is about to change.</li>
+ * <li>A value loaded while an invalidation took place is returned but not cached, as it may already be stale.</li>
+ * </ul>
+ * A cache with a maximal size of 0 is disabled and reads straight from the database.
+ */
+public class DaoCache<K, V> implements DaoCacheMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DaoCache.class);
+
+    private final String name;
+    private final int maxSize;
+    private final DaoCacheManager cacheManager;
+
+    private final Object lock = new Object();
+    private final Map<K, byte[]> entries;
+    /** The number of uncommitted transactions that wrote the entity, by its key **/
+    private final Map<K, Integer> pendingWrites = new HashMap<>();
+    /** The number of uncommitted transactions that invalidated the whole cache **/
+    private int pendingInvalidateAll;
+    /** Incremented on every invalidation, a value loaded while it changed is not cached **/
+    private long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    DaoCache(String name, int maxSize, DaoCacheManager cacheManager) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.cacheManager = cacheManager;
+        this.entries = new LinkedHashMap<K, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, byte[]> eldest) {
+                boolean evict = size() > DaoCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Returns a copy of the cached value of the given key, or loads it using the given loader and caches it
+     *
+     * @param key
+     *            the key of the value
+     * @param loader
+     *            reads the value from the database
+     * @return the value, or {@code null} if the loader did not find any
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (!isEnabled() || key == null) {
+            return loader.apply(key);
+        }
+
+        byte[] cached;
+        long loadVersion;
+        synchronized (lock) {
+            cached = entries.get(key);
+            loadVersion = version;
+        }
+        if (cached != null) {
+            hits.increment();
+            return (V) SerializationUtils.deserialize(cached);
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+        if (value != null) {
+            put(key, value, loadVersion);
+        }
+        return value;
+    }
+
+    private void put(K key, V value, long loadVersion) {
+        byte[] serialized;
+        try {
+            serialized = SerializationUtils.serialize((Serializable) value);
+        } catch (ClassCastException | SerializationException e) {
+            log.debug("Value of '{}' in DAO cache '{}' can not be serialized and will not be cached: {}",
+                    key,
+                    name,
+                    e.getMessage());
+            return;
+        }
+
+        synchronized (lock) {
+            if (loadVersion == version && pendingInvalidateAll == 0 && !pendingWrites.containsKey(key)) {
+                entries.put(key, serialized);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry of the given key. Should be called whenever the DAO writes or removes the entity.
+     */
+    public void invalidate(K key) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        synchronized (lock) {
+            entries.remove(key);
+            version++;
+            pendingWrites.merge(key, 1, Integer::sum);
+        }
+        invalidations.increment();
+
+        if (!cacheManager.runAfterCompletion(() -> completeWrite(key))) {
+            completeWrite(key);
+        }
+    }
+
+    private void completeWrite(K key) {
+        synchronized (lock) {
+            entries.remove(key);
+            version++;
+            pendingWrites.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Removes all the entries. Should be called whenever the DAO makes a change which may affect more entities than
+     * it can tell.
+     */
+    public void invalidateAll() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        synchronized (lock) {
+            entries.clear();
+            version++;
+            pendingInvalidateAll++;
+        }
+        invalidations.increment();
+
+        if (!cacheManager.runAfterCompletion(this::completeInvalidateAll)) {
+            completeInvalidateAll();
+        }
+    }
+
+    private void completeInvalidateAll() {
+        synchronized (lock) {
+            entries.clear();
+            version++;
+            pendingInvalidateAll--;
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            version++;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getHitsCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissesCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictionsCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getInvalidationsCount() {
+        return invalidations.sum();
+    }
+}
@@ -0,0 +1,42 @@
+package org.ovirt.engine.core.dao.cache;
+
+/**
+ * The following interface is used as interface for JMX bean of a DAO cache
+ */
+public interface DaoCacheMXBean {
+
+    /**
+     * The following method will return the number of entries currently kept in the cache
+     */
+    int getSize();
+
+    /**
+     * The following method will return the maximal number of entries kept in the cache
+     */
+    int getMaxSize();
+
+    /**
+     * The following method will return the number of reads served from the cache
+     */
+    long getHitsCount();
+
+    /**
+     * The following method will return the number of reads that had to go to the database
+     */
+    long getMissesCount();
+
+    /**
+     * The following method will return the number of entries evicted because the cache was full
+     */
+    long getEvictionsCount();
+
+    /**
+     * The following method will return the number of invalidations caused by writes
+     */
+    long getInvalidationsCount();
+
+    /**
+     * The following method will allow to clear the cache via JMX console, e.g. after the database was changed manually
+     */
+    void clear();
+}
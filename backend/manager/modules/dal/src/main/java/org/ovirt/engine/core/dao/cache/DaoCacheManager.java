@@ -0,0 +1,163 @@
+package org.ovirt.engine.core.dao.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.naming.InitialContext;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+
+import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the {@link DaoCache}s used by the DAOs and exports their metrics to JMX.
+ * <p>
+ * The maximal number of entries of each cache is set by {@code ENGINE_DAO_CACHE_SIZE} in the engine configuration, 0
+ * disables the caches. Caching requires the JTA transaction manager in order to respect transaction boundaries, so
+ * the caches are disabled as well when it is not available, e.g. when the DAOs are used outside of the application
+ * server.
+ */
+@Named
+@Singleton
+public class DaoCacheManager {
+
+    private static final Logger log = LoggerFactory.getLogger(DaoCacheManager.class);
+
+    public static final String CLUSTER_CACHE = "Cluster";
+    public static final String STORAGE_POOL_CACHE = "StoragePool";
+    public static final String VDS_STATIC_CACHE = "VdsStatic";
+    public static final String NETWORKS_BY_CLUSTER_CACHE = "NetworksByCluster";
+
+    private static final String CACHE_SIZE_PROPERTY = "ENGINE_DAO_CACHE_SIZE";
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+    private static final String TRANSACTION_MANAGER_JNDI_NAME = "java:jboss/TransactionManager";
+
+    private final ConcurrentMap<String, DaoCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    private int cacheSize;
+    private TransactionManager transactionManager;
+    private MBeanServer platformMBeanServer;
+
+    @PostConstruct
+    public void init() {
+        cacheSize = loadCacheSize();
+        if (cacheSize > 0) {
+            transactionManager = lookupTransactionManager();
+            if (transactionManager == null) {
+                cacheSize = 0;
+            }
+        }
+
+        if (cacheSize > 0) {
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            log.info("DAO caches initialized with maximal size of {} entries", cacheSize);
+        } else {
+            log.info("DAO caches are disabled");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        caches.values().forEach(this::unregisterFromJMX);
+    }
+
+    /**
+     * Returns the cache of the given name, creating it on first use. DAOs writing data which is part of the entities
+     * of another DAO use the same name to reach its cache and invalidate it.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> DaoCache<K, V> getCache(String name) {
+        return (DaoCache<K, V>) caches.computeIfAbsent(name, this::createCache);
+    }
+
+    private DaoCache<?, ?> createCache(String name) {
+        DaoCache<?, ?> cache = new DaoCache<>(name, cacheSize, this);
+        if (cache.isEnabled()) {
+            registerInJMX(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Runs the given action once the current transaction completes, either by commit or by rollback
+     *
+     * @return {@code false} if there is no active transaction and the action was not registered
+     */
+    boolean runAfterCompletion(Runnable action) {
+        try {
+            Transaction transaction = transactionManager.getTransaction();
+            if (transaction == null || transaction.getStatus() != Status.STATUS_ACTIVE) {
+                return false;
+            }
+
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            log.debug("Failed to register DAO cache invalidation on transaction completion", e);
+            return false;
+        }
+    }
+
+    private static int loadCacheSize() {
+        try {
+            return EngineLocalConfig.getInstance().getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
+        } catch (Exception e) {
+            log.warn("Can't load the size of DAO caches, will continue using the default value. Error: {}",
+                    e.getMessage());
+            log.debug("Exception", e);
+            return DEFAULT_CACHE_SIZE;
+        }
+    }
+
+    private static TransactionManager lookupTransactionManager() {
+        try {
+            return (TransactionManager) new InitialContext().lookup(TRANSACTION_MANAGER_JNDI_NAME);
+        } catch (Exception e) {
+            log.debug("Transaction manager is not available, DAO caches are disabled: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void registerInJMX(DaoCache<?, ?> cache) {
+        try {
+            platformMBeanServer.registerMBean(cache, createObjectName(cache));
+        } catch (Exception e) {
+            log.warn("Problem during registration of DAO cache '{}' into JMX: {}", cache.getName(), e.getMessage());
+            log.debug("Exception:", e);
+        }
+    }
+
+    private void unregisterFromJMX(DaoCache<?, ?> cache) {
+        try {
+            if (platformMBeanServer != null && cache.isEnabled()) {
+                platformMBeanServer.unregisterMBean(createObjectName(cache));
+            }
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of DAO cache '{}' from JMX", cache.getName(), e);
+        }
+    }
+
+    private static ObjectName createObjectName(DaoCache<?, ?> cache) throws Exception {
+        return new ObjectName("DaoCache:type=" + DaoCache.class.getName() + ",name=" + cache.getName());
+    }
+}
@@ -124,6 +124,11 @@ public class GlusterBrickDaoImpl extends MassOperationsGenericDao<GlusterBrickEn
                         .addValue("brick_order", brickOrder));
     }
 
+    @Override
+    public void updateBrickOrdersInBatch(Collection<GlusterBrickEntity> bricks) {
+        getCallsHandler().executeStoredProcAsBatch("UpdateGlusterVolumeBrickOrder", bricks, getBatchMapper());
+    }
+
     @Override
     public GlusterBrickEntity getById(Guid id) {
         GlusterBrickEntity brick = getCallsHandler().executeRead(
@@ -297,6 +302,11 @@ public class GlusterBrickDaoImpl extends MassOperationsGenericDao<GlusterBrickEn
                         addValue("network_id", networkId));
     }
 
+    @Override
+    public void updateBrickNetworkIdsInBatch(Collection<GlusterBrickEntity> bricks) {
+        getCallsHandler().executeStoredProcAsBatch("UpdateGlusterVolumeBrickNetworkId", bricks, getBatchMapper());
+    }
+
     @Override
     public void updateAllBrickTasksByHostIdBrickDirInBatch(Collection<GlusterBrickEntity> bricks) {
         getCallsHandler().executeStoredProcAsBatch("UpdateGlusterBrickTaskByServerIdBrickDir",
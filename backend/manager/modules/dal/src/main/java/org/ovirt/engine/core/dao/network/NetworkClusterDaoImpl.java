@@ -2,6 +2,7 @@ package org.ovirt.engine.core.dao.network;
 
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -10,6 +11,7 @@ import org.ovirt.engine.core.common.businessentities.network.NetworkClusterId;
 import org.ovirt.engine.core.common.businessentities.network.NetworkStatus;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.BaseDao;
+import org.ovirt.engine.core.dao.cache.DaoCacheManager;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -17,6 +19,9 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class NetworkClusterDaoImpl extends BaseDao implements NetworkClusterDao {
 
+    @Inject
+    private DaoCacheManager daoCacheManager;
+
     private static final RowMapper<NetworkCluster> mapper = (rs, rowNum) -> {
         NetworkCluster entity = new NetworkCluster();
         entity.setClusterId(getGuidDefaultEmpty(rs, "cluster_id"));
@@ -70,6 +75,7 @@ public class NetworkClusterDaoImpl extends BaseDao implements NetworkClusterDao
         MapSqlParameterSource parameterSource = createAllFieldsParameterSource(cluster);
 
         getCallsHandler().executeModification("Insertnetwork_cluster", parameterSource);
+        invalidateClusterNetworks(cluster.getClusterId());
     }
 
     @Override
@@ -77,6 +83,7 @@ public class NetworkClusterDaoImpl extends BaseDao implements NetworkClusterDao
         MapSqlParameterSource parameterSource = createAllFieldsParameterSource(cluster);
 
         getCallsHandler().executeModification("Updatenetwork_cluster", parameterSource);
+        invalidateClusterNetworks(cluster.getClusterId());
     }
 
     private MapSqlParameterSource createAllFieldsParameterSource(NetworkCluster networkCluster) {
@@ -101,6 +108,7 @@ public class NetworkClusterDaoImpl extends BaseDao implements NetworkClusterDao
                 .addValue("status", cluster.getStatus());
 
         getCallsHandler().executeModification("Updatenetwork_cluster_status", parameterSource);
+        invalidateClusterNetworks(cluster.getClusterId());
     }
 
     @Override
@@ -115,6 +123,7 @@ public class NetworkClusterDaoImpl extends BaseDao implements NetworkClusterDao
                 .addValue("network_id", networkid);
 
         getCallsHandler().executeModification("Deletenetwork_cluster", parameterSource);
+        invalidateClusterNetworks(clusterid);
     }
 
     @Override
@@ -147,5 +156,10 @@ public class NetworkClusterDaoImpl extends BaseDao implements NetworkClusterDao
                 .addValue("cluster_id", clusterId).addValue("network_id", networkId);
 
         getCallsHandler().executeModification(procedureName, parameterSource);
+        invalidateClusterNetworks(clusterId);
+    }
+
+    private void invalidateClusterNetworks(Guid clusterId) {
+        daoCacheManager.getCache(DaoCacheManager.NETWORKS_BY_CLUSTER_CACHE).invalidate(clusterId);
     }
 }
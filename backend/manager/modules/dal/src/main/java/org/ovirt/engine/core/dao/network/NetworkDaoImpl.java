@@ -24,6 +24,8 @@ import org.ovirt.engine.core.common.businessentities.network.NetworkStatus;
 import org.ovirt.engine.core.common.businessentities.network.ProviderNetwork;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.DefaultGenericDao;
+import org.ovirt.engine.core.dao.cache.DaoCache;
+import org.ovirt.engine.core.dao.cache.DaoCacheManager;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -35,6 +37,9 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
     @Inject
     private DnsResolverConfigurationDao dnsResolverConfigurationDao;
 
+    @Inject
+    private DaoCacheManager daoCacheManager;
+
     private NetworkClusterRowMapper networkClusterRowMapper;
 
     private NetworkRowMapper networkRowMapper;
@@ -45,6 +50,10 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
         networkRowMapper = new NetworkRowMapper(dnsResolverConfigurationDao);
     }
 
+    private DaoCache<Guid, List<Network>> getClusterNetworksCache() {
+        return daoCacheManager.getCache(DaoCacheManager.NETWORKS_BY_CLUSTER_CACHE);
+    }
+
     public NetworkDaoImpl() {
         super("network");
         setProcedureNameForGet("GetnetworkByid");
@@ -113,7 +122,7 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
         if (id == null) {
             return Collections.emptyList();
         }
-        return getAllForCluster(id, null, false);
+        return getClusterNetworksCache().get(id, clusterId -> getAllForCluster(clusterId, null, false));
     }
 
     @Override
@@ -205,6 +214,7 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
             dnsResolverConfigurationDao.save(dnsResolverConfiguration);
         }
         super.save(entity);
+        getClusterNetworksCache().invalidateAll();
     }
 
     @Override
@@ -220,12 +230,14 @@ public class NetworkDaoImpl extends DefaultGenericDao<Network, Guid> implements
             }
         }
         super.update(entity);
+        getClusterNetworksCache().invalidateAll();
     }
 
     @Override
     public void remove(Guid guid) {
         dnsResolverConfigurationDao.removeByNetworkId(guid);
         super.remove(guid);
+        getClusterNetworksCache().invalidateAll();
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao.network;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -31,6 +32,20 @@ public interface VmNetworkInterfaceDao extends ReadDao<VmNetworkInterface, Guid>
      */
     List<VmNetworkInterface> getAllForVm(Guid id, Guid userID, boolean isFiltered);
 
+    /**
+     * Retrieves all interfaces for the given VMs ids,
+     * with optional filtering
+     *
+     * @param ids
+     *            the VMs ids
+     * @param userID
+     *            the ID of the user requesting the information
+     * @param isFiltered
+     *            Whether the results should be filtered according to the user's permissions
+     * @return the list of interfaces
+     */
+    List<VmNetworkInterface> getAllForVms(Collection<Guid> ids, Guid userID, boolean isFiltered);
+
     /**
      * Retrieves all interfaces for the given template id.
      *
@@ -0,0 +1,188 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.AuditLogSeverity;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+
+@ExtendWith({ MockitoExtension.class, MockConfigExtension.class, InjectorExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogDao auditLogDao;
+    @Mock
+    private ExecutorService executorService;
+    @InjectedMock
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    public TransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<Runnable> flushCaptor;
+
+    @InjectMocks
+    private AuditLogWriter writer;
+
+    private ExecutorService originalExecutorService;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.AuditLogWriteQueueCapacity, 2),
+                MockConfigDescriptor.of(ConfigValues.AuditLogWriteBatchSize, 2)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        originalExecutorService = ThreadPoolUtil.getExecutorService();
+        ThreadPoolUtil.setExecutorService(executorService);
+        writer.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writer.shutdown();
+        ThreadPoolUtil.setExecutorService(originalExecutorService);
+    }
+
+    @Test
+    public void eventsAreWrittenInBatchesBehindTheLoggingThread() {
+        AuditLog first = createAuditLog("first");
+        AuditLog second = createAuditLog("second");
+        writer.write(first, "first", false);
+        writer.write(second, "second", false);
+        verify(auditLogDao, never()).saveAll(any());
+        assertEquals(2, writer.getPendingEventsCount());
+
+        runScheduledFlush();
+        verify(auditLogDao).saveAll(Arrays.asList(first, second));
+        assertEquals(0, writer.getPendingEventsCount());
+        assertEquals(2, writer.getWrittenCount());
+        assertEquals(1, writer.getWrittenBatchesCount());
+    }
+
+    @Test
+    public void synchronousEventIsWrittenAfterQueuedEvents() {
+        AuditLog queued = createAuditLog("queued");
+        AuditLog synchronous = createAuditLog("synchronous");
+        writer.write(queued, "queued", false);
+        writer.write(synchronous, "synchronous", true);
+
+        InOrder inOrder = inOrder(auditLogDao);
+        inOrder.verify(auditLogDao).saveAll(Collections.singletonList(queued));
+        inOrder.verify(auditLogDao).save(synchronous);
+        assertEquals(1, writer.getSynchronousWritesCount());
+    }
+
+    @Test
+    public void eventsAreCoalescedWhenQueueIsFull() {
+        List<AuditLog> queued = Arrays.asList(createAuditLog("first"), createAuditLog("second"));
+        queued.forEach(auditLog -> writer.write(auditLog, auditLog.getMessage(), false));
+        AuditLog repeated = createAuditLog("repeated");
+        writer.write(repeated, "repeated", false);
+        writer.write(createAuditLog("repeated"), "repeated", false);
+        AuditLog other = createAuditLog("other");
+        writer.write(other, "other", false);
+
+        assertEquals(4, writer.getPendingEventsCount());
+        assertEquals(1, writer.getCoalescedCount());
+        verify(auditLogDao, never()).saveAll(any());
+
+        runScheduledFlush();
+        InOrder inOrder = inOrder(auditLogDao);
+        inOrder.verify(auditLogDao).saveAll(queued);
+        inOrder.verify(auditLogDao).saveAll(Arrays.asList(repeated, other));
+        assertEquals("repeated (repeated 2 times)", repeated.getMessage());
+        assertEquals("other", other.getMessage());
+        assertEquals(0, writer.getPendingEventsCount());
+    }
+
+    @Test
+    public void onlyConsecutiveEventsOfEntityAreCoalesced() {
+        List<AuditLog> queued = Arrays.asList(createAuditLog("first"), createAuditLog("second"));
+        queued.forEach(auditLog -> writer.write(auditLog, auditLog.getMessage(), false));
+        List<AuditLog> keptAside = Arrays.asList(createAuditLog("down"), createAuditLog("up"));
+        keptAside.forEach(auditLog -> writer.write(auditLog, "host", false));
+        AuditLog downAgain = createAuditLog("down");
+        writer.write(downAgain, "host", false);
+
+        InOrder inOrder = inOrder(auditLogDao);
+        inOrder.verify(auditLogDao).saveAll(queued);
+        inOrder.verify(auditLogDao).saveAll(keptAside);
+        inOrder.verify(auditLogDao).save(downAgain);
+        assertEquals(0, writer.getCoalescedCount());
+        assertEquals("down", keptAside.get(0).getMessage());
+    }
+
+    @Test
+    public void loggingThreadWritesWhenNoMoreEventsCanBeCoalesced() {
+        List<AuditLog> queued = Arrays.asList(createAuditLog("first"), createAuditLog("second"));
+        queued.forEach(auditLog -> writer.write(auditLog, auditLog.getMessage(), false));
+        List<AuditLog> coalesced = Arrays.asList(createAuditLog("third"), createAuditLog("fourth"));
+        coalesced.forEach(auditLog -> writer.write(auditLog, auditLog.getMessage(), false));
+        AuditLog last = createAuditLog("last");
+        writer.write(last, "last", false);
+
+        InOrder inOrder = inOrder(auditLogDao);
+        inOrder.verify(auditLogDao).saveAll(queued);
+        inOrder.verify(auditLogDao).saveAll(coalesced);
+        inOrder.verify(auditLogDao).save(last);
+        assertEquals(1, writer.getBackPressureCount());
+        assertEquals(0, writer.getPendingEventsCount());
+    }
+
+    @Test
+    public void pendingEventsAreWrittenOnShutdown() {
+        AuditLog auditLog = createAuditLog("pending");
+        writer.write(auditLog, "pending", false);
+
+        writer.shutdown();
+        verify(auditLogDao).saveAll(Collections.singletonList(auditLog));
+    }
+
+    private void runScheduledFlush() {
+        verify(executorService).submit(flushCaptor.capture());
+        flushCaptor.getValue().run();
+    }
+
+    private static AuditLog createAuditLog(String message) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setLogType(AuditLogType.VM_DOWN);
+        auditLog.setSeverity(AuditLogSeverity.NORMAL);
+        auditLog.setMessage(message);
+        return auditLog;
+    }
+}
@@ -42,6 +42,22 @@ public class EventKeyComposerTest {
         createEventAndAssert(event);
     }
 
+    @Test
+    public void composeEntityIdOmitsType() {
+        AuditLogable event = new AuditLogableImpl();
+        event.setVdsId(Guid.createGuidFromString("55555555-5555-5555-5555-555555555555"));
+        String composedEntityId = EventKeyComposer.composeEntityId(event);
+
+        assertEquals("sd=," +
+                "dc=," +
+                "user=," +
+                "cluster=," +
+                "vds=55555555-5555-5555-5555-555555555555," +
+                "vm=," +
+                "template=," +
+                "customId=", composedEntityId);
+    }
+
     private void createEventAndAssert(AuditLogable event) {
         event.setStorageDomainId(Guid.createGuidFromString("11111111-1111-1111-1111-111111111111"));
         event.setStoragePoolId(Guid.createGuidFromString("22222222-2222-2222-2222-222222222222"));
@@ -7,6 +7,8 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -235,6 +237,14 @@ public class AuditLogDaoTest extends BaseDaoTestCase<AuditLogDao> {
         assertEquals(FILTERED_COUNT, result.size());
     }
 
+    @Test
+    public void testProcessAllWithQuery() {
+        List<AuditLog> result = new ArrayList<>();
+        dao.processAllWithQuery("SELECT * FROM audit_log WHERE vds_name = 'magenta-vdsc'", result::add);
+
+        assertEquals(FILTERED_COUNT, result.size());
+    }
+
     @Test
     public void testRemoveAllBeforeDate()
             throws Exception {
@@ -271,6 +281,27 @@ public class AuditLogDaoTest extends BaseDaoTestCase<AuditLogDao> {
         assertEquals(newAuditLog, result);
     }
 
+    /**
+     * Ensures that saving several AuditLogs in a batch works as expected.
+     */
+    @Test
+    public void testSaveAll() {
+        AuditLog otherAuditLog = new AuditLog();
+        otherAuditLog.setLogTime(new Date());
+        otherAuditLog.setLogType(AuditLogType.VM_DOWN);
+        otherAuditLog.setSeverity(AuditLogSeverity.NORMAL);
+        otherAuditLog.setMessage("VM is down");
+        otherAuditLog.setVmId(VM_ID);
+        otherAuditLog.setVmName(VM_NAME);
+
+        dao.saveAll(Arrays.asList(newAuditLog, otherAuditLog));
+
+        assertEquals(TOTAL_COUNT + 2, dao.getAll(null, false).size());
+        List<AuditLog> vmEntries = dao.getAllByVMId(VM_ID);
+        assertTrue(vmEntries.stream().anyMatch(entry -> newAuditLog.getMessage().equals(entry.getMessage())));
+        assertTrue(vmEntries.stream().anyMatch(entry -> otherAuditLog.getMessage().equals(entry.getMessage())));
+    }
+
     @Test
     public void testSaveExternalEvent() {
         AuditLog newExternalEvent = new AuditLog();
@@ -12,7 +12,9 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -243,6 +245,30 @@ public class ClusterDaoTest extends BaseDaoTestCase<ClusterDao> {
         assertGetAllForStoragePoolValidResult(result);
     }
 
+    /**
+     * Ensures that the groups of all the given storage pools are returned.
+     */
+    @Test
+    public void testGetAllForStoragePools() {
+        List<Cluster> expected = new ArrayList<>(dao.getAllForStoragePool(FixturesTool.STORAGE_POOL_RHEL6_ISCSI_OTHER));
+        expected.addAll(dao.getAllForStoragePool(FixturesTool.STORAGE_POOL_NFS));
+
+        List<Cluster> result = dao.getAllForStoragePools(
+                Arrays.asList(FixturesTool.STORAGE_POOL_RHEL6_ISCSI_OTHER, FixturesTool.STORAGE_POOL_NFS));
+
+        assertFalse(result.isEmpty());
+        assertEquals(new HashSet<>(expected), new HashSet<>(result));
+    }
+
+    /**
+     * Ensures that no groups are returned for unknown storage pools.
+     */
+    @Test
+    public void testGetAllForStoragePoolsWithInvalidPool() {
+        List<Cluster> result = dao.getAllForStoragePools(Collections.singletonList(Guid.newGuid()));
+        assertGetAllForStoragePoolInvalidResult(result);
+    }
+
     /**
      * Ensures that the storage pool name is returned properly.
      */
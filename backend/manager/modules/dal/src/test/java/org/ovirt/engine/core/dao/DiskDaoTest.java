@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -243,6 +244,24 @@ public class DiskDaoTest extends BaseReadDaoTestCase<Guid, Disk, DiskDao> {
         assertEquals(expectedFloatingDiskIds, actualFloatingDiskIds, "Wrong attachable disks");
     }
 
+    @Test
+    public void testProcessAllWithQuery() {
+        List<Disk> result = new ArrayList<>();
+        dao.processAllWithQuery("SELECT * FROM all_disks", result::add);
+
+        assertEquals(getEntitiesTotalCount(), result.size());
+        assertTrue(result.stream().anyMatch(disk -> getExistingEntityId().equals(disk.getId())));
+    }
+
+    @Test
+    public void testProcessAllWithQueryNoResult() {
+        List<Disk> result = new ArrayList<>();
+        dao.processAllWithQuery(String.format("SELECT * FROM all_disks WHERE disk_id = '%s'", generateNonExistingId()),
+                result::add);
+
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     public void testGetAllFromDisksIncludingSnapshots() {
         List<Disk> result = dao.getAllFromDisksIncludingSnapshots(null, false);
@@ -0,0 +1,29 @@
+package org.ovirt.engine.core.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+
+public class SearchAfterDaoTest extends BaseDaoTestCase<SearchAfterDao> {
+
+    @Test
+    public void testGetSearchAfter() {
+        List<String> result = dao.getSearchAfter(String.format(
+                "SELECT (vm_name)::text, (vm_guid)::text FROM vms WHERE vm_guid = '%s'", FixturesTool.VM_RHEL5_POOL_57));
+
+        assertEquals(Arrays.asList("rhel5-pool-57", FixturesTool.VM_RHEL5_POOL_57.toString()), result);
+    }
+
+    @Test
+    public void testGetSearchAfterOfMissingEntity() {
+        List<String> result = dao.getSearchAfter(String.format(
+                "SELECT (vm_name)::text, (vm_guid)::text FROM vms WHERE vm_guid = '%s'", Guid.newGuid()));
+
+        assertNull(result);
+    }
+}
@@ -252,6 +252,21 @@ public class VdsDaoTest extends BaseDaoTestCase<VdsDao> {
         }
     }
 
+    /**
+     * Ensures the hosts of all the given clusters which are in the given status are returned.
+     */
+    @Test
+    public void testGetAllForClustersWithStatus() {
+        List<VDS> expected = dao.getAllForClusterWithStatus(existingVds.getClusterId(), existingVds.getStatus());
+
+        List<VDS> result = dao.getAllForClustersWithStatus(
+                Arrays.asList(existingVds.getClusterId(), Guid.newGuid()),
+                existingVds.getStatus());
+
+        assertTrue(result.contains(existingVds));
+        assertEquals(expected, result);
+    }
+
     /**
      * Ensures that all VDS instances are returned.
      */
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -185,6 +186,14 @@ public class VmDaoTest extends BaseDaoTestCase<VmDao> {
         assertCorrectGetAllResult(result);
     }
 
+    @Test
+    public void testProcessAll() {
+        List<VM> result = new ArrayList<>();
+        dao.processAll(result::add);
+
+        assertCorrectGetAllResult(result);
+    }
+
     @Test
     public void testGetVmsByIds() {
         List<VM> result = dao.getVmsByIds(Arrays.asList(FixturesTool.VM_RHEL5_POOL_60, FixturesTool.VM_RHEL5_POOL_59));
@@ -0,0 +1,174 @@
+package org.ovirt.engine.core.dao.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** A test case for the {@link DaoCache} */
+public class DaoCacheTest {
+
+    private DaoCacheManager cacheManager;
+    private List<Runnable> afterCompletionActions;
+    private AtomicInteger loads;
+    private Function<Integer, ArrayList<String>> loader;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager = mock(DaoCacheManager.class);
+        afterCompletionActions = new ArrayList<>();
+        loads = new AtomicInteger();
+        loader = key -> {
+            loads.incrementAndGet();
+            ArrayList<String> value = new ArrayList<>();
+            value.add("value" + key);
+            return value;
+        };
+    }
+
+    private void inTransaction() {
+        when(cacheManager.runAfterCompletion(any())).thenAnswer(invocation -> {
+            afterCompletionActions.add(invocation.getArgument(0));
+            return true;
+        });
+    }
+
+    private void completeTransaction() {
+        afterCompletionActions.forEach(Runnable::run);
+        afterCompletionActions.clear();
+    }
+
+    @Test
+    public void testHitReturnsCopy() {
+        DaoCache<Integer, ArrayList<String>> cache = new DaoCache<>("test", 10, cacheManager);
+
+        ArrayList<String> loaded = cache.get(1, loader);
+        ArrayList<String> cached = cache.get(1, loader);
+        cached.add("modified");
+
+        assertEquals(1, loads.get());
+        assertNotSame(loaded, cached);
+        assertEquals(loaded, cache.get(1, loader));
+        assertEquals(2, cache.getHitsCount());
+        assertEquals(1, cache.getMissesCount());
+    }
+
+    @Test
+    public void testDisabled() {
+        DaoCache<Integer, ArrayList<String>> cache = new DaoCache<>("test", 0, cacheManager);
+
+        cache.get(1, loader);
+        cache.get(1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testNullNotCached() {
+        DaoCache<Integer, ArrayList<String>> cache = new DaoCache<>("test", 10, cacheManager);
+
+        cache.get(1, key -> null);
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        DaoCache<Integer, ArrayList<String>> cache = new DaoCache<>("test", 2, cacheManager);
+
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader);
+        cache.get(3, loader);
+        cache.get(1, loader);
+        cache.get(2, loader);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getSize());
+        assertEquals(2, cache.getEvictionsCount());
+    }
+
+    @Test
+    public void testInvalidateWithoutTransaction() {
+        DaoCache<Integer, ArrayList<String>> cache = new DaoCache<>("test", 10, cacheManager);
+
+        cache.get(1, loader);
+        cache.invalidate(1);
+        cache.get(1, loader);
+        cache.get(1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getInvalidationsCount());
+    }
+
+    @Test
+    public void testNotCachedUntilTransactionCompletes() {
+        DaoCache<Integer, ArrayList<String>> cache = new DaoCache<>("test", 10, cacheManager);
+        inTransaction();
+
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.invalidate(1);
+        cache.get(1, loader);
+        cache.get(1, loader);
+        cache.get(2, loader);
+        assertEquals(4, loads.get());
+
+        completeTransaction();
+        cache.get(1, loader);
+        cache.get(1, loader);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        DaoCache<Integer, ArrayList<String>> cache = new DaoCache<>("test", 10, cacheManager);
+        inTransaction();
+
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.invalidateAll();
+        cache.get(1, loader);
+        cache.get(2, loader);
+        assertEquals(4, loads.get());
+        assertEquals(0, cache.getSize());
+
+        completeTransaction();
+        cache.get(1, loader);
+        cache.get(1, loader);
+        assertEquals(5, loads.get());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void testValueLoadedDuringInvalidationNotCached() {
+        DaoCache<Integer, ArrayList<String>> cache = new DaoCache<>("test", 10, cacheManager);
+
+        cache.get(1, key -> {
+            cache.invalidate(key);
+            return loader.apply(key);
+        });
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testNotSerializableNotCached() {
+        DaoCache<Integer, Object> cache = new DaoCache<>("test", 10, cacheManager);
+        Object value = new Object();
+
+        assertSame(value, cache.get(1, key -> value));
+        assertEquals(0, cache.getSize());
+    }
+}
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -398,6 +399,32 @@ public class GlusterBrickDaoTest extends BaseDaoTestCase<GlusterBrickDao> {
         assertNotNull(bricks);
     }
 
+    @Test
+    public void testUpdateBrickNetworkIdsInBatch() {
+        GlusterBrickEntity existingBrick1 = dao.getById(FixturesTool.GLUSTER_BRICK_UUID1);
+        GlusterBrickEntity existingBrick2 = dao.getById(FixturesTool.GLUSTER_BRICK_UUID2);
+        existingBrick1.setNetworkId(FixturesTool.NETWORK_ENGINE);
+        existingBrick2.setNetworkId(FixturesTool.NETWORK_ENGINE);
+
+        dao.updateBrickNetworkIdsInBatch(Arrays.asList(existingBrick1, existingBrick2));
+
+        assertEquals(FixturesTool.NETWORK_ENGINE, dao.getById(FixturesTool.GLUSTER_BRICK_UUID1).getNetworkId());
+        assertEquals(FixturesTool.NETWORK_ENGINE, dao.getById(FixturesTool.GLUSTER_BRICK_UUID2).getNetworkId());
+    }
+
+    @Test
+    public void testUpdateBrickOrdersInBatch() {
+        GlusterBrickEntity existingBrick1 = dao.getById(FixturesTool.GLUSTER_BRICK_UUID1);
+        GlusterBrickEntity existingBrick2 = dao.getById(FixturesTool.GLUSTER_BRICK_UUID2);
+        existingBrick1.setBrickOrder(10);
+        existingBrick2.setBrickOrder(11);
+
+        dao.updateBrickOrdersInBatch(Arrays.asList(existingBrick1, existingBrick2));
+
+        assertEquals(10, dao.getById(FixturesTool.GLUSTER_BRICK_UUID1).getBrickOrder().intValue());
+        assertEquals(11, dao.getById(FixturesTool.GLUSTER_BRICK_UUID2).getBrickOrder().intValue());
+    }
+
     @Test
     public void testGetAllByClusterAndNetworkId() {
         dao.updateBrickNetworkId(FixturesTool.GLUSTER_BRICK_UUID1, FixturesTool.NETWORK_ENGINE);
@@ -207,6 +207,27 @@ public class VmNetworkInterfaceDaoTest extends BaseDaoTestCase<VmNetworkInterfac
         }
     }
 
+    /**
+     * Ensures that the interfaces of all the given VMs are returned.
+     */
+    @Test
+    public void testGetAllInterfacesForVms() {
+        List<VmNetworkInterface> result = dao.getAllForVms(Set.of(VM_ID, Guid.newGuid()), null, false);
+
+        assertEquals(dao.getAllForVm(VM_ID), result);
+    }
+
+    /**
+     * Ensures that no interfaces are returned for an unprivileged user
+     */
+    @Test
+    public void testGetAllInterfacesForVmsFilteredWithoutPermissions() {
+        List<VmNetworkInterface> result = dao.getAllForVms(Set.of(VM_ID), UNPRIVILEGED_USER_ID, true);
+
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     public void testGetAll() {
         List<VmNetworkInterface> interfaces = dao.getAll();
@@ -0,0 +1,54 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.config.IConfigUtilsInterface;
+
+/**
+ * Configuration of the engine for benchmarks running without a database. Only the values set explicitly are known,
+ * they are the same for all the versions, and reading any other value fails so that a benchmark does not silently
+ * measure a path it did not configure.
+ */
+final class BenchmarkConfig implements IConfigUtilsInterface {
+
+    private final Map<ConfigValues, Object> values = new EnumMap<>(ConfigValues.class);
+
+    BenchmarkConfig set(ConfigValues name, Object value) {
+        values.put(name, value);
+        return this;
+    }
+
+    /**
+     * Makes this configuration the one returned by {@link Config}
+     */
+    void install() {
+        Config.setConfigUtils(this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(ConfigValues configValue, String version) {
+        if (!values.containsKey(configValue)) {
+            throw new IllegalStateException("Configuration value " + configValue + " is not set for the benchmark");
+        }
+        return (T) values.get(configValue);
+    }
+
+    @Override
+    public void refresh() {
+    }
+
+    @Override
+    public <T> Map<String, T> getValuesForAllVersions(ConfigValues configValue) {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public boolean valueExists(ConfigValues configValue, String version) {
+        return values.containsKey(configValue);
+    }
+}
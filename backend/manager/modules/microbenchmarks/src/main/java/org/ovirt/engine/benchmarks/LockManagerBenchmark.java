@@ -0,0 +1,99 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.lock.InMemoryLockManager;
+import org.ovirt.engine.core.common.errors.EngineMessage;
+import org.ovirt.engine.core.common.locks.LockingGroup;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.utils.lock.LockingResult;
+
+/**
+ * <p> Benchmarks acquiring and releasing locks of {@link InMemoryLockManager} from many threads, as done by the
+ * commands running in parallel.</p>
+ * <p> {@code exclusive} locks a different VM in every thread, {@code exclusiveAndShared} additionally takes a shared
+ * lock on a template common to all the threads, as done when many VMs are created from the same template, and
+ * {@code contended} locks the same VM in all the threads, so most of the attempts fail.</p>
+ *
+ * @see InMemoryLockManager
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class LockManagerBenchmark {
+
+    @Benchmark
+    public void exclusive(BenchmarkState state, ThreadState thread, Blackhole blackhole) {
+        acquireAndRelease(state.lockManager, thread.exclusiveLock, blackhole);
+    }
+
+    @Benchmark
+    public void exclusiveAndShared(BenchmarkState state, ThreadState thread, Blackhole blackhole) {
+        acquireAndRelease(state.lockManager, thread.exclusiveAndSharedLock, blackhole);
+    }
+
+    @Benchmark
+    public void contended(BenchmarkState state, Blackhole blackhole) {
+        acquireAndRelease(state.lockManager, state.contendedLock, blackhole);
+    }
+
+    private static void acquireAndRelease(InMemoryLockManager lockManager, EngineLock lock, Blackhole blackhole) {
+        LockingResult result = lockManager.acquireLock(lock);
+        if (result.isAcquired()) {
+            lockManager.releaseLock(lock);
+        }
+        blackhole.consume(result);
+    }
+
+    private static Map<String, Pair<String, String>> lockOf(Guid id, LockingGroup group) {
+        return Collections.singletonMap(id.toString(),
+                new Pair<>(group.name(), EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED.name()));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        private InMemoryLockManager lockManager;
+        private Guid templateId;
+        private EngineLock contendedLock;
+
+        @Setup
+        public void setup() {
+            lockManager = new InMemoryLockManager();
+            templateId = Guid.newGuid();
+            contendedLock = new EngineLock(lockOf(Guid.newGuid(), LockingGroup.VM), null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private EngineLock exclusiveLock;
+        private EngineLock exclusiveAndSharedLock;
+
+        @Setup
+        public void setup(BenchmarkState state) {
+            Guid vmId = Guid.newGuid();
+            exclusiveLock = new EngineLock(lockOf(vmId, LockingGroup.VM), null);
+            exclusiveAndSharedLock = new EngineLock(lockOf(vmId, LockingGroup.VM),
+                    lockOf(state.templateId, LockingGroup.TEMPLATE));
+        }
+    }
+}
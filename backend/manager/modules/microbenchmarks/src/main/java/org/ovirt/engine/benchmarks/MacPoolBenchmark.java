@@ -0,0 +1,142 @@
+package org.ovirt.engine.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.network.macpool.MacPool;
+import org.ovirt.engine.core.bll.network.macpool.MacPoolFactory;
+import org.ovirt.engine.core.bll.network.macpool.MacsUsedAcrossWholeSystem;
+import org.ovirt.engine.core.common.businessentities.MacRange;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
+import org.ovirt.engine.core.utils.MacAddressRangeUtils;
+
+/**
+ * <p> Benchmarks allocating and releasing MAC addresses of a {@link MacPool} which is mostly in use, as done when
+ * adding and removing network interfaces of VMs.</p>
+ * <p> The pool has {@code rangeSize} addresses split into {@code numberOfRanges} disjoint ranges, nine tenths of them
+ * are allocated before the benchmark. Every benchmark gives back what it takes, so the pool keeps the same occupancy
+ * during the run and is never emptied.</p>
+ * <p> {@link #initialize} measures creating the pool with these addresses in use, as done for every pool on engine
+ * startup.</p>
+ *
+ * @see MacPoolFactory
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MacPoolBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Benchmark
+    public void allocateAndFree(BenchmarkState state, Blackhole blackhole) {
+        String mac = state.macPool.allocateNewMac();
+        state.macPool.freeMac(mac);
+        blackhole.consume(mac);
+    }
+
+    @Benchmark
+    public void allocateAndFreeBatch(BenchmarkState state, Blackhole blackhole) {
+        List<String> macs = state.macPool.allocateMacAddresses(BATCH_SIZE);
+        state.macPool.freeMacs(macs);
+        blackhole.consume(macs);
+    }
+
+    @Benchmark
+    public void addAndFreeCustomMac(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.macPool.addMac(state.freeMac));
+        state.macPool.freeMac(state.freeMac);
+    }
+
+    @Benchmark
+    public void isMacInUse(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.macPool.isMacInUse(state.freeMac));
+    }
+
+    @Benchmark
+    public void initialize(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.macPoolFactory.createMacPool(state.macPoolEntity, true));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "65536", "1048576" })
+        public int rangeSize;
+
+        @Param({ "1", "64" })
+        public int numberOfRanges;
+
+        @Mock
+        private MacsUsedAcrossWholeSystem macsUsedAcrossWholeSystem;
+
+        @Mock
+        private AuditLogDirector auditLogDirector;
+
+        @InjectMocks
+        private MacPoolFactory macPoolFactory;
+
+        private AutoCloseable mocks;
+        private org.ovirt.engine.core.common.businessentities.MacPool macPoolEntity;
+        private MacPool macPool;
+        private String freeMac;
+
+        @Setup
+        public void setup() {
+            mocks = MockitoAnnotations.openMocks(this);
+
+            long firstMac = MacAddressRangeUtils.macToLong("56:6f:00:00:00:00");
+            Guid macPoolId = Guid.newGuid();
+            int macsInRange = rangeSize / numberOfRanges;
+            List<MacRange> ranges = new ArrayList<>(numberOfRanges);
+            for (int i = 0; i < numberOfRanges; i++) {
+                // leave a gap after each range, so they are not merged into one
+                long rangeFirstMac = firstMac + 2L * i * macsInRange;
+                MacRange range = new MacRange();
+                range.setMacPoolId(macPoolId);
+                range.setMacFrom(MacAddressRangeUtils.macToString(rangeFirstMac));
+                range.setMacTo(MacAddressRangeUtils.macToString(rangeFirstMac + macsInRange - 1));
+                ranges.add(range);
+            }
+
+            macPoolEntity = new org.ovirt.engine.core.common.businessentities.MacPool();
+            macPoolEntity.setId(macPoolId);
+            macPoolEntity.setName("benchmark");
+            macPoolEntity.setAllowDuplicateMacAddresses(false);
+            macPoolEntity.setRanges(ranges);
+
+            macPool = macPoolFactory.createMacPool(macPoolEntity, false);
+            List<String> usedMacs = macPool.allocateMacAddresses(rangeSize / 10 * 9);
+            freeMac = macPool.allocateNewMac();
+            macPool.freeMac(freeMac);
+
+            when(macsUsedAcrossWholeSystem.getMacsForMacPool(any())).thenReturn(usedMacs);
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            mocks.close();
+        }
+    }
+}
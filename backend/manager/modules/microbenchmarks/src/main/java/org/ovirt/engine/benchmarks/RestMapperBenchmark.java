@@ -0,0 +1,150 @@
+package org.ovirt.engine.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.api.model.Disk;
+import org.ovirt.engine.api.model.Vm;
+import org.ovirt.engine.api.restapi.types.DiskMapper;
+import org.ovirt.engine.api.restapi.types.Mapper;
+import org.ovirt.engine.api.restapi.types.MappingLocator;
+import org.ovirt.engine.api.restapi.types.VmMapper;
+import org.ovirt.engine.core.common.businessentities.ArchitectureType;
+import org.ovirt.engine.core.common.businessentities.OriginType;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.common.businessentities.VmType;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.ImageStatus;
+import org.ovirt.engine.core.common.businessentities.storage.VolumeFormat;
+import org.ovirt.engine.core.common.businessentities.storage.VolumeType;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.osinfo.OsRepository;
+import org.ovirt.engine.core.common.utils.SimpleDependencyInjector;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.Version;
+
+/**
+ * <p> Benchmarks the round trip of a VM and of a disk through the type mappers of the RESTful API: from the backend
+ * entity to the model returned to the client, and from the model back to the entity sent to the backend.</p>
+ * <p> The {@code locator} benchmarks use the mappers returned by {@link MappingLocator}, as the resources of the API
+ * do, the {@code direct} ones call the mapping methods directly and show the cost of the mapping itself.</p>
+ *
+ * @see VmMapper
+ * @see DiskMapper
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RestMapperBenchmark {
+
+    @Benchmark
+    public void vmRoundTripLocator(BenchmarkState state, Blackhole blackhole) {
+        Vm model = state.vmToModel.map(state.vm, null);
+        blackhole.consume(state.vmFromModel.map(model, null));
+    }
+
+    @Benchmark
+    public void vmRoundTripDirect(BenchmarkState state, Blackhole blackhole) {
+        Vm model = VmMapper.map(state.vm, (Vm) null);
+        blackhole.consume(VmMapper.map(model, (VmStatic) null));
+    }
+
+    @Benchmark
+    public void diskRoundTripLocator(BenchmarkState state, Blackhole blackhole) {
+        Disk model = state.diskToModel.map(state.disk, null);
+        blackhole.consume(state.diskFromModel.map(model, null));
+    }
+
+    @Benchmark
+    public void diskRoundTripDirect(BenchmarkState state, Blackhole blackhole) {
+        Disk model = DiskMapper.map(state.disk, (Disk) null);
+        blackhole.consume(DiskMapper.map(model, (org.ovirt.engine.core.common.businessentities.storage.Disk) null));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        private VM vm;
+        private DiskImage disk;
+        private Mapper<VM, Vm> vmToModel;
+        private Mapper<Vm, VmStatic> vmFromModel;
+        private Mapper<org.ovirt.engine.core.common.businessentities.storage.Disk, Disk> diskToModel;
+        private Mapper<Disk, org.ovirt.engine.core.common.businessentities.storage.Disk> diskFromModel;
+
+        @Setup
+        public void setup() {
+            new BenchmarkConfig()
+                    .set(ConfigValues.SpiceProxyDefault, "")
+                    .install();
+            OsRepository osRepository = mock(OsRepository.class);
+            when(osRepository.getUniqueOsNames()).thenReturn(Map.of(0, "other"));
+            when(osRepository.getOsIdByUniqueName("other")).thenReturn(0);
+            SimpleDependencyInjector.getInstance().bind(OsRepository.class, osRepository);
+
+            MappingLocator mappingLocator = new MappingLocator();
+            mappingLocator.populate();
+            vmToModel = mappingLocator.getMapper(VM.class, Vm.class);
+            vmFromModel = mappingLocator.getMapper(Vm.class, VmStatic.class);
+            diskToModel = mappingLocator.getMapper(
+                    org.ovirt.engine.core.common.businessentities.storage.Disk.class, Disk.class);
+            diskFromModel = mappingLocator.getMapper(
+                    Disk.class, org.ovirt.engine.core.common.businessentities.storage.Disk.class);
+
+            vm = new VM();
+            vm.setId(Guid.newGuid());
+            vm.setName("vm");
+            vm.setVmDescription("benchmark");
+            vm.setClusterId(Guid.newGuid());
+            vm.setClusterArch(ArchitectureType.x86_64);
+            vm.setClusterCompatibilityVersion(Version.v4_6);
+            vm.setVmtGuid(Guid.Empty);
+            vm.setVmOs(0);
+            vm.setVmType(VmType.Server);
+            vm.setOrigin(OriginType.OVIRT);
+            vm.setNumOfSockets(2);
+            vm.setCpuPerSocket(2);
+            vm.setThreadsPerCpu(1);
+            vm.setVmMemSizeMb(4096);
+            vm.setMaxMemorySizeMb(16384);
+            vm.setMinAllocatedMem(2048);
+            vm.setStatus(VMStatus.Up);
+            vm.setRunOnVds(Guid.newGuid());
+            vm.setVmHost("host");
+            vm.setIp("192.168.0.1");
+
+            disk = new DiskImage();
+            disk.setId(Guid.newGuid());
+            disk.setImageId(Guid.newGuid());
+            disk.setDiskAlias("disk");
+            disk.setDiskDescription("benchmark");
+            disk.setSize(10L * 1024 * 1024 * 1024);
+            disk.setActualSizeInBytes(1024L * 1024 * 1024);
+            disk.setVolumeFormat(VolumeFormat.COW);
+            disk.setVolumeType(VolumeType.Sparse);
+            disk.setImageStatus(ImageStatus.OK);
+            disk.setStorageIds(new ArrayList<>(Collections.singletonList(Guid.newGuid())));
+            disk.setStoragePoolId(Guid.newGuid());
+            disk.setQuotaId(Guid.newGuid());
+            disk.setDiskProfileId(Guid.newGuid());
+            disk.setVmSnapshotId(Guid.newGuid());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package org.ovirt.engine.benchmarks;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.scheduling.PolicyUnitImpl;
+import org.ovirt.engine.core.bll.scheduling.SchedulingContext;
+import org.ovirt.engine.core.bll.scheduling.SlaValidator;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.policyunits.CPUPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionCPUWeightPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionMemoryWeightPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.MemoryPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.RankSelectorPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.selector.SelectorInstance;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VdsSpmStatus;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.scheduling.VmOverheadCalculator;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * <p> Benchmarks the selection of a host for a VM among the hosts of a large cluster, the way
+ * {@code SchedulingManager} does it: the hosts are filtered, the remaining ones are scored and the selector picks the
+ * best one.</p>
+ * <p> The internal CPU and memory filters and the even distribution weights are used, since they are part of most
+ * cluster policies and their cost grows with the number of hosts. Some of the hosts do not have enough cores or
+ * memory for the VM so the filters do drop hosts. The policy units are created directly instead of through CDI, the
+ * memory overhead of a VM is a constant.</p>
+ *
+ * @see org.ovirt.engine.core.bll.scheduling.SchedulingManager
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchedulingBenchmark {
+
+    @Benchmark
+    public void filter(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(filterHosts(state, newContext(state)));
+    }
+
+    @Benchmark
+    public void score(BenchmarkState state, Blackhole blackhole) {
+        SchedulingContext context = newContext(state);
+        for (PolicyUnitImpl function : state.functions) {
+            blackhole.consume(function.score(context, state.hosts, state.vmGroup));
+        }
+    }
+
+    @Benchmark
+    public void schedule(BenchmarkState state, Blackhole blackhole) {
+        SchedulingContext context = newContext(state);
+        List<VDS> hosts = filterHosts(state, context);
+
+        SelectorInstance selector = state.selector.selector(Collections.emptyMap());
+        selector.init(state.factors, hosts.stream().map(VDS::getId).collect(Collectors.toList()));
+        for (PolicyUnitImpl function : state.functions) {
+            Guid functionId = function.getPolicyUnit().getId();
+            for (Pair<Guid, Integer> score : function.score(context, hosts, state.vmGroup)) {
+                selector.record(functionId, score.getFirst(), score.getSecond());
+            }
+        }
+        blackhole.consume(selector.best());
+    }
+
+    private static SchedulingContext newContext(BenchmarkState state) {
+        return new SchedulingContext(state.cluster, Collections.emptyMap());
+    }
+
+    private static List<VDS> filterHosts(BenchmarkState state, SchedulingContext context) {
+        PerHostMessages messages = new PerHostMessages();
+        List<VDS> hosts = state.hosts;
+        for (PolicyUnitImpl filter : state.filters) {
+            hosts = filter.filter(context, hosts, state.vmGroup, messages);
+        }
+        return hosts;
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "100", "500" })
+        public int hostCount;
+
+        private Cluster cluster;
+        private List<VDS> hosts;
+        private List<VM> vmGroup;
+        private List<PolicyUnitImpl> filters;
+        private List<PolicyUnitImpl> functions;
+        private List<Pair<Guid, Integer>> factors;
+        private RankSelectorPolicyUnit selector;
+
+        @Setup
+        public void setup() throws ReflectiveOperationException {
+            new BenchmarkConfig()
+                    .set(ConfigValues.MaxSchedulerWeight, 1000)
+                    .set(ConfigValues.VcpuConsumptionPercentage, 10)
+                    .set(ConfigValues.SpmVCpuConsumption, 1)
+                    .install();
+
+            cluster = new Cluster();
+            cluster.setId(Guid.newGuid());
+            cluster.setCountThreadsAsCores(false);
+
+            hosts = new ArrayList<>(hostCount);
+            for (int i = 0; i < hostCount; i++) {
+                hosts.add(buildHost(i));
+            }
+
+            VM vm = new VM();
+            vm.setId(Guid.newGuid());
+            vm.setName("vm");
+            vm.setStatus(VMStatus.Down);
+            vm.setNumOfSockets(2);
+            vm.setCpuPerSocket(4);
+            vm.setVmMemSizeMb(16384);
+            vm.setMinAllocatedMem(16384);
+            vmGroup = Collections.singletonList(vm);
+
+            PendingResourceManager pendingResourceManager = new PendingResourceManager();
+            VmOverheadCalculator vmOverheadCalculator = new FixedVmOverheadCalculator();
+            SlaValidator slaValidator = new SlaValidator();
+            slaValidator.setVmOverheadCalculator(vmOverheadCalculator);
+
+            MemoryPolicyUnit memoryFilter = new MemoryPolicyUnit(null, pendingResourceManager);
+            inject(memoryFilter, "slaValidator", slaValidator);
+            filters = List.of(new CPUPolicyUnit(null, pendingResourceManager), memoryFilter);
+
+            EvenDistributionMemoryWeightPolicyUnit memoryWeight =
+                    new EvenDistributionMemoryWeightPolicyUnit(null, pendingResourceManager);
+            inject(memoryWeight, "vmOverheadCalculator", vmOverheadCalculator);
+            functions = List.of(new EvenDistributionCPUWeightPolicyUnit(null, pendingResourceManager), memoryWeight);
+            factors = functions.stream()
+                    .map(function -> new Pair<>(function.getPolicyUnit().getId(), 1))
+                    .collect(Collectors.toList());
+
+            selector = new RankSelectorPolicyUnit(null, pendingResourceManager);
+        }
+
+        /**
+         * Builds an up host, every tenth host has too few cores and every seventh host too little memory for the VM
+         */
+        private static VDS buildHost(int index) {
+            VDS host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setVdsName("host" + index);
+            host.setSpmStatus(VdsSpmStatus.None);
+            host.setCpuCores(index % 10 == 0 ? 4 : 32);
+            host.setCpuThreads(index % 10 == 0 ? 8 : 64);
+            host.setUsageCpuPercent(index * 37 % 90);
+            host.setMaxVdsMemoryOverCommit(100);
+            host.setReservedMem(321);
+            host.setMemCommited(index % 7 == 0 ? 250000 : index * 397 % 200000);
+            host.setPhysicalMemMb(262144);
+            host.setMemFree(index % 7 == 0 ? 8192L : 262144L - index * 397 % 200000);
+            host.setSwapFree(0L);
+            return host;
+        }
+
+        /**
+         * Sets a field injected by CDI in the engine
+         */
+        private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        }
+    }
+
+    /**
+     * Adds a constant overhead to the memory of a VM, so that the benchmark measures the scheduling itself
+     */
+    private static class FixedVmOverheadCalculator implements VmOverheadCalculator {
+
+        private static final int OVERHEAD_MB = 64;
+
+        @Override
+        public int getTotalRequiredMemMb(VM vm) {
+            return vm.getMemSizeMb() + OVERHEAD_MB;
+        }
+
+        @Override
+        public int getTotalRequiredMemWithoutHugePagesMb(VM vm) {
+            return getTotalRequiredMemMb(vm);
+        }
+
+        @Override
+        public int getOverheadInMb(VM vm) {
+            return OVERHEAD_MB;
+        }
+
+        @Override
+        public int getPossibleOverheadInMb(VM vm) {
+            return OVERHEAD_MB;
+        }
+
+        @Override
+        public int getStaticOverheadInMb(VM vm) {
+            return OVERHEAD_MB;
+        }
+
+        @Override
+        public long getSnapshotMemorySizeInBytes(VM vm) {
+            return (long) getTotalRequiredMemMb(vm) * 1024 * 1024;
+        }
+    }
+}
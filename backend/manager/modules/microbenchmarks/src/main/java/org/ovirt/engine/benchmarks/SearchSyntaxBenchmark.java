@@ -0,0 +1,71 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.searchbackend.SyntaxChecker;
+import org.ovirt.engine.core.searchbackend.SyntaxContainer;
+
+/**
+ * <p> Benchmarks turning the search text typed by the user into SQL by {@link SyntaxChecker}, which is done for
+ * every search query, including the periodic refreshes of the grids of the administration portal.</p>
+ * <p> {@code analyze} only parses the text, {@code analyzeAndGenerate} also builds the SQL query. The searches by
+ * tags are left out, they need the tags from the database.</p>
+ *
+ * @see SyntaxChecker
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchSyntaxBenchmark {
+
+    @Benchmark
+    public void analyze(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.syntaxChecker.analyzeSyntaxState(state.searchText, true));
+    }
+
+    @Benchmark
+    public void analyzeAndGenerate(BenchmarkState state, Blackhole blackhole) {
+        SyntaxContainer container = state.syntaxChecker.analyzeSyntaxState(state.searchText, true);
+        blackhole.consume(state.syntaxChecker.generateQueryFromSyntaxContainer(container, true));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({
+                "Hosts: sortby cpu_usage desc",
+                "Vms: status=up and storage=iscsi",
+                "Vms: Cluster = L0_Group_3 and Host = f17-h29*",
+                "Vms: cluster = default and Templates.name = template_1 and Storage.name = storage_1"
+        })
+        public String searchText;
+
+        private SyntaxChecker syntaxChecker;
+
+        @Setup
+        public void setup() {
+            new BenchmarkConfig()
+                    .set(ConfigValues.DBEngine, "Postgres")
+                    .set(ConfigValues.DBLikeSyntax, "ILIKE")
+                    .set(ConfigValues.DBI18NPrefix, "")
+                    .set(ConfigValues.DBPagingType, "Range")
+                    .set(ConfigValues.DBPagingSyntax, "OFFSET (%1$s -1) LIMIT %2$s")
+                    .set(ConfigValues.DBSearchTemplate, "SELECT * FROM (%2$s) %1$s) as T1 %3$s")
+                    .install();
+            syntaxChecker = new SyntaxChecker();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Synthetic responses of VDSM verbs, shaped like the maps the JSON-RPC client hands over to the engine: numbers
+ * that VDSM reports as strings are kept as strings and lists are object arrays.
+ */
+final class VdsmPayloads {
+
+    private VdsmPayloads() {
+    }
+
+    /**
+     * Creates the statistics of a running VM as reported by {@code Host.getAllVmStats}
+     */
+    static Map<String, Object> vmStats(int index) {
+        Map<String, Object> vm = new HashMap<>();
+        vm.put("vmId", new UUID(0, index).toString());
+        vm.put("status", "Up");
+        vm.put("statusTime", String.valueOf(4295000000L + index));
+        vm.put("elapsedTime", "86400");
+        vm.put("monitorResponse", "0");
+        vm.put("session", "Unknown");
+        vm.put("acpiEnable", "true");
+        vm.put("timeOffset", "0");
+        vm.put("hash", String.valueOf(-3072938157042357209L + index));
+        vm.put("cpuUser", "1.25");
+        vm.put("cpuSys", "0.50");
+        vm.put("cpuUsage", "72160000000");
+        vm.put("memUsage", "30");
+        vm.put("username", "Unknown");
+        vm.put("guestCPUCount", -1);
+        vm.put("appsList", new Object[] { "kernel-5.14.0", "qemu-guest-agent-6.2.0" });
+
+        Map<String, Object> memoryStats = new HashMap<>();
+        memoryStats.put("mem_buffers", "2048");
+        memoryStats.put("mem_cached", "524288");
+        memoryStats.put("mem_free", "1048576");
+        memoryStats.put("mem_unused", "786432");
+        vm.put("memoryStats", memoryStats);
+
+        Map<String, Object> balloonInfo = new HashMap<>();
+        balloonInfo.put("balloon_cur", "4194304");
+        balloonInfo.put("balloon_max", "4194304");
+        balloonInfo.put("balloon_min", "2097152");
+        balloonInfo.put("balloon_target", "4194304");
+        vm.put("balloonInfo", balloonInfo);
+
+        Map<String, Object> network = new HashMap<>();
+        for (int nic = 0; nic < 2; nic++) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("name", "vnet" + (index * 2 + nic));
+            stats.put("macAddr", String.format("56:6f:%02x:%02x:%02x:%02x",
+                    (index >> 16) & 0xff, (index >> 8) & 0xff, index & 0xff, nic));
+            stats.put("speed", "1000");
+            stats.put("state", "unknown");
+            stats.put("rx", "123456789");
+            stats.put("tx", "987654321");
+            stats.put("rxDropped", "0");
+            stats.put("txDropped", "0");
+            stats.put("rxErrors", "0");
+            stats.put("txErrors", "0");
+            stats.put("sampleTime", 4295000.12);
+            network.put("vnet" + (index * 2 + nic), stats);
+        }
+        vm.put("network", network);
+
+        Map<String, Object> disks = new HashMap<>();
+        for (String name : new String[] { "vda", "vdb", "sdc" }) {
+            Map<String, Object> disk = new HashMap<>();
+            disk.put("imageID", UUID.nameUUIDFromBytes((index + name).getBytes()).toString());
+            disk.put("readRate", "1024.0");
+            disk.put("writeRate", "4096.0");
+            disk.put("readOps", "1000");
+            disk.put("writeOps", "2000");
+            disk.put("readLatency", "150000");
+            disk.put("writeLatency", "250000");
+            disk.put("flushLatency", "50000");
+            disk.put("apparentsize", "10737418240");
+            disk.put("truesize", "2147483648");
+            disks.put(name, disk);
+        }
+        vm.put("disks", disks);
+        return vm;
+    }
+
+    /**
+     * Creates the statistics of a host as reported by {@code Host.getStats}
+     */
+    static Map<String, Object> hostStats(int vmCount) {
+        Map<String, Object> host = new HashMap<>();
+        host.put("memUsed", "45");
+        host.put("cpuSys", "3.25");
+        host.put("cpuUser", "21.50");
+        host.put("cpuIdle", "75.25");
+        host.put("cpuLoad", "4.20");
+        host.put("memFree", "65536");
+        host.put("memShared", "0");
+        host.put("swapFree", "8192");
+        host.put("swapTotal", "8192");
+        host.put("ksmCpu", "0");
+        host.put("ksmPages", "100");
+        host.put("ksmState", false);
+        host.put("netConfigDirty", "False");
+        host.put("vmCount", vmCount);
+        host.put("vmActive", vmCount);
+        host.put("vmMigrating", 0);
+        host.put("incomingVmMigrations", 0);
+        host.put("outgoingVmMigrations", 0);
+        host.put("bootTime", "1700000000");
+        host.put("anonHugePages", "1024");
+
+        Map<String, Object> hugepages = new HashMap<>();
+        Map<String, Object> pages = new HashMap<>();
+        pages.put("nr_hugepages", "0");
+        pages.put("vm.free_hugepages", "0");
+        hugepages.put("2048", pages);
+        host.put("hugepages", hugepages);
+        return host;
+    }
+}
@@ -0,0 +1,152 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.jsonrpc.TypedResponseDecoder;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcResponse;
+import org.ovirt.vdsm.jsonrpc.client.ResponseDecomposer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * <p> Benchmarks the decoding of the VDSM responses polled on every monitoring cycle by
+ * {@link VdsBrokerObjectsBuilder}, from the maps handed over by the JSON-RPC client to the engine entities.</p>
+ * <p> {@code allVmStats} builds what {@code GetAllVmStats} builds for every VM of a host and {@code hostStats} what
+ * {@code GetStats} builds for a host. Running with {@code -prof gc} shows the allocation rate, which is what drives
+ * the GC churn of the monitoring with many VMs. Comparing runs before and after a change of the builder shows its
+ * effect on the map-based decoding.</p>
+ * <p> The {@code Decomposed} and {@code TypedDecoding} variants start from the JSON tree of the response, as parsed
+ * by the JSON-RPC client, and compare the two ways {@code FutureMap} can decode it before the builder reads it:
+ * copying it into maps with {@code ResponseDecomposer}, or reading it with {@link TypedResponseDecoder}.</p>
+ *
+ * @see VdsBrokerObjectsBuilder
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VdsmResponseDecodingBenchmark {
+
+    @Benchmark
+    public void allVmStats(BenchmarkState state, Blackhole blackhole) {
+        for (Map<String, Object> struct : state.vms) {
+            buildVm(state, struct, blackhole);
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void allVmStatsDecomposed(BenchmarkState state, Blackhole blackhole) {
+        Object vms = new ResponseDecomposer(state.allVmStatsResponse).decomposeResponse(Object[].class);
+        for (Object struct : (Object[]) vms) {
+            buildVm(state, (Map<String, Object>) struct, blackhole);
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void allVmStatsTypedDecoding(BenchmarkState state, Blackhole blackhole) {
+        Object vms = TypedResponseDecoder.decode(state.allVmStatsResponse.getResult());
+        for (Object struct : (Object[]) vms) {
+            buildVm(state, (Map<String, Object>) struct, blackhole);
+        }
+    }
+
+    private void buildVm(BenchmarkState state, Map<String, Object> struct, Blackhole blackhole) {
+        VdsBrokerObjectsBuilder builder = state.builder;
+        Guid vmId = new Guid((String) struct.get("vmId"));
+        blackhole.consume(builder.buildVMDynamicData(struct, state.host));
+        blackhole.consume(builder.getVdsmCallTimestamp(struct));
+        blackhole.consume(builder.getVmDevicesHash(struct));
+        blackhole.consume(builder.buildVMStatisticsData(struct));
+        blackhole.consume(builder.buildVmJobsData(struct));
+        blackhole.consume(builder.buildInterfaceStatisticsData(struct));
+        blackhole.consume(builder.buildVmBalloonInfo(struct));
+        blackhole.consume(builder.buildVmGuestAgentInterfacesData(vmId, struct));
+        blackhole.consume(builder.buildVmLunDisksData(struct));
+        blackhole.consume(builder.buildVmDiskStatistics(struct));
+    }
+
+    @Benchmark
+    public void hostStats(BenchmarkState state, Blackhole blackhole) {
+        buildHost(state, state.hostStats, blackhole);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void hostStatsDecomposed(BenchmarkState state, Blackhole blackhole) {
+        Object struct = new ResponseDecomposer(state.hostStatsResponse).decomposeResponse(HashMap.class);
+        buildHost(state, (Map<String, Object>) struct, blackhole);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void hostStatsTypedDecoding(BenchmarkState state, Blackhole blackhole) {
+        Object struct = TypedResponseDecoder.decode(state.hostStatsResponse.getResult());
+        buildHost(state, (Map<String, Object>) struct, blackhole);
+    }
+
+    private void buildHost(BenchmarkState state, Map<String, Object> struct, Blackhole blackhole) {
+        VDS vds = new VDS();
+        state.builder.updateVDSStatisticsData(vds, struct);
+        blackhole.consume(vds);
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "100", "1000" })
+        public int vmCount;
+
+        private VdsBrokerObjectsBuilder builder;
+        private VDS host;
+        private List<Map<String, Object>> vms;
+        private Map<String, Object> hostStats;
+        private JsonRpcResponse allVmStatsResponse;
+        private JsonRpcResponse hostStatsResponse;
+
+        @Setup
+        public void setup() {
+            builder = new VdsBrokerObjectsBuilder();
+            host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setHostName("host.example.com");
+            vms = new ArrayList<>(vmCount);
+            for (int i = 0; i < vmCount; i++) {
+                vms.add(VdsmPayloads.vmStats(i));
+            }
+            hostStats = VdsmPayloads.hostStats(vmCount);
+
+            ObjectMapper mapper = new ObjectMapper();
+            allVmStatsResponse = toResponse(mapper, vms);
+            hostStatsResponse = toResponse(mapper, hostStats);
+        }
+
+        private static JsonRpcResponse toResponse(ObjectMapper mapper, Object result) {
+            ObjectNode node = mapper.createObjectNode();
+            node.put("jsonrpc", "2.0");
+            node.put("id", Guid.newGuid().toString());
+            node.set("result", mapper.valueToTree(result));
+            return JsonRpcResponse.fromJsonNode(node);
+        }
+    }
+}
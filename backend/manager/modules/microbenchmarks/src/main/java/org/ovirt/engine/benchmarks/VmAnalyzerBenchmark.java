@@ -0,0 +1,191 @@
+package org.ovirt.engine.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.businessentities.OriginType;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
+import org.ovirt.engine.core.dao.VdsDynamicDao;
+import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+import org.ovirt.engine.core.vdsbroker.VdsManager;
+import org.ovirt.engine.core.vdsbroker.VmManager;
+import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmAnalyzer;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+
+/**
+ * <p> Benchmarks the analysis done by {@link VmAnalyzer} on every monitoring cycle of a host, for each VM reported
+ * by it.</p>
+ * <p> The VMs are running on the monitored host and their reports match their database records, which is the
+ * common case of a host with many VMs. The reports are built from the same synthetic {@code GetAllVmStats} payloads
+ * as in {@link VdsmResponseDecodingBenchmark}, so the two benchmarks together cover the monitoring of the VMs of a
+ * host from the response of VDSM up to the data to save. The managers and the DAOs used by the analysis are mocked,
+ * the database record of a VM is copied on every cycle as the monitoring does.</p>
+ *
+ * @see VmAnalyzer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VmAnalyzerBenchmark {
+
+    @Benchmark
+    public void analyze(BenchmarkState state, Blackhole blackhole) {
+        for (int i = 0; i < state.vmCount; i++) {
+            BenchmarkedVmAnalyzer analyzer = new BenchmarkedVmAnalyzer(
+                    new VmDynamic(state.dbVms.get(i)),
+                    state.vdsmVms.get(i),
+                    state);
+            analyzer.run();
+            blackhole.consume(analyzer.getVmDynamicToSave());
+            blackhole.consume(analyzer.getVmStatisticsToSave());
+            blackhole.consume(analyzer.getVmNetworkStatistics());
+            blackhole.consume(analyzer.getVmDiskImageDynamicToSave());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "1000", "10000" })
+        public int vmCount;
+
+        private List<VmDynamic> dbVms;
+        private List<VdsmVm> vdsmVms;
+        private VdsManager vdsManager;
+        private ResourceManager resourceManager;
+        private AuditLogDirector auditLogDirector;
+        private VdsDynamicDao vdsDynamicDao;
+        private VmNetworkInterfaceDao vmNetworkInterfaceDao;
+
+        @Setup
+        public void setup() {
+            new BenchmarkConfig()
+                    .set(ConfigValues.UsageHistoryLimit, 40)
+                    .set(ConfigValues.GuestNicNamesBlacklist, Collections.emptyList())
+                    .install();
+
+            VDS host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setHostName("host.example.com");
+            host.setBalloonEnabled(true);
+
+            VdsBrokerObjectsBuilder builder = new VdsBrokerObjectsBuilder();
+            Map<Guid, List<VmNetworkInterface>> interfaces = new HashMap<>();
+            dbVms = new ArrayList<>(vmCount);
+            vdsmVms = new ArrayList<>(vmCount);
+            for (int i = 0; i < vmCount; i++) {
+                VdsmVm vdsmVm = buildVdsmVm(builder, host, VdsmPayloads.vmStats(i));
+                VmDynamic dbVm = new VmDynamic(vdsmVm.getVmDynamic());
+                dbVm.setRunOnVds(host.getId());
+                vdsmVm.getVmDynamic().setRunOnVds(host.getId());
+                dbVms.add(dbVm);
+                vdsmVms.add(vdsmVm);
+                interfaces.put(dbVm.getId(), buildInterfaces(dbVm.getId(), vdsmVm));
+            }
+
+            vdsManager = mock(VdsManager.class);
+            when(vdsManager.getVdsId()).thenReturn(host.getId());
+            when(vdsManager.getCopyVds()).thenReturn(host);
+            when(vdsManager.isInitialized()).thenReturn(true);
+
+            VmManager vmManager = mock(VmManager.class);
+            when(vmManager.getOrigin()).thenReturn(OriginType.OVIRT);
+            when(vmManager.getStatistics()).thenReturn(new VmStatistics());
+            when(vmManager.getName()).thenReturn("vm");
+            when(vmManager.getNumOfCpus()).thenReturn(4);
+            when(vmManager.getMemSizeMb()).thenReturn(4096);
+            when(vmManager.getMinAllocatedMem()).thenReturn(2048);
+            resourceManager = mock(ResourceManager.class);
+            when(resourceManager.getVmManager(any())).thenReturn(vmManager);
+
+            auditLogDirector = mock(AuditLogDirector.class);
+            vdsDynamicDao = mock(VdsDynamicDao.class);
+            vmNetworkInterfaceDao = mock(VmNetworkInterfaceDao.class);
+            when(vmNetworkInterfaceDao.getAllForMonitoredVm(any()))
+                    .thenAnswer(invocation -> interfaces.get(invocation.<Guid> getArgument(0)));
+        }
+
+        /**
+         * Builds the VM data the way {@code GetAllVmStats} does
+         */
+        private static VdsmVm buildVdsmVm(VdsBrokerObjectsBuilder builder, VDS host, Map<String, Object> struct) {
+            VmDynamic vmDynamic = builder.buildVMDynamicData(struct, host);
+            return new VdsmVm(builder.getVdsmCallTimestamp(struct))
+                    .setVmDynamic(vmDynamic)
+                    .setDevicesHash(builder.getVmDevicesHash(struct))
+                    .setVmStatistics(builder.buildVMStatisticsData(struct))
+                    .setVmJobs(builder.buildVmJobsData(struct))
+                    .setInterfaceStatistics(builder.buildInterfaceStatisticsData(struct))
+                    .setVmBalloonInfo(builder.buildVmBalloonInfo(struct))
+                    .setVmGuestAgentInterfaces(builder.buildVmGuestAgentInterfacesData(vmDynamic.getId(), struct))
+                    .setLunsMap(builder.buildVmLunDisksData(struct))
+                    .setDiskStatistics(builder.buildVmDiskStatistics(struct));
+        }
+
+        /**
+         * Builds the interfaces of the VM in the database, matching the reported ones by their MAC address
+         */
+        private static List<VmNetworkInterface> buildInterfaces(Guid vmId, VdsmVm vdsmVm) {
+            List<VmNetworkInterface> interfaces = new ArrayList<>();
+            for (VmNetworkInterface reported : vdsmVm.getInterfaceStatistics()) {
+                VmNetworkInterface iface = new VmNetworkInterface();
+                iface.setId(Guid.newGuid());
+                iface.setVmId(vmId);
+                iface.setName(reported.getName());
+                iface.setMacAddress(reported.getMacAddress());
+                iface.setSpeed(1000);
+                interfaces.add(iface);
+            }
+            return interfaces;
+        }
+    }
+
+    /**
+     * Exposes the analysis of a single VM, as done by the monitoring of its host
+     */
+    private static class BenchmarkedVmAnalyzer extends VmAnalyzer {
+
+        BenchmarkedVmAnalyzer(VmDynamic dbVm, VdsmVm vdsmVm, BenchmarkState state) {
+            super(dbVm,
+                    vdsmVm,
+                    true,
+                    state.vdsManager,
+                    state.auditLogDirector,
+                    state.resourceManager,
+                    state.vdsDynamicDao,
+                    state.vmNetworkInterfaceDao);
+        }
+
+        void run() {
+            analyze();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.ovirt.engine.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.businessentities.ArchitectureType;
+import org.ovirt.engine.core.common.businessentities.BiosType;
+import org.ovirt.engine.core.common.businessentities.BootSequence;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VmDevice;
+import org.ovirt.engine.core.common.businessentities.VmDeviceGeneralType;
+import org.ovirt.engine.core.common.businessentities.VmDeviceId;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.VmDeviceType;
+import org.ovirt.engine.core.common.utils.customprop.VmPropertiesUtils;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.Version;
+import org.ovirt.engine.core.vdsbroker.builder.vminfo.LibvirtVmXmlBuilder;
+import org.ovirt.engine.core.vdsbroker.builder.vminfo.VmInfoBuildUtils;
+
+/**
+ * <p> Benchmarks building the libvirt domain XML sent to VDSM to run a VM by {@link LibvirtVmXmlBuilder}.</p>
+ * <p> The VM is a Q35 VM with memory hot plug, balloon, video, graphics and a random number generator, which are
+ * the devices most VMs have. The disks and the network interfaces are left out, writing them needs the storage and
+ * network entities from the database. {@link VmInfoBuildUtils} is mocked and returns new devices on every call, as
+ * the builder changes the devices it writes.</p>
+ *
+ * @see LibvirtVmXmlBuilder
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VmXmlBuilderBenchmark {
+
+    @Benchmark
+    public void buildCreateVm(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(new LibvirtVmXmlBuilder(state.vm, state.vmInfoBuildUtils).buildCreateVm());
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        private VM vm;
+        private VmInfoBuildUtils vmInfoBuildUtils;
+
+        @Setup
+        public void setup() throws Exception {
+            Map<String, String> hotPlugCpuSupported = new HashMap<>();
+            hotPlugCpuSupported.put("x86", "false");
+            hotPlugCpuSupported.put("ppc", "false");
+            hotPlugCpuSupported.put("s390x", "false");
+            Map<String, String> hotPlugMemorySupported = new HashMap<>();
+            hotPlugMemorySupported.put("x86", "true");
+            hotPlugMemorySupported.put("ppc", "true");
+            hotPlugMemorySupported.put("s390x", "false");
+            new BenchmarkConfig()
+                    .set(ConfigValues.SupportedClusterLevels, Set.of(Version.v4_6))
+                    .set(ConfigValues.PredefinedVMProperties, "")
+                    .set(ConfigValues.UserDefinedVMProperties, "")
+                    .set(ConfigValues.MaxMemorySlots, 16)
+                    .set(ConfigValues.SendSMPOnRunVm, true)
+                    .set(ConfigValues.OriginType, "OVIRT")
+                    .set(ConfigValues.SkuToAVLevel, "")
+                    .set(ConfigValues.VncKeyboardLayout, "en-us")
+                    .set(ConfigValues.NumOfPciExpressPorts, 16)
+                    .set(ConfigValues.HotPlugCpuSupported, hotPlugCpuSupported)
+                    .set(ConfigValues.HotPlugMemorySupported, hotPlugMemorySupported)
+                    .install();
+            VmPropertiesUtils.getInstance().init();
+
+            vm = new VM();
+            vm.setId(Guid.newGuid());
+            vm.setName("vm");
+            vm.setClusterArch(ArchitectureType.x86_64);
+            vm.setClusterCompatibilityVersion(Version.v4_6);
+            vm.setBiosType(BiosType.Q35_SEA_BIOS);
+            vm.setEmulatedMachine("pc-q35-rhel8.4.0");
+            vm.setAcpiEnable(true);
+            vm.setCpuName("Skylake-Client");
+            vm.setNumOfSockets(2);
+            vm.setCpuPerSocket(2);
+            vm.setThreadsPerCpu(1);
+            vm.setVmMemSizeMb(4096);
+            vm.setMaxMemorySizeMb(16384);
+            vm.setMinAllocatedMem(2048);
+            vm.setBootSequence(BootSequence.C);
+            vm.setVirtioScsiMultiQueues(0);
+            vm.setBalloonEnabled(true);
+
+            vmInfoBuildUtils = mock(VmInfoBuildUtils.class);
+            when(vmInfoBuildUtils.getVmDevices(any())).thenAnswer(invocation -> buildDevices(vm.getId()));
+            when(vmInfoBuildUtils.getVmSerialNumber(any(), any())).thenReturn(vm.getId().toString());
+        }
+
+        private static List<VmDevice> buildDevices(Guid vmId) {
+            List<VmDevice> devices = new ArrayList<>();
+            devices.add(buildDevice(vmId,
+                    VmDeviceGeneralType.CONTROLLER, VmDeviceType.VIRTIOSERIAL.getName(), Collections.emptyMap()));
+            devices.add(buildDevice(vmId,
+                    VmDeviceGeneralType.CONTROLLER, VmDeviceType.USB.getName(), Map.of("model", "qemu-xhci")));
+            devices.add(buildDevice(vmId,
+                    VmDeviceGeneralType.CONTROLLER, VmDeviceType.VIRTIOSCSI.getName(), Collections.emptyMap()));
+            devices.add(buildDevice(vmId,
+                    VmDeviceGeneralType.BALLOON, VmDeviceType.MEMBALLOON.getName(), Map.of("model", "virtio")));
+            devices.add(buildDevice(vmId,
+                    VmDeviceGeneralType.VIDEO, VmDeviceType.QXL.getName(), Collections.emptyMap()));
+            devices.add(buildDevice(vmId,
+                    VmDeviceGeneralType.GRAPHICS, VmDeviceType.VNC.getName(), Collections.emptyMap()));
+            devices.add(buildDevice(vmId,
+                    VmDeviceGeneralType.RNG, VmDeviceType.VIRTIO.getName(), Map.of("source", "urandom")));
+            return devices;
+        }
+
+        private static VmDevice buildDevice(Guid vmId,
+                VmDeviceGeneralType type,
+                String device,
+                Map<String, Object> specParams) {
+            return new VmDevice(new VmDeviceId(Guid.newGuid(), vmId),
+                    type,
+                    device,
+                    "",
+                    new HashMap<>(specParams),
+                    true,
+                    true,
+                    false,
+                    "",
+                    null,
+                    null,
+                    null);
+        }
+    }
+}
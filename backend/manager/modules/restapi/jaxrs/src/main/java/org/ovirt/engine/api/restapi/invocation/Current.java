@@ -69,6 +69,17 @@ public class Current {
      */
     private BackendLocal backend;
 
+    /**
+     * The token that the client should send in order to get the next page of the collection returned by the current
+     * request, or {@code null} if there is no next page.
+     */
+    private String nextPageToken;
+
+    /**
+     * The number of backend queries executed so far to process the current request.
+     */
+    private int queryCount;
+
     /**
      * Returns the request version of the API.
      */
@@ -227,4 +238,26 @@ public class Current {
     public BackendLocal getBackend() {
         return backend;
     }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * Records that a backend query has been executed to process the current request.
+     */
+    public void countQuery() {
+        queryCount++;
+    }
+
+    /**
+     * Returns the number of backend queries executed so far to process the current request.
+     */
+    public int getQueryCount() {
+        return queryCount;
+    }
 }
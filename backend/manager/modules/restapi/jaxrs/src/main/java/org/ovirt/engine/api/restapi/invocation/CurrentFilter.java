@@ -30,11 +30,14 @@ import org.ovirt.engine.core.common.queries.GetConfigurationValueParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This filter is responsible for initializing and cleaning the information that is associated to the current request.
  */
 public class CurrentFilter implements Filter {
+    private static final Logger log = LoggerFactory.getLogger(CurrentFilter.class);
 
     private static final String CORRELATION_ID_HEADER = "Correlation-Id";
     private static final String CORRELATION_ID_PARAM = "correlation_id";
@@ -105,6 +108,8 @@ public class CurrentFilter implements Filter {
         try {
             chain.doFilter(request, response);
         } finally {
+            log.debug("Request '{} {}' executed {} backend queries.",
+                    request.getMethod(), current.getPath(), current.getQueryCount());
             CurrentManager.remove();
         }
     }
@@ -0,0 +1,31 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.invocation;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * This filter adds to the response the token of the next page of the returned collection, if the resource that
+ * processed the request computed one.
+ */
+@Provider
+public class NextPageTokenFilter implements ContainerResponseFilter {
+    /**
+     * The name of the response header that contains the token of the next page.
+     */
+    public static final String NEXT_PAGE_TOKEN_HEADER = "Next-Page-Token";
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Current current = CurrentManager.get();
+        if (current != null && current.getNextPageToken() != null) {
+            response.getHeaders().putSingle(NEXT_PAGE_TOKEN_HEADER, current.getNextPageToken());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+
+/**
+ * This class is a JSON generator used to serialize a collection with an empty list of items, and to write the items,
+ * one by one, right before the end of that list. It delegates all the calls to the generator of the response.
+ */
+class CollectionJsonGenerator extends JsonGeneratorDelegate {
+
+    /**
+     * Writes the items of the collection to the given generator.
+     */
+    @FunctionalInterface
+    interface ItemsWriter {
+        void writeItems(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * The name of the list of items in the collection object.
+     */
+    private final String itemsName;
+    private final ItemsWriter itemsWriter;
+
+    CollectionJsonGenerator(JsonGenerator delegate, String itemsName, ItemsWriter itemsWriter) {
+        super(delegate);
+        this.itemsName = itemsName;
+        this.itemsWriter = itemsWriter;
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        // The context of the generator of the response is used, as it is updated whatever method opened the array:
+        JsonStreamContext parent = delegate.getOutputContext().getParent();
+        if (parent.inObject() && parent.getParent().inRoot() && itemsName.equals(parent.getCurrentName())) {
+            // The list of items of the collection is about to be closed, this is where the items go:
+            itemsWriter.writeItems(delegate);
+        }
+        delegate.writeEndArray();
+    }
+}
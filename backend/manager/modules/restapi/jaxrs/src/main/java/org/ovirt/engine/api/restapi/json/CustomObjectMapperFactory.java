@@ -24,7 +24,7 @@ public class CustomObjectMapperFactory {
 
     public static ObjectMapper create() {
         return new ObjectMapper()
-                .configure(INDENT_OUTPUT, true)
+                .configure(INDENT_OUTPUT, false)
                 .setAnnotationIntrospector(new JaxbAnnotationIntrospector(TypeFactory.defaultInstance()))
                 .setSerializationInclusion(JsonInclude.Include.USE_DEFAULTS)
                 .registerModule(new SimpleModule() {
@@ -5,20 +5,153 @@
 
 package org.ovirt.engine.api.restapi.json;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
 
+import org.ovirt.engine.api.model.BaseResources;
+import org.ovirt.engine.api.restapi.resource.BaseBackendResource;
+import org.ovirt.engine.api.restapi.util.CollectionItemsHelper;
+import org.ovirt.engine.api.restapi.util.ParametersHelper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.jaxrs.cfg.EndpointConfigBase;
+import com.fasterxml.jackson.jaxrs.cfg.ObjectWriterInjector;
+import com.fasterxml.jackson.jaxrs.cfg.ObjectWriterModifier;
 import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
 
+/**
+ * Writes the model objects as JSON documents. Jackson writes them directly to the response as it goes through the
+ * objects, and the output is indented only when the {@code pretty} parameter is given. Collections are written item
+ * by item to the JSON generator of the response, without modifying the collection given by the resource.
+ */
 @Provider
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 public class JSONProvider extends JacksonJsonProvider {
+
+    private static final ObjectWriterModifier PRETTY_PRINTER = new ObjectWriterModifier() {
+        @Override
+        public ObjectWriter modify(EndpointConfigBase<?> endpoint, MultivaluedMap<String, Object> responseHeaders,
+                Object valueToWrite, ObjectWriter writer, JsonGenerator generator) {
+            return writer.with(SerializationFeature.INDENT_OUTPUT);
+        }
+    };
+
+    /**
+     * The mapper used to write the documents, it is also the one used by the base class.
+     */
+    private final ObjectMapper mapper = CustomObjectMapperFactory.create();
+
+    /**
+     * A index used to find the name of the list of items of a collection type, or an empty value if the list isn't
+     * written.
+     */
+    private final Map<Class<?>, Optional<String>> itemsNames = new ConcurrentHashMap<>();
+
+    @Context
+    private HttpHeaders requestHeaders;
+
+    @Context
+    private UriInfo uriInfo;
+
     public JSONProvider() {
         super();
-        setMapper(CustomObjectMapperFactory.create());
+        setMapper(mapper);
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        boolean pretty = ParametersHelper.getBooleanParameter(requestHeaders, uriInfo, BaseBackendResource.PRETTY,
+                true, false);
+        Optional<Field> itemsField = value instanceof BaseResources ?
+                CollectionItemsHelper.findItemsField(type) :
+                Optional.empty();
+        if (itemsField.isPresent()) {
+            writeCollection(value, type, itemsField.get(), pretty, true, entityStream);
+            return;
+        }
+        if (pretty) {
+            ObjectWriterInjector.set(PRETTY_PRINTER);
+        }
+        super.writeTo(value, type, genericType, annotations, mediaType, httpHeaders, entityStream);
     }
 
+    /**
+     * Writes a collection to a JSON generator. When streamed, a copy of the collection with an empty list of items is
+     * serialized, and each item is serialized on its own right before the end of that list. The collection itself
+     * isn't modified, so the output is the same as when the collection is serialized in one pass to the same
+     * generator.
+     */
+    /* visible for testing only */
+    void writeCollection(Object collection, Class<?> type, Field itemsField, boolean pretty, boolean streamed,
+            OutputStream entityStream) throws IOException {
+        // The items are written on their own only if there are any, as the list of the copy would be written empty
+        // instead of missing:
+        Optional<String> itemsName = streamed ? getItemsName(type, itemsField) : Optional.empty();
+        List<?> items;
+        Object written;
+        try {
+            items = itemsName.isPresent() ? CollectionItemsHelper.getItems(collection, itemsField) : null;
+            written = items != null && !items.isEmpty() ?
+                    CollectionItemsHelper.copyWithoutItems(collection, itemsField) :
+                    collection;
+        } catch(ReflectiveOperationException exception) {
+            throw new IOException("Can't copy collection of type \"" + type.getName() + "\".", exception);
+        }
+
+        // The items are flushed with the rest of the document, when the buffer of the generator is full:
+        ObjectWriter writer = pretty ? mapper.writer(SerializationFeature.INDENT_OUTPUT) : mapper.writer();
+        ObjectWriter itemWriter = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = writer.getFactory().createGenerator(entityStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            JsonGenerator target = generator;
+            if (written != collection) {
+                target = new CollectionJsonGenerator(generator, itemsName.get(), itemsGenerator -> {
+                    for (Object item : items) {
+                        itemWriter.writeValue(itemsGenerator, item);
+                    }
+                });
+            }
+            writer.forType(type).writeValue(target, written);
+        } finally {
+            generator.close();
+        }
+    }
+
+    /**
+     * Returns the name given by the mapper to the list of items of a collection type, for example {@code vm} for
+     * {@code Vms}.
+     */
+    private Optional<String> getItemsName(Class<?> type, Field itemsField) {
+        return itemsNames.computeIfAbsent(type, key -> mapper.getSerializationConfig()
+                .introspect(mapper.constructType(key))
+                .findProperties()
+                .stream()
+                .filter(property -> property.hasField() && property.getField().getAnnotated().equals(itemsField))
+                .map(BeanPropertyDefinition::getName)
+                .findFirst());
+    }
 }
@@ -48,4 +48,8 @@ public enum Messages {
     // Reason and template to use when a value is out of range:
     VALUE_OUT_OF_RANGE_REASON,
     VALUE_OUT_OF_RANGE_DETAIL_TEMPLATE,
+
+    // Reason and template to use when a page token can't be used:
+    INVALID_PAGE_TOKEN_REASON,
+    INVALID_PAGE_TOKEN_DETAIL_TEMPLATE,
 }
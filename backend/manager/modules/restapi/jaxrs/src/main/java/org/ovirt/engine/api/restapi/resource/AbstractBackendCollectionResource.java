@@ -7,13 +7,18 @@ import java.net.URI;
 import java.util.List;
 import java.util.Set;
 
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 
 import org.ovirt.engine.api.model.ActionableResource;
 import org.ovirt.engine.api.model.BaseResource;
 import org.ovirt.engine.api.model.CreationStatus;
+import org.ovirt.engine.api.model.Fault;
+import org.ovirt.engine.api.restapi.invocation.Current;
+import org.ovirt.engine.api.restapi.logging.Messages;
 import org.ovirt.engine.api.restapi.util.ExpectationHelper;
 import org.ovirt.engine.api.restapi.util.LinkHelper;
+import org.ovirt.engine.api.restapi.util.PageTokenHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.ovirt.engine.api.restapi.util.QueryHelper;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
@@ -24,6 +29,7 @@ import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.common.queries.SearchParameters;
+import org.ovirt.engine.core.common.queries.SearchResultPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +40,7 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
     private static final String CREATION_STATUS_REL = "creation_status";
     public static final String FROM_CONSTRAINT_PARAMETER = "from";
     public static final String CASE_SENSITIVE_CONSTRAINT_PARAMETER = "case_sensitive";
+    public static final String PAGE_TOKEN_PARAMETER = "page_token";
     private static final Logger log = LoggerFactory.getLogger(AbstractBackendCollectionResource.class);
 
     protected AbstractBackendCollectionResource(Class<R> modelType, Class<Q> entityType) {
@@ -45,9 +52,10 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
     }
 
     protected List<Q> getBackendCollection(SearchType searchType, String constraint) {
-        return getBackendCollection(entityType,
-                QueryType.Search,
-                getSearchParameters(searchType, constraint));
+        SearchParameters searchParams = getSearchParameters(searchType, constraint);
+        List<Q> results = getBackendCollection(entityType, QueryType.Search, searchParams);
+        setNextPageToken(results, searchParams);
+        return results;
     }
 
     private SearchParameters getSearchParameters(SearchType searchType, String constraint) {
@@ -61,9 +69,50 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
             searchParams.setSearchFrom(from);
         }
         searchParams.setMaxCount(max);
+        searchParams.setKeysetPaging(max != Integer.MAX_VALUE);
+        String pageToken = ParametersHelper.getParameter(httpHeaders, uriInfo, PAGE_TOKEN_PARAMETER);
+        if (pageToken != null && !pageToken.isEmpty()) {
+            searchParams.setSearchAfter(decodePageToken(searchParams, pageToken));
+        }
         return searchParams;
     }
 
+    /**
+     * If the search returned a full page, the values of the sort keys of its last entity are the position the next
+     * page starts after. They are returned to the client as an opaque token, in the {@code Next-Page-Token} response
+     * header, and the client sends it back in the {@code page_token} parameter to get the next page.
+     */
+    private void setNextPageToken(List<Q> results, SearchParameters searchParams) {
+        Current current = getCurrent();
+        if (current != null && results instanceof SearchResultPage) {
+            current.setNextPageToken(PageTokenHelper.encode(getPageTokenSearch(searchParams),
+                    ((SearchResultPage<Q>) results).getNextSearchAfter()));
+        }
+    }
+
+    /**
+     * A page token that can't be used is a client error, so it is rejected instead of returning the first page again
+     * or letting the search fail.
+     */
+    private List<String> decodePageToken(SearchParameters searchParams, String pageToken) {
+        try {
+            return PageTokenHelper.decode(getPageTokenSearch(searchParams), pageToken);
+        } catch (IllegalArgumentException exception) {
+            Fault fault = new Fault();
+            fault.setReason(localize(Messages.INVALID_PAGE_TOKEN_REASON));
+            fault.setDetail(localize(Messages.INVALID_PAGE_TOKEN_DETAIL_TEMPLATE, PAGE_TOKEN_PARAMETER,
+                    exception.getMessage()));
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST).entity(fault).build());
+        }
+    }
+
+    /**
+     * The type and the text of the search determine its sort keys, so a page token is valid only for them.
+     */
+    private static String getPageTokenSearch(SearchParameters searchParams) {
+        return searchParams.getSearchTypeValue() + ":" + searchParams.getSearchPattern();
+    }
+
     protected List<Q> getBackendCollection(QueryType query, QueryParametersBase queryParams) {
         return getBackendCollection(entityType, query, queryParams);
     }
@@ -224,7 +224,7 @@ public class BackendDiskAttachmentsResource
         return getEntity(org.ovirt.engine.core.common.businessentities.StorageDomain.class, QueryType.GetStorageDomainById, new IdQueryParameters(id), id.toString());
     }
 
-    private DiskAttachments mapCollection(List<DiskVmElement> entities) {
+    DiskAttachments mapCollection(List<DiskVmElement> entities) {
         DiskAttachments collection = new DiskAttachments();
         for (org.ovirt.engine.core.common.businessentities.storage.DiskVmElement entity : entities) {
             DiskAttachment diskAttachment = addLinks(populate(map(entity), entity), Vm.class);
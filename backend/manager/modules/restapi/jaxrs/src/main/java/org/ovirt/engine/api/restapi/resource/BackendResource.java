@@ -80,6 +80,7 @@ public class BackendResource extends BaseBackendResource {
         BackendLocal backend = getBackend();
         setCorrelationId(queryParams);
         queryParams.setFiltered(isFiltered());
+        getCurrent().countQuery();
         return backend.runQuery(queryType, sessionize(queryParams));
     }
 
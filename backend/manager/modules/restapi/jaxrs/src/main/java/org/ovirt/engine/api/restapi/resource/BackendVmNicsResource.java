@@ -26,11 +26,14 @@ public class BackendVmNicsResource extends AbstractBackendNicsResource implement
 
     @Override
     public Nics list() {
-        Nics nics = new Nics();
-        List<VmNetworkInterface> entities = getBackendCollection(
+        return mapCollection(getBackendCollection(
             QueryType.GetVmInterfacesByVmId,
             new IdQueryParameters(vmId)
-        );
+        ));
+    }
+
+    Nics mapCollection(List<VmNetworkInterface> entities) {
+        Nics nics = new Nics();
         for (VmNetworkInterface entity : entities) {
             Nic nic = populate(map(entity), entity);
             nics.getNics().add(addLinks(nic));
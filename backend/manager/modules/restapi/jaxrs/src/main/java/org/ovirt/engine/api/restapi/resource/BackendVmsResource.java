@@ -6,6 +6,7 @@
 package org.ovirt.engine.api.restapi.resource;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -72,8 +73,10 @@ import org.ovirt.engine.core.common.businessentities.VmPayload;
 import org.ovirt.engine.core.common.businessentities.VmRngDevice;
 import org.ovirt.engine.core.common.businessentities.VmStatic;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.storage.BaseDisk;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
 import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.osinfo.OsRepository;
 import org.ovirt.engine.core.common.queries.GetFilteredAndSortedParameters;
@@ -104,6 +107,8 @@ public class BackendVmsResource extends
             Version.ALL.stream().map(Version::toString).collect(Collectors.joining(", "));
     private static final String CURRENT_GRAPHICS_CONSOLES = "current_graphics_consoles";
     private static final String GRAPHICS_CONSOLES = "graphics_consoles";
+    private static final String NICS = "nics";
+    private static final String DISK_ATTACHMENTS = "disk_attachments";
 
     public BackendVmsResource() {
         super(Vm.class, org.ovirt.engine.core.common.businessentities.VM.class);
@@ -708,6 +713,22 @@ public class BackendVmsResource extends
     @Override
     public void follow(ActionableResource entity, LinksTreeNode linksTree) {
         super.follow(entity, linksTree);
+        if (entity instanceof Vms) {
+            // optimization of DB access: retrieve the nics and the disk attachments of all the VMs at once, instead
+            // of running a query for every VM
+            List<Vm> vms = ((Vms) entity).getVms();
+            if (!vms.isEmpty()) {
+                List<Guid> vmIds = vms.stream().map(vm -> asGuid(vm.getId())).collect(Collectors.toList());
+                if (linksTree.pathExists(NICS)) {
+                    followNics(vms, vmIds);
+                    linksTree.markAsFollowed(NICS);
+                }
+                if (linksTree.pathExists(DISK_ATTACHMENTS)) {
+                    followDiskAttachments(vms, vmIds);
+                    linksTree.markAsFollowed(DISK_ATTACHMENTS);
+                }
+            }
+        }
         if(DetailHelper.getDetails(httpHeaders, uriInfo).contains(CURRENT_GRAPHICS_CONSOLES)) {
             // "?detail=current_graphics_consoles" provides the same output as
             // "?current&follow=graphics_consoles" and similar as "current" flag will
@@ -716,6 +737,33 @@ public class BackendVmsResource extends
         }
     }
 
+    private void followNics(List<Vm> vms, List<Guid> vmIds) {
+        Map<Guid, List<VmNetworkInterface>> nicsByVmId = getBackendCollection(VmNetworkInterface.class,
+                QueryType.GetVmInterfacesByVmIds,
+                new IdsQueryParameters(vmIds))
+                .stream()
+                .collect(Collectors.groupingBy(VmNetworkInterface::getVmId));
+        for (Vm vm : vms) {
+            Guid vmId = asGuid(vm.getId());
+            BackendVmNicsResource nicsResource = inject(new BackendVmNicsResource(vmId));
+            vm.setNics(nicsResource.mapCollection(nicsByVmId.getOrDefault(vmId, Collections.emptyList())));
+        }
+    }
+
+    private void followDiskAttachments(List<Vm> vms, List<Guid> vmIds) {
+        Map<Guid, List<DiskVmElement>> diskVmElementsByVmId = getBackendCollection(DiskVmElement.class,
+                QueryType.GetDiskVmElementsByVmIds,
+                new IdsQueryParameters(vmIds))
+                .stream()
+                .collect(Collectors.groupingBy(DiskVmElement::getVmId));
+        for (Vm vm : vms) {
+            Guid vmId = asGuid(vm.getId());
+            BackendDiskAttachmentsResource diskAttachmentsResource = inject(new BackendDiskAttachmentsResource(vmId));
+            vm.setDiskAttachments(diskAttachmentsResource.mapCollection(
+                    diskVmElementsByVmId.getOrDefault(vmId, Collections.emptyList())));
+        }
+    }
+
     /**
      * This is a special case of searching the the links tree: we know that graphics_consoles must be the direct child
      * of the root.
@@ -39,6 +39,7 @@ import org.slf4j.LoggerFactory;
 public class BaseBackendResource {
     private static final String FILTER = "filter";
     public static final String FOLLOW = "follow";
+    public static final String PRETTY = "pretty";
     protected static final String MAX = "max";
 
     private static final Logger log = LoggerFactory.getLogger(AbstractBackendResource.class);
@@ -0,0 +1,127 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.ovirt.engine.api.model.BaseResource;
+
+/**
+ * This class is a helper used by the message body writers to write the items of a collection one by one: it finds
+ * the list of items of a collection type, and creates the copy of a collection without its items, which is written
+ * around them.
+ * <p>
+ * The collection given by the resource is never modified, as it may still be used once written.
+ */
+public class CollectionItemsHelper {
+    /**
+     * A index used to find the field that contains the items of a collection type, or an empty value if the type
+     * doesn't have exactly one such field.
+     */
+    private static final Map<Class<?>, Optional<Field>> itemsFields = new ConcurrentHashMap<>();
+
+    private CollectionItemsHelper() {
+        // No instances allowed.
+    }
+
+    /**
+     * Finds the field that contains the items of the given collection type, for example {@code vms} for {@code Vms}.
+     *
+     * @param type the collection type
+     * @return the field, or an empty value if the type doesn't have exactly one list of resources
+     */
+    public static Optional<Field> findItemsField(Class<?> type) {
+        return itemsFields.computeIfAbsent(type, key -> {
+            Field itemsField = null;
+            for (Field field : getFields(key)) {
+                if (getItemType(field) != null) {
+                    if (itemsField != null) {
+                        return Optional.empty();
+                    }
+                    itemsField = field;
+                }
+            }
+            if (itemsField == null) {
+                return Optional.empty();
+            }
+            itemsField.setAccessible(true);
+            return Optional.of(itemsField);
+        });
+    }
+
+    /**
+     * Returns the type of the items contained in the given field, for example {@code Vm} for {@code vms}.
+     *
+     * @param field the field that contains the items
+     * @return the type of the items, or {@code null} if the field isn't a list of resources
+     */
+    public static Class<?> getItemType(Field field) {
+        Type type = field.getGenericType();
+        if (Modifier.isStatic(field.getModifiers())
+                || field.getType() != List.class
+                || !(type instanceof ParameterizedType)) {
+            return null;
+        }
+        Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+        if (arguments.length == 1
+                && arguments[0] instanceof Class
+                && BaseResource.class.isAssignableFrom((Class<?>) arguments[0])) {
+            return (Class<?>) arguments[0];
+        }
+        return null;
+    }
+
+    /**
+     * Returns the items of the given collection.
+     *
+     * @param collection the collection
+     * @param itemsField the field that contains the items, as returned by {@link #findItemsField(Class)}
+     * @return the list of items of the collection, may be {@code null}
+     */
+    public static List<?> getItems(Object collection, Field itemsField) throws ReflectiveOperationException {
+        return (List<?>) itemsField.get(collection);
+    }
+
+    /**
+     * Creates a new collection of the same type as the given one, with the same values, but with an empty list of
+     * items. The values themselves aren't copied, so the new collection is only meant to be written.
+     *
+     * @param collection the collection to copy, it isn't modified
+     * @param itemsField the field that contains the items, as returned by {@link #findItemsField(Class)}
+     * @return the new collection
+     */
+    public static Object copyWithoutItems(Object collection, Field itemsField) throws ReflectiveOperationException {
+        Object copy = collection.getClass().getConstructor().newInstance();
+        for (Field field : getFields(collection.getClass())) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.equals(itemsField)) {
+                field.setAccessible(true);
+                field.set(copy, field.get(collection));
+            }
+        }
+        itemsField.set(copy, new ArrayList<>());
+        return copy;
+    }
+
+    /**
+     * Returns the fields declared by the given type and by its super types.
+     */
+    private static List<Field> getFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            fields.addAll(Arrays.asList(current.getDeclaredFields()));
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.util;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * This class is a helper that encodes the position of the next page of a search as the opaque token given to the
+ * client, and decodes the token the client sends back to get that page.
+ * <p>
+ * The token is signed together with the search it was issued for, using a key generated when the engine starts. A
+ * token that was modified, that was issued for another search, or that was issued before the engine was restarted is
+ * rejected, so its values are always those read for the same search, one for each of its sort keys.
+ */
+public class PageTokenHelper {
+    /**
+     * Separates the signature and the values of the token, which are encoded in URL safe base 64.
+     */
+    private static final String SEPARATOR = ".";
+
+    /**
+     * Replaces a null value, as it is not part of the base 64 alphabet either.
+     */
+    private static final String NULL_VALUE = "~";
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final SecretKeySpec KEY = generateKey();
+
+    private PageTokenHelper() {
+        // No instances allowed.
+    }
+
+    /**
+     * Encodes the position of the next page of a search.
+     *
+     * @param search the search the position was read for, including everything that determines its sort keys
+     * @param values the values of the sort keys of the last entity of the page
+     * @return the token to give to the client
+     */
+    public static String encode(String search, List<String> values) {
+        String encodedValues = values.stream()
+                .map(value -> value == null ? NULL_VALUE : encode(value.getBytes(StandardCharsets.UTF_8)))
+                .collect(joining(SEPARATOR));
+        return encode(sign(search, encodedValues)) + SEPARATOR + encodedValues;
+    }
+
+    /**
+     * Decodes the position of the next page of a search.
+     *
+     * @param search the search the token is sent with
+     * @param token the token sent by the client
+     * @return the values of the sort keys of the last entity of the previous page
+     * @throws IllegalArgumentException if the token is malformed, or was not issued for the given search by this
+     *     engine since it was started
+     */
+    public static List<String> decode(String search, String token) {
+        int separator = token.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("it isn't a page token");
+        }
+        String encodedValues = token.substring(separator + 1);
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(0, separator));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("it isn't a page token", exception);
+        }
+        // the values are decoded only once the signature is checked, so they are always valid
+        if (!MessageDigest.isEqual(signature, sign(search, encodedValues))) {
+            throw new IllegalArgumentException(
+                    "it was modified, issued for another search, or issued before the engine was restarted");
+        }
+        return Arrays.stream(encodedValues.split(Pattern.quote(SEPARATOR), -1))
+                .map(value -> NULL_VALUE.equals(value)
+                        ? null
+                        : new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8))
+                .collect(toList());
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] sign(String search, String encodedValues) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(KEY);
+            mac.update(search.getBytes(StandardCharsets.UTF_8));
+            // the encoded values never contain this byte, so the search and the values can't be mixed up
+            mac.update((byte) 0);
+            return mac.doFinal(encodedValues.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("Can't sign the page token", exception);
+        }
+    }
+
+    private static SecretKeySpec generateKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return new SecretKeySpec(key, MAC_ALGORITHM);
+    }
+}
@@ -9,17 +9,26 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
@@ -29,12 +38,20 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.ValidationEventHandler;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.ovirt.engine.api.model.Api;
+import org.ovirt.engine.api.model.BaseResources;
 import org.ovirt.engine.api.model.ObjectFactory;
+import org.ovirt.engine.api.restapi.resource.BaseBackendResource;
+import org.ovirt.engine.api.restapi.util.CollectionItemsHelper;
+import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +59,9 @@ import org.slf4j.LoggerFactory;
  * This class is responsible for converting XML documents into model objects, and the other way around. Note that it
  * can't be a generic class because if it is then the JAX-RS framework will select other builtin classes that are more
  * specific.
+ * <p>
+ * The output is indented only when the {@code pretty} parameter is given. Otherwise collections are written item by
+ * item through an XML stream writer, without modifying the collection given by the resource.
  */
 @Provider
 @Consumes(MediaType.APPLICATION_XML)
@@ -58,6 +78,11 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
      */
     private static final Package typesPackage = Api.class.getPackage();
 
+    /**
+     * The value of the name and namespace of an {@link XmlElement} annotation when they aren't given.
+     */
+    private static final String DEFAULT_NAME = "##default";
+
     /**
      * The factory used to create JAXB elements.
      */
@@ -73,6 +98,17 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
      */
     private XMLInputFactory parserFactory;
 
+    /**
+     * The factory used to create the XML document writers used to write collections.
+     */
+    private XMLOutputFactory writerFactory;
+
+    /**
+     * Marshallers aren't thread safe but they are expensive to create, so they are reused. The pool grows up to the
+     * number of responses written at the same time.
+     */
+    private Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+
     /**
      * The JAXB jaxbContext used to convert XML documents into the corresponding model objects.
      */
@@ -83,6 +119,12 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
      */
     private ValidationEventHandler jaxbHandler = new JAXBValidationEventHandler();
 
+    @Context
+    private HttpHeaders requestHeaders;
+
+    @Context
+    private UriInfo uriInfo;
+
     public JAXBProvider() {
         // In order to create the JAXB element that wraps the object we need to call the method of the object factory
         // that uses the correct element name, and in order to avoid doing this with every request we populate this
@@ -100,6 +142,8 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
         parserFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
         parserFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
 
+        writerFactory = XMLOutputFactory.newFactory();
+
         // Create a JAXB context for the tyeps package:
         try {
             jaxbContext = JAXBContext.newInstance(typesPackage.getName());
@@ -186,6 +230,28 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
     public void writeTo(Object object, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
             MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
             throws IOException, WebApplicationException {
+        boolean pretty = ParametersHelper.getBooleanParameter(requestHeaders, uriInfo, BaseBackendResource.PRETTY,
+                true, false);
+
+        // Indentation isn't applied when writing to an XML stream writer, so indented collections are written at once:
+        Optional<Field> itemsField = !pretty && object instanceof BaseResources ?
+                CollectionItemsHelper.findItemsField(type) :
+                Optional.empty();
+        try {
+            if (itemsField.isPresent()) {
+                writeCollection(object, type, itemsField.get(), true, entityStream);
+            } else {
+                writeElement(createElement(object, type), pretty, entityStream);
+            }
+        } catch(JAXBException|XMLStreamException exception) {
+            throw new IOException("Can't marshall JAXB element of type \"" + type.getName() + "\".", exception);
+        }
+    }
+
+    /**
+     * Creates the JAXB element that wraps the given object, with the tag that corresponds to its type.
+     */
+    private JAXBElement<Object> createElement(Object object, Class<?> type) throws IOException {
         // Find the factory method used to create the JAXB element with the right tag:
         Method factoryMethod = factoryMethods.get(type);
         if (factoryMethod == null) {
@@ -193,21 +259,98 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
         }
 
         // Invoke the method to create the JAXB element:
-        JAXBElement<Object> element;
         try {
-            element = (JAXBElement<Object>) factoryMethod.invoke(objectFactory, object);
+            return (JAXBElement<Object>) factoryMethod.invoke(objectFactory, object);
         } catch(IllegalAccessException|InvocationTargetException exception) {
             throw new IOException("Error invoking factory method for type \"" +  type.getName() + "\".", exception);
         }
+    }
 
-        // Marshal the element:
+    private void writeElement(JAXBElement<Object> element, boolean pretty, OutputStream entityStream)
+            throws JAXBException {
+        Marshaller marshaller = acquireMarshaller(false);
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, pretty);
+        marshaller.marshal(element, entityStream);
+        marshallers.offer(marshaller);
+    }
+
+    /**
+     * Writes a collection through an XML stream writer. When streamed, a copy of the collection without its items is
+     * marshalled, and each item is marshalled on its own right before the end tag of the collection, with the tag of
+     * the list of items. The collection itself isn't modified, so the output is the same as when the collection is
+     * marshalled in one pass through the same writer.
+     */
+    /* visible for testing only */
+    void writeCollection(Object collection, Class<?> type, Field itemsField, boolean streamed,
+            OutputStream entityStream) throws IOException, JAXBException, XMLStreamException {
+        // The items are written on their own only if there are any, as a copy with an empty list would be the same:
+        List<?> items;
+        Object written;
+        try {
+            items = streamed ? CollectionItemsHelper.getItems(collection, itemsField) : null;
+            written = items != null && !items.isEmpty() ?
+                    CollectionItemsHelper.copyWithoutItems(collection, itemsField) :
+                    collection;
+        } catch(ReflectiveOperationException exception) {
+            throw new IOException("Can't copy collection of type \"" + type.getName() + "\".", exception);
+        }
+        JAXBElement<Object> element = createElement(written, type);
+        List<?> pending = written != collection ? items : Collections.emptyList();
+        QName itemName = getItemName(itemsField, element.getName());
+        Class<Object> itemType = (Class<Object>) CollectionItemsHelper.getItemType(itemsField);
+
+        Marshaller collectionMarshaller = acquireMarshaller(false);
+        Marshaller itemMarshaller = acquireMarshaller(true);
+        XMLStreamWriter writer = writerFactory.createXMLStreamWriter(entityStream, "UTF-8");
         try {
-            Marshaller marshaller = jaxbContext.createMarshaller();
+            collectionMarshaller.marshal(element, new CollectionStreamWriter(writer, itemWriter -> {
+                for (Object item : pending) {
+                    try {
+                        itemMarshaller.marshal(new JAXBElement<>(itemName, itemType, item), itemWriter);
+                    } catch(JAXBException exception) {
+                        throw new XMLStreamException(exception);
+                    }
+                }
+            }));
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+        marshallers.offer(collectionMarshaller);
+        marshallers.offer(itemMarshaller);
+    }
+
+    /**
+     * Returns the tag of the items of a collection, given by the annotation of their list, for example {@code vm} for
+     * {@code vms}.
+     */
+    private QName getItemName(Field itemsField, QName collectionName) {
+        XmlElement annotation = itemsField.getAnnotation(XmlElement.class);
+        String localName = itemsField.getName();
+        String namespace = collectionName.getNamespaceURI();
+        if (annotation != null) {
+            if (!DEFAULT_NAME.equals(annotation.name())) {
+                localName = annotation.name();
+            }
+            if (!DEFAULT_NAME.equals(annotation.namespace())) {
+                namespace = annotation.namespace();
+            }
+        }
+        return new QName(namespace, localName);
+    }
+
+    /**
+     * Takes a marshaller from the pool, or creates a new one if the pool is empty. The caller returns it to the pool
+     * once the marshalling succeeded, a marshaller that failed is dropped.
+     */
+    private Marshaller acquireMarshaller(boolean fragment) throws JAXBException {
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            marshaller = jaxbContext.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-            marshaller.marshal(element, entityStream);
-        } catch(JAXBException exception) {
-            throw new IOException("Can't marshall JAXB element of type \"" + type.getName() + "\".", exception);
         }
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+        return marshaller;
     }
 }
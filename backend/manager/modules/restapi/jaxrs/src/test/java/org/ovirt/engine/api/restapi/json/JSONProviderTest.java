@@ -0,0 +1,107 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.api.model.Actions;
+import org.ovirt.engine.api.model.HostNic;
+import org.ovirt.engine.api.model.HostNics;
+import org.ovirt.engine.api.model.Link;
+import org.ovirt.engine.api.model.Network;
+import org.ovirt.engine.api.restapi.util.CollectionItemsHelper;
+
+public class JSONProviderTest {
+
+    private JSONProvider provider;
+    private HostNics nics;
+    private Field itemsField;
+
+    @BeforeEach
+    public void setUp() {
+        provider = new JSONProvider();
+        nics = createNics();
+        itemsField = CollectionItemsHelper.findItemsField(HostNics.class).get();
+    }
+
+    @Test
+    public void testStreamedCollectionIsSameAsBuffered() throws Exception {
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        provider.writeTo(nics, HostNics.class, HostNics.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE,
+                null, streamed);
+        ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+        provider.writeCollection(nics, HostNics.class, itemsField, false, false, buffered);
+
+        assertArrayEquals(buffered.toByteArray(), streamed.toByteArray());
+        assertTrue(new String(streamed.toByteArray(), StandardCharsets.UTF_8).contains("eth1"));
+    }
+
+    @Test
+    public void testIndentedStreamedCollectionIsSameAsBuffered() throws Exception {
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        provider.writeCollection(nics, HostNics.class, itemsField, true, true, streamed);
+        ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+        provider.writeCollection(nics, HostNics.class, itemsField, true, false, buffered);
+
+        assertArrayEquals(buffered.toByteArray(), streamed.toByteArray());
+    }
+
+    @Test
+    public void testStreamedCollectionIsNotModified() throws Exception {
+        Actions actions = nics.getActions();
+        List<HostNic> items = new ArrayList<>(nics.getHostNics());
+
+        provider.writeCollection(nics, HostNics.class, itemsField, false, true, new ByteArrayOutputStream());
+
+        assertSame(actions, nics.getActions());
+        assertEquals(items, nics.getHostNics());
+    }
+
+    @Test
+    public void testEmptyCollectionIsSameAsBuffered() throws Exception {
+        nics.getHostNics().clear();
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        provider.writeCollection(nics, HostNics.class, itemsField, false, true, streamed);
+        ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+        provider.writeCollection(nics, HostNics.class, itemsField, false, false, buffered);
+
+        assertArrayEquals(buffered.toByteArray(), streamed.toByteArray());
+    }
+
+    private static HostNics createNics() {
+        HostNics nics = new HostNics();
+        Link link = new Link();
+        link.setRel("setupnetworks");
+        link.setHref("/ovirt-engine/api/hosts/123/nics/setupnetworks");
+        nics.setActions(new Actions());
+        nics.getActions().getLinks().add(link);
+        for (int i = 0; i < 3; i++) {
+            HostNic nic = new HostNic();
+            nic.setId("00000000-0000-0000-0000-00000000000" + i);
+            nic.setHref("/ovirt-engine/api/hosts/123/nics/" + nic.getId());
+            nic.setName("eth" + i);
+            nic.setDescription("<uplink & \"trunk\" \u00e9>");
+            nic.setNetwork(new Network());
+            nic.getNetwork().setId("00000000-0000-0000-0000-0000000000a" + i);
+            nics.getHostNics().add(nic);
+        }
+        return nics;
+    }
+}
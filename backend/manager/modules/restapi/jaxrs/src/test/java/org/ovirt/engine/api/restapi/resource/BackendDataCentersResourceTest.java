@@ -5,13 +5,22 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
@@ -19,13 +28,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.ovirt.engine.api.model.DataCenter;
+import org.ovirt.engine.api.model.Fault;
 import org.ovirt.engine.api.model.Link;
+import org.ovirt.engine.api.restapi.util.PageTokenHelper;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.StoragePoolManagementParameter;
 import org.ovirt.engine.core.common.businessentities.StoragePool;
 import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.common.queries.SearchParameters;
 import org.ovirt.engine.core.compat.Version;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -62,6 +74,69 @@ public class BackendDataCentersResourceTest
         verifyCollection(getCollection());
     }
 
+    @Test
+    public void testListWithPageToken() throws Exception {
+        List<String> searchAfter = Arrays.asList(NAMES[2], GUIDS[2].toString());
+        UriInfo uriInfo = setUpUriExpectations(null);
+        setUpPageTokenExpectations(uriInfo, PageTokenHelper.encode(getPageTokenSearch(""), searchAfter));
+
+        setUpVersionExpectations(0);
+        setUpVersionExpectations(1);
+        setUpVersionExpectations(2);
+        setUpQueryExpectations("");
+        collection.setUriInfo(uriInfo);
+        verifyCollection(getCollection());
+        verify(backend).runQuery(eq(QueryType.Search),
+                argThat(params -> searchAfter.equals(((SearchParameters) params).getSearchAfter())));
+    }
+
+    @Test
+    public void testListWithTamperedPageToken() {
+        String pageToken = PageTokenHelper.encode(getPageTokenSearch(""), Arrays.asList(NAMES[2], GUIDS[2].toString()));
+        String otherValue = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                GUIDS[3].toString().getBytes(StandardCharsets.UTF_8));
+        UriInfo uriInfo = setUpUriExpectations(null);
+        setUpPageTokenExpectations(uriInfo, pageToken.substring(0, pageToken.lastIndexOf('.') + 1) + otherValue);
+
+        collection.setUriInfo(uriInfo);
+        verifyInvalidPageToken(assertThrows(WebApplicationException.class, this::getCollection));
+    }
+
+    @Test
+    public void testListWithPageTokenOfOtherSearch() {
+        UriInfo uriInfo = setUpUriExpectations(null);
+        setUpPageTokenExpectations(uriInfo,
+                PageTokenHelper.encode(getPageTokenSearch(QUERY), Arrays.asList(NAMES[2], GUIDS[2].toString())));
+
+        collection.setUriInfo(uriInfo);
+        verifyInvalidPageToken(assertThrows(WebApplicationException.class, this::getCollection));
+    }
+
+    @Test
+    public void testListWithMalformedPageToken() {
+        UriInfo uriInfo = setUpUriExpectations(null);
+        setUpPageTokenExpectations(uriInfo, GUIDS[2].toString());
+
+        collection.setUriInfo(uriInfo);
+        verifyInvalidPageToken(assertThrows(WebApplicationException.class, this::getCollection));
+    }
+
+    private String getPageTokenSearch(String query) {
+        return searchType + ":" + prefix + query;
+    }
+
+    private void setUpPageTokenExpectations(UriInfo uriInfo, String pageToken) {
+        MultivaluedMap<String, String> queries = uriInfo.getQueryParameters();
+        when(queries.containsKey(AbstractBackendCollectionResource.PAGE_TOKEN_PARAMETER)).thenReturn(true);
+        when(queries.getFirst(AbstractBackendCollectionResource.PAGE_TOKEN_PARAMETER)).thenReturn(pageToken);
+    }
+
+    private void verifyInvalidPageToken(WebApplicationException wae) {
+        verifyFault(wae, BAD_REQUEST);
+        assertEquals("Invalid page token", ((Fault) wae.getResponse().getEntity()).getReason());
+        verify(backend, never()).runQuery(eq(QueryType.Search), any());
+    }
+
     @Test
     public void testAddDataCenter() {
         setUriInfo(setUpBasicUriExpectations());
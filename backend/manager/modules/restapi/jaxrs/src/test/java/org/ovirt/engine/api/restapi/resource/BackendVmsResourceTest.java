@@ -34,12 +34,16 @@ import org.ovirt.engine.api.model.DiskAttachments;
 import org.ovirt.engine.api.model.Host;
 import org.ovirt.engine.api.model.Hosts;
 import org.ovirt.engine.api.model.Initialization;
+import org.ovirt.engine.api.model.Nic;
 import org.ovirt.engine.api.model.Snapshot;
 import org.ovirt.engine.api.model.Snapshots;
 import org.ovirt.engine.api.model.StorageDomain;
 import org.ovirt.engine.api.model.Template;
 import org.ovirt.engine.api.model.Vm;
 import org.ovirt.engine.api.model.VmPlacementPolicy;
+import org.ovirt.engine.api.model.Vms;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
+import org.ovirt.engine.api.restapi.resource.utils.LinksTreeNode;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.AddVmFromSnapshotParameters;
 import org.ovirt.engine.core.common.action.AddVmParameters;
@@ -60,6 +64,7 @@ import org.ovirt.engine.core.common.businessentities.VmInit;
 import org.ovirt.engine.core.common.businessentities.VmPayload;
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
 import org.ovirt.engine.core.common.businessentities.VmType;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.interfaces.SearchType;
@@ -138,6 +143,41 @@ public class BackendVmsResourceTest
         }
     }
 
+    @Test
+    public void testFollowNicsOfCollection() {
+        collection.setUriInfo(setUpBasicUriExpectations());
+        Vms vms = new Vms();
+        List<VmNetworkInterface> nics = new ArrayList<>();
+        for (int i = 0; i < NAMES.length; i++) {
+            Vm vm = new Vm();
+            vm.setId(GUIDS[i].toString());
+            vms.getVms().add(vm);
+            VmNetworkInterface nic = new VmNetworkInterface();
+            nic.setId(GUIDS[i]);
+            nic.setVmId(GUIDS[i]);
+            nic.setName(NAMES[i]);
+            nic.setType(3);
+            nics.add(nic);
+        }
+        setUpEntityQueryExpectations(QueryType.GetVmInterfacesByVmIds,
+                IdsQueryParameters.class,
+                new String[] { "Ids" },
+                new Object[] { Arrays.asList(GUIDS[0], GUIDS[1], GUIDS[2]) },
+                nics);
+        LinksTreeNode linksTree = new LinksTreeNode("vms");
+        linksTree.addChild("nics");
+
+        collection.follow(vms, linksTree);
+
+        for (int i = 0; i < NAMES.length; i++) {
+            List<Nic> vmNics = vms.getVms().get(i).getNics().getNics();
+            assertEquals(1, vmNics.size());
+            assertEquals(NAMES[i], vmNics.get(0).getName());
+        }
+        assertTrue(linksTree.getChild("nics").get().isFollowed());
+        assertEquals(1, CurrentManager.get().getQueryCount());
+    }
+
     @Test
     @MockedConfig("mockConfiguration")
     public void testAddAsyncPending() {
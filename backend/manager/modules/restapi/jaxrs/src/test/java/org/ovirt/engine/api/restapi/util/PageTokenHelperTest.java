@@ -0,0 +1,57 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class PageTokenHelperTest {
+
+    private static final String SEARCH = "VM:Vms : name=vm* sortby name";
+    private static final List<String> VALUES = Arrays.asList("vm.1 ~", null, "00000000-0000-0000-0000-000000000001");
+
+    @Test
+    public void testValuesAreDecodedForSameSearch() {
+        String token = PageTokenHelper.encode(SEARCH, VALUES);
+
+        assertEquals(VALUES, PageTokenHelper.decode(SEARCH, token));
+    }
+
+    @Test
+    public void testTokenOfOtherSearchIsRejected() {
+        String token = PageTokenHelper.encode("VM:Vms : name=vm* sortby status", VALUES);
+
+        assertThrows(IllegalArgumentException.class, () -> PageTokenHelper.decode(SEARCH, token));
+    }
+
+    @Test
+    public void testTokenWithChangedValueIsRejected() {
+        String token = PageTokenHelper.encode(SEARCH, VALUES);
+        String otherToken = PageTokenHelper.encode(SEARCH, Arrays.asList("vm.2", null, VALUES.get(2)));
+        String tampered = token.substring(0, token.indexOf('.')) + otherToken.substring(otherToken.indexOf('.'));
+
+        assertThrows(IllegalArgumentException.class, () -> PageTokenHelper.decode(SEARCH, tampered));
+    }
+
+    @Test
+    public void testTokenWithMissingValueIsRejected() {
+        String token = PageTokenHelper.encode(SEARCH, VALUES);
+        String truncated = token.substring(0, token.lastIndexOf('.'));
+
+        assertThrows(IllegalArgumentException.class, () -> PageTokenHelper.decode(SEARCH, truncated));
+    }
+
+    @Test
+    public void testMalformedTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PageTokenHelper.decode(SEARCH, "not a token"));
+        assertThrows(IllegalArgumentException.class, () -> PageTokenHelper.decode(SEARCH, "*.dm0"));
+    }
+}
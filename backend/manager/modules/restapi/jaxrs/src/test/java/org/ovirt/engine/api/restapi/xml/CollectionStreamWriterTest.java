@@ -0,0 +1,55 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.jupiter.api.Test;
+
+public class CollectionStreamWriterTest {
+
+    @Test
+    public void testItemsWrittenBeforeEndOfCollection() throws XMLStreamException {
+        StringWriter output = new StringWriter();
+        XMLStreamWriter delegate = XMLOutputFactory.newFactory().createXMLStreamWriter(output);
+        XMLStreamWriter writer = new CollectionStreamWriter(delegate, itemWriter -> {
+            for (String name : new String[] { "vm1", "vm2" }) {
+                itemWriter.writeStartElement("vm");
+                itemWriter.writeAttribute("name", name);
+                itemWriter.writeEndElement();
+            }
+        });
+
+        writer.writeStartElement("vms");
+        writer.writeStartElement("actions");
+        writer.writeEmptyElement("link");
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.flush();
+
+        assertEquals("<vms><actions><link/></actions><vm name=\"vm1\"></vm><vm name=\"vm2\"></vm></vms>",
+                output.toString());
+    }
+
+    @Test
+    public void testEmptyCollection() throws XMLStreamException {
+        StringWriter output = new StringWriter();
+        XMLStreamWriter delegate = XMLOutputFactory.newFactory().createXMLStreamWriter(output);
+        XMLStreamWriter writer = new CollectionStreamWriter(delegate, itemWriter -> {});
+
+        writer.writeStartElement("vms");
+        writer.writeEndElement();
+        writer.flush();
+
+        assertEquals("<vms></vms>", output.toString());
+    }
+}
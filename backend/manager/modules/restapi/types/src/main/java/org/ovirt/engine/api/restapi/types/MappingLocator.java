@@ -5,8 +5,14 @@
 
 package org.ovirt.engine.api.restapi.types;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,7 +73,7 @@ public class MappingLocator {
                     Mapping mapping = method.getAnnotation(Mapping.class);
                     if (mapping != null) {
                         mappers.put(new ClassPairKey(mapping.from(), mapping.to()),
-                            new MethodInvokerMapper(method, mapping.to()));
+                            createMapper(method, mapping.to()));
                     }
                 }
             } catch (ClassNotFoundException exception) {
@@ -80,6 +86,57 @@ public class MappingLocator {
         }
     }
 
+    /**
+     * Creates the mapper that calls the given mapping method. When possible the method is bound to an implementation
+     * of the {@link Mapper} interface generated with {@link LambdaMetafactory}, so that mapping doesn't pay the cost of
+     * reflection. Methods that can't be bound that way, for example because they aren't static or because they have
+     * an unexpected signature, are invoked using reflection as before.
+     */
+    private static Mapper<?, ?> createMapper(Method method, Class<?> to) {
+        if (Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 2) {
+            try {
+                return new CompiledMapper(compile(method), method, to);
+            } catch (Throwable t) {
+                log.debug(
+                    "Can't compile mapping method \"{}\", it will be invoked using reflection.",
+                    method,
+                    t
+                );
+            }
+        }
+        return new MethodInvokerMapper(method, to);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mapper<Object, Object> compile(Method method) throws Throwable {
+        // The generated class is defined in the class loader of this class, so it must be able to see the mapping
+        // method and the types in its signature:
+        ClassLoader classLoader = MappingLocator.class.getClassLoader();
+        for (Class<?> type : method.getParameterTypes()) {
+            checkVisible(type, classLoader);
+        }
+        checkVisible(method.getReturnType(), classLoader);
+        checkVisible(method.getDeclaringClass(), classLoader);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect(method);
+        CallSite site = LambdaMetafactory.metafactory(
+            lookup,
+            "map",
+            MethodType.methodType(Mapper.class),
+            MethodType.methodType(Object.class, Object.class, Object.class),
+            handle,
+            handle.type().wrap()
+        );
+        return (Mapper<Object, Object>) site.getTarget().invoke();
+    }
+
+    private static void checkVisible(Class<?> type, ClassLoader classLoader) throws ClassNotFoundException {
+        if (!type.isPrimitive() && !type.isArray() && Class.forName(type.getName(), false, classLoader) != type) {
+            throw new ClassNotFoundException(type.getName());
+        }
+    }
+
     /**
      * Get an appropriate mapper mediating between the required types.
      *
@@ -131,6 +188,36 @@ public class MappingLocator {
         }
     }
 
+    private static class CompiledMapper implements Mapper<Object, Object> {
+        private Mapper<Object, Object> delegate;
+        private Method method;
+        private Class<?> to;
+
+        private CompiledMapper(Mapper<Object, Object> delegate, Method method, Class<?> to) {
+            this.delegate = delegate;
+            this.method = method;
+            this.to = to;
+        }
+
+        @Override
+        public Object map(Object from, Object template) {
+            Object result;
+            try {
+                result = delegate.map(from, template);
+            } catch (MalformedIdException | WebApplicationException exception) {
+                throw exception;
+            } catch (RuntimeException exception) {
+                // Same as the reflective invocation, which wraps any other exception thrown by the mapping method:
+                throw new MappingException(exception);
+            }
+            return to.cast(result);
+        }
+
+        public String toString() {
+            return "map to: " + to + " via compiled " + method;
+        }
+    }
+
     private static class MethodInvokerMapper implements Mapper<Object, Object> {
         private Method method;
         private Class<?> to;
@@ -5,6 +5,7 @@ import org.ovirt.engine.api.restapi.test.mappers.api.IFoo;
 import org.ovirt.engine.api.restapi.test.mappers.impl.BarImpl;
 import org.ovirt.engine.api.restapi.test.mappers.impl.FooImpl;
 import org.ovirt.engine.api.restapi.types.Mapping;
+import org.ovirt.engine.api.restapi.utils.MalformedIdException;
 
 public class StaticMapper {
 
@@ -36,4 +37,17 @@ public class StaticMapper {
         return foo;
     }
 
+    @Mapping(from = String.class, to = IFoo.class)
+    public static IFoo mapStringToFooInterface(String s, IFoo template) {
+        if (s.equals("malformed")) {
+            throw new MalformedIdException(new IllegalArgumentException(s));
+        }
+        if (s.equals("failure")) {
+            throw new IllegalStateException(s);
+        }
+        IFoo foo = template != null ? template : new FooImpl();
+        foo.set(s);
+        return foo;
+    }
+
 }
@@ -848,15 +848,7 @@ public class SyntaxChecker implements ISyntaxChecker {
             }
 
             if (sortByElements != null) {
-                StringBuilder builder = new StringBuilder();
-                builder.append(" ORDER BY ");
-                for(SortByElement sortByElement: sortByElements) {
-                    builder.append(sortByElement.getExpression()).append(" ");
-                    final boolean ascending = sortAscending == sortByElement.isAscending();
-                    builder.append(ascending ? "ASC NULLS FIRST" : "DESC NULLS LAST").append(",");
-                }
-                builder.deleteCharAt(builder.length() - 1);
-                sortByPhrase = builder.toString();
+                sortByPhrase = getSortByPhrase(sortByElements, sortAscending);
             }
 
             // implying precedence rules
@@ -905,8 +897,8 @@ public class SyntaxChecker implements ISyntaxChecker {
             if ("".equals(sortByPhrase)) {
                 sortByPhrase = " ORDER BY " + searchObjectAC.getDefaultSort(searchObjStr);
             }
-            // adding the paging phrase
-            String pagePhrase = getPagePhrase(syntax, pageNumber);
+            // adding the paging phrase, searching after a given row always returns the first page following it
+            String pagePhrase = getPagePhrase(syntax, syntax.getSearchAfter() != null ? "1" : pageNumber);
             String primeryKey = searchObjectAC.getPrimeryKeyName(searchObjStr);
             String tableName = searchObjectAC.getRelatedTableName(searchObjStr, useTags);
             boolean usingDistinct = searchObjectAC.isUsingDistinct(searchObjStr);
@@ -918,6 +910,17 @@ public class SyntaxChecker implements ISyntaxChecker {
                 sortExpr.append(",");
                 sortExpr.append(searchObjectAC.getDefaultSort(searchObjStr));
             }
+            // adding the primary key as the last sort key, so the order is total and the rows do not move between
+            // pages, whether they are requested by page number or after a given row
+            List<SortKey> sortKeys = getSortKeys(searchObjStr, sortByElements, sortAscending);
+            if (addPrimaryKeySortKey(sortKeys, primeryKey)) {
+                sortExpr.append(",").append(primeryKey).append(" ").append(SORTDIR_ASC);
+            }
+
+            String searchAfterCondition = null;
+            if (syntax.getSearchAfter() != null) {
+                searchAfterCondition = getSearchAfterCondition(sortKeys, syntax.getSearchAfter());
+            }
 
             // TODO: The database configuration PostgresSearchTemplate has an extra closing braces. Hence our
             // queries in this code have an extra opening one. Fix it in a future patch.
@@ -939,6 +942,11 @@ public class SyntaxChecker implements ISyntaxChecker {
             if (inQuery.contains("LEFT OUTER JOIN") && ! inQuery.contains("distinct")) {
                 inQuery = inQuery.replaceFirst("SELECT ", "SELECT  distinct ");
             }
+            if (searchAfterCondition != null) {
+                inQuery = StringFormat.format("SELECT * FROM (%1$s)) as search_after WHERE ( %2$s",
+                        inQuery,
+                        searchAfterCondition);
+            }
             retval =
                     StringFormat.format(Config.getValue(ConfigValues.DBSearchTemplate),
                             sortExpr.toString(),
@@ -955,6 +963,148 @@ public class SyntaxChecker implements ISyntaxChecker {
         return retval;
     }
 
+    /**
+     * Generates the condition selecting the rows which follow, in the sort order of the search, the row having the
+     * given values of the sort keys. The values are compared as literals, so the position does not depend on the row
+     * still existing or being unchanged. Each sort key is compared in its own direction, and the null values are
+     * placed where the sort order puts them.
+     */
+    private String getSearchAfterCondition(List<SortKey> sortKeys, List<String> searchAfter) {
+        if (searchAfter.size() != sortKeys.size()) {
+            throw new IllegalArgumentException(StringFormat.format(
+                    "Searching after a row requires %1$s sort key values but %2$s were given",
+                    sortKeys.size(),
+                    searchAfter.size()));
+        }
+
+        List<String> alternatives = new ArrayList<>();
+        List<String> equalKeys = new ArrayList<>();
+        for (int i = 0; i < sortKeys.size(); i++) {
+            SortKey sortKey = sortKeys.get(i);
+            String value = searchAfter.get(i);
+            String following = sortKey.getFollowingCondition(value);
+            if (following != null) {
+                List<String> parts = new ArrayList<>(equalKeys);
+                parts.add(following);
+                alternatives.add("(" + String.join(" AND ", parts) + ")");
+            }
+            equalKeys.add(sortKey.getEqualCondition(value));
+        }
+        return alternatives.isEmpty() ? "FALSE" : "(" + String.join(" OR ", alternatives) + ")";
+    }
+
+    /**
+     * Generates the query returning the values of the sort keys of the row of the given primary key, as text. These
+     * values are the position to give to {@link SyntaxContainer#setSearchAfter(List)} in order to get the rows which
+     * follow that row.
+     */
+    public String generateSearchAfterQuery(SyntaxContainer syntax, String primaryKeyValue) {
+        String searchObjStr = syntax.getSearchObjectStr();
+        String primeryKey = searchObjectAC.getPrimeryKeyName(searchObjStr);
+        List<String> sortKeyColumns = new ArrayList<>();
+        for (SortKey sortKey : getSortKeys(syntax)) {
+            sortKeyColumns.add("(" + sortKey.expression + ")::text");
+        }
+        return StringFormat.format("SELECT %1$s FROM %2$s WHERE %3$s = %4$s",
+                String.join(", ", sortKeyColumns),
+                searchObjectAC.getRelatedTableName(searchObjStr, false),
+                primeryKey,
+                toLiteral(primaryKeyValue));
+    }
+
+    /**
+     * Returns the sort keys of the given search, in the order the generated query sorts by them
+     */
+    private List<SortKey> getSortKeys(SyntaxContainer syntax) {
+        String searchObjStr = syntax.getSearchObjectStr();
+        List<SortByElement> sortByElements = null;
+        boolean sortAscending = true;
+        for (SyntaxObject obj : syntax) {
+            if (obj.getType() == SyntaxObjectType.SORT_FIELD) {
+                sortByElements = searchObjectAC.getFieldAutoCompleter(searchObjStr).getSortByElements(obj.getBody());
+            } else if (obj.getType() == SyntaxObjectType.SORT_DIRECTION) {
+                sortAscending = !obj.getBody().equalsIgnoreCase("desc");
+            }
+        }
+        List<SortKey> sortKeys = getSortKeys(searchObjStr, sortByElements, sortAscending);
+        addPrimaryKeySortKey(sortKeys, searchObjectAC.getPrimeryKeyName(searchObjStr));
+        return sortKeys;
+    }
+
+    /**
+     * Returns the keys of the explicit sort followed by those of the default sort of the searched object, unless the
+     * explicit sort already includes the default one
+     */
+    private List<SortKey> getSortKeys(String searchObjStr, List<SortByElement> sortByElements, boolean sortAscending) {
+        List<SortKey> sortKeys = new ArrayList<>();
+        String defaultSort = searchObjectAC.getDefaultSort(searchObjStr);
+        if (sortByElements != null) {
+            for (SortByElement sortByElement : sortByElements) {
+                boolean ascending = sortAscending == sortByElement.isAscending();
+                sortKeys.add(new SortKey(sortByElement.getExpression(), !ascending, ascending));
+            }
+            if (getSortByPhrase(sortByElements, sortAscending).contains(defaultSort)) {
+                return sortKeys;
+            }
+        }
+        sortKeys.addAll(parseSortKeys(defaultSort));
+        return sortKeys;
+    }
+
+    /**
+     * Adds the primary key as the last sort key, unless the results are already sorted by it
+     *
+     * @return true if the primary key was added
+     */
+    private static boolean addPrimaryKeySortKey(List<SortKey> sortKeys, String primeryKey) {
+        if (primeryKey == null || sortKeys.stream().anyMatch(key -> key.expression.equals(primeryKey))) {
+            return false;
+        }
+        sortKeys.add(new SortKey(primeryKey, false, false));
+        return true;
+    }
+
+    private static String getSortByPhrase(List<SortByElement> sortByElements, boolean sortAscending) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(" ORDER BY ");
+        for(SortByElement sortByElement: sortByElements) {
+            builder.append(sortByElement.getExpression()).append(" ");
+            final boolean ascending = sortAscending == sortByElement.isAscending();
+            builder.append(ascending ? "ASC NULLS FIRST" : "DESC NULLS LAST").append(",");
+        }
+        builder.deleteCharAt(builder.length() - 1);
+        return builder.toString();
+    }
+
+    /**
+     * Parses a sort expression like {@code "name ASC, id DESC NULLS LAST"} into its sort keys
+     */
+    private static List<SortKey> parseSortKeys(String sort) {
+        List<SortKey> sortKeys = new ArrayList<>();
+        for (String sortPart : sort.split(",")) {
+            String[] tokens = sortPart.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+            boolean descending = false;
+            // the database puts the null values last in ascending order unless told otherwise
+            Boolean nullsFirst = null;
+            for (int i = 1; i < tokens.length; i++) {
+                if (SORTDIR_DESC.equalsIgnoreCase(tokens[i])) {
+                    descending = true;
+                } else if ("NULLS".equalsIgnoreCase(tokens[i]) && i + 1 < tokens.length) {
+                    nullsFirst = "FIRST".equalsIgnoreCase(tokens[++i]);
+                }
+            }
+            sortKeys.add(new SortKey(tokens[0], descending, nullsFirst != null ? nullsFirst : descending));
+        }
+        return sortKeys;
+    }
+
+    private static String toLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
     private String getInnerQuery(String tableName, String primeryKey, String fromStatement, StringBuilder wherePhrase, StringBuilder sortExpr, boolean useDistinct) {
         // prevent using distinct when the sort expression has a function call since when distinct is used it is performed first and sorting
         // is done on the result, so all fields in the sort clause should appear in the result set after distinct is applied
@@ -1043,6 +1193,37 @@ public class SyntaxChecker implements ISyntaxChecker {
         }
     }
 
+    /**
+     * One key the search results are sorted by, with its direction and the position of its null values
+     */
+    private static class SortKey {
+
+        private final String expression;
+        private final boolean descending;
+        private final boolean nullsFirst;
+
+        SortKey(String expression, boolean descending, boolean nullsFirst) {
+            this.expression = expression;
+            this.descending = descending;
+            this.nullsFirst = nullsFirst;
+        }
+
+        /**
+         * @return the condition matching the values sorted after the given one, {@code null} if there are none
+         */
+        String getFollowingCondition(String value) {
+            if (value == null) {
+                return nullsFirst ? expression + " IS NOT NULL" : null;
+            }
+            String following = expression + (descending ? " < " : " > ") + toLiteral(value);
+            return nullsFirst ? following : "(" + following + " OR " + expression + " IS NULL)";
+        }
+
+        String getEqualCondition(String value) {
+            return value == null ? expression + " IS NULL" : expression + " = " + toLiteral(value);
+        }
+    }
+
     private enum ConditionType {
         None,
         FreeText,
@@ -18,6 +18,7 @@ public class SyntaxContainer implements Iterable<SyntaxObject> {
     private final int[] errorPos = new int[2];
     private int privateMaxCount;
     private long searchFrom = 0;
+    private List<String> searchAfter;
     private boolean caseSensitive=true;
 
     /**
@@ -57,6 +58,19 @@ public class SyntaxContainer implements Iterable<SyntaxObject> {
         searchFrom = value;
     }
 
+    public List<String> getSearchAfter() {
+        return searchAfter;
+    }
+
+    /**
+     * Sets the values of the sort keys of the last row of the previous page, the last one being its primary key, the
+     * search then returns the rows following it in the sort order of the search. The values are those returned by
+     * {@link SyntaxChecker#generateSearchAfterQuery(SyntaxContainer, String)}.
+     */
+    public void setSearchAfter(List<String> value) {
+        searchAfter = value;
+    }
+
     public boolean getvalid() {
         return valid;
     }
@@ -0,0 +1,242 @@
+package org.ovirt.engine.core.utils.threadpool;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the periodic monitoring jobs of the hosts on a fixed set of shards, each one served by a single thread, so the
+ * monitoring of many hosts neither competes with the other scheduled jobs of the engine nor needs a thread per host.
+ * All the jobs scheduled with the same key run on the same shard, one at a time.
+ * <p>
+ * It also bounds the number of monitoring threads writing to the database at the same time, and measures how late the
+ * jobs start (lag) and how many executions take longer than the delay of their job (overrun). The database writes may
+ * run on threads serving VDSM responses as well, so a write waits for the others for a limited time only.
+ */
+public class MonitoringScheduler implements MonitoringSchedulerMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitoringScheduler.class);
+
+    private static final long DB_FLUSH_MAX_WAIT_MILLIS = 5000;
+
+    private final String name;
+    private final ScheduledThreadPoolExecutor[] shards;
+    private final int maxConcurrentDbFlushes;
+    private final Semaphore dbFlushPermits;
+    private final long dbFlushMaxWaitMillis;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final LongAccumulator maxLagMillis = new LongAccumulator(Long::max, 0);
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder dbFlushWaits = new LongAdder();
+    private final LongAdder dbFlushWaitTimeouts = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    /**
+     * @param shardCount
+     *            the number of shards, and so of threads
+     * @param maxConcurrentDbFlushes
+     *            the maximal number of jobs writing to the database at the same time, 0 or less for no limit
+     */
+    public MonitoringScheduler(String name, ThreadFactory threadFactory, int shardCount, int maxConcurrentDbFlushes) {
+        this(name, threadFactory, shardCount, maxConcurrentDbFlushes, DB_FLUSH_MAX_WAIT_MILLIS);
+    }
+
+    MonitoringScheduler(String name,
+            ThreadFactory threadFactory,
+            int shardCount,
+            int maxConcurrentDbFlushes,
+            long dbFlushMaxWaitMillis) {
+        this.name = name;
+        this.dbFlushMaxWaitMillis = dbFlushMaxWaitMillis;
+        shards = new ScheduledThreadPoolExecutor[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; ++i) {
+            shards[i] = new ScheduledThreadPoolExecutor(1, threadFactory);
+            shards[i].setRemoveOnCancelPolicy(true);
+        }
+        this.maxConcurrentDbFlushes = maxConcurrentDbFlushes > 0 ? maxConcurrentDbFlushes : Integer.MAX_VALUE;
+        dbFlushPermits = new Semaphore(this.maxConcurrentDbFlushes, true);
+        registerInJMX();
+        log.info("Monitoring scheduler '{}' initialized with {} shards, at most {} concurrent database flushes",
+                name,
+                shards.length,
+                maxConcurrentDbFlushes > 0 ? maxConcurrentDbFlushes : "unlimited");
+    }
+
+    /**
+     * Schedules the given job on the shard of the given key, see
+     * {@link ScheduledThreadPoolExecutor#scheduleWithFixedDelay(Runnable, long, long, TimeUnit)}
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Object key,
+            Runnable command,
+            long initialDelay,
+            long delay,
+            TimeUnit unit) {
+        MonitoredJob job = new MonitoredJob(command, unit.toNanos(initialDelay), unit.toNanos(delay));
+        return getShard(key).scheduleWithFixedDelay(job, initialDelay, delay, unit);
+    }
+
+    /**
+     * Runs the given database writes once no more than the maximal number of other jobs are writing to the database.
+     * The calling thread waits for them at most {@value #DB_FLUSH_MAX_WAIT_MILLIS} milliseconds and then runs the
+     * writes anyway, so a slow database delays the monitoring of a host but never blocks its thread.
+     */
+    public void runDbFlush(Runnable flush) {
+        boolean acquired = dbFlushPermits.tryAcquire();
+        if (!acquired) {
+            dbFlushWaits.increment();
+            acquired = tryAcquireDbFlushPermit();
+        }
+        try {
+            flush.run();
+        } finally {
+            if (acquired) {
+                dbFlushPermits.release();
+            }
+        }
+    }
+
+    private boolean tryAcquireDbFlushPermit() {
+        try {
+            if (dbFlushPermits.tryAcquire(dbFlushMaxWaitMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dbFlushWaitTimeouts.increment();
+        log.debug("Monitoring scheduler '{}' waited too long for a database flush permit, flushing anyway", name);
+        return false;
+    }
+
+    public void shutdown() {
+        Arrays.stream(shards).forEach(ScheduledThreadPoolExecutor::shutdownNow);
+        unregisterFromJMX();
+    }
+
+    private ScheduledThreadPoolExecutor getShard(Object key) {
+        return shards[Math.floorMod(key.hashCode(), shards.length)];
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("MonitoringScheduler:type=" + getClass().getName() + ",name=" + name);
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Problem during registration of monitoring scheduler '{}' into JMX: {}", name, e.getMessage());
+            log.debug("Exception:", e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            if (platformMBeanServer != null) {
+                platformMBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of monitoring scheduler from JMX", e);
+        }
+    }
+
+    @Override
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public int[] getShardJobCounts() {
+        return Arrays.stream(shards).mapToInt(shard -> shard.getQueue().size() + shard.getActiveCount()).toArray();
+    }
+
+    @Override
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    @Override
+    public long getAverageLagMillis() {
+        long count = executions.sum();
+        return count == 0 ? 0 : totalLagMillis.sum() / count;
+    }
+
+    @Override
+    public long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    @Override
+    public long getOverrunCount() {
+        return overruns.sum();
+    }
+
+    @Override
+    public int getMaxConcurrentDbFlushes() {
+        return maxConcurrentDbFlushes;
+    }
+
+    @Override
+    public int getActiveDbFlushCount() {
+        return maxConcurrentDbFlushes - dbFlushPermits.availablePermits();
+    }
+
+    @Override
+    public long getDbFlushWaitCount() {
+        return dbFlushWaits.sum();
+    }
+
+    @Override
+    public long getDbFlushWaitTimeoutCount() {
+        return dbFlushWaitTimeouts.sum();
+    }
+
+    /**
+     * Wraps a job to measure its lag and overruns. The delay of a job is counted from the end of its previous
+     * execution, so this is when its next execution is expected.
+     */
+    private class MonitoredJob implements Runnable {
+
+        private final Runnable command;
+        private final long delayNanos;
+        private long expectedStartNanos;
+
+        MonitoredJob(Runnable command, long initialDelayNanos, long delayNanos) {
+            this.command = command;
+            this.delayNanos = delayNanos;
+            expectedStartNanos = System.nanoTime() + initialDelayNanos;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            long lagMillis = TimeUnit.NANOSECONDS.toMillis(Math.max(0, startNanos - expectedStartNanos));
+            try {
+                command.run();
+            } finally {
+                long endNanos = System.nanoTime();
+                executions.increment();
+                totalLagMillis.add(lagMillis);
+                maxLagMillis.accumulate(lagMillis);
+                if (endNanos - startNanos > delayNanos) {
+                    overruns.increment();
+                }
+                expectedStartNanos = endNanos + delayNanos;
+            }
+        }
+    }
+}
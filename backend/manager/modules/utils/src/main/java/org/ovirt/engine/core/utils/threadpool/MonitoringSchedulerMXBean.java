@@ -0,0 +1,61 @@
+package org.ovirt.engine.core.utils.threadpool;
+
+/**
+ * The following interface is used as interface for JMX bean of the monitoring scheduler
+ */
+public interface MonitoringSchedulerMXBean {
+
+    /**
+     * The following method will return the number of shards, each one served by a single thread
+     */
+    int getShardCount();
+
+    /**
+     * The following method will return the number of jobs scheduled on each shard
+     */
+    int[] getShardJobCounts();
+
+    /**
+     * The following method will return the number of job executions
+     */
+    long getExecutionCount();
+
+    /**
+     * The following method will return the average delay in milliseconds between the time a job should have started
+     * and the time it started
+     */
+    long getAverageLagMillis();
+
+    /**
+     * The following method will return the maximal delay in milliseconds between the time a job should have started
+     * and the time it started
+     */
+    long getMaxLagMillis();
+
+    /**
+     * The following method will return the number of job executions that took longer than the delay of the job
+     */
+    long getOverrunCount();
+
+    /**
+     * The following method will return the maximal number of monitoring threads writing to the database at the same
+     * time
+     */
+    int getMaxConcurrentDbFlushes();
+
+    /**
+     * The following method will return the number of monitoring threads currently writing to the database
+     */
+    int getActiveDbFlushCount();
+
+    /**
+     * The following method will return the number of database writes that had to wait for another one to finish
+     */
+    long getDbFlushWaitCount();
+
+    /**
+     * The following method will return the number of database writes that stopped waiting for the others to finish
+     * and ran beyond the maximal number of concurrent writes
+     */
+    long getDbFlushWaitTimeoutCount();
+}
@@ -16,7 +16,9 @@ public @interface ThreadPools {
         CoCo,
         HostUpdatesChecker,
         EngineScheduledThreadPool,
-        EngineThreadMonitoringThreadPool}
+        EngineThreadMonitoringThreadPool,
+        SchedulingUnits,
+        HostMonitoring}
 
     ThreadPoolType value();
 }
@@ -0,0 +1,142 @@
+package org.ovirt.engine.core.utils.threadpool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MonitoringSchedulerTest {
+
+    private static final int SHARDS = 4;
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final long DB_FLUSH_MAX_WAIT_MILLIS = 200;
+
+    private MonitoringScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new MonitoringScheduler("test",
+                Executors.defaultThreadFactory(),
+                SHARDS,
+                1,
+                TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void jobsOfSameKeyRunOnSameThread() throws InterruptedException {
+        AtomicReference<Thread> first = new AtomicReference<>();
+        AtomicReference<Thread> second = new AtomicReference<>();
+        CountDownLatch executed = new CountDownLatch(2);
+        ScheduledFuture<?> firstJob = scheduler.scheduleWithFixedDelay("host",
+                () -> run(first, executed), 0, 1, TimeUnit.HOURS);
+        ScheduledFuture<?> secondJob = scheduler.scheduleWithFixedDelay("host",
+                () -> run(second, executed), 0, 1, TimeUnit.HOURS);
+
+        assertTrue(executed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertSame(first.get(), second.get());
+        firstJob.cancel(true);
+        secondJob.cancel(true);
+        assertEquals(0, scheduler.getShardJobCounts()[Math.floorMod("host".hashCode(), SHARDS)]);
+    }
+
+    @Test
+    public void executionsAndOverrunsAreCounted() throws InterruptedException {
+        CountDownLatch executed = new CountDownLatch(2);
+        scheduler.scheduleWithFixedDelay("host", () -> {
+            sleep(5);
+            executed.countDown();
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        assertTrue(executed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(scheduler.getExecutionCount() >= 1);
+        assertTrue(scheduler.getOverrunCount() >= 1);
+    }
+
+    @Test
+    public void concurrentDbFlushesAreBounded() throws InterruptedException {
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        Thread firstFlusher = new Thread(() -> scheduler.runDbFlush(() -> {
+            firstFlushStarted.countDown();
+            await(releaseFirstFlush);
+        }));
+        firstFlusher.start();
+        assertTrue(firstFlushStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.getActiveDbFlushCount());
+
+        CountDownLatch secondFlushDone = new CountDownLatch(1);
+        Thread secondFlusher = new Thread(() -> scheduler.runDbFlush(secondFlushDone::countDown));
+        secondFlusher.start();
+        assertFalse(secondFlushDone.await(100, TimeUnit.MILLISECONDS));
+
+        releaseFirstFlush.countDown();
+        assertTrue(secondFlushDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        firstFlusher.join();
+        secondFlusher.join();
+        assertEquals(1, scheduler.getDbFlushWaitCount());
+        assertEquals(0, scheduler.getActiveDbFlushCount());
+    }
+
+    @Test
+    public void dbFlushWaitsForOthersForLimitedTime() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler =
+                new MonitoringScheduler("test", Executors.defaultThreadFactory(), SHARDS, 1, DB_FLUSH_MAX_WAIT_MILLIS);
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        Thread firstFlusher = new Thread(() -> scheduler.runDbFlush(() -> {
+            firstFlushStarted.countDown();
+            await(releaseFirstFlush);
+        }));
+        firstFlusher.start();
+        assertTrue(firstFlushStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        CountDownLatch secondFlushDone = new CountDownLatch(1);
+        Thread secondFlusher = new Thread(() -> scheduler.runDbFlush(secondFlushDone::countDown));
+        secondFlusher.start();
+        assertTrue(secondFlushDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        secondFlusher.join();
+        assertEquals(1, scheduler.getDbFlushWaitTimeoutCount());
+        assertEquals(1, scheduler.getActiveDbFlushCount());
+
+        releaseFirstFlush.countDown();
+        firstFlusher.join();
+        assertEquals(0, scheduler.getActiveDbFlushCount());
+    }
+
+    private static void run(AtomicReference<Thread> thread, CountDownLatch executed) {
+        thread.set(Thread.currentThread());
+        executed.countDown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
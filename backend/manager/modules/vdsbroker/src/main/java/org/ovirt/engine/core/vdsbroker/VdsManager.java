@@ -65,6 +65,7 @@ import org.ovirt.engine.core.dao.provider.ProviderDao;
 import org.ovirt.engine.core.utils.crypt.EngineEncryptionUtils;
 import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
+import org.ovirt.engine.core.utils.threadpool.MonitoringScheduler;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IRSErrorException;
@@ -74,6 +75,7 @@ import org.ovirt.engine.core.vdsbroker.kubevirt.PrometheusUrlResolver;
 import org.ovirt.engine.core.vdsbroker.monitoring.HostConnectionRefresherInterface;
 import org.ovirt.engine.core.vdsbroker.monitoring.HostMonitoring;
 import org.ovirt.engine.core.vdsbroker.monitoring.HostMonitoringInterface;
+import org.ovirt.engine.core.vdsbroker.monitoring.HostStatisticsTracker;
 import org.ovirt.engine.core.vdsbroker.monitoring.MonitoringStrategy;
 import org.ovirt.engine.core.vdsbroker.monitoring.MonitoringStrategyFactory;
 import org.ovirt.engine.core.vdsbroker.monitoring.RefresherFactory;
@@ -109,6 +111,10 @@ public class VdsManager {
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
 
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.HostMonitoring)
+    private MonitoringScheduler monitoringScheduler;
+
     @Inject
     private VdsDao vdsDao;
 
@@ -176,6 +182,7 @@ public class VdsManager {
 
     private final ReentrantLock autoStartVmsWithLeasesLock;
     protected final int NUMBER_HOST_REFRESHES_BEFORE_SAVE;
+    private final HostStatisticsTracker statisticsTracker;
     private HostConnectionRefresherInterface hostRefresher;
     private volatile boolean inServerRebootTimeout;
 
@@ -186,6 +193,9 @@ public class VdsManager {
         log.info("Entered VdsManager constructor");
         cachedVds = vds;
         vdsId = vds.getId();
+        statisticsTracker = new HostStatisticsTracker(vdsId,
+                Config.<Long> getValue(ConfigValues.VdsRefreshRate) * 1000,
+                NUMBER_HOST_REFRESHES_BEFORE_SAVE);
         unrespondedAttempts = new AtomicInteger();
         autoStartVmsWithLeasesLock = new ReentrantLock();
     }
@@ -226,7 +236,8 @@ public class VdsManager {
     public void scheduleJobs() {
         long refreshRate = Config.<Long> getValue(ConfigValues.VdsRefreshRate) * 1000;
 
-        registeredJobs.add(executor.scheduleWithFixedDelay(
+        registeredJobs.add(monitoringScheduler.scheduleWithFixedDelay(
+                vdsId,
                 this::refresh,
                 refreshRate,
                 refreshRate,
@@ -237,6 +248,8 @@ public class VdsManager {
 
         hostRefresher = getRefresherFactory().createHostConnectionRefresher(this, resourceManager);
         hostRefresher.start();
+
+        statisticsTracker.registerInJMX();
     }
 
     private RefresherFactory getRefresherFactory() {
@@ -535,6 +548,17 @@ public class VdsManager {
     public void updateStatisticsData(VdsStatistics statisticsData) {
         vdsStatisticsDao.update(statisticsData);
         cachedVds.setStatisticsData(statisticsData);
+        statisticsTracker.reset();
+    }
+
+    /**
+     * Save statistics data to cache, and to DB only if they changed since they were last saved by the monitoring.
+     */
+    public void updateStatisticsDataIfChanged(VdsStatistics statisticsData) {
+        if (statisticsTracker.track(statisticsData)) {
+            vdsStatisticsDao.update(statisticsData);
+        }
+        cachedVds.setStatisticsData(statisticsData);
     }
 
     /**
@@ -699,6 +723,7 @@ public class VdsManager {
                 vds = vdsDao.get(getVdsId());
             }
             if (vds.getStatus() != status) {
+                statisticsTracker.speedUp();
                 if (status == VDSStatus.PreparingForMaintenance) {
                     calculateNextMaintenanceAttemptTime();
                 }
@@ -1027,6 +1052,7 @@ public class VdsManager {
             hostRefresher.stop();
         }
 
+        statisticsTracker.unregisterFromJMX();
         vdsProxy.close();
     }
 
@@ -1171,7 +1197,23 @@ public class VdsManager {
     }
 
     public boolean isTimeToRefreshStatistics() {
-        return refreshIteration.get() == NUMBER_HOST_REFRESHES_BEFORE_SAVE;
+        return refreshIteration.get() >= statisticsTracker.getRefreshesBeforeSave();
+    }
+
+    /**
+     * Brings the statistics refresh of the host back to the regular interval, to be called when the host reports a
+     * change.
+     */
+    public void speedUpStatisticsRefresh() {
+        statisticsTracker.speedUp();
+    }
+
+    public HostStatisticsTracker getStatisticsTracker() {
+        return statisticsTracker;
+    }
+
+    public MonitoringScheduler getMonitoringScheduler() {
+        return monitoringScheduler;
     }
 
     public boolean getbeforeFirstRefresh() {
@@ -31,6 +31,8 @@ import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatisticsTracker;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatsDelta;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,6 +67,8 @@ public class VmManager {
     private Double lastStatusEventTimestamp;
     private Guid lastStatusEventReporterId;
     private VmStatistics statistics;
+    private final VmStatisticsTracker statisticsTracker;
+    private final VmStatsDelta statsDelta;
 
     private boolean coldReboot;
 
@@ -100,6 +104,8 @@ public class VmManager {
         vmDevicesLock = new VmDevicesLock();
         convertOperationProgress = -1;
         statistics = new VmStatistics(vmId);
+        statisticsTracker = new VmStatisticsTracker();
+        statsDelta = new VmStatsDelta();
         vmMemoryWithOverheadInMB = 0;
         externalDataStatus = new ExternalDataStatus();
     }
@@ -166,10 +172,12 @@ public class VmManager {
     public void update(VmStatistics statistics) {
         vmStatisticsDao.update(statistics);
         setStatistics(statistics);
+        statisticsTracker.reset();
     }
 
     public void update(VmNetworkStatistics networkStatistics) {
         vmNetworkStatisticsDao.update(networkStatistics);
+        statisticsTracker.reset();
     }
 
     public void update(VmStatic vmStatic) {
@@ -260,6 +268,14 @@ public class VmManager {
         return statistics;
     }
 
+    public VmStatisticsTracker getStatisticsTracker() {
+        return statisticsTracker;
+    }
+
+    public VmStatsDelta getStatsDelta() {
+        return statsDelta;
+    }
+
     public void setStatistics(VmStatistics statistics) {
         this.statistics = statistics;
     }
@@ -55,6 +55,7 @@ public class FutureMap implements Map<String, Object> {
     private Class<?> clazz = STATUS_DONE.getClass();
     private Class<?> subTypeClazz;
     private boolean ignoreResponseKey = false;
+    private boolean typedDecoding = false;
     private long timeout = 0;
     private TimeUnit unit = TimeUnit.MILLISECONDS;
     private boolean cleanOnTimeout;
@@ -130,6 +131,8 @@ public class FutureMap implements Map<String, Object> {
         ResponseDecomposer decomposer = new ResponseDecomposer(response);
         if (decomposer.isError()) {
             this.responseMap = decomposer.decomposeError();
+        } else if (typedDecoding && !ignoreResponseKey) {
+            updateResponse(TypedResponseDecoder.decode(response.getResult()));
         } else if (Object[].class.equals(clazz) && this.subtypeKey != null && !this.subtypeKey.trim().isEmpty()
                 && this.subTypeClazz != null) {
             Object[] array = (Object[]) decomposer.decomposeResponse(this.clazz);
@@ -288,6 +291,18 @@ public class FutureMap implements Map<String, Object> {
         return this;
     }
 
+    /**
+     * During response decomposition the result is read straight from the JSON tree of the response by
+     * {@link TypedResponseDecoder}, instead of being copied into maps. The maps of the result are read-only, so it is
+     * not applied together with {@link #withIgnoreResponseKey()}, and the response type is not used.
+     *
+     * @return this <code>FutureMap</code>.
+     */
+    public FutureMap withTypedDecoding() {
+        this.typedDecoding = true;
+        return this;
+    }
+
     /**
      * @param subTypeKey - Key which is used to put subtype to result map.
      * @return this <code>FutureMap</code>.
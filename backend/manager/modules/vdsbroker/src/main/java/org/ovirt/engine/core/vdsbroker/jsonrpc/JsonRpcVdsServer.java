@@ -339,7 +339,8 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VDSInfoReturn getVdsStats() {
         JsonRpcRequest request = new RequestBuilder("Host.getStats").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.client, request).withResponseKey("info")
+                        .withTypedDecoding();
         return new VDSInfoReturn(response);
     }
 
@@ -387,16 +388,17 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VMInfoListReturn getVmStats(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.getStats").withParameter("vmID", vmId).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("statsList");
+                new FutureMap(this.client, request).withResponseKey("statsList")
+                        .withTypedDecoding();
         return new VMInfoListReturn(response);
     }
 
     @Override
-    public VMInfoListReturn getAllVmStats() {
+    public VMInfoListReturn getAllVmStats(long timeout, TimeUnit unit) {
         JsonRpcRequest request = new RequestBuilder("Host.getAllVmStats").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("statsList")
-                        .withResponseType(Object[].class);
+                new FutureMap(this.client, request, timeout, unit, true).withResponseKey("statsList")
+                        .withTypedDecoding();
         return new VMInfoListReturn(response);
     }
 
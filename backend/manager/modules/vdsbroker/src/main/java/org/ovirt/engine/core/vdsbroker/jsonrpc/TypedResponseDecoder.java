@@ -0,0 +1,114 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Decodes the result of a response straight from the JSON tree parsed by the JSON-RPC client, instead of copying the
+ * whole tree into maps and lists with {@link org.ovirt.vdsm.jsonrpc.client.ResponseDecomposer}.
+ * <p>
+ * Every value is read with its type from its node when it is accessed: strings, numbers and booleans are returned as
+ * the node holds them, arrays as <code>Object[]</code> and objects as read-only maps backed by their node. The values
+ * have the same types as the decomposed ones, so the result can be read by the code reading the decomposed maps, while
+ * the fields that are never read are never decoded.
+ */
+public final class TypedResponseDecoder {
+
+    private TypedResponseDecoder() {
+    }
+
+    /**
+     * @param node
+     *            a node of the JSON tree of a response
+     * @return the value of the node, <code>null</code> for a null or missing node
+     */
+    public static Object decode(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.textValue();
+        }
+        if (node.isNumber()) {
+            return node.numberValue();
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        if (node.isObject()) {
+            return new ObjectNodeMap(node);
+        }
+        if (node.isArray()) {
+            Object[] array = new Object[node.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = decode(node.get(i));
+            }
+            return array;
+        }
+        return node.asText();
+    }
+
+    /**
+     * A read-only map of the fields of an object node, decoded when they are read
+     */
+    private static final class ObjectNodeMap extends AbstractMap<String, Object> {
+
+        private final JsonNode node;
+
+        private ObjectNodeMap(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? decode(node.get((String) key)) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && node.has((String) key);
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return node.size() == 0;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                    return new Iterator<Map.Entry<String, Object>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return fields.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, Object> next() {
+                            Map.Entry<String, JsonNode> field = fields.next();
+                            return new SimpleImmutableEntry<>(field.getKey(), decode(field.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return node.size();
+                }
+            };
+        }
+    }
+}
@@ -60,6 +60,8 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
                     printEventInDebug(map);
                     List<Pair<VmDynamic, VdsmVm>> vms = convertEvent(map);
                     if (!vms.isEmpty()) {
+                        // A VM changed its status, the host is likely to change as well
+                        vdsManager.speedUpStatisticsRefresh();
                         addVmsToVdsManager(vms); // Prevent missing VMs on VdsManager::lastVmsList
                         getVmsMonitoring().perform(vms, fetchTime, vdsManager, false);
                         processDevices(vms.stream().map(Pair::getSecond), fetchTime);
@@ -48,6 +48,7 @@ public class HostConnectionRefresher implements HostConnectionRefresherInterface
         @Override
         public void onNext(Map<String, Object> map) {
             try {
+                vdsManager.speedUpStatisticsRefresh();
                 resourceManager.getEventListener().refreshHostCapabilities(vdsManager.getVdsId());
             } finally {
                 subscription.request(1);
@@ -119,7 +119,7 @@ public class HostMonitoring implements HostMonitoringInterface {
                 }
             } finally {
                 // save all data to db
-                saveDataToDb();
+                vdsManager.getMonitoringScheduler().runDbFlush(this::saveDataToDb);
             }
         } catch (Throwable t) {
             logFailureMessage("ResourceManager::refreshVdsRunTimeInfo:", t);
@@ -261,7 +261,7 @@ public class HostMonitoring implements HostMonitoringInterface {
 
         if (saveVdsStatistics) {
             VdsStatistics stat = vds.getStatisticsData();
-            vdsManager.updateStatisticsData(stat);
+            vdsManager.updateStatisticsDataIfChanged(stat);
             checkVdsMemoryThreshold(clusterDao.get(vds.getClusterId()), stat);
             checkVdsCpuThreshold(stat);
             checkVdsNetworkThreshold(stat);
@@ -550,12 +550,23 @@ public class HostMonitoring implements HostMonitoringInterface {
 
         alertIfLowDiskSpaceOnHost();
         checkVdsInterfaces();
+        vdsManager.getStatisticsTracker().adaptInterval(isStable(), vds.getUsageCpuPercent());
 
         if (Config.<Boolean> getValue(ConfigValues.DebugTimerLogging)) {
             log.debug("vds::refreshVdsStats\n{}", this);
         }
     }
 
+    /**
+     * The host is stable when it stayed up during this refresh and no VM migrates to or from it
+     */
+    private boolean isStable() {
+        return firstStatus == VDSStatus.Up
+                && vds.getStatus() == VDSStatus.Up
+                && vds.getIncomingMigrations() == 0
+                && vds.getOutgoingMigrations() == 0;
+    }
+
     protected void updateV2VJobs() {
         List<V2VJobInfo> v2vJobInfos = vds.getV2VJobs();
         if (v2vJobInfos != null) {
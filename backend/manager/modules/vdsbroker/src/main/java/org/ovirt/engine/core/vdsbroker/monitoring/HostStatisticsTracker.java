@@ -0,0 +1,170 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.businessentities.VdsStatistics;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the statistics refreshes of a host: remembers the statistics that were last saved to the database to skip
+ * saving unchanged ones, and adapts the number of host refreshes between two statistics refreshes.
+ * <p>
+ * Every statistics refresh that finds the host idle and stable extends the interval by the regular one, up to
+ * {@link ConfigValues#HostStatisticsMaxBackoffFactor} times the regular one. A refresh that finds the host busy or
+ * changing, and any event reported by the host, bring the interval back to the regular one. Both options are read on
+ * every statistics refresh, so they can be changed at runtime.
+ */
+public class HostStatisticsTracker implements HostStatisticsTrackerMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(HostStatisticsTracker.class);
+
+    private final Guid hostId;
+    private final long refreshRateInMillis;
+    private final int refreshesBeforeSave;
+
+    private volatile int backoffFactor = 1;
+    private VdsStatistics savedStatistics;
+    private final LongAdder savedStatisticsCount = new LongAdder();
+    private final LongAdder skippedStatisticsCount = new LongAdder();
+    private final LongAdder speedUpCount = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    /**
+     * @param refreshRateInMillis
+     *            the interval between two refreshes of the host
+     * @param refreshesBeforeSave
+     *            the regular number of refreshes between two statistics refreshes
+     */
+    public HostStatisticsTracker(Guid hostId, long refreshRateInMillis, int refreshesBeforeSave) {
+        this.hostId = hostId;
+        this.refreshRateInMillis = refreshRateInMillis;
+        this.refreshesBeforeSave = refreshesBeforeSave;
+    }
+
+    /**
+     * @return the current number of host refreshes between two statistics refreshes
+     */
+    public int getRefreshesBeforeSave() {
+        return refreshesBeforeSave * backoffFactor;
+    }
+
+    /**
+     * Returns whether the given statistics differ from the ones last saved, and if they do, remembers them as saved
+     */
+    public synchronized boolean track(VdsStatistics statistics) {
+        if (statistics.equals(savedStatistics)) {
+            skippedStatisticsCount.increment();
+            return false;
+        }
+        savedStatistics = new VdsStatistics(statistics);
+        savedStatisticsCount.increment();
+        return true;
+    }
+
+    /**
+     * Forgets the statistics last saved, to be called when the statistics are saved by other flows
+     */
+    public synchronized void reset() {
+        savedStatistics = null;
+    }
+
+    /**
+     * Adapts the statistics interval after a statistics refresh
+     *
+     * @param stable
+     *            whether the status and the migrations of the host did not change during the refresh
+     * @param cpuUsagePercent
+     *            the CPU usage reported by the host
+     */
+    public synchronized void adaptInterval(boolean stable, Integer cpuUsagePercent) {
+        int maxBackoffFactor = Math.max(1, Config.<Integer> getValue(ConfigValues.HostStatisticsMaxBackoffFactor));
+        int maxIdleCpuUsage = Config.<Integer> getValue(ConfigValues.HostStatisticsBackoffMaxCpuUsage);
+        if (stable && cpuUsagePercent != null && cpuUsagePercent <= maxIdleCpuUsage) {
+            if (backoffFactor != maxBackoffFactor) {
+                // the maximal factor may have been lowered since the last refresh
+                backoffFactor = Math.min(backoffFactor + 1, maxBackoffFactor);
+                log.debug("Host '{}' is idle, refreshing its statistics every {}ms",
+                        hostId,
+                        getEffectiveStatisticsIntervalMillis());
+            }
+        } else {
+            speedUp();
+        }
+    }
+
+    /**
+     * Brings the statistics interval back to the regular one
+     */
+    public synchronized void speedUp() {
+        if (backoffFactor > 1) {
+            backoffFactor = 1;
+            speedUpCount.increment();
+            log.debug("Host '{}' is active, refreshing its statistics every {}ms",
+                    hostId,
+                    getEffectiveStatisticsIntervalMillis());
+        }
+    }
+
+    public void registerInJMX() {
+        try {
+            objectName = new ObjectName("HostStatisticsTracker:type=" + getClass().getName() + ",host=" + hostId);
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Problem during registration of host '{}' statistics tracker into JMX: {}",
+                    hostId,
+                    e.getMessage());
+            log.debug("Exception:", e);
+        }
+    }
+
+    public void unregisterFromJMX() {
+        try {
+            if (platformMBeanServer != null) {
+                platformMBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of host statistics tracker from JMX", e);
+        }
+    }
+
+    @Override
+    public String getHostId() {
+        return hostId.toString();
+    }
+
+    @Override
+    public long getEffectiveStatisticsIntervalMillis() {
+        return refreshRateInMillis * getRefreshesBeforeSave();
+    }
+
+    @Override
+    public int getBackoffFactor() {
+        return backoffFactor;
+    }
+
+    @Override
+    public long getSavedStatisticsCount() {
+        return savedStatisticsCount.sum();
+    }
+
+    @Override
+    public long getSkippedStatisticsCount() {
+        return skippedStatisticsCount.sum();
+    }
+
+    @Override
+    public long getSpeedUpCount() {
+        return speedUpCount.sum();
+    }
+}
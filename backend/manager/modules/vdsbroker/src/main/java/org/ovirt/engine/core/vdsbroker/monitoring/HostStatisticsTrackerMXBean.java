@@ -0,0 +1,38 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+/**
+ * The following interface is used as interface for JMX bean of the statistics refresh of a host
+ */
+public interface HostStatisticsTrackerMXBean {
+
+    /**
+     * The following method will return the id of the host
+     */
+    String getHostId();
+
+    /**
+     * The following method will return the current interval in milliseconds between two statistics refreshes
+     */
+    long getEffectiveStatisticsIntervalMillis();
+
+    /**
+     * The following method will return the factor by which the regular statistics interval is currently extended
+     */
+    int getBackoffFactor();
+
+    /**
+     * The following method will return the number of times the statistics of the host were written to the database
+     */
+    long getSavedStatisticsCount();
+
+    /**
+     * The following method will return the number of statistics writes skipped because the statistics did not change
+     */
+    long getSkippedStatisticsCount();
+
+    /**
+     * The following method will return the number of times the statistics interval was brought back to the regular
+     * one
+     */
+    long getSpeedUpCount();
+}
@@ -9,7 +9,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
@@ -24,6 +23,7 @@ import org.ovirt.engine.core.common.vdscommands.VDSReturnValue;
 import org.ovirt.engine.core.common.vdscommands.VdsIdVDSCommandParametersBase;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.utils.threadpool.MonitoringScheduler;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
@@ -38,8 +38,8 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
     private static final Map<Guid, Integer> vdsIdToNumOfVms = new HashMap<>();
 
     @Inject
-    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
-    private ManagedScheduledExecutorService schedulerService;
+    @ThreadPools(ThreadPools.ThreadPoolType.HostMonitoring)
+    private MonitoringScheduler monitoringScheduler;
     @Inject
     private ResourceManager resourceManager;
     @Inject
@@ -86,7 +86,8 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
 
     public void startMonitoring() {
         vmsMonitoringJob =
-                schedulerService.scheduleWithFixedDelay(
+                monitoringScheduler.scheduleWithFixedDelay(
+                        vdsManager.getVdsId(),
                         this::poll,
                         getRefreshRate(),
                         getRefreshRate(),
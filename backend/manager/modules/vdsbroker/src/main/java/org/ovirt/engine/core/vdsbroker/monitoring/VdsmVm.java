@@ -29,6 +29,8 @@ public class VdsmVm {
     private String devicesHash;
     private String tpmDataHash;
     private String nvramDataHash;
+    /** Hash of the statistics report the data was built from, when polled in delta mode */
+    private Long payloadHash;
 
     // A map represents VM's LUN disks (LUN ID -> LUNs object)
     private Map<String, LUNs> lunsMap;
@@ -42,6 +44,26 @@ public class VdsmVm {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Creates a copy of this data with the given timestamp for an unchanged report. The dynamic data and the
+     * statistics are copied as they may be modified during the analysis, the rest is shared.
+     */
+    public VdsmVm copy(Double timestamp) {
+        return new VdsmVm(timestamp)
+                .setVmDynamic(new VmDynamic(vmDynamic))
+                .setVmStatistics(vmStatistics != null ? new VmStatistics(vmStatistics) : null)
+                .setVmGuestAgentInterfaces(vmGuestAgentInterfaces)
+                .setDevicesHash(devicesHash)
+                .setTpmDataHash(tpmDataHash)
+                .setNvramDataHash(nvramDataHash)
+                .setPayloadHash(payloadHash)
+                .setLunsMap(lunsMap)
+                .setVmJobs(vmJobs)
+                .setInterfaceStatistics(interfaceStatistics)
+                .setVmBalloonInfo(vmBalloonInfo)
+                .setDiskStatistics(diskStatistics);
+    }
+
     public Guid getId() {
         return vmDynamic.getId();
     }
@@ -182,4 +204,13 @@ public class VdsmVm {
         this.nvramDataHash = nvramDataHash;
         return this;
     }
+
+    public Long getPayloadHash() {
+        return payloadHash;
+    }
+
+    public VdsmVm setPayloadHash(Long payloadHash) {
+        this.payloadHash = payloadHash;
+        return this;
+    }
 }
@@ -1104,6 +1104,10 @@ public class VmAnalyzer {
         return vdsmVm;
     }
 
+    public VmDynamic getDbVm() {
+        return dbVm;
+    }
+
     public boolean isPoweringUp() {
         return poweringUp;
     }
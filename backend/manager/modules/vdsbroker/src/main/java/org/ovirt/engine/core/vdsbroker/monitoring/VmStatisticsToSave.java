@@ -0,0 +1,54 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * The statistics of a VM that changed since they were last saved, see {@link VmStatisticsTracker}
+ */
+public class VmStatisticsToSave {
+
+    private final Guid vmId;
+    private final VmStatistics statistics;
+    private final List<VmNetworkStatistics> networkStatistics;
+    private final Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamics;
+
+    public VmStatisticsToSave(Guid vmId,
+            VmStatistics statistics,
+            List<VmNetworkStatistics> networkStatistics,
+            Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamics) {
+        this.vmId = vmId;
+        this.statistics = statistics;
+        this.networkStatistics = networkStatistics;
+        this.diskImageDynamics = diskImageDynamics;
+    }
+
+    public Guid getVmId() {
+        return vmId;
+    }
+
+    /**
+     * @return the VM statistics or {@code null} if they did not change
+     */
+    public VmStatistics getStatistics() {
+        return statistics;
+    }
+
+    public List<VmNetworkStatistics> getNetworkStatistics() {
+        return networkStatistics;
+    }
+
+    public Collection<Pair<Guid, DiskImageDynamic>> getDiskImageDynamics() {
+        return diskImageDynamics;
+    }
+
+    public boolean isEmpty() {
+        return statistics == null && networkStatistics.isEmpty() && diskImageDynamics.isEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Remembers the statistics of a VM that were last sent to the database and filters out the ones that did not change
+ * since then.
+ * <p>
+ * The elapsed time of the VM and the sample time of its interfaces change on every report, so they alone do not make
+ * the statistics dirty. To keep them reasonably up to date, all statistics are saved once the VM had unchanged
+ * statistics skipped for the given number of consecutive cycles.
+ */
+public class VmStatisticsTracker {
+
+    private VmStatistics savedStatistics;
+    private final Map<Guid, VmNetworkStatistics> savedNetworkStatistics = new HashMap<>();
+    private final Map<Guid, DiskImageDynamic> savedDiskImageDynamics = new HashMap<>();
+    private int skippedCycles;
+
+    /**
+     * Returns the part of the given statistics that has to be saved and remembers it as saved
+     *
+     * @param maxSkippedCycles
+     *            the number of consecutive cycles unchanged statistics may be skipped, 0 or less saves all statistics
+     *            on every cycle
+     */
+    public synchronized VmStatisticsToSave track(Guid vmId,
+            VmStatistics statistics,
+            List<VmNetworkStatistics> networkStatistics,
+            Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamics,
+            int maxSkippedCycles) {
+        boolean saveAll = maxSkippedCycles <= 0 || skippedCycles >= maxSkippedCycles;
+
+        VmStatistics statisticsToSave = statistics != null && (saveAll || isChanged(statistics)) ? statistics : null;
+        List<VmNetworkStatistics> networkStatisticsToSave = saveAll ? networkStatistics
+                : networkStatistics.stream().filter(this::isChanged).collect(Collectors.toList());
+        Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamicsToSave = saveAll ? diskImageDynamics
+                : diskImageDynamics.stream().filter(pair -> isChanged(pair.getSecond())).collect(Collectors.toList());
+
+        if (statisticsToSave != null) {
+            savedStatistics = new VmStatistics(statisticsToSave);
+        }
+        networkStatisticsToSave.forEach(
+                stats -> savedNetworkStatistics.put(stats.getId(), new VmNetworkStatistics(stats)));
+        diskImageDynamicsToSave.forEach(pair -> savedDiskImageDynamics.put(pair.getSecond().getId(), pair.getSecond()));
+
+        boolean skipped = statisticsToSave != statistics
+                || networkStatisticsToSave.size() < networkStatistics.size()
+                || diskImageDynamicsToSave.size() < diskImageDynamics.size();
+        skippedCycles = skipped ? skippedCycles + 1 : 0;
+
+        return new VmStatisticsToSave(vmId, statisticsToSave, networkStatisticsToSave, diskImageDynamicsToSave);
+    }
+
+    /**
+     * Forgets the saved statistics, should be called when the statistics are written to the database by other means
+     */
+    public synchronized void reset() {
+        savedStatistics = null;
+        savedNetworkStatistics.clear();
+        savedDiskImageDynamics.clear();
+        skippedCycles = 0;
+    }
+
+    private boolean isChanged(VmStatistics statistics) {
+        if (savedStatistics == null) {
+            return true;
+        }
+        VmStatistics comparable = new VmStatistics(statistics);
+        comparable.setElapsedTime(savedStatistics.getElapsedTime());
+        return !comparable.equals(savedStatistics);
+    }
+
+    private boolean isChanged(VmNetworkStatistics statistics) {
+        VmNetworkStatistics saved = savedNetworkStatistics.get(statistics.getId());
+        if (saved == null) {
+            return true;
+        }
+        VmNetworkStatistics comparable = new VmNetworkStatistics(statistics);
+        comparable.setSampleTime(saved.getSampleTime());
+        return !comparable.equals(saved);
+    }
+
+    private boolean isChanged(DiskImageDynamic diskImageDynamic) {
+        return !Objects.equals(savedDiskImageDynamics.get(diskImageDynamic.getId()), diskImageDynamic);
+    }
+}
@@ -0,0 +1,308 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.exception.ExceptionUtils;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskImageDynamicDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the statistics reported by the VM analyzers of all hosts and writes them to the database in large batches.
+ * <p>
+ * Reports of the same VM are merged, the last report wins, so a VM is written at most once per flush no matter how
+ * many monitoring cycles passed since the previous flush. A flush is triggered every
+ * {@link ConfigValues#VmStatisticsFlushIntervalInMillis} or as soon as {@link ConfigValues#VmStatisticsFlushBatchSize}
+ * VMs are pending. When {@link ConfigValues#VmStatisticsMaxPendingVms} is reached, the submitting monitoring thread
+ * flushes synchronously, which slows down the producers until the database catches up.
+ * <p>
+ * Only statistics are written behind. Dynamic VM data drives state transitions and is still persisted synchronously
+ * by {@link VmsMonitoring}.
+ */
+@Singleton
+public class VmStatisticsWriteBehindQueue implements VmStatisticsWriteBehindQueueMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VmStatisticsWriteBehindQueue.class);
+
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService schedulerService;
+    @Inject
+    private VmStatisticsDao vmStatisticsDao;
+    @Inject
+    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
+    @Inject
+    private DiskImageDynamicDao diskImageDynamicDao;
+
+    private final Map<Guid, PendingVmStatistics> pendingVms = new ConcurrentHashMap<>();
+    /** Flushes are serialized so an older report of a VM can never be written after a newer one **/
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder flushedVms = new LongAdder();
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder backPressure = new LongAdder();
+    private volatile long lastFlushDurationMillis;
+
+    private int flushIntervalInMillis;
+    private int flushBatchSize;
+    private int maxPendingVms;
+    private ScheduledFuture<?> flushJob;
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void init() {
+        flushIntervalInMillis = Config.<Integer> getValue(ConfigValues.VmStatisticsFlushIntervalInMillis);
+        flushBatchSize = Math.max(1, Config.<Integer> getValue(ConfigValues.VmStatisticsFlushBatchSize));
+        maxPendingVms = Math.max(flushBatchSize, Config.<Integer> getValue(ConfigValues.VmStatisticsMaxPendingVms));
+        if (!isEnabled()) {
+            log.info("VM statistics write-behind is disabled, statistics are written on every monitoring cycle");
+            return;
+        }
+
+        flushJob = schedulerService.scheduleWithFixedDelay(
+                this::flushQuietly,
+                flushIntervalInMillis,
+                flushIntervalInMillis,
+                TimeUnit.MILLISECONDS);
+        registerInJMX();
+        log.info("VM statistics write-behind initialized, flush interval {}ms, batch size {}, max pending VMs {}",
+                flushIntervalInMillis,
+                flushBatchSize,
+                maxPendingVms);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        if (flushJob != null) {
+            flushJob.cancel(false);
+        }
+        flushQuietly();
+        unregisterFromJMX();
+    }
+
+    public boolean isEnabled() {
+        return flushIntervalInMillis > 0;
+    }
+
+    /**
+     * Queues a copy of the statistics of a VM, replacing any pending statistics of the same VM. The statistics are
+     * copied as the VM manager keeps updating them in place on the next monitoring cycles while they are flushed.
+     */
+    public void submit(Guid vmId,
+            VmStatistics statistics,
+            List<VmNetworkStatistics> networkStatistics,
+            Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamics) {
+        if (statistics == null && networkStatistics.isEmpty() && diskImageDynamics.isEmpty()) {
+            return;
+        }
+
+        submitted.increment();
+        pendingVms.compute(vmId, (id, pending) -> {
+            if (pending == null) {
+                pending = new PendingVmStatistics();
+            } else {
+                merged.increment();
+            }
+            pending.merge(statistics, networkStatistics, diskImageDynamics);
+            return pending;
+        });
+
+        int pendingCount = pendingVms.size();
+        if (pendingCount >= maxPendingVms) {
+            backPressure.increment();
+            log.debug("VM statistics queue is full ({} VMs), flushing on the monitoring thread", pendingCount);
+            flushQuietly();
+        } else if (pendingCount >= flushBatchSize && flushScheduled.compareAndSet(false, true)) {
+            schedulerService.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            log.error("Failed to flush VM statistics: {}", ExceptionUtils.getRootCauseMessage(t));
+            log.debug("Exception:", t);
+        }
+    }
+
+    private void flush() {
+        flushLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            // VMs reported while flushing are left for the next flush so a busy queue can not starve the caller
+            int vmsToFlush = pendingVms.size();
+            while (vmsToFlush > 0) {
+                List<PendingVmStatistics> batch = drainBatch();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                writeBatch(batch);
+                vmsToFlush -= batch.size();
+            }
+            lastFlushDurationMillis = System.currentTimeMillis() - start;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to a batch of pending VMs. A VM reported again while its previous report is being written gets a new
+     * entry which is written by the next batch.
+     */
+    private List<PendingVmStatistics> drainBatch() {
+        List<PendingVmStatistics> batch = new ArrayList<>(Math.min(flushBatchSize, pendingVms.size()));
+        for (Guid vmId : pendingVms.keySet()) {
+            PendingVmStatistics pending = pendingVms.remove(vmId);
+            if (pending != null) {
+                batch.add(pending);
+                if (batch.size() >= flushBatchSize) {
+                    break;
+                }
+            }
+        }
+        return batch;
+    }
+
+    private void writeBatch(List<PendingVmStatistics> batch) {
+        List<VmStatistics> statistics = new ArrayList<>(batch.size());
+        List<VmNetworkStatistics> networkStatistics = new ArrayList<>();
+        List<Pair<Guid, DiskImageDynamic>> diskImageDynamics = new ArrayList<>();
+        batch.forEach(pending -> {
+            if (pending.statistics != null) {
+                statistics.add(pending.statistics);
+            }
+            networkStatistics.addAll(pending.networkStatistics.values());
+            diskImageDynamics.addAll(pending.diskImageDynamics.values());
+        });
+        // sorting keeps the order of row locks the same as in the synchronous path and avoids deadlocks
+        statistics.sort(Comparator.comparing(VmStatistics::getId));
+        networkStatistics.sort(Comparator.comparing(VmNetworkStatistics::getId));
+
+        vmStatisticsDao.updateAllInBatch(statistics);
+        vmNetworkStatisticsDao.updateAllInBatch(networkStatistics);
+        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(diskImageDynamics);
+
+        flushedVms.add(batch.size());
+        flushedBatches.increment();
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("VmStatisticsWriteBehindQueue:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Problem during registration of VM statistics write-behind queue into JMX: {}", e.getMessage());
+            log.debug("Exception:", e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            if (platformMBeanServer != null) {
+                platformMBeanServer.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of VM statistics write-behind queue from JMX", e);
+        }
+    }
+
+    @Override
+    public int getPendingVmsCount() {
+        return pendingVms.size();
+    }
+
+    @Override
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    @Override
+    public long getMergedCount() {
+        return merged.sum();
+    }
+
+    @Override
+    public long getFlushedVmsCount() {
+        return flushedVms.sum();
+    }
+
+    @Override
+    public long getFlushedBatchesCount() {
+        return flushedBatches.sum();
+    }
+
+    @Override
+    public long getBackPressureCount() {
+        return backPressure.sum();
+    }
+
+    @Override
+    public long getLastFlushDurationMillis() {
+        return lastFlushDurationMillis;
+    }
+
+    /**
+     * Snapshots of the latest statistics reported for a VM, network interfaces and disks are kept by their id
+     */
+    private static class PendingVmStatistics {
+
+        private VmStatistics statistics;
+        private final Map<Guid, VmNetworkStatistics> networkStatistics = new LinkedHashMap<>();
+        private final Map<Guid, Pair<Guid, DiskImageDynamic>> diskImageDynamics = new LinkedHashMap<>();
+
+        public void merge(VmStatistics statistics,
+                List<VmNetworkStatistics> networkStatistics,
+                Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamics) {
+            if (statistics != null) {
+                this.statistics = new VmStatistics(statistics);
+            }
+            networkStatistics.forEach(stats -> this.networkStatistics.put(stats.getId(),
+                    new VmNetworkStatistics(stats)));
+            diskImageDynamics.forEach(pair -> this.diskImageDynamics.put(pair.getSecond().getId(), pair));
+        }
+    }
+}
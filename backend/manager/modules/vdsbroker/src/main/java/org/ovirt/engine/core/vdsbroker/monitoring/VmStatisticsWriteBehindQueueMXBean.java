@@ -0,0 +1,43 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+/**
+ * The following interface is used as interface for JMX bean of the VM statistics write-behind queue
+ */
+public interface VmStatisticsWriteBehindQueueMXBean {
+
+    /**
+     * The following method will return the number of VMs which have statistics waiting to be flushed
+     */
+    int getPendingVmsCount();
+
+    /**
+     * The following method will return the number of VM statistics reports submitted to the queue
+     */
+    long getSubmittedCount();
+
+    /**
+     * The following method will return the number of reports that replaced a pending report of the same VM
+     */
+    long getMergedCount();
+
+    /**
+     * The following method will return the number of VMs whose statistics were written to the database
+     */
+    long getFlushedVmsCount();
+
+    /**
+     * The following method will return the number of batches written to the database
+     */
+    long getFlushedBatchesCount();
+
+    /**
+     * The following method will return the number of times a monitoring thread had to flush synchronously because
+     * the queue was full
+     */
+    long getBackPressureCount();
+
+    /**
+     * The following method will return the duration in milliseconds of the last flush
+     */
+    long getLastFlushDurationMillis();
+}
@@ -0,0 +1,154 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
+
+/**
+ * Remembers the last statistics of a VM polled from its host, so that an identical report is neither built into
+ * objects again nor analyzed.
+ * <p>
+ * Reports are identified by a hash of the structure returned by VDSM, ignoring the fields that change on every report:
+ * the time of the report, the elapsed time of the VM and the sample time of its interfaces. An unchanged report of a
+ * running VM whose database record did not change since it was last analyzed skips the analysis, up to the given
+ * number of consecutive cycles.
+ */
+public class VmStatsDelta {
+
+    private static final Set<String> VOLATILE_KEYS = Set.of(
+            VdsProperties.statusTime,
+            VdsProperties.elapsed_time,
+            VdsProperties.sample_time);
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private long reportedHash;
+    private VdsmVm reportedVm;
+    private long analyzedHash;
+    private VmDynamic analyzedVmDynamic;
+    private int skippedCycles;
+
+    /**
+     * Computes the hash of the given VM statistics report as returned by VDSM
+     */
+    public static long hash(Map<String, Object> struct) {
+        return hashValue(struct);
+    }
+
+    private static long hashValue(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Map) {
+            // the order of the entries is not significant
+            long hash = 1;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!VOLATILE_KEYS.contains(entry.getKey())) {
+                    hash += mix(hashValue(entry.getKey()) * 31 + hashValue(entry.getValue()));
+                }
+            }
+            return hash;
+        }
+        if (value instanceof Collection) {
+            return hashElements(((Collection<?>) value).toArray());
+        }
+        if (value instanceof Object[]) {
+            return hashElements((Object[]) value);
+        }
+        return fnv(value.toString());
+    }
+
+    private static long hashElements(Object[] elements) {
+        long hash = 2;
+        for (Object element : elements) {
+            hash = mix(hash * 31 + hashValue(element));
+        }
+        return hash;
+    }
+
+    private static long fnv(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * @return the VM data that was built from the last report if it had the given hash, {@code null} otherwise
+     */
+    public synchronized VdsmVm getReportedVm(long hash) {
+        return reportedVm != null && reportedHash == hash ? reportedVm : null;
+    }
+
+    /**
+     * Remembers the VM data that was built from a report with the given hash
+     */
+    public synchronized void setReportedVm(long hash, VdsmVm vdsmVm) {
+        reportedHash = hash;
+        reportedVm = vdsmVm;
+    }
+
+    /**
+     * Checks whether the analysis of the given VM data can be skipped and counts the skipped cycle if it does
+     *
+     * @param maxSkippedCycles
+     *            the number of consecutive cycles the analysis may be skipped, 0 or less analyzes the VM on every cycle
+     */
+    public synchronized boolean skipAnalysis(VmDynamic dbVm, VdsmVm vdsmVm, int maxSkippedCycles) {
+        if (maxSkippedCycles <= 0 || skippedCycles >= maxSkippedCycles
+                || dbVm == null || vdsmVm == null || vdsmVm.getPayloadHash() == null
+                || analyzedVmDynamic == null || analyzedHash != vdsmVm.getPayloadHash()) {
+            return false;
+        }
+
+        VMStatus status = vdsmVm.getVmDynamic().getStatus();
+        if (!isStable(status) || dbVm.getStatus() != status || !Objects.equals(dbVm, analyzedVmDynamic)) {
+            return false;
+        }
+
+        skippedCycles++;
+        return true;
+    }
+
+    /**
+     * Remembers the report the given VM data was built from and the database record of the VM after the analysis
+     */
+    public synchronized void analyzed(VmDynamic dbVm, VdsmVm vdsmVm) {
+        if (dbVm == null || vdsmVm == null || vdsmVm.getPayloadHash() == null) {
+            reset();
+            return;
+        }
+        analyzedHash = vdsmVm.getPayloadHash();
+        analyzedVmDynamic = new VmDynamic(dbVm);
+        skippedCycles = 0;
+    }
+
+    /**
+     * Forgets the remembered reports, the next report of the VM is built and analyzed in full
+     */
+    public synchronized void reset() {
+        reportedVm = null;
+        analyzedVmDynamic = null;
+        skippedCycles = 0;
+    }
+
+    private static boolean isStable(VMStatus status) {
+        return status == VMStatus.Up || status == VMStatus.Paused;
+    }
+}
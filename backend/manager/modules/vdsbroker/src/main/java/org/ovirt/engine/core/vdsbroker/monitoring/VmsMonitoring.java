@@ -13,7 +13,8 @@ import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.IVdsEventListener;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
-import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.TransactionScopeOption;
@@ -25,6 +26,8 @@ import org.ovirt.engine.core.dao.VmGuestAgentInterfaceDao;
 import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.threadpool.MonitoringScheduler;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
@@ -65,6 +68,11 @@ public class VmsMonitoring {
     private VmNetworkInterfaceDao vmNetworkInterfaceDao;
     @Inject
     private VdsDynamicDao vdsDynamicDao;
+    @Inject
+    private VmStatisticsWriteBehindQueue vmStatisticsWriteBehindQueue;
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.HostMonitoring)
+    private MonitoringScheduler monitoringScheduler;
 
     private static final Logger log = LoggerFactory.getLogger(VmsMonitoring.class);
 
@@ -91,10 +99,14 @@ public class VmsMonitoring {
 
         List<VmAnalyzer> vmAnalyzers = Collections.emptyList();
         try {
-            vmAnalyzers = analyzeVms(monitoredVms, fetchTime, vdsManager, updateStatistics);
+            int maxSkippedAnalyses = Config.<Integer> getValue(ConfigValues.VmStatsMaxSkippedAnalyses);
+            vmAnalyzers = analyzeVms(monitoredVms, fetchTime, vdsManager, updateStatistics, maxSkippedAnalyses);
             // It is important to add the unmanaged VMs before flushing the dynamic data into the database
             addUnmanagedVms(vmAnalyzers, vdsManager.getVdsId());
             flush(vmAnalyzers);
+            if (maxSkippedAnalyses > 0) {
+                rememberAnalyzedVms(vmAnalyzers);
+            }
             postFlush(vmAnalyzers, vdsManager, fetchTime);
             vdsManager.vmsMonitoringInitFinished();
         } catch (RuntimeException ex) {
@@ -119,16 +131,23 @@ public class VmsMonitoring {
      * Skip analysis on VMs which cannot be locked
      * note: metrics calculation like memCommited and vmsCoresCount should be calculated *before*
      *   this filtering.
+     * Skip analysis on running VMs whose reported data and database record did not change since their last analysis
      * @return The analyzers which hold all the data per VM
      */
     private List<VmAnalyzer> analyzeVms(
             List<Pair<VmDynamic, VdsmVm>> monitoredVms,
             long fetchTime,
             VdsManager vdsManager,
-            boolean updateStatistics) {
+            boolean updateStatistics,
+            int maxSkippedAnalyses) {
         VmAnalyzerFactory vmAnalyzerFactory = getVmAnalyzerFactory(vdsManager, updateStatistics);
         List<VmAnalyzer> vmAnalyzers = new ArrayList<>(monitoredVms.size());
-        monitoredVms.forEach(vm -> {
+        int unchangedVms = 0;
+        for (Pair<VmDynamic, VdsmVm> vm : monitoredVms) {
+            if (maxSkippedAnalyses > 0 && isUnchangedVm(vm, maxSkippedAnalyses)) {
+                unchangedVms++;
+                continue;
+            }
             // TODO filter out migratingTo VMs if no action is taken on them
             if (shouldAnalyzeVm(vm, fetchTime, vdsManager.getVdsId())) {
                 try {
@@ -144,11 +163,32 @@ public class VmsMonitoring {
                     log.error("Exception:", ex);
                 }
             }
-        });
+        }
+        if (maxSkippedAnalyses > 0) {
+            log.debug("Skipped analysis of {} out of {} VMs with unchanged data on host '{}'({})",
+                    unchangedVms,
+                    monitoredVms.size(),
+                    vdsManager.getVdsName(),
+                    vdsManager.getVdsId());
+        }
         vmAnalyzers.sort(Comparator.comparing(VmAnalyzer::getVmId));
         return vmAnalyzers;
     }
 
+    private boolean isUnchangedVm(Pair<VmDynamic, VdsmVm> pair, int maxSkippedAnalyses) {
+        return getVmManager(getVmId(pair.getFirst(), pair.getSecond())).getStatsDelta()
+                .skipAnalysis(pair.getFirst(), pair.getSecond(), maxSkippedAnalyses);
+    }
+
+    /**
+     * Remembers the data the VMs were analyzed with, so the analysis of unchanged VMs can be skipped on the next cycles
+     */
+    private void rememberAnalyzedVms(List<VmAnalyzer> vmAnalyzers) {
+        vmAnalyzers.forEach(vmAnalyzer -> getVmManager(vmAnalyzer.getVmId()).getStatsDelta().analyzed(
+                vmAnalyzer.getVmDynamicToSave() != null ? vmAnalyzer.getVmDynamicToSave() : vmAnalyzer.getDbVm(),
+                vmAnalyzer.getVdsmVm()));
+    }
+
     protected VmAnalyzerFactory getVmAnalyzerFactory(VdsManager vdsManager, boolean statistics) {
         return new VmAnalyzerFactory(
                 vdsManager,
@@ -281,16 +321,49 @@ public class VmsMonitoring {
     }
 
     private void flush(List<VmAnalyzer> vmAnalyzers) {
+        // the number of hosts flushing at the same time is bounded, not to exhaust the database connections
+        monitoringScheduler.runDbFlush(() -> saveToDb(vmAnalyzers));
+    }
+
+    private void saveToDb(List<VmAnalyzer> vmAnalyzers) {
         saveVmGuestAgentNetworkDevices(vmAnalyzers);
         saveVmDynamic(vmAnalyzers);
-        saveVmStatistics(vmAnalyzers);
-        saveVmInterfaceStatistics(vmAnalyzers);
-        saveVmDiskImageStatistics(vmAnalyzers);
+        List<VmStatisticsToSave> statisticsToSave = getChangedStatistics(vmAnalyzers);
+        if (vmStatisticsWriteBehindQueue.isEnabled()) {
+            submitVmStatistics(statisticsToSave);
+        } else {
+            saveVmStatistics(statisticsToSave);
+            saveVmInterfaceStatistics(statisticsToSave);
+            saveVmDiskImageStatistics(statisticsToSave);
+        }
+        updateVmManagersStatistics(vmAnalyzers);
     }
 
-    private void saveVmDiskImageStatistics(List<VmAnalyzer> vmAnalyzers) {
-        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmDiskImageDynamicToSave)
+    /**
+     * Filters out the statistics that did not change since they were last saved
+     */
+    private List<VmStatisticsToSave> getChangedStatistics(List<VmAnalyzer> vmAnalyzers) {
+        int maxSkippedSaves = Config.<Integer> getValue(ConfigValues.VmStatisticsMaxSkippedSaves);
+        List<VmStatisticsToSave> statisticsToSave = vmAnalyzers.stream()
+                .map(vmAnalyzer -> getVmManager(vmAnalyzer.getVmId()).getStatisticsTracker().track(
+                        vmAnalyzer.getVmId(),
+                        vmAnalyzer.getVmStatisticsToSave(),
+                        vmAnalyzer.getVmNetworkStatistics(),
+                        vmAnalyzer.getVmDiskImageDynamicToSave(),
+                        maxSkippedSaves))
+                .filter(statistics -> !statistics.isEmpty())
+                .collect(Collectors.toList());
+        if (statisticsToSave.size() < vmAnalyzers.size()) {
+            log.debug("Skipped saving unchanged statistics of {} out of {} VMs",
+                    vmAnalyzers.size() - statisticsToSave.size(),
+                    vmAnalyzers.size());
+        }
+        return statisticsToSave;
+    }
+
+    private void saveVmDiskImageStatistics(List<VmStatisticsToSave> statisticsToSave) {
+        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(statisticsToSave.stream()
+                .map(VmStatisticsToSave::getDiskImageDynamics)
                 .flatMap(Collection::stream)
                 .collect(Collectors.toList()));
     }
@@ -302,20 +375,38 @@ public class VmsMonitoring {
                 .collect(Collectors.toList()));
     }
 
-    private void saveVmInterfaceStatistics(List<VmAnalyzer> vmAnalyzers) {
-        vmNetworkStatisticsDao.updateAllInBatch(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmNetworkStatistics)
+    private void saveVmInterfaceStatistics(List<VmStatisticsToSave> statisticsToSave) {
+        vmNetworkStatisticsDao.updateAllInBatch(statisticsToSave.stream()
+                .map(VmStatisticsToSave::getNetworkStatistics)
                 .flatMap(List::stream)
                 .collect(Collectors.toList()));
     }
 
-    private void saveVmStatistics(List<VmAnalyzer> vmAnalyzers) {
-        List<VmStatistics> statistics = vmAnalyzers.stream()
+    private void saveVmStatistics(List<VmStatisticsToSave> statisticsToSave) {
+        vmStatisticsDao.updateAllInBatch(statisticsToSave.stream()
+                .map(VmStatisticsToSave::getStatistics)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Hands the statistics over to the write-behind queue
+     */
+    private void submitVmStatistics(List<VmStatisticsToSave> statisticsToSave) {
+        statisticsToSave.forEach(statistics -> vmStatisticsWriteBehindQueue.submit(statistics.getVmId(),
+                statistics.getStatistics(),
+                statistics.getNetworkStatistics(),
+                statistics.getDiskImageDynamics()));
+    }
+
+    /**
+     * The in-memory statistics held by the VM managers are updated whether or not they were saved
+     */
+    private void updateVmManagersStatistics(List<VmAnalyzer> vmAnalyzers) {
+        vmAnalyzers.stream()
                 .map(VmAnalyzer::getVmStatisticsToSave)
                 .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        vmStatisticsDao.updateAllInBatch(statistics);
-        statistics.forEach(stats -> getVmManager(stats.getId()).setStatistics(stats));
+                .forEach(stats -> getVmManager(stats.getId()).setStatistics(stats));
     }
 
     protected void addUnmanagedVms(List<VmAnalyzer> vmAnalyzers, Guid vdsId) {
@@ -2,8 +2,11 @@ package org.ovirt.engine.core.vdsbroker.vdsbroker;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.vdscommands.VdsIdVDSCommandParametersBase;
 import org.ovirt.engine.core.utils.log.Logged;
 import org.ovirt.engine.core.utils.log.Logged.LogLevel;
@@ -18,7 +21,9 @@ public class GetAllVmStatsVDSCommand<P extends VdsIdVDSCommandParametersBase> ex
 
     @Override
     protected void executeVdsBrokerCommand() {
-        vmListReturn = getBroker().getAllVmStats();
+        // the VMs are polled on a monitoring thread shared with other hosts, so a host that doesn't answer must not
+        // hold it for longer than the polling interval
+        vmListReturn = getBroker().getAllVmStats(getPollingIntervalInSeconds(), TimeUnit.SECONDS);
         proceedProxyReturnValue();
         List<VdsmVm> returnVMs = Arrays.stream(vmListReturn.infoList)
                 .map(this::createVdsmVm)
@@ -26,6 +31,11 @@ public class GetAllVmStatsVDSCommand<P extends VdsIdVDSCommandParametersBase> ex
         setReturnValue(returnVMs);
     }
 
+    private long getPollingIntervalInSeconds() {
+        return Config.<Long> getValue(ConfigValues.VdsRefreshRate)
+                * Config.<Integer> getValue(ConfigValues.NumberVmRefreshesBeforeSave);
+    }
+
     @Override
     protected boolean getIsPrintReturnValue() {
         return false;
@@ -113,7 +113,10 @@ public interface IVdsServer {
 
     VMInfoListReturn getVmStats(String vmId);
 
-    VMInfoListReturn getAllVmStats();
+    /**
+     * Gets the statistics of all the VMs running on the host, waiting for them no longer than the given timeout
+     */
+    VMInfoListReturn getAllVmStats(long timeout, TimeUnit unit);
 
     VmExternalDataReturn getVmExternalData(String vmId, VmExternalDataKind kind, boolean forceUpdate);
 
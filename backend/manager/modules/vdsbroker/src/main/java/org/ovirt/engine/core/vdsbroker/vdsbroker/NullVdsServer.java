@@ -179,7 +179,7 @@ public class NullVdsServer implements IVdsServer {
         return null;
     }
 
-    @Override public VMInfoListReturn getAllVmStats() {
+    @Override public VMInfoListReturn getAllVmStats(long timeout, TimeUnit unit) {
         return null;
     }
 
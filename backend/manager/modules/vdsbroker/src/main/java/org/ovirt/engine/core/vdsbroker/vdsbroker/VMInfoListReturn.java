@@ -1,6 +1,5 @@
 package org.ovirt.engine.core.vdsbroker.vdsbroker;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @SuppressWarnings("unchecked")
@@ -15,7 +14,7 @@ public final class VMInfoListReturn {
         status = new Status((Map<String, Object>) innerMap.get(STATUS));
         Object[] temp = (Object[]) innerMap.get(STATS_LIST);
         if (temp != null) {
-            infoList = new HashMap[temp.length];
+            infoList = new Map[temp.length];
             for (int i = 0; i < temp.length; i++) {
                 infoList[i] = (Map<String, Object>) temp[i];
             }
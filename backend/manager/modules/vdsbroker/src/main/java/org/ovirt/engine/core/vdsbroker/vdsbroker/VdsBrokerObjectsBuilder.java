@@ -141,6 +141,8 @@ public class VdsBrokerObjectsBuilder {
     private static final Comparator<VdsNumaNode> numaNodeComparator = Comparator.comparing(VdsNumaNode::getIndex);
     private static final Pattern IPV6_ADDRESS_CAPTURE_PREFIX_PATTERN = Pattern.compile("^.*?/(\\d+)?$");
     private static final Pattern IPV6_ADDRESS_CAPTURE_PATTERN = Pattern.compile("^([^/]+)(:?/\\d{1,3})?$");
+    private static final ThreadLocal<DateFormat> DATETIME_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss z"));
 
     @Inject
     private AuditLogDirector auditLogDirector;
@@ -445,6 +447,10 @@ public class VdsBrokerObjectsBuilder {
         return -1d;
     }
 
+    public Double getVmElapsedTime(Map<String, Object> struct) {
+        return assignDoubleValue(struct, VdsProperties.elapsed_time);
+    }
+
     public String getVmDevicesHash(Map<String, Object> struct) {
         if (struct.containsKey(VdsProperties.hash)) {
             return (String) struct.get(VdsProperties.hash);
@@ -596,7 +602,7 @@ public class VdsBrokerObjectsBuilder {
 
         // negative monitorResponse means it is erroneous
         if (struct.containsKey(VdsProperties.monitorResponse)) {
-            int response = Integer.parseInt(struct.get(VdsProperties.monitorResponse).toString());
+            int response = toInt(struct.get(VdsProperties.monitorResponse));
             if (response < 0 && vm.getStatus().isGuestCpuRunning()) {
                 vm.setStatus(VMStatus.NotResponding);
             }
@@ -873,16 +879,16 @@ public class VdsBrokerObjectsBuilder {
         if (struct.containsKey(VdsProperties.vm_guest_mem_stats)) {
             Map<String, Object> sub = (Map<String, Object>)struct.get(VdsProperties.vm_guest_mem_stats);
             if (sub.containsKey(VdsProperties.vm_guest_mem_buffered)) {
-                vm.setGuestMemoryBuffered(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_buffered).toString()));
+                vm.setGuestMemoryBuffered(toLong(sub.get(VdsProperties.vm_guest_mem_buffered)));
             }
             if (sub.containsKey(VdsProperties.vm_guest_mem_cached)) {
-                vm.setGuestMemoryCached(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_cached).toString()));
+                vm.setGuestMemoryCached(toLong(sub.get(VdsProperties.vm_guest_mem_cached)));
             }
             if (sub.containsKey(VdsProperties.vm_guest_mem_free)) {
-                vm.setGuestMemoryFree(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_free).toString()));
+                vm.setGuestMemoryFree(toLong(sub.get(VdsProperties.vm_guest_mem_free)));
             }
             if (sub.containsKey(VdsProperties.vm_guest_mem_unused)) {
-                vm.setGuestMemoryUnused(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_unused).toString()));
+                vm.setGuestMemoryUnused(toLong(sub.get(VdsProperties.vm_guest_mem_unused)));
             }
         }
 
@@ -1607,18 +1613,11 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static InterfaceStatus assignInterfaceStatusValue(Map<String, Object> input, String name) {
-        InterfaceStatus ifaceStatus = InterfaceStatus.NONE;
-        if (input.containsKey(name)) {
-            String stringValue = (String) ((input.get(name) instanceof String) ? input.get(name) : null);
-            if (!StringUtils.isEmpty(stringValue)) {
-                if (stringValue.toLowerCase().trim().equals("up")) {
-                    ifaceStatus = InterfaceStatus.UP;
-                } else {
-                    ifaceStatus = InterfaceStatus.DOWN;
-                }
-            }
+        Object value = input.get(name);
+        if (!(value instanceof String) || ((String) value).isEmpty()) {
+            return InterfaceStatus.NONE;
         }
-        return ifaceStatus;
+        return "up".equalsIgnoreCase(((String) value).trim()) ? InterfaceStatus.UP : InterfaceStatus.DOWN;
     }
 
     private static Double assignDoubleValue(Map<String, Object> input, String name) {
@@ -1643,69 +1642,77 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static Integer assignIntValue(Map input, String name) {
-        if (input.containsKey(name)) {
-            if (input.get(name) instanceof Integer) {
-                return (Integer) input.get(name);
-            }
-            String stringValue = (String) input.get(name);
-            if (StringUtils.isNotEmpty(stringValue)) { // in case the input
-                                                       // is decimal and we
-                                                       // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
-
-                try {
-                    return Integer.parseInt(stringValue);
-                } catch (NumberFormatException nfe) {
-                    log.error("Failed to parse '{}' value '{}' to integer: {}", name, stringValue, nfe.getMessage());
-                }
+        Object value = input.get(name);
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        String stringValue = (String) value;
+        if (StringUtils.isNotEmpty(stringValue)) {
+            // in case the input is decimal and we need int
+            stringValue = integralPart(stringValue);
+            try {
+                return Integer.parseInt(stringValue);
+            } catch (NumberFormatException nfe) {
+                log.error("Failed to parse '{}' value '{}' to integer: {}", name, stringValue, nfe.getMessage());
             }
         }
         return null;
     }
 
     private static Long assignLongValue(Map<String, Object> input, String name) {
-        if (input.containsKey(name)) {
-            if (input.get(name) instanceof Long || input.get(name) instanceof Integer) {
-                return Long.parseLong(input.get(name).toString());
-            }
-            String stringValue = (String) ((input.get(name) instanceof String) ? input.get(name) : null);
-            if (!StringUtils.isEmpty(stringValue)) { // in case the input
-                                                     // is decimal and we
-                                                     // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
-
-                try {
-                    return Long.parseLong(stringValue);
-                } catch (NumberFormatException e) {
-                    log.error("Failed to parse '{}' value '{}' to long: {}", name, stringValue, e.getMessage());
-                }
+        Object value = input.get(name);
+        if (value instanceof Long || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String && !((String) value).isEmpty()) {
+            // in case the input is decimal and we need long
+            String stringValue = integralPart((String) value);
+            try {
+                return Long.parseLong(stringValue);
+            } catch (NumberFormatException e) {
+                log.error("Failed to parse '{}' value '{}' to long: {}", name, stringValue, e.getMessage());
             }
         }
         return null;
     }
 
+    /**
+     * Returns the part of the given number before the decimal point, without the regular expression split
+     */
+    private static String integralPart(String value) {
+        int point = value.indexOf('.');
+        return point < 0 ? value : value.substring(0, point);
+    }
+
+    private static int toInt(Object value) {
+        return value instanceof Integer ? (Integer) value : Integer.parseInt(value.toString());
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Long || value instanceof Integer
+                ? ((Number) value).longValue()
+                : Long.parseLong(value.toString());
+    }
+
     private static String assignStringValue(Map<String, Object> input, String name) {
-        if (input.containsKey(name)) {
-            return (String) ((input.get(name) instanceof String) ? input.get(name) : null);
-        }
-        return null;
+        Object value = input.get(name);
+        return value instanceof String ? (String) value : null;
     }
 
     private static String[] assignStringArrayValue(Map<String, Object> input, String name) {
-        String[] array = null;
-        if (input.containsKey(name)) {
-            array = (String[]) ((input.get(name) instanceof String[]) ? input.get(name) : null);
-            if (array == null) {
-                Object[] arr2 = (Object[]) ((input.get(name) instanceof Object[]) ? input.get(name) : null);
-                if (arr2 != null) {
-                    array = new String[arr2.length];
-                    for (int i = 0; i < arr2.length; i++) {
-                        array[i] = arr2[i].toString();
-                    }
-                }
+        Object value = input.get(name);
+        if (value instanceof String[]) {
+            return (String[]) value;
+        }
+        if (value instanceof Object[]) {
+            Object[] arr2 = (Object[]) value;
+            String[] array = new String[arr2.length];
+            for (int i = 0; i < arr2.length; i++) {
+                array[i] = arr2[i].toString();
             }
+            return array;
         }
-        return array;
+        return null;
     }
 
     private static String assignStringValueFromArray(Map<String, Object> input, String name) {
@@ -1718,13 +1725,13 @@ public class VdsBrokerObjectsBuilder {
 
     private static Date assignDatetimeValue(Map<String, Object> input, String name) {
         if (input.containsKey(name)) {
-            if (input.get(name) instanceof Date) {
-                return (Date) input.get(name);
+            Object value = input.get(name);
+            if (value instanceof Date) {
+                return (Date) value;
             }
-            DateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss z");
-            String dateStr = input.get(name).toString().replaceFirst("T", " ").trim();
+            String dateStr = value.toString().replaceFirst("T", " ").trim();
             try {
-                return formatter.parse(dateStr);
+                return DATETIME_FORMAT.get().parse(dateStr);
             } catch (ParseException e) {
                 log.error("Failed parsing {}", dateStr, e);
             }
@@ -1734,10 +1741,11 @@ public class VdsBrokerObjectsBuilder {
 
     private static Boolean assignBoolValue(Map<String, Object> input, String name) {
         if (input.containsKey(name)) {
-            if (input.get(name) instanceof Boolean) {
-                return (Boolean) input.get(name);
+            Object value = input.get(name);
+            if (value instanceof Boolean) {
+                return (Boolean) value;
             }
-            return Boolean.parseBoolean(input.get(name).toString());
+            return Boolean.parseBoolean(value.toString());
         }
         return Boolean.FALSE;
     }
@@ -5,9 +5,12 @@ import java.util.Map;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.vdscommands.VdsIdVDSCommandParametersBase;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatsDelta;
 
 public abstract class VmStatsVdsBrokerCommand<P extends VdsIdVDSCommandParametersBase> extends VdsBrokerCommand<P> {
     @Inject
@@ -29,7 +32,34 @@ public abstract class VmStatsVdsBrokerCommand<P extends VdsIdVDSCommandParameter
         return vmListReturn;
     }
 
+    /**
+     * Creates the data of the VM from the given report. When the analysis of unchanged VMs may be skipped, a report
+     * that did not change since the previous one is not built again but copied from the data built from it.
+     */
     protected VdsmVm createVdsmVm(Map<String, Object> struct) {
+        if (Config.<Integer> getValue(ConfigValues.VmStatsMaxSkippedAnalyses) <= 0
+                || !struct.containsKey(VdsProperties.vm_guid)) {
+            return buildVdsmVm(struct);
+        }
+
+        long hash = VmStatsDelta.hash(struct);
+        Guid vmId = new Guid((String) struct.get(VdsProperties.vm_guid));
+        VmStatsDelta statsDelta = resourceManager.getVmManager(vmId).getStatsDelta();
+        VdsmVm reportedVm = statsDelta.getReportedVm(hash);
+        if (reportedVm != null) {
+            VdsmVm vdsmVm = reportedVm.copy(vdsBrokerObjectsBuilder.getVdsmCallTimestamp(struct));
+            if (vdsmVm.getVmStatistics() != null) {
+                vdsmVm.getVmStatistics().setElapsedTime(vdsBrokerObjectsBuilder.getVmElapsedTime(struct));
+            }
+            return vdsmVm;
+        }
+
+        VdsmVm vdsmVm = buildVdsmVm(struct).setPayloadHash(hash);
+        statsDelta.setReportedVm(hash, vdsmVm.copy(vdsmVm.getTimestamp()));
+        return vdsmVm;
+    }
+
+    private VdsmVm buildVdsmVm(Map<String, Object> struct) {
         VmDynamic vmDynamic = vdsBrokerObjectsBuilder.buildVMDynamicData(struct, getVds());
         Guid vmId = vmDynamic.getId();
         return new VdsmVm(vdsBrokerObjectsBuilder.getVdsmCallTimestamp(struct))
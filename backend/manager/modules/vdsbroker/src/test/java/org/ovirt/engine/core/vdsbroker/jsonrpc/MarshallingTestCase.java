@@ -1,7 +1,10 @@
 package org.ovirt.engine.core.vdsbroker.jsonrpc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -24,6 +27,7 @@ import org.ovirt.engine.core.vdsbroker.vdsbroker.IQNListReturn;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.ServerConnectionStatusReturn;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.Status;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VDSInfoReturn;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VMInfoListReturn;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VMListReturn;
 import org.ovirt.vdsm.jsonrpc.client.JsonRpcClient;
 import org.ovirt.vdsm.jsonrpc.client.JsonRpcRequest;
@@ -427,6 +431,124 @@ public class MarshallingTestCase {
         assertEquals(37, parseFullTargets(list.getIqnList()).size());
     }
 
+    @Test
+    public void testGetAllVmStatsTypedDecoding() throws Exception {
+        // Given
+        String json = "{\"jsonrpc\": \"2.0\", \"id\": \"0ab4d1b2-4e35-4d4f-9d4a-3b8c4e0a8f21\", \"result\": ["
+                + "{\"vmId\": \"6f1e3a2c-1b4d-4c2e-9f0a-1d2e3f4a5b6c\", \"status\": \"Up\", "
+                + "\"elapsedTime\": \"86400\", \"statusTime\": 4295000123, \"guestCPUCount\": -1, \"cpuUser\": 1.25, "
+                + "\"acpiEnable\": \"true\", "
+                + "\"pauseCode\": null, \"monitorResponse\": \"0\", \"kvmEnable\": true, "
+                + "\"appsList\": [\"kernel-5.14.0\", \"qemu-guest-agent-6.2.0\"], \"vmJobs\": {}, "
+                + "\"balloonInfo\": {\"balloon_cur\": \"4194304\", \"balloon_max\": 4194304}, "
+                + "\"network\": {\"vnet0\": {\"name\": \"vnet0\", \"rx\": \"123456789\", \"sampleTime\": 4295000.12, "
+                + "\"rxDropped\": 0}}, "
+                + "\"disks\": {\"vda\": {\"readRate\": \"1024.0\", \"readOps\": 1000, \"apparentsize\": 10737418240}}, "
+                + "\"displayInfo\": [{\"type\": \"vnc\", \"port\": \"5900\", \"tlsPort\": -1}, []]}, "
+                + "{\"vmId\": \"7a2b4c6d-8e0f-4a1b-8c3d-5e7f9a1b3c5d\", \"status\": \"Down\", \"exitCode\": 0}]}";
+        JsonRpcClient client = mockClient(json);
+        JsonRpcRequest request = mock(JsonRpcRequest.class);
+
+        // When
+        VMInfoListReturn decomposed = new VMInfoListReturn(
+                new FutureMap(client, request).withResponseKey("statsList").withResponseType(Object[].class));
+        VMInfoListReturn decoded = new VMInfoListReturn(
+                new FutureMap(client, request).withResponseKey("statsList").withTypedDecoding());
+
+        // Then
+        assertEquals("Done", decoded.status.message);
+        assertEquals(0, decoded.status.code);
+        assertEquals(2, decoded.infoList.length);
+        for (int i = 0; i < decoded.infoList.length; i++) {
+            assertSameValue(decomposed.infoList[i], decoded.infoList[i]);
+        }
+        assertEquals(4295000123L, decoded.infoList[0].get("statusTime"));
+        assertEquals(-1, decoded.infoList[0].get("guestCPUCount"));
+        assertTrue(decoded.infoList[0].containsKey("pauseCode"));
+        assertNull(decoded.infoList[0].get("pauseCode"));
+        assertNull(decoded.infoList[0].get("exitCode"));
+        assertThrows(UnsupportedOperationException.class, () -> decoded.infoList[0].put("status", "Down"));
+    }
+
+    @Test
+    public void testGetStatsTypedDecoding() throws Exception {
+        // Given
+        String json = "{\"jsonrpc\": \"2.0\", \"id\": \"1bc5e2c3-5f46-4e5a-8e5b-4c9d5f1b9a32\", \"result\": {"
+                + "\"memUsed\": \"45\", \"cpuSys\": \"3.25\", \"cpuLoad\": \"4.20\", \"ksmState\": false, "
+                + "\"vmCount\": 100, \"bootTime\": \"1700000000\", \"haScore\": 3400, "
+                + "\"network\": {\"em1\": {\"name\": \"em1\", \"speed\": \"1000\", \"rxRate\": \"0.0\", "
+                + "\"sampleTime\": 1700000000.5}}, "
+                + "\"numaNodeMemFree\": {\"0\": {\"memFree\": \"65536\", \"memPercent\": 12}}, "
+                + "\"hugepages\": {\"2048\": {\"nr_hugepages\": \"0\", \"vm.free_hugepages\": \"0\"}}, "
+                + "\"v2vJobs\": {}, \"storageDomains\": {}}}";
+        JsonRpcClient client = mockClient(json);
+        JsonRpcRequest request = mock(JsonRpcRequest.class);
+
+        // When
+        VDSInfoReturn decomposed = new VDSInfoReturn(new FutureMap(client, request).withResponseKey("info"));
+        VDSInfoReturn decoded =
+                new VDSInfoReturn(new FutureMap(client, request).withResponseKey("info").withTypedDecoding());
+
+        // Then
+        assertEquals("Done", decoded.status.message);
+        assertSameValue(decomposed.info, decoded.info);
+    }
+
+    @Test
+    public void testVdsStatsErrorTypedDecoding() throws Exception {
+        // Given
+        String json = "{\"jsonrpc\": \"2.0\", \"id\": \"2cd6f3d4-6a57-4f6b-9f6c-5dae6a2cab43\", "
+                + "\"error\": {\"code\": 100, \"message\": \"General Exception\"}}";
+        JsonRpcClient client = mockClient(json);
+        JsonRpcRequest request = mock(JsonRpcRequest.class);
+
+        // When
+        VDSInfoReturn decoded =
+                new VDSInfoReturn(new FutureMap(client, request).withResponseKey("info").withTypedDecoding());
+
+        // Then
+        assertEquals(100, decoded.status.code);
+        assertEquals("General Exception", decoded.status.message);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonRpcClient mockClient(String json) throws Exception {
+        JsonRpcResponse response = JsonRpcResponse.fromJsonNode(new ObjectMapper().readTree(json));
+        Future<JsonRpcResponse> future = mock(Future.class);
+        when(future.get()).thenReturn(response);
+        JsonRpcClient client = mock(JsonRpcClient.class);
+        when(client.call(any())).thenReturn(future);
+        return client;
+    }
+
+    /**
+     * Checks the typed decoding reads the same values, of the same types, as the decomposition
+     */
+    private void assertSameValue(Object expected, Object actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else if (expected instanceof Map) {
+            Map<?, ?> expectedMap = (Map<?, ?>) expected;
+            assertTrue(actual instanceof Map);
+            Map<?, ?> actualMap = (Map<?, ?>) actual;
+            assertEquals(expectedMap.keySet(), actualMap.keySet());
+            for (Map.Entry<?, ?> entry : expectedMap.entrySet()) {
+                assertSameValue(entry.getValue(), actualMap.get(entry.getKey()));
+            }
+        } else if (expected instanceof Object[]) {
+            Object[] expectedArray = (Object[]) expected;
+            assertTrue(actual instanceof Object[]);
+            Object[] actualArray = (Object[]) actual;
+            assertEquals(expectedArray.length, actualArray.length);
+            for (int i = 0; i < expectedArray.length; i++) {
+                assertSameValue(expectedArray[i], actualArray[i]);
+            }
+        } else {
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected, actual);
+        }
+    }
+
     // copied from DiscoverSendTargetsVDSCommand
     private List<StorageServerConnections> parseFullTargets(List<String> iqnList) {
         ArrayList<StorageServerConnections> connections = new ArrayList<>(iqnList.size());
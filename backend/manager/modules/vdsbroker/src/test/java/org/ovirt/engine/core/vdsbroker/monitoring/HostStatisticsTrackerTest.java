@@ -0,0 +1,121 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ovirt.engine.core.common.businessentities.VdsStatistics;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+
+@ExtendWith(MockConfigExtension.class)
+public class HostStatisticsTrackerTest {
+
+    private static final long REFRESH_RATE = 3000;
+    private static final int REFRESHES_BEFORE_SAVE = 5;
+    private static final int MAX_BACKOFF_FACTOR = 3;
+    private static final int MAX_IDLE_CPU_USAGE = 50;
+
+    private HostStatisticsTracker tracker;
+    private Guid hostId;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.HostStatisticsMaxBackoffFactor, MAX_BACKOFF_FACTOR),
+                MockConfigDescriptor.of(ConfigValues.HostStatisticsBackoffMaxCpuUsage, MAX_IDLE_CPU_USAGE)
+        );
+    }
+
+    public static Stream<MockConfigDescriptor<?>> backoffDisabledConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.HostStatisticsMaxBackoffFactor, 1),
+                MockConfigDescriptor.of(ConfigValues.HostStatisticsBackoffMaxCpuUsage, MAX_IDLE_CPU_USAGE)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        hostId = Guid.newGuid();
+        tracker = new HostStatisticsTracker(hostId, REFRESH_RATE, REFRESHES_BEFORE_SAVE);
+    }
+
+    @Test
+    public void unchangedStatisticsAreSkipped() {
+        assertTrue(tracker.track(createStatistics(10)));
+        assertFalse(tracker.track(createStatistics(10)));
+        assertEquals(1, tracker.getSavedStatisticsCount());
+        assertEquals(1, tracker.getSkippedStatisticsCount());
+    }
+
+    @Test
+    public void statisticsMutatedInPlaceAreDetected() {
+        VdsStatistics statistics = createStatistics(10);
+        tracker.track(statistics);
+        statistics.setUsageCpuPercent(30);
+        assertTrue(tracker.track(statistics));
+    }
+
+    @Test
+    public void statisticsAreSavedAfterReset() {
+        tracker.track(createStatistics(10));
+        tracker.reset();
+        assertTrue(tracker.track(createStatistics(10)));
+    }
+
+    @Test
+    public void idleHostBacksOffUpToMaxFactor() {
+        for (int i = 0; i < MAX_BACKOFF_FACTOR + 1; ++i) {
+            tracker.adaptInterval(true, 10);
+        }
+        assertEquals(MAX_BACKOFF_FACTOR, tracker.getBackoffFactor());
+        assertEquals(REFRESHES_BEFORE_SAVE * MAX_BACKOFF_FACTOR, tracker.getRefreshesBeforeSave());
+        assertEquals(REFRESH_RATE * REFRESHES_BEFORE_SAVE * MAX_BACKOFF_FACTOR,
+                tracker.getEffectiveStatisticsIntervalMillis());
+    }
+
+    @Test
+    public void busyHostSpeedsUp() {
+        tracker.adaptInterval(true, 10);
+        tracker.adaptInterval(true, MAX_IDLE_CPU_USAGE + 1);
+        assertEquals(1, tracker.getBackoffFactor());
+        assertEquals(1, tracker.getSpeedUpCount());
+    }
+
+    @Test
+    public void unstableHostSpeedsUp() {
+        tracker.adaptInterval(true, 10);
+        tracker.adaptInterval(false, 10);
+        assertEquals(REFRESHES_BEFORE_SAVE, tracker.getRefreshesBeforeSave());
+    }
+
+    @Test
+    public void speedUpResetsBackoff() {
+        tracker.adaptInterval(true, 10);
+        tracker.speedUp();
+        assertEquals(1, tracker.getBackoffFactor());
+        tracker.speedUp();
+        assertEquals(1, tracker.getSpeedUpCount());
+    }
+
+    @Test
+    @MockedConfig("backoffDisabledConfiguration")
+    public void backoffDisabled() {
+        tracker.adaptInterval(true, 10);
+        assertEquals(REFRESHES_BEFORE_SAVE, tracker.getRefreshesBeforeSave());
+    }
+
+    private VdsStatistics createStatistics(int cpuUsage) {
+        VdsStatistics statistics = new VdsStatistics();
+        statistics.setId(hostId);
+        statistics.setUsageCpuPercent(cpuUsage);
+        return statistics;
+    }
+}
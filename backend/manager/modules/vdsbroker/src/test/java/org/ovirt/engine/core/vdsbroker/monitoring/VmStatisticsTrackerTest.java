@@ -0,0 +1,128 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+
+public class VmStatisticsTrackerTest {
+
+    private static final int MAX_SKIPPED_CYCLES = 2;
+
+    private VmStatisticsTracker tracker;
+    private Guid vmId;
+
+    @BeforeEach
+    public void setUp() {
+        tracker = new VmStatisticsTracker();
+        vmId = Guid.newGuid();
+    }
+
+    @Test
+    public void unchangedStatisticsAreSkipped() {
+        VmStatistics statistics = createStatistics(10, 100.0);
+        assertSame(statistics, track(statistics).getStatistics());
+
+        VmStatisticsToSave toSave = track(createStatistics(10, 115.0));
+        assertNull(toSave.getStatistics());
+        assertTrue(toSave.isEmpty());
+    }
+
+    @Test
+    public void changedStatisticsAreSaved() {
+        track(createStatistics(10, 100.0));
+        VmStatistics statistics = createStatistics(20, 115.0);
+        assertSame(statistics, track(statistics).getStatistics());
+    }
+
+    @Test
+    public void statisticsMutatedInPlaceAreDetected() {
+        VmStatistics statistics = createStatistics(10, 100.0);
+        track(statistics);
+        statistics.setUsageCpuPercent(30);
+        assertSame(statistics, track(statistics).getStatistics());
+    }
+
+    @Test
+    public void unchangedStatisticsAreSavedAfterMaxSkippedCycles() {
+        track(createStatistics(10, 100.0));
+        assertNull(track(createStatistics(10, 115.0)).getStatistics());
+        assertNull(track(createStatistics(10, 130.0)).getStatistics());
+        VmStatistics statistics = createStatistics(10, 145.0);
+        assertSame(statistics, track(statistics).getStatistics());
+        assertNull(track(createStatistics(10, 160.0)).getStatistics());
+    }
+
+    @Test
+    public void resetForgetsSavedStatistics() {
+        track(createStatistics(10, 100.0));
+        tracker.reset();
+        VmStatistics statistics = createStatistics(10, 115.0);
+        assertSame(statistics, track(statistics).getStatistics());
+    }
+
+    @Test
+    public void onlyChangedDevicesAreSaved() {
+        Guid nicId = Guid.newGuid();
+        Guid diskId = Guid.newGuid();
+        track(null, List.of(createNetworkStatistics(nicId, 5L, 1.0)), List.of(createDiskImageDynamic(diskId, 7L)));
+
+        VmStatisticsToSave toSave = track(null,
+                List.of(createNetworkStatistics(nicId, 5L, 2.0)),
+                List.of(createDiskImageDynamic(diskId, 8L)));
+        assertTrue(toSave.getNetworkStatistics().isEmpty());
+        assertEquals(1, toSave.getDiskImageDynamics().size());
+
+        toSave = track(null,
+                List.of(createNetworkStatistics(nicId, 6L, 3.0)),
+                List.of(createDiskImageDynamic(diskId, 8L)));
+        assertEquals(1, toSave.getNetworkStatistics().size());
+        assertTrue(toSave.getDiskImageDynamics().isEmpty());
+        assertFalse(toSave.isEmpty());
+    }
+
+    private VmStatisticsToSave track(VmStatistics statistics) {
+        return track(statistics, Collections.emptyList(), Collections.emptyList());
+    }
+
+    private VmStatisticsToSave track(VmStatistics statistics,
+            List<VmNetworkStatistics> networkStatistics,
+            List<Pair<Guid, DiskImageDynamic>> diskImageDynamics) {
+        return tracker.track(vmId, statistics, networkStatistics, diskImageDynamics, MAX_SKIPPED_CYCLES);
+    }
+
+    private VmStatistics createStatistics(int cpuUsage, double elapsedTime) {
+        VmStatistics statistics = new VmStatistics(vmId);
+        statistics.setUsageCpuPercent(cpuUsage);
+        statistics.setElapsedTime(elapsedTime);
+        return statistics;
+    }
+
+    private VmNetworkStatistics createNetworkStatistics(Guid nicId, long receivedBytes, double sampleTime) {
+        VmNetworkStatistics statistics = new VmNetworkStatistics();
+        statistics.setId(nicId);
+        statistics.setVmId(vmId);
+        statistics.setReceivedBytes(receivedBytes);
+        statistics.setSampleTime(sampleTime);
+        return statistics;
+    }
+
+    private Pair<Guid, DiskImageDynamic> createDiskImageDynamic(Guid diskId, long readOps) {
+        DiskImageDynamic diskImageDynamic = new DiskImageDynamic();
+        diskImageDynamic.setId(diskId);
+        diskImageDynamic.setReadOps(readOps);
+        return new Pair<>(vmId, diskImageDynamic);
+    }
+}
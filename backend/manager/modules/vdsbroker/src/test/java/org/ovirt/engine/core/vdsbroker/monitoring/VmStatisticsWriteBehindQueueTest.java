@@ -0,0 +1,162 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskImageDynamicDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({ MockitoExtension.class, MockConfigExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class VmStatisticsWriteBehindQueueTest {
+
+    @Mock
+    private ManagedScheduledExecutorService schedulerService;
+    @Mock
+    private VmStatisticsDao vmStatisticsDao;
+    @Mock
+    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
+    @Mock
+    private DiskImageDynamicDao diskImageDynamicDao;
+
+    @Captor
+    private ArgumentCaptor<Runnable> flushJobCaptor;
+    @Captor
+    private ArgumentCaptor<List<VmStatistics>> statisticsCaptor;
+    @Captor
+    private ArgumentCaptor<List<VmNetworkStatistics>> networkStatisticsCaptor;
+
+    @InjectMocks
+    private VmStatisticsWriteBehindQueue queue;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VmStatisticsFlushIntervalInMillis, 1000),
+                MockConfigDescriptor.of(ConfigValues.VmStatisticsFlushBatchSize, 2),
+                MockConfigDescriptor.of(ConfigValues.VmStatisticsMaxPendingVms, 3)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        queue.init();
+        verify(schedulerService).scheduleWithFixedDelay(flushJobCaptor.capture(), anyLong(), anyLong(), any());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    public void reportsOfSameVmAreMerged() {
+        Guid vmId = Guid.newGuid();
+        VmStatistics first = createStatistics(vmId);
+        VmStatistics second = createStatistics(vmId);
+
+        submit(vmId, first);
+        submit(vmId, second);
+        assertEquals(1, queue.getPendingVmsCount());
+        assertEquals(1, queue.getMergedCount());
+        verify(vmStatisticsDao, never()).updateAllInBatch(any());
+
+        flushJobCaptor.getValue().run();
+        verify(vmStatisticsDao).updateAllInBatch(statisticsCaptor.capture());
+        assertEquals(1, statisticsCaptor.getValue().size());
+        assertEquals(second, statisticsCaptor.getValue().get(0));
+        assertEquals(0, queue.getPendingVmsCount());
+        assertEquals(1, queue.getFlushedVmsCount());
+    }
+
+    @Test
+    public void statisticsUpdatedAfterSubmitAreNotFlushed() {
+        Guid vmId = Guid.newGuid();
+        VmStatistics statistics = createStatistics(vmId);
+        statistics.setUsageCpuPercent(10);
+        statistics.setElapsedTime(100.0);
+        VmNetworkStatistics networkStatistics = new VmNetworkStatistics();
+        networkStatistics.setId(Guid.newGuid());
+        networkStatistics.setVmId(vmId);
+        networkStatistics.setReceiveRate(1.0);
+        queue.submit(vmId, statistics, Collections.singletonList(networkStatistics), Collections.emptyList());
+
+        // the VM manager updates its statistics in place on the next monitoring cycle
+        statistics.setUsageCpuPercent(90);
+        statistics.setElapsedTime(105.0);
+        networkStatistics.setReceiveRate(50.0);
+
+        flushJobCaptor.getValue().run();
+        verify(vmStatisticsDao).updateAllInBatch(statisticsCaptor.capture());
+        VmStatistics flushed = statisticsCaptor.getValue().get(0);
+        assertNotSame(statistics, flushed);
+        assertEquals(10, flushed.getUsageCpuPercent().intValue());
+        assertEquals(100.0, flushed.getElapsedTime().doubleValue());
+        verify(vmNetworkStatisticsDao).updateAllInBatch(networkStatisticsCaptor.capture());
+        assertEquals(1.0, networkStatisticsCaptor.getValue().get(0).getReceiveRate().doubleValue());
+    }
+
+    @Test
+    public void batchSizeTriggersAsynchronousFlush() {
+        submit(Guid.newGuid());
+        verify(schedulerService, never()).execute(any());
+        submit(Guid.newGuid());
+        verify(schedulerService).execute(any());
+        verify(vmStatisticsDao, never()).updateAllInBatch(any());
+    }
+
+    @Test
+    public void fullQueueIsFlushedOnCallerThread() {
+        submit(Guid.newGuid());
+        submit(Guid.newGuid());
+        submit(Guid.newGuid());
+
+        verify(vmStatisticsDao, times(2)).updateAllInBatch(any());
+        assertEquals(0, queue.getPendingVmsCount());
+        assertEquals(3, queue.getFlushedVmsCount());
+        assertEquals(2, queue.getFlushedBatchesCount());
+        assertEquals(1, queue.getBackPressureCount());
+    }
+
+    private void submit(Guid vmId) {
+        submit(vmId, createStatistics(vmId));
+    }
+
+    private void submit(Guid vmId, VmStatistics statistics) {
+        queue.submit(vmId, statistics, Collections.emptyList(), Collections.emptyList());
+    }
+
+    private static VmStatistics createStatistics(Guid vmId) {
+        VmStatistics statistics = new VmStatistics();
+        statistics.setId(vmId);
+        return statistics;
+    }
+}
@@ -0,0 +1,145 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
+
+public class VmStatsDeltaTest {
+
+    private static final int MAX_SKIPPED_CYCLES = 2;
+
+    private VmStatsDelta statsDelta;
+    private VmDynamic dbVm;
+
+    @BeforeEach
+    public void setUp() {
+        statsDelta = new VmStatsDelta();
+        dbVm = new VmDynamic();
+        dbVm.setId(Guid.newGuid());
+        dbVm.setStatus(VMStatus.Up);
+    }
+
+    private static Map<String, Object> createStruct(String cpuUser, double statusTime, double sampleTime) {
+        Map<String, Object> nic = new HashMap<>();
+        nic.put("rx", "100");
+        nic.put(VdsProperties.sample_time, sampleTime);
+        Map<String, Object> struct = new LinkedHashMap<>();
+        struct.put(VdsProperties.vm_guid, "77296e00-0cad-4e5a-9299-008a7b6f4355");
+        struct.put(VdsProperties.statusTime, statusTime);
+        struct.put(VdsProperties.elapsed_time, statusTime / 1000);
+        struct.put("cpuUser", cpuUser);
+        struct.put("network", Map.of("vnet0", nic));
+        struct.put("disks", Arrays.asList("vda", "vdb"));
+        return struct;
+    }
+
+    private VdsmVm createVdsmVm(long hash, VMStatus status) {
+        VmDynamic vmDynamic = new VmDynamic();
+        vmDynamic.setId(dbVm.getId());
+        vmDynamic.setStatus(status);
+        return new VdsmVm(1.0).setVmDynamic(vmDynamic).setPayloadHash(hash);
+    }
+
+    @Test
+    public void volatileFieldsAreIgnored() {
+        assertEquals(VmStatsDelta.hash(createStruct("1.5", 1000, 10)),
+                VmStatsDelta.hash(createStruct("1.5", 3000, 12)));
+        assertNotEquals(VmStatsDelta.hash(createStruct("1.5", 1000, 10)),
+                VmStatsDelta.hash(createStruct("1.6", 1000, 10)));
+    }
+
+    @Test
+    public void orderOfEntriesIsIgnored() {
+        Map<String, Object> struct = createStruct("1.5", 1000, 10);
+        List<String> keys = new ArrayList<>(struct.keySet());
+        Collections.reverse(keys);
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        keys.forEach(key -> reversed.put(key, struct.get(key)));
+        assertEquals(VmStatsDelta.hash(struct), VmStatsDelta.hash(reversed));
+
+        Map<String, Object> otherDisksOrder = createStruct("1.5", 1000, 10);
+        otherDisksOrder.put("disks", Arrays.asList("vdb", "vda"));
+        assertNotEquals(VmStatsDelta.hash(struct), VmStatsDelta.hash(otherDisksOrder));
+    }
+
+    @Test
+    public void reportedVmIsReturnedForSameHash() {
+        VdsmVm vdsmVm = createVdsmVm(1, VMStatus.Up);
+        statsDelta.setReportedVm(1, vdsmVm);
+
+        assertSame(vdsmVm, statsDelta.getReportedVm(1));
+        assertNull(statsDelta.getReportedVm(2));
+    }
+
+    @Test
+    public void unchangedVmIsSkipped() {
+        statsDelta.analyzed(dbVm, createVdsmVm(1, VMStatus.Up));
+
+        assertTrue(statsDelta.skipAnalysis(new VmDynamic(dbVm), createVdsmVm(1, VMStatus.Up), MAX_SKIPPED_CYCLES));
+        assertFalse(statsDelta.skipAnalysis(dbVm, createVdsmVm(2, VMStatus.Up), MAX_SKIPPED_CYCLES));
+    }
+
+    @Test
+    public void changedDatabaseRecordIsAnalyzed() {
+        statsDelta.analyzed(dbVm, createVdsmVm(1, VMStatus.Up));
+        VmDynamic changedDbVm = new VmDynamic(dbVm);
+        changedDbVm.setStatus(VMStatus.MigratingFrom);
+
+        assertFalse(statsDelta.skipAnalysis(changedDbVm, createVdsmVm(1, VMStatus.Up), MAX_SKIPPED_CYCLES));
+    }
+
+    @Test
+    public void transientStatusIsAnalyzed() {
+        dbVm.setStatus(VMStatus.PoweringUp);
+        statsDelta.analyzed(dbVm, createVdsmVm(1, VMStatus.PoweringUp));
+
+        assertFalse(statsDelta.skipAnalysis(dbVm, createVdsmVm(1, VMStatus.PoweringUp), MAX_SKIPPED_CYCLES));
+    }
+
+    @Test
+    public void unchangedVmIsAnalyzedAfterMaxSkippedCycles() {
+        statsDelta.analyzed(dbVm, createVdsmVm(1, VMStatus.Up));
+
+        assertTrue(statsDelta.skipAnalysis(dbVm, createVdsmVm(1, VMStatus.Up), MAX_SKIPPED_CYCLES));
+        assertTrue(statsDelta.skipAnalysis(dbVm, createVdsmVm(1, VMStatus.Up), MAX_SKIPPED_CYCLES));
+        assertFalse(statsDelta.skipAnalysis(dbVm, createVdsmVm(1, VMStatus.Up), MAX_SKIPPED_CYCLES));
+
+        statsDelta.analyzed(dbVm, createVdsmVm(1, VMStatus.Up));
+        assertTrue(statsDelta.skipAnalysis(dbVm, createVdsmVm(1, VMStatus.Up), MAX_SKIPPED_CYCLES));
+    }
+
+    @Test
+    public void nothingIsSkippedWhenDisabled() {
+        statsDelta.analyzed(dbVm, createVdsmVm(1, VMStatus.Up));
+
+        assertFalse(statsDelta.skipAnalysis(dbVm, createVdsmVm(1, VMStatus.Up), 0));
+    }
+
+    @Test
+    public void resetForgetsReports() {
+        statsDelta.setReportedVm(1, createVdsmVm(1, VMStatus.Up));
+        statsDelta.analyzed(dbVm, createVdsmVm(1, VMStatus.Up));
+        statsDelta.reset();
+
+        assertNull(statsDelta.getReportedVm(1));
+        assertFalse(statsDelta.skipAnalysis(dbVm, createVdsmVm(1, VMStatus.Up), MAX_SKIPPED_CYCLES));
+    }
+}
@@ -164,6 +164,35 @@ public class VdsBrokerObjectsBuilderTest {
         assertEquals(disks.get(0).getFlushLatency(), new Double(DEFAULT_VALUE));
     }
 
+    @Test
+    public void testDecimalValuesTruncated() {
+        Map<String, Object> diskData = setDiskData();
+        diskData.put(VdsProperties.vm_disk_read_rate, "1024.75");
+        diskData.put(VdsProperties.vm_disk_read_ops, "300.5");
+        diskData.put(VdsProperties.vm_disk_write_ops, 200);
+        Map<String, Object> xml = setMockForTesting(diskData);
+        List<DiskImageDynamic> disks = vdsBrokerObjectsBuilder.buildVmDiskStatistics(xml);
+        assertEquals(Integer.valueOf(1024), disks.get(0).getReadRate());
+        assertEquals(Long.valueOf(300), disks.get(0).getReadOps());
+        assertEquals(Long.valueOf(200), disks.get(0).getWriteOps());
+    }
+
+    @Test
+    public void testGuestMemoryStats() {
+        Map<String, Object> memoryStats = new HashMap<>();
+        memoryStats.put(VdsProperties.vm_guest_mem_buffered, "2048");
+        memoryStats.put(VdsProperties.vm_guest_mem_cached, 4096);
+        memoryStats.put(VdsProperties.vm_guest_mem_free, 8192L);
+        Map<String, Object> xml = new HashMap<>();
+        xml.put(VdsProperties.vm_guest_mem_stats, memoryStats);
+        xml.put(VdsProperties.vm_usage_mem_percent, "30");
+        VmStatistics vmStatistics = vdsBrokerObjectsBuilder.buildVMStatisticsData(xml);
+        assertEquals(Long.valueOf(2048), vmStatistics.getGuestMemoryBuffered());
+        assertEquals(Long.valueOf(4096), vmStatistics.getGuestMemoryCached());
+        assertEquals(Long.valueOf(8192), vmStatistics.getGuestMemoryFree());
+        assertEquals(Integer.valueOf(30), vmStatistics.getUsageMemPercent());
+    }
+
     @Test
     public void testDiskStats() {
         Map<String, Object> disksStats = new HashMap<>();
@@ -1,15 +1,18 @@
 package org.ovirt.engine.core.notifier;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.common.EventNotificationMethod;
+import org.ovirt.engine.core.notifier.dao.EventsListener;
 import org.ovirt.engine.core.notifier.dao.EventsManager;
 import org.ovirt.engine.core.notifier.filter.AuditLogEvent;
 import org.ovirt.engine.core.notifier.filter.FirstMatchSimpleFilter;
@@ -22,6 +25,11 @@ import org.slf4j.LoggerFactory;
 /**
  * Responsible for an execution of the service for the current events in the system which should be notified to the
  * subscribers.
+ * <p>
+ * The events are processed every {@link NotificationProperties#INTERVAL_IN_SECONDS}, and, when
+ * {@link NotificationProperties#LISTEN_FOR_EVENTS} is set, as soon as the database notifies they were added. The
+ * notifications received while the events are processed result in a single further processing, so a burst of events
+ * is processed in a few chunks.
  */
 public class NotificationService implements Runnable {
 
@@ -29,6 +37,12 @@ public class NotificationService implements Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
+    /**
+     * The number of unprocessed events read from the database at once
+     */
+    /* visible for testing only */
+    static final int EVENTS_CHUNK_SIZE = 1000;
+
     private final NotificationProperties prop;
 
     private final EventsManager eventsManager;
@@ -41,9 +55,31 @@ public class NotificationService implements Runnable {
 
     private int failedQueries = 0;
 
+    private ScheduledExecutorService exec;
+
+    private EventsListener eventsListener;
+
+    /**
+     * Set when processing the events was requested on notification, and not started yet
+     */
+    private final AtomicBoolean processingRequested = new AtomicBoolean();
+
+    /**
+     * Set when the subscribers have to be reloaded from the database on the next processing
+     */
+    private volatile boolean subscribersChanged = true;
+
+    private long lastHistoryCleanupMillis;
+
     public NotificationService(NotificationProperties prop) throws NotificationServiceException {
+        this(prop, new EventsManager(), null);
+    }
+
+    /* visible for testing only */
+    NotificationService(NotificationProperties prop, EventsManager eventsManager, EventsListener eventsListener) {
         this.prop = prop;
-        this.eventsManager = new EventsManager();
+        this.eventsManager = eventsManager;
+        this.eventsListener = eventsListener;
         firstMatchSimpleFilter = new FirstMatchSimpleFilter();
         configurationFilters = FirstMatchSimpleFilter.parse(prop.getProperty(FILTER));
     }
@@ -68,7 +104,7 @@ public class NotificationService implements Runnable {
     public void run() {
         markOldEventsAsProcessed();
         ShutdownHook shutdownHook = ShutdownHook.getInstance();
-        ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor();
+        exec = Executors.newSingleThreadScheduledExecutor();
         shutdownHook.addScheduledExecutorService(exec);
         shutdownHook.addServiceHandler(
                 exec.scheduleWithFixedDelay(
@@ -86,47 +122,55 @@ public class NotificationService implements Runnable {
                         TimeUnit.SECONDS
                 )
         );
+        if (prop.getBoolean(NotificationProperties.LISTEN_FOR_EVENTS, false)) {
+            startEventsListener(shutdownHook);
+        }
+        shutdownHook.addShutdownTask(() -> transports.forEach(Transport::close));
+    }
+
+    private void startEventsListener(ShutdownHook shutdownHook) {
+        eventsListener = new EventsListener(this::requestProcessing,
+                this::requestSubscribersReload,
+                TimeUnit.SECONDS.toMillis(prop.getLong(NotificationProperties.INTERVAL_IN_SECONDS)));
+        ScheduledExecutorService listenerExec = Executors.newSingleThreadScheduledExecutor();
+        shutdownHook.addScheduledExecutorService(listenerExec);
+        shutdownHook.addServiceHandler(listenerExec.schedule(eventsListener, 1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Requests processing the events, unless already requested and not started yet
+     */
+    private void requestProcessing() {
+        if (processingRequested.compareAndSet(false, true)) {
+            exec.execute(this::mainLogic);
+        }
+    }
+
+    /**
+     * Requests reloading the subscribers from the database on the next processing
+     */
+    /* visible for testing only */
+    void requestSubscribersReload() {
+        subscribersChanged = true;
     }
 
     /**
      * Executes event notification to subscribers
      */
-    private void mainLogic() {
+    /* visible for testing only */
+    void mainLogic() {
         try {
             try {
                 log.debug("Start event notification service iteration");
+                processingRequested.set(false);
 
-                // Clear filter chain
-                firstMatchSimpleFilter.clearFilterEntries();
-
-                // Read Database subscriptions first
-                firstMatchSimpleFilter.addFilterEntries(eventsManager.getAuditLogEventSubscribers());
-
-                // Backward compatibility, aim to remove (can be replaced by "FILTER")
-                String dbDownSubscribers =
-                        prop.getProperty(NotificationProperties.FAILED_QUERIES_NOTIFICATION_RECIPIENTS, true);
-                if (!StringUtils.isEmpty(dbDownSubscribers)) {
-                    for (String subscriber : dbDownSubscribers.split(",")) {
-                        FirstMatchSimpleFilter.FilterEntry subscriberEntry = new FirstMatchSimpleFilter.FilterEntry(
-                                EventsManager.DATABASE_UNREACHABLE,
-                                null,
-                                false,
-                                EventNotificationMethod.SMTP.getAsString(),
-                                subscriber);
-                        List<FirstMatchSimpleFilter.FilterEntry> subscriberEntries = Collections.singletonList(subscriberEntry);
-                        firstMatchSimpleFilter.addFilterEntries(subscriberEntries);
-                    }
+                // Without notifications, the subscribers may have changed since the last iteration
+                if (subscribersChanged || eventsListener == null || !eventsListener.isListening()) {
+                    subscribersChanged = false;
+                    loadSubscribers();
                 }
 
-                // Add configurations subscription
-                firstMatchSimpleFilter.addFilterEntries(
-                        configurationFilters
-                        );
-
-                for (AuditLogEvent event : eventsManager.getAuditLogEvents()) {
-                    firstMatchSimpleFilter.processEvent(event);
-                    eventsManager.updateAuditLogEventProcessed(event.getId());
-                }
+                processAuditLogEvents();
                 deleteObsoleteHistoryData();
                 log.debug("Finished event notification service iteration");
             } catch (SQLException se) {
@@ -134,10 +178,59 @@ public class NotificationService implements Runnable {
                 throw se;
             }
         } catch (Throwable t) {
+            subscribersChanged = true;
             log.error("Failed to run the service.", t);
         }
     }
 
+    private void loadSubscribers() throws SQLException {
+        // Clear filter chain
+        firstMatchSimpleFilter.clearFilterEntries();
+
+        // Read Database subscriptions first
+        firstMatchSimpleFilter.addFilterEntries(eventsManager.getAuditLogEventSubscribers());
+
+        // Backward compatibility, aim to remove (can be replaced by "FILTER")
+        String dbDownSubscribers =
+                prop.getProperty(NotificationProperties.FAILED_QUERIES_NOTIFICATION_RECIPIENTS, true);
+        if (!StringUtils.isEmpty(dbDownSubscribers)) {
+            for (String subscriber : dbDownSubscribers.split(",")) {
+                FirstMatchSimpleFilter.FilterEntry subscriberEntry = new FirstMatchSimpleFilter.FilterEntry(
+                        EventsManager.DATABASE_UNREACHABLE,
+                        null,
+                        false,
+                        EventNotificationMethod.SMTP.getAsString(),
+                        subscriber);
+                List<FirstMatchSimpleFilter.FilterEntry> subscriberEntries = Collections.singletonList(subscriberEntry);
+                firstMatchSimpleFilter.addFilterEntries(subscriberEntries);
+            }
+        }
+
+        // Add configurations subscription
+        firstMatchSimpleFilter.addFilterEntries(
+                configurationFilters
+                );
+    }
+
+    private void processAuditLogEvents() throws SQLException {
+        long lastEventId = 0;
+        List<AuditLogEvent> events;
+        do {
+            events = eventsManager.getAuditLogEvents(lastEventId, EVENTS_CHUNK_SIZE);
+            List<Long> processedEventIds = new ArrayList<>(events.size());
+            try {
+                for (AuditLogEvent event : events) {
+                    firstMatchSimpleFilter.processEvent(event);
+                    processedEventIds.add(event.getId());
+                    lastEventId = event.getId();
+                }
+            } finally {
+                // the events of the chunk processed before a failure are marked too, not to be notified again
+                eventsManager.updateAuditLogEventsProcessed(processedEventIds);
+            }
+        } while (events.size() == EVENTS_CHUNK_SIZE);
+    }
+
     private void idle() {
         log.debug("Begin idle iteration");
         for (Transport transport : transports) {
@@ -146,11 +239,23 @@ public class NotificationService implements Runnable {
         log.debug("Finished idle iteration");
     }
 
+    /**
+     * Deletes the obsolete history at most once every interval, as events may be processed much more often on
+     * notification
+     */
     private void deleteObsoleteHistoryData() throws SQLException {
+        long now = System.currentTimeMillis();
+        if (now - lastHistoryCleanupMillis
+                < TimeUnit.SECONDS.toMillis(prop.getLong(NotificationProperties.INTERVAL_IN_SECONDS))) {
+            return;
+        }
         eventsManager.deleteObsoleteHistoryData(prop.getInteger(NotificationProperties.DAYS_TO_KEEP_HISTORY));
+        lastHistoryCleanupMillis = now;
     }
 
     private void distributeDbDownEvent() {
+        // the filter chain is replaced, so the subscribers are reloaded on the next iteration
+        subscribersChanged = true;
         firstMatchSimpleFilter.clearFilterEntries();
         firstMatchSimpleFilter.addFilterEntries(
                 configurationFilters
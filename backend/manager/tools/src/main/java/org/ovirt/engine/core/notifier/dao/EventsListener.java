@@ -0,0 +1,131 @@
+package org.ovirt.engine.core.notifier.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.ovirt.engine.core.notifier.NotificationServiceException;
+import org.ovirt.engine.core.utils.db.StandaloneDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listens to the notifications sent by the database triggers when events some user subscribed to are added to the
+ * audit log or when the event subscriptions change, so these events are processed as soon as they are added instead of
+ * on the next polling. The events matched only by the configured filter are still processed on the next polling.
+ * <p>
+ * The listener uses its own data source, as it waits for the notifications on its connection. When the connection is
+ * lost, the listener gets it again after the given delay, which the data source reopens, and reports both changes once
+ * listening again, as notifications sent in between are lost.
+ */
+public class EventsListener implements Runnable {
+
+    public static final String AUDIT_LOG_INSERTED = "audit_log_inserted";
+    public static final String EVENT_SUBSCRIBER_CHANGED = "event_subscriber_changed";
+
+    private static final Logger log = LoggerFactory.getLogger(EventsListener.class);
+
+    /**
+     * The maximal time to wait for notifications at once, so an interruption is not noticed too late
+     */
+    private static final int WAIT_TIMEOUT_MILLIS = 10000;
+
+    private final DataSource ds;
+    private final Runnable eventsAdded;
+    private final Runnable subscribersChanged;
+    private final long reconnectDelayMillis;
+
+    private volatile boolean listening;
+
+    /**
+     * @param eventsAdded
+     *            called when events were added to the audit log
+     * @param subscribersChanged
+     *            called when the event subscriptions changed
+     * @param reconnectDelayMillis
+     *            the delay before reconnecting when the connection was lost
+     */
+    public EventsListener(Runnable eventsAdded, Runnable subscribersChanged, long reconnectDelayMillis)
+            throws NotificationServiceException {
+        try {
+            ds = new StandaloneDataSource();
+        } catch (SQLException e) {
+            throw new NotificationServiceException("Failed to obtain database connectivity", e);
+        }
+        this.eventsAdded = eventsAdded;
+        this.subscribersChanged = subscribersChanged;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+    }
+
+    /**
+     * @return true if the listener currently receives the notifications, so the event subscriptions are known to be
+     *         up to date since the last notification
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                listen();
+            } catch (SQLException e) {
+                log.warn("Failed to listen to event notifications, retrying in {} msec: {}",
+                        reconnectDelayMillis,
+                        e.getMessage());
+                log.debug("Exception", e);
+            } finally {
+                listening = false;
+            }
+
+            try {
+                TimeUnit.MILLISECONDS.sleep(reconnectDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void listen() throws SQLException {
+        // the data source keeps a single connection open, which it checks and reopens when lost, and closes on
+        // shutdown, closing it here would do nothing
+        Connection connection = ds.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + AUDIT_LOG_INSERTED);
+            statement.execute("LISTEN " + EVENT_SUBSCRIBER_CHANGED);
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        listening = true;
+        log.info("Listening to event notifications");
+
+        // changes done while not listening were not notified
+        subscribersChanged.run();
+        eventsAdded.run();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            PGNotification[] notifications = pgConnection.getNotifications(WAIT_TIMEOUT_MILLIS);
+            if (notifications == null) {
+                continue;
+            }
+
+            boolean added = false;
+            boolean changed = false;
+            for (PGNotification notification : notifications) {
+                added |= AUDIT_LOG_INSERTED.equals(notification.getName());
+                changed |= EVENT_SUBSCRIBER_CHANGED.equals(notification.getName());
+            }
+            if (changed) {
+                subscribersChanged.run();
+            }
+            if (added) {
+                eventsAdded.run();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.notifier.dao;
 
+import java.sql.Array;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -95,9 +96,18 @@ public class EventsManager implements Observer {
         return eventSubscribers;
     }
 
-    public List<AuditLogEvent> getAuditLogEvents() throws SQLException {
+    /**
+     * Reads a chunk of the unprocessed events, so a large backlog of events is never held in memory at once.
+     *
+     * @param afterId
+     *            only events with a greater id are read
+     * @param limit
+     *            the maximal number of events to read
+     * @return the unprocessed events ordered by their id
+     */
+    public List<AuditLogEvent> getAuditLogEvents(long afterId, int limit) throws SQLException {
         Set<String> downEvents = new HashSet<>(eventMap.values());
-        List<AuditLogEvent> auditLogEvents = new ArrayList<>();
+        List<AuditLogEvent> auditLogEvents = new ArrayList<>(limit);
         try (Connection connection = ds.getConnection();
              PreparedStatement ps = connection.prepareStatement(
                             "SELECT al.audit_log_id, al.log_type_name, " +
@@ -107,10 +117,15 @@ public class EventsManager implements Observer {
                             "       al.storage_domain_id, al.storage_domain_name, " +
                             "       al.log_time, al.severity, al.message " +
                             "FROM audit_log al " +
-                            "WHERE al.processed = FALSE ;");
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                auditLogEvents.add(extractAuditLogEvent(rs, downEvents));
+                            "WHERE al.processed = FALSE AND al.audit_log_id > ? " +
+                            "ORDER BY al.audit_log_id " +
+                            "LIMIT ? ;")) {
+            ps.setLong(1, afterId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    auditLogEvents.add(extractAuditLogEvent(rs, downEvents));
+                }
             }
         }
         if (log.isDebugEnabled()) {
@@ -202,18 +217,35 @@ public class EventsManager implements Observer {
 
     }
 
-    public void updateAuditLogEventProcessed(long auditLogId)
+    /**
+     * Marks the given events as processed, with a single statement
+     *
+     * @param auditLogIds
+     *            the ids of the processed events
+     */
+    public void updateAuditLogEventsProcessed(List<Long> auditLogIds)
             throws SQLException {
+        if (auditLogIds.isEmpty()) {
+            return;
+        }
         try (Connection connection = ds.getConnection();
              PreparedStatement ps = connection.prepareStatement(
                     "UPDATE audit_log " +
                     "SET processed = 'true' " +
-                    "WHERE audit_log_id = ? ;")) {
-            ps.setLong(1, auditLogId);
-            int updated = ps.executeUpdate();
-            if (updated != 1) {
-                log.error("Failed to mark audit_log entry as processed for audit_log_id: {}",
-                        auditLogId);
+                    "WHERE audit_log_id = ANY(?) ;")) {
+            Array ids = connection.createArrayOf("bigint", auditLogIds.toArray());
+            try {
+                ps.setArray(1, ids);
+                int updated = ps.executeUpdate();
+                if (updated != auditLogIds.size()) {
+                    log.error("Failed to mark {} of {} audit_log entries as processed, from audit_log_id {} to {}",
+                            auditLogIds.size() - updated,
+                            auditLogIds.size(),
+                            auditLogIds.get(0),
+                            auditLogIds.get(auditLogIds.size() - 1));
+                }
+            } finally {
+                ids.free();
             }
         }
     }
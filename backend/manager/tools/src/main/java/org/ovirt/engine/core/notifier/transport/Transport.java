@@ -39,6 +39,13 @@ public abstract class Transport implements Observable {
     public void idle() {
     }
 
+    /**
+     * Upon shutdown a transport releases its resources if needed.
+     * A default empty implementation is provided.
+     */
+    public void close() {
+    }
+
     @Override
     public void notifyObservers(DispatchResult data) {
         for (Observer observer : observers) {
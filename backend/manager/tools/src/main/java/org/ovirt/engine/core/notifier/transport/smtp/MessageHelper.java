@@ -66,6 +66,19 @@ public class MessageHelper {
 
     }
 
+    /**
+     * Construct a formatted subject of a message gathering several events based on predefined template:<br>
+     * {@code "Event Notifications (host name), [number of events events]"}
+     * @param hostName
+     *            the machine names associated with the events
+     * @param eventsCount
+     *            the number of events in the message
+     * @return a formatted message subject
+     */
+    public static String prepareDigestSubject(String hostName, int eventsCount) {
+        return String.format("Event Notifications (%s), [%d events]", hostName, eventsCount);
+    }
+
     /**
      * Constructs a formatted message body based on provided message body elements content in HTML format.<br>
      * If any of message body element is empty or missing, it will not appear in the formatted message body text
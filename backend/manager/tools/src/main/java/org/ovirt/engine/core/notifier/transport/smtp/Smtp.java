@@ -3,24 +3,15 @@ package org.ovirt.engine.core.notifier.transport.smtp;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.util.Date;
-import java.util.Iterator;
 import java.util.Properties;
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
 
-import javax.mail.Address;
 import javax.mail.Authenticator;
-import javax.mail.Message;
-import javax.mail.MessagingException;
+import javax.mail.NoSuchProviderException;
 import javax.mail.PasswordAuthentication;
 import javax.mail.Session;
 import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMessage;
 
 import org.apache.commons.lang.StringUtils;
-import org.ovirt.engine.core.common.EventNotificationMethod;
-import org.ovirt.engine.core.notifier.dao.DispatchResult;
 import org.ovirt.engine.core.notifier.filter.AuditLogEvent;
 import org.ovirt.engine.core.notifier.transport.Transport;
 import org.ovirt.engine.core.notifier.utils.NotificationProperties;
@@ -43,6 +34,9 @@ import org.slf4j.LoggerFactory;
  * <li><code>MAIL_FROM</code> specifies "from" address in sent message, or uses value of property <code>MAIL_USER</code> if not provided</li>
  * <li>"from" address should include a domain, same as <code>MAIL_USER</code> property</li>
  * <li><code>MAIL_REPLY_TO</code> specifies "replyTo" address in outgoing message</li>
+ * <li><code>MAIL_SEND_THREADS</code> number of connections to the mail server used to send messages in parallel</li>
+ * <li><code>MAIL_DIGEST_THRESHOLD</code> number of messages queued to the same recipient from which they are sent as
+ * a single digest message</li>
  * </ul>
  */
 public class Smtp extends Transport {
@@ -60,17 +54,13 @@ public class Smtp extends Transport {
     private static final String MAIL_SMTP_ENCRYPTION_TLS = "tls";
     private static final String MAIL_SEND_INTERVAL = "MAIL_SEND_INTERVAL";
     private static final String MAIL_RETRIES = "MAIL_RETRIES";
+    private static final String MAIL_SEND_THREADS = "MAIL_SEND_THREADS";
+    private static final String MAIL_DIGEST_THRESHOLD = "MAIL_DIGEST_THRESHOLD";
 
     private static final Logger log = LoggerFactory.getLogger(Smtp.class);
-    private int retries;
     private int sendIntervals;
     private int lastSendInterval = 0;
-    private final Queue<DispatchAttempt> sendQueue = new LinkedBlockingQueue<>();
-    private String hostName;
-    private boolean isBodyHtml = false;
-    private Session session = null;
-    private InternetAddress from = null;
-    private InternetAddress replyTo = null;
+    private SmtpDispatcher dispatcher;
     private boolean active = false;
 
     public Smtp(NotificationProperties props) {
@@ -82,6 +72,7 @@ public class Smtp extends Transport {
 
     private void init(NotificationProperties props) {
         Properties mailSessionProps =  new Properties();
+        String hostName;
 
         try {
             hostName = InetAddress.getLocalHost().getHostName();
@@ -90,11 +81,13 @@ public class Smtp extends Transport {
             hostName = "localhost";
         }
 
-        retries = props.validateNonNegetive(MAIL_RETRIES);
+        int retries = props.validateNonNegetive(MAIL_RETRIES);
         sendIntervals = props.validateNonNegetive(MAIL_SEND_INTERVAL);
-        isBodyHtml = props.getBoolean(HTML_MESSAGE_FORMAT, false);
-        from = props.validateEmail(MAIL_FROM);
-        replyTo = props.validateEmail(MAIL_REPLY_TO);
+        boolean isBodyHtml = props.getBoolean(HTML_MESSAGE_FORMAT, false);
+        InternetAddress from = props.validateEmail(MAIL_FROM);
+        InternetAddress replyTo = props.validateEmail(MAIL_REPLY_TO);
+        int sendThreads = props.getInteger(MAIL_SEND_THREADS, 1);
+        int digestThreshold = props.getInteger(MAIL_DIGEST_THRESHOLD, 0);
 
         if (log.isTraceEnabled()) {
             mailSessionProps.put("mail.debug", "true");
@@ -130,12 +123,28 @@ public class Smtp extends Transport {
                             "'%s' must be set when password is set",
                             MAIL_USER));
         }
+        Session session;
         if (StringUtils.isNotEmpty(emailPassword)) {
             session = Session.getDefaultInstance(mailSessionProps,
                 new EmailAuthenticator(emailUser, emailPassword));
         } else {
             session = Session.getInstance(mailSessionProps);
         }
+
+        try {
+            dispatcher = new SmtpDispatcher(session,
+                    from,
+                    replyTo,
+                    hostName,
+                    isBodyHtml,
+                    retries,
+                    sendThreads,
+                    digestThreshold,
+                    this::notifyObservers);
+        } catch (NoSuchProviderException e) {
+            throw new IllegalArgumentException("No SMTP provider available for sending e-mails", e);
+        }
+        dispatcher.registerInJMX();
     }
 
     @Override
@@ -153,7 +162,7 @@ public class Smtp extends Transport {
         if (StringUtils.isEmpty(address)) {
             log.error("Address is empty, cannot distribute message. {}", event.getName());
         } else {
-            sendQueue.add(new DispatchAttempt(event, address));
+            dispatcher.enqueue(event, address);
         }
     }
 
@@ -161,84 +170,13 @@ public class Smtp extends Transport {
     public void idle() {
         if (lastSendInterval++ >= sendIntervals) {
             lastSendInterval = 0;
-
-            Iterator<DispatchAttempt> iterator = sendQueue.iterator();
-            while (iterator.hasNext()) {
-                DispatchAttempt attempt = iterator.next();
-                try {
-                    EventMessageContent message = new EventMessageContent();
-                    message.prepareMessage(hostName, attempt.event, isBodyHtml);
-
-                    log.info("Sending e-mail subject='{}' to='{}'",
-                            message.getMessageSubject(),
-                            attempt.address);
-                    log.debug("Send e-mail body='{}'", message.getMessageBody());
-                    sendMail(attempt.address, message.getMessageSubject(), message.getMessageBody());
-                    log.info(
-                        "E-mail subject='{}' to='{}' sent successfully",
-                        message.getMessageSubject(),
-                        attempt.address
-                    );
-                    notifyObservers(DispatchResult.success(attempt.event, attempt.address, EventNotificationMethod.SMTP));
-                    iterator.remove();
-                } catch (Exception ex) {
-                    attempt.retries++;
-                    if (attempt.retries >= retries) {
-                        notifyObservers(DispatchResult.failure(attempt.event,
-                                attempt.address,
-                                EventNotificationMethod.SMTP,
-                                ex.getMessage()));
-                        iterator.remove();
-                    }
-                }
-            }
+            dispatcher.dispatchQueued();
         }
     }
 
-    /**
-     * Sends a message to a recipient using pre-configured mail session, either as a plan text message or as a html
-     * message body
-     * @param recipient
-     *            a recipient mail address
-     * @param messageSubject
-     *            the subject of the message
-     * @param messageBody
-     *            the body of the message
-     */
-    private void sendMail(String recipient, String messageSubject, String messageBody) throws MessagingException {
-        try {
-            Message msg = new MimeMessage(session);
-            msg.setFrom(from);
-            InternetAddress address = new InternetAddress(recipient);
-            msg.setRecipient(Message.RecipientType.TO, address);
-            if (replyTo != null) {
-                msg.setReplyTo(new Address[] { replyTo });
-            }
-            msg.setSubject(messageSubject);
-            if (isBodyHtml){
-                msg.setContent(String.format("<html><head><title>%s</title></head><body><p>%s</body></html>",
-                        messageSubject,
-                        messageBody), "text/html");
-            } else {
-                msg.setText(messageBody);
-            }
-            msg.setSentDate(new Date());
-            javax.mail.Transport.send(msg);
-        } catch (MessagingException mex) {
-            StringBuilder errorMsg = new StringBuilder("Failed to send message ");
-            if (from != null) {
-                errorMsg.append(" from ").append(from.toString());
-            }
-            if (StringUtils.isNotBlank(recipient)) {
-                errorMsg.append(" to ").append(recipient);
-            }
-            if (StringUtils.isNotBlank(messageSubject)) {
-                errorMsg.append(" with subject ").append(messageSubject);
-            }
-            errorMsg.append(" due to to error: ").append(mex.getMessage());
-            log.error(errorMsg.toString(), mex);
-            throw mex;
-        }
+    @Override
+    public void close() {
+        dispatcher.close();
     }
 
     /**
@@ -257,15 +195,4 @@ public class Smtp extends Transport {
             return new PasswordAuthentication(userName, password);
         }
     }
-
-    private static class DispatchAttempt {
-         public final AuditLogEvent event;
-         public final String address;
-         public int retries = 0;
-         private DispatchAttempt(AuditLogEvent event, String address) {
-             this.event = event;
-             this.address = address;
-         }
-     }
 }
-
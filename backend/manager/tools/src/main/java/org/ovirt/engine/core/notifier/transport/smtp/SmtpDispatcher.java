@@ -0,0 +1,390 @@
+package org.ovirt.engine.core.notifier.transport.smtp;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.NoSuchProviderException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.core.common.EventNotificationMethod;
+import org.ovirt.engine.core.notifier.dao.DispatchResult;
+import org.ovirt.engine.core.notifier.filter.AuditLogEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the queued events by e-mail on a bounded pool of workers. Each worker keeps its connection to the mail server
+ * open and reuses it for the next e-mails, instead of connecting (and negotiating TLS) for every e-mail.
+ * <p>
+ * When the number of events queued for the same recipient reaches the digest threshold, they are sent to it as a
+ * single digest e-mail, so a burst of events does not flood neither the recipient nor the mail server.
+ * <p>
+ * The results of the dispatch are reported on the thread calling {@link #dispatchQueued()}, once all the e-mails were
+ * sent or failed. Events whose e-mail failed are queued again until they failed the given number of times.
+ */
+class SmtpDispatcher implements SmtpDispatcherMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpDispatcher.class);
+
+    private final Session session;
+    private final InternetAddress from;
+    private final InternetAddress replyTo;
+    private final String hostName;
+    private final boolean isBodyHtml;
+    private final int retries;
+    private final int digestThreshold;
+    private final Consumer<DispatchResult> resultConsumer;
+
+    private final Queue<DispatchAttempt> sendQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Transport> transports;
+    private final ExecutorService executor;
+
+    private final LongAdder sentMails = new LongAdder();
+    private final LongAdder digestMails = new LongAdder();
+    private final LongAdder failedMails = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder deliveredEvents = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final LongAccumulator maxLatencyMillis = new LongAccumulator(Math::max, 0);
+
+    private ObjectName objectName;
+
+    /**
+     * @param retries
+     *            the number of times an event is attempted to be sent before its failure is reported
+     * @param threads
+     *            the number of workers, and so of connections to the mail server
+     * @param digestThreshold
+     *            the number of events queued for the same recipient from which they are sent as a single digest
+     *            e-mail, 0 to send each event in its own e-mail
+     * @param resultConsumer
+     *            called with the result of each event, either sent or failed too many times
+     */
+    SmtpDispatcher(Session session,
+            InternetAddress from,
+            InternetAddress replyTo,
+            String hostName,
+            boolean isBodyHtml,
+            int retries,
+            int threads,
+            int digestThreshold,
+            Consumer<DispatchResult> resultConsumer) throws NoSuchProviderException {
+        this.session = session;
+        this.from = from;
+        this.replyTo = replyTo;
+        this.hostName = hostName;
+        this.isBodyHtml = isBodyHtml;
+        this.retries = retries;
+        this.digestThreshold = digestThreshold;
+        this.resultConsumer = resultConsumer;
+
+        int workers = Math.max(threads, 1);
+        transports = new ArrayBlockingQueue<>(workers);
+        for (int i = 0; i < workers; i++) {
+            transports.add(session.getTransport("smtp"));
+        }
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "smtp-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void registerInJMX() {
+        try {
+            objectName = new ObjectName("SmtpDispatcher:type=" + getClass().getName());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (Exception e) {
+            objectName = null;
+            log.warn("Problem during registration of e-mail dispatcher into JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            if (objectName != null) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.debug("Problem during unregistration of e-mail dispatcher from JMX", e);
+        }
+    }
+
+    void enqueue(AuditLogEvent event, String address) {
+        sendQueue.add(new DispatchAttempt(event, address));
+    }
+
+    /**
+     * Sends all the queued events and waits until their e-mails were sent or failed
+     */
+    void dispatchQueued() {
+        List<DispatchAttempt> attempts = new ArrayList<>();
+        DispatchAttempt queued;
+        while ((queued = sendQueue.poll()) != null) {
+            attempts.add(queued);
+        }
+        if (attempts.isEmpty()) {
+            return;
+        }
+
+        List<OutgoingMail> mails = groupByRecipient(attempts);
+        try {
+            executor.invokeAll(mails);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (OutgoingMail mail : mails) {
+            for (DispatchAttempt attempt : mail.attempts) {
+                if (mail.sent) {
+                    resultConsumer.accept(DispatchResult.success(attempt.event,
+                            attempt.address,
+                            EventNotificationMethod.SMTP));
+                } else if (++attempt.retries >= retries) {
+                    resultConsumer.accept(DispatchResult.failure(attempt.event,
+                            attempt.address,
+                            EventNotificationMethod.SMTP,
+                            mail.error));
+                } else {
+                    sendQueue.add(attempt);
+                }
+            }
+        }
+        log.debug("Dispatched {} events in {} e-mails, {} events queued", attempts.size(), mails.size(), sendQueue.size());
+    }
+
+    /**
+     * Closes the connections to the mail server, stops the workers and unregisters from JMX
+     */
+    void close() {
+        executor.shutdownNow();
+        transports.forEach(this::disconnect);
+        unregisterFromJMX();
+    }
+
+    private List<OutgoingMail> groupByRecipient(List<DispatchAttempt> attempts) {
+        Map<String, List<DispatchAttempt>> attemptsByAddress = new LinkedHashMap<>();
+        for (DispatchAttempt attempt : attempts) {
+            attemptsByAddress.computeIfAbsent(attempt.address, address -> new ArrayList<>()).add(attempt);
+        }
+
+        List<OutgoingMail> mails = new ArrayList<>();
+        attemptsByAddress.forEach((address, recipientAttempts) -> {
+            if (digestThreshold > 0 && recipientAttempts.size() >= digestThreshold) {
+                mails.add(new OutgoingMail(address, recipientAttempts));
+            } else {
+                recipientAttempts.forEach(
+                        attempt -> mails.add(new OutgoingMail(address, Collections.singletonList(attempt))));
+            }
+        });
+        return mails;
+    }
+
+    private void send(OutgoingMail mail) throws InterruptedException {
+        String messageSubject;
+        String messageBody;
+        if (mail.attempts.size() == 1) {
+            EventMessageContent message = new EventMessageContent();
+            message.prepareMessage(hostName, mail.attempts.get(0).event, isBodyHtml);
+            messageSubject = message.getMessageSubject();
+            messageBody = message.getMessageBody();
+        } else {
+            messageSubject = MessageHelper.prepareDigestSubject(hostName, mail.attempts.size());
+            messageBody = prepareDigestBody(mail.attempts);
+        }
+
+        log.info("Sending e-mail subject='{}' to='{}'", messageSubject, mail.address);
+        log.debug("Send e-mail body='{}'", messageBody);
+
+        // there are as many transports as workers, so one is always available
+        Transport transport = transports.take();
+        try {
+            Message msg = createMessage(mail.address, messageSubject, messageBody);
+            if (!transport.isConnected()) {
+                transport.connect();
+                connections.increment();
+            }
+            transport.sendMessage(msg, msg.getAllRecipients());
+            mail.sent = true;
+            log.info("E-mail subject='{}' to='{}' sent successfully", messageSubject, mail.address);
+        } catch (Exception ex) {
+            // the connection may be broken, the next e-mail will reconnect
+            disconnect(transport);
+            mail.error = ex.getMessage();
+            logFailure(mail.address, messageSubject, ex);
+        } finally {
+            transports.add(transport);
+        }
+
+        if (mail.sent) {
+            sentMails.increment();
+            if (mail.attempts.size() > 1) {
+                digestMails.increment();
+            }
+            long now = System.currentTimeMillis();
+            for (DispatchAttempt attempt : mail.attempts) {
+                long latency = now - attempt.queuedMillis;
+                deliveredEvents.increment();
+                totalLatencyMillis.add(latency);
+                maxLatencyMillis.accumulate(latency);
+            }
+        } else {
+            failedMails.increment();
+        }
+    }
+
+    private String prepareDigestBody(List<DispatchAttempt> attempts) {
+        StringBuilder sb = new StringBuilder();
+        for (DispatchAttempt attempt : attempts) {
+            EventMessageContent message = new EventMessageContent();
+            message.prepareMessage(hostName, attempt.event, isBodyHtml);
+            if (isBodyHtml) {
+                sb.append(String.format("<p><b>%s</b><br>%s<hr>",
+                        message.getMessageSubject(),
+                        message.getMessageBody()));
+            } else {
+                sb.append(String.format("%s%n%s%n", message.getMessageSubject(), message.getMessageBody()));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates a message to a recipient, either as a plain text message or as a html message body
+     */
+    private Message createMessage(String recipient, String messageSubject, String messageBody)
+            throws MessagingException {
+        Message msg = new MimeMessage(session);
+        msg.setFrom(from);
+        msg.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+        if (replyTo != null) {
+            msg.setReplyTo(new Address[] { replyTo });
+        }
+        msg.setSubject(messageSubject);
+        if (isBodyHtml) {
+            msg.setContent(String.format("<html><head><title>%s</title></head><body><p>%s</body></html>",
+                    messageSubject,
+                    messageBody), "text/html");
+        } else {
+            msg.setText(messageBody);
+        }
+        msg.setSentDate(new Date());
+        msg.saveChanges();
+        return msg;
+    }
+
+    private void logFailure(String recipient, String messageSubject, Exception ex) {
+        StringBuilder errorMsg = new StringBuilder("Failed to send message ");
+        if (from != null) {
+            errorMsg.append(" from ").append(from.toString());
+        }
+        if (StringUtils.isNotBlank(recipient)) {
+            errorMsg.append(" to ").append(recipient);
+        }
+        if (StringUtils.isNotBlank(messageSubject)) {
+            errorMsg.append(" with subject ").append(messageSubject);
+        }
+        errorMsg.append(" due to to error: ").append(ex.getMessage());
+        log.error(errorMsg.toString(), ex);
+    }
+
+    private void disconnect(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close the connection to the mail server", e);
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return sendQueue.size();
+    }
+
+    @Override
+    public long getSentMailCount() {
+        return sentMails.sum();
+    }
+
+    @Override
+    public long getDigestMailCount() {
+        return digestMails.sum();
+    }
+
+    @Override
+    public long getFailedMailCount() {
+        return failedMails.sum();
+    }
+
+    @Override
+    public long getConnectionCount() {
+        return connections.sum();
+    }
+
+    @Override
+    public long getAverageLatencyMillis() {
+        long delivered = deliveredEvents.sum();
+        return delivered == 0 ? 0 : totalLatencyMillis.sum() / delivered;
+    }
+
+    @Override
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis.get();
+    }
+
+    private static class DispatchAttempt {
+        public final AuditLogEvent event;
+        public final String address;
+        public final long queuedMillis = System.currentTimeMillis();
+        public int retries = 0;
+        private DispatchAttempt(AuditLogEvent event, String address) {
+            this.event = event;
+            this.address = address;
+        }
+    }
+
+    /**
+     * An e-mail sent to a recipient for one event, or for several events as a digest
+     */
+    private class OutgoingMail implements Callable<Void> {
+        private final String address;
+        private final List<DispatchAttempt> attempts;
+        private volatile boolean sent;
+        private volatile String error = "E-mail was not sent";
+
+        private OutgoingMail(String address, List<DispatchAttempt> attempts) {
+            this.address = address;
+            this.attempts = attempts;
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            send(this);
+            return null;
+        }
+    }
+}
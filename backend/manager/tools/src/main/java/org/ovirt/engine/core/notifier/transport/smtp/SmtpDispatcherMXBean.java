@@ -0,0 +1,44 @@
+package org.ovirt.engine.core.notifier.transport.smtp;
+
+/**
+ * The following interface is used as interface for JMX bean of the e-mail dispatcher
+ */
+public interface SmtpDispatcherMXBean {
+
+    /**
+     * The following method will return the number of events waiting to be sent by e-mail
+     */
+    int getQueueDepth();
+
+    /**
+     * The following method will return the number of e-mails sent successfully, a digest counting as one e-mail
+     */
+    long getSentMailCount();
+
+    /**
+     * The following method will return the number of digest e-mails sent, each gathering several events
+     */
+    long getDigestMailCount();
+
+    /**
+     * The following method will return the number of e-mails that failed to be sent
+     */
+    long getFailedMailCount();
+
+    /**
+     * The following method will return the number of connections opened to the mail server
+     */
+    long getConnectionCount();
+
+    /**
+     * The following method will return the average time in milliseconds from queuing an event until its e-mail was
+     * sent
+     */
+    long getAverageLatencyMillis();
+
+    /**
+     * The following method will return the maximal time in milliseconds from queuing an event until its e-mail was
+     * sent
+     */
+    long getMaxLatencyMillis();
+}
@@ -50,6 +50,12 @@ public class NotificationProperties extends ShellLikeConfd {
      */
     public static final String DAYS_TO_SEND_ON_STARTUP = "DAYS_TO_SEND_ON_STARTUP";
 
+    /**
+     * Whether new events are processed as soon as the database notifies they were added, instead of only every
+     * INTERVAL_IN_SECONDS, which is then kept as a fallback.
+     */
+    public static final String LISTEN_FOR_EVENTS = "LISTEN_FOR_EVENTS";
+
     private static final String GENERIC_MESSAGE = "Check configuration file, ";
 
     // Default files for defaults and overridden values:
@@ -18,6 +18,7 @@ public class ShutdownHook extends Thread {
 
     private List<ScheduledExecutorService> schedulers = new LinkedList<>();
     private List<ScheduledFuture<?>> serviceHandlers = new LinkedList<>();
+    private List<Runnable> shutdownTasks = new LinkedList<>();
 
     private static volatile ShutdownHook instance;
 
@@ -45,6 +46,14 @@ public class ShutdownHook extends Thread {
         for (ScheduledExecutorService executer : schedulers) {
             executer.shutdown();
         }
+        for (Runnable shutdownTask : shutdownTasks) {
+            try {
+                shutdownTask.run();
+            } catch (RuntimeException e) {
+                log.warn("Failed to release resources on shutdown: {}", e.getMessage());
+                log.debug("Exception", e);
+            }
+        }
         log.info("Event Notification service was shutdown");
     }
 
@@ -55,4 +64,11 @@ public class ShutdownHook extends Thread {
     public void addServiceHandler(ScheduledFuture<?> serviceHandler) {
         serviceHandlers.add(serviceHandler);
     }
+
+    /**
+     * Adds a task releasing resources, run once the services were stopped
+     */
+    public void addShutdownTask(Runnable shutdownTask) {
+        shutdownTasks.add(shutdownTask);
+    }
 }
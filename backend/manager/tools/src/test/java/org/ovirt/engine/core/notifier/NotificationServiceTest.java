@@ -1,10 +1,32 @@
 package org.ovirt.engine.core.notifier;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.AuditLogSeverity;
+import org.ovirt.engine.core.notifier.dao.EventsListener;
+import org.ovirt.engine.core.notifier.dao.EventsManager;
+import org.ovirt.engine.core.notifier.filter.AuditLogEvent;
+import org.ovirt.engine.core.notifier.filter.FirstMatchSimpleFilter;
+import org.ovirt.engine.core.notifier.transport.Transport;
 import org.ovirt.engine.core.notifier.utils.NotificationProperties;
 
 /**
@@ -12,6 +34,39 @@ import org.ovirt.engine.core.notifier.utils.NotificationProperties;
  */
 public class NotificationServiceTest {
 
+    private static final String EVENT_NAME = "VM_DOWN";
+
+    private static final String TRANSPORT_NAME = "smtp";
+
+    private static final String ADDRESS = "admin@example.com";
+
+    private NotificationProperties prop;
+
+    private EventsManager eventsManager;
+
+    private EventsListener eventsListener;
+
+    private Transport transport;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        prop = mock(NotificationProperties.class);
+        when(prop.getProperty(NotificationService.FILTER)).thenReturn("");
+        when(prop.getLong(NotificationProperties.INTERVAL_IN_SECONDS)).thenReturn(120L);
+
+        eventsManager = mock(EventsManager.class);
+        when(eventsManager.getAuditLogEventSubscribers()).thenReturn(Collections.singletonList(
+                new FirstMatchSimpleFilter.FilterEntry(EVENT_NAME, null, false, TRANSPORT_NAME, ADDRESS)));
+        when(eventsManager.getAuditLogEvents(anyLong(), eq(NotificationService.EVENTS_CHUNK_SIZE)))
+                .thenReturn(Collections.emptyList());
+
+        eventsListener = mock(EventsListener.class);
+
+        transport = mock(Transport.class);
+        when(transport.getName()).thenReturn(TRANSPORT_NAME);
+        when(transport.isActive()).thenReturn(true);
+    }
+
     /**
      * The test executes a notifications for events which haven't been processed until the start of the test.<br>
      * Once those events are notified to the subscribers, they will be marked as processed and won't be send again<br>
@@ -55,4 +110,114 @@ public class NotificationServiceTest {
         // varied configuration files
     }
 
+    /**
+     * Verifies the events are read in chunks, each chunk being read after the last event of the previous one, and the
+     * events of each chunk are marked as processed with a single update.
+     */
+    @Test
+    public void testEventsAreMarkedProcessedOncePerChunk() throws SQLException {
+        List<AuditLogEvent> firstChunk = createEvents(1, NotificationService.EVENTS_CHUNK_SIZE);
+        List<AuditLogEvent> lastChunk = createEvents(NotificationService.EVENTS_CHUNK_SIZE + 1, 2);
+        when(eventsManager.getAuditLogEvents(0, NotificationService.EVENTS_CHUNK_SIZE)).thenReturn(firstChunk);
+        when(eventsManager.getAuditLogEvents(firstChunk.get(firstChunk.size() - 1).getId(),
+                NotificationService.EVENTS_CHUNK_SIZE)).thenReturn(lastChunk);
+
+        createNotificationService(eventsListener).mainLogic();
+
+        verify(transport, times(NotificationService.EVENTS_CHUNK_SIZE + 2)).dispatchEvent(any(), eq(ADDRESS));
+        verify(eventsManager).updateAuditLogEventsProcessed(getIds(firstChunk));
+        verify(eventsManager).updateAuditLogEventsProcessed(getIds(lastChunk));
+        verify(eventsManager, times(2)).updateAuditLogEventsProcessed(any());
+        verify(eventsManager, times(2)).getAuditLogEvents(anyLong(), anyInt());
+    }
+
+    /**
+     * Verifies the events of a chunk dispatched before a failure are marked as processed, so they are not notified
+     * again, while the following events are left to the next processing.
+     */
+    @Test
+    public void testEventsDispatchedBeforeFailureAreMarkedProcessed() throws SQLException {
+        List<AuditLogEvent> events = createEvents(1, 3);
+        when(eventsManager.getAuditLogEvents(0, NotificationService.EVENTS_CHUNK_SIZE)).thenReturn(events);
+        doThrow(new RuntimeException("Failed to dispatch")).when(transport).dispatchEvent(events.get(1), ADDRESS);
+
+        createNotificationService(eventsListener).mainLogic();
+
+        verify(transport, never()).dispatchEvent(events.get(2), ADDRESS);
+        verify(eventsManager).updateAuditLogEventsProcessed(Collections.singletonList(1L));
+        verify(eventsManager, times(1)).updateAuditLogEventsProcessed(any());
+    }
+
+    /**
+     * Verifies the subscribers are reloaded while listening only when their change was notified.
+     */
+    @Test
+    public void testSubscribersAreReloadedOnlyOnChange() throws SQLException {
+        when(eventsListener.isListening()).thenReturn(true);
+        NotificationService notificationService = createNotificationService(eventsListener);
+
+        notificationService.mainLogic();
+        notificationService.mainLogic();
+        verify(eventsManager, times(1)).getAuditLogEventSubscribers();
+
+        notificationService.requestSubscribersReload();
+        notificationService.mainLogic();
+        notificationService.mainLogic();
+        verify(eventsManager, times(2)).getAuditLogEventSubscribers();
+    }
+
+    /**
+     * Verifies the subscribers are reloaded on each processing while not listening, as their changes are not
+     * notified.
+     */
+    @Test
+    public void testSubscribersAreReloadedWhenNotListening() throws SQLException {
+        when(eventsListener.isListening()).thenReturn(false);
+        NotificationService notificationService = createNotificationService(eventsListener);
+
+        notificationService.mainLogic();
+        notificationService.mainLogic();
+
+        verify(eventsManager, times(2)).getAuditLogEventSubscribers();
+    }
+
+    /**
+     * Verifies the subscribers are reloaded after a failed processing, as the filter may have been left incomplete.
+     */
+    @Test
+    public void testSubscribersAreReloadedAfterFailure() throws SQLException {
+        when(eventsListener.isListening()).thenReturn(true);
+        when(eventsManager.getAuditLogEvents(0, NotificationService.EVENTS_CHUNK_SIZE))
+                .thenThrow(new SQLException("Connection refused"))
+                .thenReturn(Collections.emptyList());
+        NotificationService notificationService = createNotificationService(eventsListener);
+
+        notificationService.mainLogic();
+        notificationService.mainLogic();
+        notificationService.mainLogic();
+
+        verify(eventsManager, times(2)).getAuditLogEventSubscribers();
+    }
+
+    private NotificationService createNotificationService(EventsListener eventsListener) {
+        NotificationService notificationService = new NotificationService(prop, eventsManager, eventsListener);
+        notificationService.registerTransport(transport);
+        return notificationService;
+    }
+
+    private static List<AuditLogEvent> createEvents(long firstId, int count) {
+        List<AuditLogEvent> events = new ArrayList<>(count);
+        for (long id = firstId; id < firstId + count; id++) {
+            AuditLogEvent event = new AuditLogEvent();
+            event.setId(id);
+            event.setLogTypeName(EVENT_NAME);
+            event.setSeverity(AuditLogSeverity.NORMAL);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static List<Long> getIds(List<AuditLogEvent> events) {
+        return events.stream().map(AuditLogEvent::getId).collect(Collectors.toList());
+    }
 }
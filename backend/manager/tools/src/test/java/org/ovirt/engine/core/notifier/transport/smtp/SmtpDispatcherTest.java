@@ -0,0 +1,236 @@
+package org.ovirt.engine.core.notifier.transport.smtp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.AuditLogSeverity;
+import org.ovirt.engine.core.notifier.dao.DispatchResult;
+import org.ovirt.engine.core.notifier.filter.AuditLogEvent;
+import org.ovirt.engine.core.notifier.filter.AuditLogEventType;
+
+public class SmtpDispatcherTest {
+
+    private static final String REJECTED_ADDRESS = "rejected@example.com";
+
+    private LocalSmtpServer server;
+    private SmtpDispatcher dispatcher;
+    private List<DispatchResult> results;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new LocalSmtpServer();
+        results = new ArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        server.close();
+    }
+
+    @Test
+    public void testConnectionsAreReused() throws Exception {
+        dispatcher = createDispatcher(1, 2, 0);
+        for (int cycle = 0; cycle < 2; cycle++) {
+            for (int i = 0; i < 10; i++) {
+                dispatcher.enqueue(createEvent("event " + i), "user" + i + "@example.com");
+            }
+            dispatcher.dispatchQueued();
+        }
+
+        assertEquals(20, server.getMessages().size());
+        assertTrue(server.getConnectionCount() <= 2);
+        assertEquals(server.getConnectionCount(), dispatcher.getConnectionCount());
+        assertEquals(20, dispatcher.getSentMailCount());
+        assertEquals(0, dispatcher.getQueueDepth());
+        assertEquals(20, results.size());
+        assertTrue(results.stream().allMatch(DispatchResult::isSuccess));
+    }
+
+    @Test
+    public void testBurstToRecipientIsDigested() throws Exception {
+        dispatcher = createDispatcher(1, 2, 3);
+        for (int i = 0; i < 4; i++) {
+            dispatcher.enqueue(createEvent("burst event " + i), "user@example.com");
+        }
+        dispatcher.enqueue(createEvent("single event"), "other@example.com");
+        dispatcher.dispatchQueued();
+
+        assertEquals(2, server.getMessages().size());
+        String digest = server.getMessages().stream()
+                .filter(message -> message.contains("Event Notifications"))
+                .findAny()
+                .orElse("");
+        for (int i = 0; i < 4; i++) {
+            assertTrue(digest.contains("burst event " + i));
+        }
+        assertFalse(digest.contains("single event"));
+        assertEquals(2, dispatcher.getSentMailCount());
+        assertEquals(1, dispatcher.getDigestMailCount());
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(DispatchResult::isSuccess));
+    }
+
+    @Test
+    public void testFailedMailIsRetried() throws Exception {
+        dispatcher = createDispatcher(2, 2, 0);
+        dispatcher.enqueue(createEvent("rejected event"), REJECTED_ADDRESS);
+        dispatcher.enqueue(createEvent("accepted event"), "user@example.com");
+        dispatcher.dispatchQueued();
+
+        assertEquals(1, server.getMessages().size());
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(1, dispatcher.getQueueDepth());
+
+        dispatcher.dispatchQueued();
+
+        assertEquals(1, server.getMessages().size());
+        assertEquals(2, results.size());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(REJECTED_ADDRESS, results.get(1).getAddress());
+        assertEquals(2, dispatcher.getFailedMailCount());
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    private SmtpDispatcher createDispatcher(int retries, int threads, int digestThreshold) throws Exception {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", server.getHost());
+        props.put("mail.smtp.port", String.valueOf(server.getPort()));
+        return new SmtpDispatcher(Session.getInstance(props),
+                new InternetAddress("engine@example.com"),
+                null,
+                "engine.example.com",
+                false,
+                retries,
+                threads,
+                digestThreshold,
+                results::add);
+    }
+
+    private static AuditLogEvent createEvent(String message) {
+        AuditLogEvent event = new AuditLogEvent();
+        event.setType(AuditLogEventType.alertMessage);
+        event.setMessage(message);
+        event.setSeverity(AuditLogSeverity.NORMAL);
+        event.setLogTime(new Date());
+        return event;
+    }
+
+    /**
+     * A minimal SMTP server accepting all the messages, except those to {@link #REJECTED_ADDRESS}
+     */
+    private static class LocalSmtpServer implements Closeable {
+        private final ServerSocket serverSocket;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger connectionCount = new AtomicInteger();
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+        LocalSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            executor.execute(this::accept);
+        }
+
+        String getHost() {
+            return serverSocket.getInetAddress().getHostAddress();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        int getConnectionCount() {
+            return connectionCount.get();
+        }
+
+        List<String> getMessages() {
+            return messages;
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connectionCount.incrementAndGet();
+                    executor.execute(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket client = socket;
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                    Writer out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder message = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            message.append(line).append('\n');
+                        }
+                        messages.add(message.toString());
+                        reply(out, "250 OK");
+                    } else if (command.startsWith("RCPT") && command.contains(REJECTED_ADDRESS.toUpperCase())) {
+                        reply(out, "550 No such user");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // the client closed the connection
+            }
+        }
+
+        private static void reply(Writer out, String response) throws IOException {
+            out.write(response + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+            executor.shutdownNow();
+        }
+    }
+}
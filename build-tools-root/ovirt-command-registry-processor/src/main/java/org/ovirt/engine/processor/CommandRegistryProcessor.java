@@ -0,0 +1,211 @@
+package org.ovirt.engine.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the registry of the commands and queries of the engine, so they can be created without searching for
+ * their classes and constructors using reflection.
+ * <p>
+ * The processor is enabled by the {@value #ROOT_PACKAGE_OPTION} option, which sets the root package of the commands
+ * and queries. Each package containing commands or queries gets a {@value #FACTORIES_CLASS} class, which registers
+ * each of them with a factory calling its {@code (parameters, context)} constructor. The
+ * {@value #REGISTRY_CLASS} class of the root package calls all of them, in the alphabetical order of the packages.
+ * <p>
+ * A command class has to be a concrete top level subclass of {@value #COMMAND_BASE} named {@code *Command}, a query
+ * class has to be a concrete top level subclass of {@value #QUERY_BASE} named {@code *Query}.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(CommandRegistryProcessor.ROOT_PACKAGE_OPTION)
+public class CommandRegistryProcessor extends AbstractProcessor {
+
+    static final String ROOT_PACKAGE_OPTION = "commandRegistry.rootPackage";
+
+    static final String FACTORIES_CLASS = "GeneratedCommandFactories";
+    static final String REGISTRY_CLASS = "GeneratedCommandRegistry";
+
+    private static final String COMMAND_BASE = "org.ovirt.engine.core.bll.CommandBase";
+    private static final String COMMAND_CONTEXT = "org.ovirt.engine.core.bll.context.CommandContext";
+    private static final String ACTION_PARAMETERS = "org.ovirt.engine.core.common.action.ActionParametersBase";
+    private static final String QUERY_BASE = "org.ovirt.engine.core.bll.QueriesCommandBase";
+    private static final String ENGINE_CONTEXT = "org.ovirt.engine.core.bll.context.EngineContext";
+    private static final String QUERY_PARAMETERS = "org.ovirt.engine.core.common.queries.QueryParametersBase";
+    private static final String COMMAND_REGISTRY = "org.ovirt.engine.core.bll.CommandRegistry";
+
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        String rootPackage = processingEnv.getOptions().get(ROOT_PACKAGE_OPTION);
+        if (rootPackage == null || generated || roundEnv.processingOver()) {
+            return false;
+        }
+
+        Kind command = new Kind("addCommand", "Command", COMMAND_BASE, ACTION_PARAMETERS, COMMAND_CONTEXT);
+        Kind query = new Kind("addQuery", "Query", QUERY_BASE, QUERY_PARAMETERS, ENGINE_CONTEXT);
+        if (command.baseType == null || query.baseType == null) {
+            return false;
+        }
+
+        Map<String, List<String>> registrationsByPackage = new TreeMap<>();
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            String packageName = getElementUtils().getPackageOf(type).getQualifiedName().toString();
+            if (!packageName.equals(rootPackage) && !packageName.startsWith(rootPackage + ".")) {
+                continue;
+            }
+
+            for (Kind kind : new Kind[] { command, query }) {
+                if (kind.matches(type)) {
+                    registrationsByPackage.computeIfAbsent(packageName, k -> new ArrayList<>())
+                            .add(kind.createRegistration(type));
+                }
+            }
+        }
+
+        if (!registrationsByPackage.isEmpty()) {
+            registrationsByPackage.forEach(this::writeFactoriesClass);
+            writeRegistryClass(rootPackage, registrationsByPackage.keySet());
+        }
+        generated = true;
+        return false;
+    }
+
+    private void writeFactoriesClass(String packageName, List<String> registrations) {
+        writeClass(packageName, FACTORIES_CLASS, out -> registrations.forEach(out::println));
+    }
+
+    private void writeRegistryClass(String rootPackage, Set<String> packageNames) {
+        writeClass(rootPackage, REGISTRY_CLASS, out -> packageNames.forEach(packageName -> out.printf(
+                "        %1$s.%2$s.register(registry);%n", packageName, FACTORIES_CLASS)));
+    }
+
+    private void writeClass(String packageName, String className, Consumer<PrintWriter> body) {
+        try (PrintWriter out = new PrintWriter(
+                processingEnv.getFiler().createSourceFile(packageName + "." + className).openWriter())) {
+            out.printf("package %1$s;%n%n", packageName);
+            out.printf("@javax.annotation.processing.Generated(\"%1$s\")%n", getClass().getName());
+            out.printf("public final class %1$s {%n%n", className);
+            out.printf("    private %1$s() {%n    }%n%n", className);
+            out.println("    @SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+            out.printf("    public static void register(%1$s registry) {%n", COMMAND_REGISTRY);
+            body.accept(out);
+            out.printf("    }%n}%n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate " + packageName + "." + className + ": " + e.getMessage());
+        }
+    }
+
+    private Elements getElementUtils() {
+        return processingEnv.getElementUtils();
+    }
+
+    private Types getTypeUtils() {
+        return processingEnv.getTypeUtils();
+    }
+
+    /**
+     * Describes how commands or queries are recognized and registered
+     */
+    private class Kind {
+        private final String registrationMethod;
+        private final String suffix;
+        private final TypeMirror baseType;
+        private final TypeMirror parametersType;
+        private final TypeMirror contextType;
+
+        Kind(String registrationMethod, String suffix, String baseType, String parametersType, String contextType) {
+            this.registrationMethod = registrationMethod;
+            this.suffix = suffix;
+            this.baseType = getErasure(baseType);
+            this.parametersType = getErasure(parametersType);
+            this.contextType = getErasure(contextType);
+        }
+
+        private TypeMirror getErasure(String typeName) {
+            TypeElement type = getElementUtils().getTypeElement(typeName);
+            return type == null ? null : getTypeUtils().erasure(type.asType());
+        }
+
+        boolean matches(TypeElement type) {
+            return type.getKind() == ElementKind.CLASS
+                    && !type.getModifiers().contains(Modifier.ABSTRACT)
+                    && type.getSimpleName().toString().endsWith(suffix)
+                    && getTypeUtils().isSubtype(getTypeUtils().erasure(type.asType()), baseType);
+        }
+
+        /**
+         * Creates the registration of the given type. The factory mimics the former reflective lookup: it calls the
+         * first constructor, in declaration order, accepting the class of the given parameters, and returns
+         * {@code null} if there is none. Only public constructors are called directly, if any of the candidate
+         * constructors is not public the type is registered without a factory, so it is still created by reflection.
+         */
+        String createRegistration(TypeElement type) {
+            String typeName = type.getQualifiedName().toString();
+            String instantiation = type.getTypeParameters().isEmpty() ? typeName : typeName + "<>";
+
+            StringBuilder factory = new StringBuilder("(parameters, context) ->");
+            for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+                TypeMirror constructorParametersType = getConstructorParametersType(constructor);
+                if (constructorParametersType == null) {
+                    continue;
+                }
+                if (!constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                    factory = null;
+                    break;
+                }
+                factory.append(String.format("%n                parameters instanceof %1$s"
+                        + " ? new %2$s((%1$s) parameters, context) :",
+                        constructorParametersType,
+                        instantiation));
+            }
+
+            return String.format("        registry.%1$s(%2$s.class,%n                %3$s);",
+                    registrationMethod,
+                    typeName,
+                    factory == null ? "null" : factory.append(" null"));
+        }
+
+        private TypeMirror getConstructorParametersType(ExecutableElement constructor) {
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (parameters.size() != 2) {
+                return null;
+            }
+
+            TypeMirror constructorParametersType = getTypeUtils().erasure(parameters.get(0).asType());
+            TypeMirror constructorContextType = getTypeUtils().erasure(parameters.get(1).asType());
+            if (!getTypeUtils().isSubtype(constructorParametersType, parametersType)
+                    || !getTypeUtils().isSameType(constructorContextType, contextType)) {
+                return null;
+            }
+            return constructorParametersType;
+        }
+    }
+}
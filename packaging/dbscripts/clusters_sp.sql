@@ -436,6 +436,17 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetClustersByStoragePoolIds (v_storage_pool_ids UUID[])
+RETURNS SETOF cluster_view STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT cluster_view.*
+    FROM cluster_view
+    WHERE storage_pool_id = ANY(v_storage_pool_ids);
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 --This SP returns the VDS group if it has running vms
 CREATE OR REPLACE FUNCTION GetClusterWithRunningVms (v_cluster_id UUID)
 RETURNS SETOF cluster_view STABLE AS $PROCEDURE$
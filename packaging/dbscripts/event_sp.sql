@@ -134,3 +134,54 @@ END;$PROCEDURE$
 LANGUAGE plpgsql;
 
 
+
+----------------------------------------------------------------
+-- Notifications listened to by the event notification service
+--
+-- pg_notify takes a lock shared by the whole database when the transaction commits, so it
+-- serializes the commits of all the transactions that notified. audit_log is inserted into
+-- by most engine flows, so the inserts notify only when a user subscribed to one of the
+-- inserted events, at the cost of a lookup in the small event_subscriber table per statement.
+-- Events matched only by the FILTER of the notifier configuration are dispatched on its
+-- periodic iterations.
+----------------------------------------------------------------
+DROP TRIGGER IF EXISTS notify_audit_log_inserted ON audit_log;
+
+CREATE OR REPLACE FUNCTION fn_notify_audit_log_inserted ()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (
+            SELECT 1
+            FROM inserted_audit_log
+            INNER JOIN event_subscriber
+                ON event_subscriber.event_up_name = inserted_audit_log.log_type_name
+            WHERE NOT inserted_audit_log.processed
+            ) THEN
+        PERFORM pg_notify('audit_log_inserted', '');
+    END IF;
+
+    RETURN NULL;
+END;$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER notify_audit_log_inserted AFTER
+INSERT ON audit_log
+REFERENCING NEW TABLE AS inserted_audit_log
+FOR EACH STATEMENT
+EXECUTE FUNCTION fn_notify_audit_log_inserted();
+
+DROP TRIGGER IF EXISTS notify_event_subscriber_changed ON event_subscriber;
+
+CREATE OR REPLACE FUNCTION fn_notify_event_subscriber_changed ()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('event_subscriber_changed', '');
+
+    RETURN NULL;
+END;$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER notify_event_subscriber_changed AFTER
+INSERT OR UPDATE OR DELETE ON event_subscriber
+FOR EACH STATEMENT
+EXECUTE FUNCTION fn_notify_event_subscriber_changed();
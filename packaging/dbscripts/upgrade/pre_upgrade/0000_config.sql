@@ -897,6 +897,31 @@ select fn_db_add_config_value('NumOfPciExpressPorts', '16', 'general');
 
 select fn_db_add_config_value('SetupNetworksWaitTimeoutSeconds', '20', 'general');
 
+-- VM statistics persistence
+select fn_db_add_config_value('VmStatisticsFlushIntervalInMillis', '5000', 'general');
+select fn_db_add_config_value('VmStatisticsFlushBatchSize', '1000', 'general');
+select fn_db_add_config_value('VmStatisticsMaxPendingVms', '20000', 'general');
+select fn_db_add_config_value('VmStatisticsMaxSkippedSaves', '10', 'general');
+select fn_db_add_config_value('VmStatsMaxSkippedAnalyses', '0', 'general');
+
+-- Host statistics refresh
+select fn_db_add_config_value('HostStatisticsMaxBackoffFactor', '1', 'general');
+select fn_db_add_config_value('HostStatisticsBackoffMaxCpuUsage', '50', 'general');
+
+-- Search
+select fn_db_add_config_value('SearchQueryPlanCacheSize', '1000', 'general');
+
+-- Scheduling
+select fn_db_add_config_value('SchedulingParallelEvaluation', 'false', 'general');
+
+-- Gluster refresh
+select fn_db_add_config_value('GlusterRefreshFullSyncCycles', '20', 'general');
+select fn_db_add_config_value('GlusterRefreshMaxConcurrentClusters', '4', 'general');
+
+-- Audit log persistence
+select fn_db_add_config_value('AuditLogWriteQueueCapacity', '10000', 'general');
+select fn_db_add_config_value('AuditLogWriteBatchSize', '500', 'general');
+
 -- Sku -> Version mapping for Windows Update
 select fn_db_add_config_value_for_versions_up_to('SkuToAVLevel', '', '4.6');
 
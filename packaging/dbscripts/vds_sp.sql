@@ -1320,6 +1320,24 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetVdsByClusterIdsAndStatus (
+    v_cluster_ids UUID[],
+    v_status INT
+    )
+RETURNS SETOF vds STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT vds.*
+    FROM vds
+    WHERE status = v_status
+        AND cluster_id = ANY(v_cluster_ids)
+    ORDER BY vds.vds_id ASC;
+
+    RETURN;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 -- Returns all gluster VDS for a given cluster and having given status, peer status
 CREATE OR REPLACE FUNCTION getVdsForClusterWithPeerStatus (
     v_cluster_id UUID,